@@ -0,0 +1,463 @@
+package org.example.DAO;
+
+import org.example.entities.AdjuntoAnimal;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Almacén en disco de las fotos y documentos de los animales. Cada contenido se guarda una sola vez
+ * en {@code contenido/ab/cd/<sha-256>} bajo el directorio raíz y en la base de datos solo quedan los
+ * metadatos ({@link AdjuntoAnimal}), por lo que la tabla {@code animales} no crece con los ficheros.
+ * <p>
+ * Las subidas se leen de un canal por bloques, calculando el resumen a la vez que se escriben en un
+ * fichero temporal que después se mueve a su ruta definitiva; si el contenido ya existía, el temporal
+ * se descarta. Las descargas se sirven con {@link FileChannel#transferTo}, sin copiar los datos a la
+ * memoria de la aplicación. Las miniaturas de las imágenes se generan en segundo plano en un conjunto
+ * acotado de hilos; si la cola está llena la miniatura se descarta y se genera la próxima vez que se pida.
+ * <p>
+ * Mientras está abierto, el almacén queda asociado a su SessionFactory: cuando {@link AnimalesImpl}
+ * o {@link FamiliaImpl} eliminan animales, se eliminan sus adjuntos y los ficheros que nadie más
+ * comparte. Los animales archivados por {@link ArchivadorAnimales} conservan su identificador y sus
+ * adjuntos.
+ */
+public class AlmacenAdjuntos implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(AlmacenAdjuntos.class.getName());
+
+    /** Lado mayor, en píxeles, de las miniaturas. */
+    static final int LADO_MINIATURA = 160;
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private static final Map<SessionFactory, AlmacenAdjuntos> ACTIVOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Buffers directos libres para las subidas. Se reutilizan entre hilos, así que su número no
+     * depende de cuántos hilos, virtuales o no, suban ficheros: si no queda ninguno libre se crea
+     * uno, y al devolverlo solo se conserva si cabe en la cola.
+     */
+    private final BlockingQueue<ByteBuffer> buffers = new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private final SessionFactory sessionFactory;
+    private final Path contenido;
+    private final Path miniaturas;
+    private final Path temporales;
+    private final ThreadPoolExecutor trabajadores;
+
+    /** Miniaturas en curso, para no generar dos veces la misma. */
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Cerrojos por resumen que impiden borrar un fichero mientras otra subida lo está reutilizando.
+     * Protegen solo dentro de esta JVM.
+     */
+    private final Object[] cerrojos = new Object[64];
+
+    /**
+     * Crea el almacén sobre un directorio, creando su estructura si no existe.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param raiz Directorio raíz del almacén.
+     * @param hilosMiniaturas Número de hilos que generan miniaturas.
+     * @param colaMiniaturas Número máximo de miniaturas en espera.
+     * @throws IOException Si no se pueden crear los directorios.
+     */
+    public AlmacenAdjuntos(SessionFactory sessionFactory, Path raiz, int hilosMiniaturas, int colaMiniaturas) throws IOException {
+        this.sessionFactory = sessionFactory;
+        this.contenido = Files.createDirectories(raiz.resolve("contenido"));
+        this.miniaturas = Files.createDirectories(raiz.resolve("miniaturas"));
+        this.temporales = Files.createDirectories(raiz.resolve("tmp"));
+        for (int i = 0; i < cerrojos.length; i++) {
+            cerrojos[i] = new Object();
+        }
+        AtomicInteger numero = new AtomicInteger();
+        this.trabajadores = new ThreadPoolExecutor(hilosMiniaturas, hilosMiniaturas, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(colaMiniaturas), tarea -> {
+            Thread hilo = new Thread(tarea, "miniaturas-adjuntos-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        ACTIVOS.put(sessionFactory, this);
+    }
+
+    /**
+     * Obtiene el almacén abierto sobre una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return El almacén, o {@code null} si no hay ninguno abierto.
+     */
+    public static AlmacenAdjuntos de(SessionFactory sessionFactory) {
+        return ACTIVOS.get(sessionFactory);
+    }
+
+    /**
+     * Guarda un adjunto de un animal leyendo su contenido del canal hasta el final. Si es una imagen,
+     * encarga su miniatura en segundo plano.
+     *
+     * @param animalId Identificador del animal.
+     * @param nombreArchivo Nombre original del fichero.
+     * @param tipoContenido Tipo MIME del contenido.
+     * @param origen Canal del que se lee el contenido; no se cierra.
+     * @return Los metadatos del adjunto guardado.
+     * @throws IOException Si falla la lectura del canal o la escritura en disco.
+     * @throws HibernateException Si no se pueden guardar los metadatos.
+     */
+    public AdjuntoAnimal guardar(long animalId, String nombreArchivo, String tipoContenido, ReadableByteChannel origen) throws IOException {
+        Path temporal = Files.createTempFile(temporales, "subida-", ".tmp");
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+        }
+        try {
+            MessageDigest sha = sha256();
+            long tamaño = 0;
+            try (FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                buffer.clear();
+                while (origen.read(buffer) != -1) {
+                    buffer.flip();
+                    buffer.mark();
+                    sha.update(buffer);
+                    buffer.reset();
+                    while (buffer.hasRemaining()) {
+                        tamaño += destino.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                destino.force(false);
+            }
+            buffers.offer(buffer);
+            buffer = null;
+            String resumen = hexadecimal(sha.digest());
+            AdjuntoAnimal adjunto = new AdjuntoAnimal(animalId, resumen, nombreArchivo, tipoContenido, tamaño);
+            synchronized (cerrojo(resumen)) {
+                Path ruta = ruta(resumen);
+                boolean nuevo = !Files.exists(ruta);
+                if (nuevo) {
+                    Files.createDirectories(ruta.getParent());
+                    Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    Files.delete(temporal);
+                }
+                try {
+                    persistir(adjunto);
+                } catch (HibernateException e) {
+                    // Con el cerrojo tomado nadie más ha podido empezar a usar el fichero recién movido
+                    if (nuevo) {
+                        Files.deleteIfExists(ruta);
+                    }
+                    throw e;
+                }
+            }
+            if (adjunto.esImagen()) {
+                miniatura(adjunto);
+            }
+            return adjunto;
+        } finally {
+            if (buffer != null) {
+                buffers.offer(buffer);
+            }
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Busca los metadatos de un adjunto.
+     *
+     * @param id Identificador del adjunto.
+     * @return El adjunto, o {@code null} si no existe.
+     * @throws HibernateException Si ocurre un error en la consulta.
+     */
+    public AdjuntoAnimal buscar(long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.get(AdjuntoAnimal.class, id);
+        } catch (HibernateException e) {
+            throw new HibernateException("No se pudo encontrar el adjunto con ID: " + id, e);
+        }
+    }
+
+    /**
+     * Obtiene los adjuntos de un animal, en orden de subida.
+     *
+     * @param animalId Identificador del animal.
+     * @return Lista de adjuntos del animal.
+     * @throws HibernateException Si ocurre un error en la consulta.
+     */
+    public List<AdjuntoAnimal> adjuntosDe(long animalId) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createNamedQuery(AdjuntoAnimal.BUSCAR_POR_ANIMAL, AdjuntoAnimal.class)
+                    .setParameter("animalId", animalId)
+                    .list();
+        } catch (HibernateException e) {
+            throw new HibernateException("No se pudieron obtener los adjuntos del animal con ID: " + animalId, e);
+        }
+    }
+
+    /**
+     * Envía el contenido de un adjunto a un canal con {@link FileChannel#transferTo}, que en la
+     * mayoría de sistemas copia del fichero al socket sin pasar por la memoria de la aplicación.
+     *
+     * @param adjunto Adjunto a enviar.
+     * @param destino Canal de destino; no se cierra.
+     * @return Número de bytes enviados.
+     * @throws IOException Si falla la lectura del fichero o la escritura en el canal.
+     */
+    public long enviar(AdjuntoAnimal adjunto, WritableByteChannel destino) throws IOException {
+        return transferir(ruta(adjunto.getResumen()), destino);
+    }
+
+    /**
+     * Obtiene la miniatura de una imagen, generándola en segundo plano si aún no existe.
+     *
+     * @param adjunto Adjunto de tipo imagen.
+     * @return Futuro con la ruta de la miniatura; falla si la imagen no se puede leer o si la cola
+     * de miniaturas está llena.
+     */
+    public CompletableFuture<Path> miniatura(AdjuntoAnimal adjunto) {
+        String resumen = adjunto.getResumen();
+        Path ruta = rutaMiniatura(resumen);
+        if (Files.exists(ruta)) {
+            return CompletableFuture.completedFuture(ruta);
+        }
+        CompletableFuture<Path> nueva = new CompletableFuture<>();
+        CompletableFuture<Path> existente = pendientes.putIfAbsent(resumen, nueva);
+        if (existente != null) {
+            return existente;
+        }
+        nueva.whenComplete((r, e) -> pendientes.remove(resumen, nueva));
+        try {
+            trabajadores.execute(() -> {
+                try {
+                    generarMiniatura(ruta(resumen), ruta);
+                    nueva.complete(ruta);
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(Level.WARNING, "No se pudo generar la miniatura de " + resumen, e);
+                    nueva.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.fine(() -> "Cola de miniaturas llena, se descarta " + resumen);
+            nueva.completeExceptionally(e);
+        }
+        return nueva;
+    }
+
+    /**
+     * Elimina un adjunto. El fichero y su miniatura solo se borran si ningún otro adjunto comparte
+     * el mismo contenido.
+     *
+     * @param id Identificador del adjunto.
+     * @return {@code true} si el adjunto se eliminó, {@code false} si no existía.
+     * @throws IOException Si no se puede borrar el fichero.
+     * @throws HibernateException Si ocurre un error al eliminar los metadatos.
+     */
+    public boolean eliminar(long id) throws IOException {
+        AdjuntoAnimal adjunto = buscar(id);
+        if (adjunto == null) {
+            return false;
+        }
+        String resumen = adjunto.getResumen();
+        synchronized (cerrojo(resumen)) {
+            long restantes;
+            try (Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                try {
+                    int eliminados = session.createMutationQuery("DELETE FROM AdjuntoAnimal WHERE id = :id")
+                            .setParameter("id", id)
+                            .executeUpdate();
+                    restantes = session.createNamedQuery(AdjuntoAnimal.CONTAR_POR_RESUMEN, Long.class)
+                            .setParameter("resumen", resumen)
+                            .getSingleResult();
+                    tx.commit();
+                    if (eliminados == 0) {
+                        return false;
+                    }
+                } catch (HibernateException e) {
+                    tx.rollback();
+                    throw new HibernateException("No se pudo eliminar el adjunto con ID: " + id, e);
+                }
+            }
+            if (restantes == 0) {
+                Files.deleteIfExists(ruta(resumen));
+                Files.deleteIfExists(rutaMiniatura(resumen));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Elimina los adjuntos de unos animales eliminados, y los ficheros que ningún otro adjunto
+     * comparte. Se llama tras confirmar su eliminación; los errores se registran sin propagarse,
+     * porque los animales ya no se pueden recuperar.
+     *
+     * @param animales Identificadores de los animales retirados.
+     */
+    void eliminarDeAnimales(Collection<Long> animales) {
+        List<String> resumenes;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                resumenes = session.createQuery("SELECT DISTINCT a.resumen FROM AdjuntoAnimal a WHERE a.animalId IN :ids", String.class)
+                        .setParameterList("ids", animales)
+                        .list();
+                if (!resumenes.isEmpty()) {
+                    session.createMutationQuery("DELETE FROM AdjuntoAnimal WHERE animalId IN :ids")
+                            .setParameterList("ids", animales)
+                            .executeUpdate();
+                }
+                tx.commit();
+            } catch (HibernateException e) {
+                tx.rollback();
+                LOG.log(Level.WARNING, "No se pudieron eliminar los adjuntos de " + animales.size() + " animales", e);
+                return;
+            }
+        }
+        for (String resumen : resumenes) {
+            synchronized (cerrojo(resumen)) {
+                try (Session session = sessionFactory.openSession()) {
+                    long restantes = session.createNamedQuery(AdjuntoAnimal.CONTAR_POR_RESUMEN, Long.class)
+                            .setParameter("resumen", resumen)
+                            .getSingleResult();
+                    if (restantes == 0) {
+                        Files.deleteIfExists(ruta(resumen));
+                        Files.deleteIfExists(rutaMiniatura(resumen));
+                    }
+                } catch (HibernateException | IOException e) {
+                    LOG.log(Level.WARNING, "No se pudo eliminar el fichero " + resumen, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ruta en disco del contenido con el resumen indicado.
+     *
+     * @param resumen Resumen SHA-256 en hexadecimal.
+     * @return La ruta del fichero.
+     */
+    public Path ruta(String resumen) {
+        return contenido.resolve(resumen.substring(0, 2)).resolve(resumen.substring(2, 4)).resolve(resumen);
+    }
+
+    /**
+     * Ruta en disco de la miniatura del contenido con el resumen indicado.
+     *
+     * @param resumen Resumen SHA-256 en hexadecimal.
+     * @return La ruta de la miniatura, exista o no.
+     */
+    public Path rutaMiniatura(String resumen) {
+        return miniaturas.resolve(resumen.substring(0, 2)).resolve(resumen.substring(2, 4)).resolve(resumen + ".png");
+    }
+
+    /**
+     * Detiene los hilos de miniaturas y deja de seguir las eliminaciones de animales; las
+     * miniaturas que ya estaban en cola se terminan.
+     */
+    @Override
+    public void close() {
+        ACTIVOS.remove(sessionFactory, this);
+        trabajadores.shutdown();
+    }
+
+    private void persistir(AdjuntoAnimal adjunto) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                session.persist(adjunto);
+                tx.commit();
+            } catch (HibernateException e) {
+                tx.rollback();
+                throw new HibernateException("No se pudo guardar el adjunto del animal con ID: " + adjunto.getAnimalId(), e);
+            }
+        }
+    }
+
+    private void generarMiniatura(Path original, Path destino) throws IOException {
+        BufferedImage imagen = ImageIO.read(original.toFile());
+        if (imagen == null) {
+            throw new IOException("Formato de imagen no soportado: " + original.getFileName());
+        }
+        double escala = Math.min(1.0, (double) LADO_MINIATURA / Math.max(imagen.getWidth(), imagen.getHeight()));
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * escala));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * escala));
+        BufferedImage miniatura = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D grafico = miniatura.createGraphics();
+        try {
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.drawImage(imagen, 0, 0, ancho, alto, null);
+        } finally {
+            grafico.dispose();
+        }
+        Path temporal = Files.createTempFile(temporales, "miniatura-", ".png");
+        try {
+            ImageIO.write(miniatura, "png", temporal.toFile());
+            Files.createDirectories(destino.getParent());
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static long transferir(Path ruta, WritableByteChannel destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tamaño = canal.size();
+            long enviados = 0;
+            while (enviados < tamaño) {
+                enviados += canal.transferTo(enviados, tamaño - enviados, destino);
+            }
+            return enviados;
+        }
+    }
+
+    private Object cerrojo(String resumen) {
+        return cerrojos[Integer.parseInt(resumen.substring(0, 2), 16) % cerrojos.length];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String hexadecimal(byte[] bytes) {
+        StringBuilder texto = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            texto.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return texto.toString();
+    }
+}
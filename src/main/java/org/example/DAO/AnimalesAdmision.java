@@ -0,0 +1,116 @@
+package org.example.DAO;
+
+import org.example.DAO.ControlAdmision.ClaseCarga;
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO de animales que pasa cada operación por un {@link ControlAdmision} antes de delegarla. Las
+ * búsquedas por especie, edad o filtro son lecturas interactivas; las altas, modificaciones y bajas
+ * individuales, escrituras; y los listados completos, las búsquedas por descripción (un
+ * {@code LIKE '%...%'} que recorre la tabla), las consultas que incluyen el archivo y las bajas en
+ * bloque, informes.
+ * <p>
+ * El control de admisión se comparte entre todos los DAOs de la aplicación; el DAO delegado, como
+ * siempre, pertenece a una sola sesión.
+ */
+public class AnimalesAdmision implements AnimalesInt {
+
+    private final AnimalesInt delegado;
+    private final ControlAdmision control;
+
+    /**
+     * Constructor que recibe el DAO real y el control de admisión compartido.
+     *
+     * @param delegado DAO que ejecuta las operaciones.
+     * @param control Control de admisión de la aplicación.
+     */
+    public AnimalesAdmision(AnimalesInt delegado, ControlAdmision control) {
+        this.delegado = delegado;
+        this.control = control;
+    }
+
+    @Override
+    public List<Animales> obtenerTodos() {
+        return control.ejecutar(ClaseCarga.INFORME, delegado::obtenerTodos);
+    }
+
+    @Override
+    public List<Animales> buscarPorEspecie(String especie) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorEspecie(especie));
+    }
+
+    @Override
+    public List<Animales> buscarPorEdad(int edad) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorEdad(edad));
+    }
+
+    @Override
+    public List<Animales> buscarPorDescripcion(String descripcion) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.buscarPorDescripcion(descripcion));
+    }
+
+    @Override
+    public List<Animales> buscarPorEspecie(String especie, boolean conFamilia) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorEspecie(especie, conFamilia));
+    }
+
+    @Override
+    public List<Animales> buscarPorEdad(int edad, boolean conFamilia) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorEdad(edad, conFamilia));
+    }
+
+    @Override
+    public List<Animales> buscarPorDescripcion(String descripcion, boolean conFamilia) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.buscarPorDescripcion(descripcion, conFamilia));
+    }
+
+    @Override
+    public List<Animales> buscar(FiltroAnimales filtro) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscar(filtro));
+    }
+
+    @Override
+    public Animales guardar(Animales animal) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.guardar(animal));
+    }
+
+    @Override
+    public Animales actualizar(Animales animal) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.actualizar(animal));
+    }
+
+    @Override
+    public boolean eliminarPorId(Long id) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.eliminarPorId(id));
+    }
+
+    @Override
+    public int eliminarPorIds(Collection<Long> ids) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.eliminarPorIds(ids));
+    }
+
+    @Override
+    public int purgarPorEstado(Estado estado) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.purgarPorEstado(estado));
+    }
+
+    @Override
+    public int purgarAnterioresA(LocalDateTime fecha) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.purgarAnterioresA(fecha));
+    }
+
+    @Override
+    public List<Animales> buscarPorEspecieIncluyendoArchivo(String especie) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.buscarPorEspecieIncluyendoArchivo(especie));
+    }
+
+    @Override
+    public List<Animales> buscarPorEdadIncluyendoArchivo(int edad) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.buscarPorEdadIncluyendoArchivo(edad));
+    }
+}
@@ -1,22 +1,52 @@
 package org.example.DAO;
 
+import org.example.entities.AnimalArchivado;
 import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.example.util.ContadoresOcupacion;
+import org.example.util.EnrutadorLecturas;
+import org.example.util.FirmaTrigramas;
+import org.example.util.TextoNormalizado;
+import org.example.util.VersionDatos;
+import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Implementación de la interfaz AnimalesInt para gestionar operaciones CRUD con Hibernate.
  * Esta clase se encarga de la gestión de los animales en la base de datos a través de Hibernate.
  * Proporciona métodos para realizar operaciones de obtención, búsqueda, inserción, actualización y eliminación.
+ * Las consultas se marcan como lecturas con {@link EnrutadorLecturas} para que puedan servirse desde una réplica.
  *
  * @author Lucas
  */
 public class AnimalesImpl implements AnimalesInt {
 
+    /** Número máximo de filas que se eliminan en cada sentencia y transacción de las operaciones masivas. */
+    static final int TAMANO_LOTE = 1000;
+
+    /** Consulta nativa con el identificador y la firma de trigramas de los animales con detalles comprimidos. */
+    static final String FIRMAS_COMPRIMIDOS = "SELECT id, detalles_firma FROM animales WHERE detalles_firma IS NOT NULL";
+
+    /** Consulta con el identificador y los detalles, ya descomprimidos, de los animales indicados (parámetro {@code ids}). */
+    static final String DETALLES_POR_ID = "SELECT a.id, a.detalles FROM Animales a WHERE a.id IN :ids";
+
+    /** Consulta con los animales indicados (parámetro {@code ids}). */
+    static final String ANIMALES_POR_ID = "FROM Animales WHERE id IN :ids";
+
     private final Session session;
+    private CargadorFamilias cargadorFamilias;
 
     /**
      * Constructor que recibe una sesión de Hibernate.
@@ -34,7 +64,8 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public List<Animales> obtenerTodos() {
-        return session.createQuery("FROM Animales", Animales.class).list();
+        return EnrutadorLecturas.enLectura(session, () ->
+                session.createNamedQuery(Animales.OBTENER_TODOS, Animales.class).list());
     }
 
     /**
@@ -45,9 +76,10 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public List<Animales> buscarPorEspecie(String especie) {
-        return session.createQuery("FROM Animales WHERE especie = :especie", Animales.class)
-                .setParameter("especie", especie)
-                .list();
+        return EnrutadorLecturas.enLectura(session, () ->
+                session.createNamedQuery(Animales.BUSCAR_POR_ESPECIE, Animales.class)
+                        .setParameter("especie", especie)
+                        .list());
     }
 
     /**
@@ -58,22 +90,124 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public List<Animales> buscarPorEdad(int edad) {
-        return session.createQuery("FROM Animales WHERE edad = :edad", Animales.class)
-                .setParameter("edad", edad)
-                .list();
+        return EnrutadorLecturas.enLectura(session, () ->
+                session.createNamedQuery(Animales.BUSCAR_POR_EDAD, Animales.class)
+                        .setParameter("edad", edad)
+                        .list());
     }
 
     /**
-     * Busca animales que contengan un texto específico en su descripción.
+     * Busca animales que contengan un texto específico en su descripción. Los detalles sin comprimir
+     * se filtran con {@code LIKE} en la base de datos; de los comprimidos solo se leen y descomprimen
+     * los que pasan el filtro de su firma de trigramas, y se comparan con el texto normalizado con
+     * {@link TextoNormalizado} (sin distinguir mayúsculas ni tildes).
      *
      * @param descripcion Texto a buscar dentro de la descripción.
-     * @return Lista de animales con descripciones que coincidan con el criterio proporcionado.
+     * @return Lista de animales con descripciones que coincidan con el criterio proporcionado: primero
+     *         los de detalles sin comprimir y después los de detalles comprimidos.
      */
     @Override
     public List<Animales> buscarPorDescripcion(String descripcion) {
-        return session.createQuery("FROM Animales WHERE descripcion LIKE :descripcion", Animales.class)
-                .setParameter("descripcion", "%" + descripcion + "%")
-                .list();
+        return EnrutadorLecturas.enLectura(session, () -> {
+            List<Animales> animales = new ArrayList<>(session.createNamedQuery(Animales.BUSCAR_POR_DESCRIPCION, Animales.class)
+                    .setParameter("descripcion", "%" + descripcion + "%")
+                    .list());
+            List<Long> candidatos = candidatos(session.createNativeQuery(FIRMAS_COMPRIMIDOS, Object[].class).list(), descripcion);
+            for (List<Long> lote : lotes(candidatos)) {
+                List<Long> encontrados = coincidentes(session.createQuery(DETALLES_POR_ID, Object[].class)
+                        .setParameter("ids", lote)
+                        .list(), descripcion);
+                if (!encontrados.isEmpty()) {
+                    animales.addAll(session.createQuery(ANIMALES_POR_ID, Animales.class)
+                            .setParameter("ids", encontrados)
+                            .list());
+                }
+            }
+            return animales;
+        });
+    }
+
+    /**
+     * Busca animales por especie, cargando opcionalmente sus familias en bloque.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @param conFamilia {@code true} para cargar las familias de todos los animales con una sola consulta.
+     * @return Lista de animales que coincidan con la especie especificada.
+     */
+    @Override
+    public List<Animales> buscarPorEspecie(String especie, boolean conFamilia) {
+        return EnrutadorLecturas.enLectura(session, () -> conFamilias(buscarPorEspecie(especie), conFamilia));
+    }
+
+    /**
+     * Busca animales por edad, cargando opcionalmente sus familias en bloque.
+     *
+     * @param edad Edad de los animales a buscar.
+     * @param conFamilia {@code true} para cargar las familias de todos los animales con una sola consulta.
+     * @return Lista de animales que tengan la edad especificada.
+     */
+    @Override
+    public List<Animales> buscarPorEdad(int edad, boolean conFamilia) {
+        return EnrutadorLecturas.enLectura(session, () -> conFamilias(buscarPorEdad(edad), conFamilia));
+    }
+
+    /**
+     * Busca animales por descripción, cargando opcionalmente sus familias en bloque.
+     *
+     * @param descripcion Texto a buscar dentro de la descripción.
+     * @param conFamilia {@code true} para cargar las familias de todos los animales con una sola consulta.
+     * @return Lista de animales con descripciones que coincidan con el criterio proporcionado.
+     */
+    @Override
+    public List<Animales> buscarPorDescripcion(String descripcion, boolean conFamilia) {
+        return EnrutadorLecturas.enLectura(session, () -> conFamilias(buscarPorDescripcion(descripcion), conFamilia));
+    }
+
+    /**
+     * Busca animales que cumplan todos los criterios del filtro.
+     *
+     * @param filtro Criterios de búsqueda y ordenación.
+     * @return Lista de animales que cumplen el filtro.
+     */
+    @Override
+    public List<Animales> buscar(FiltroAnimales filtro) {
+        return EnrutadorLecturas.enLectura(session, () -> filtro.crearConsulta(session).list());
+    }
+
+    /**
+     * Busca animales por especie en la tabla activa y en el archivo.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @return Lista con los animales activos seguidos de los archivados.
+     */
+    @Override
+    public List<Animales> buscarPorEspecieIncluyendoArchivo(String especie) {
+        return EnrutadorLecturas.enLectura(session, () -> {
+            List<Animales> animales = new ArrayList<>(buscarPorEspecie(especie));
+            session.createNamedQuery(AnimalArchivado.BUSCAR_POR_ESPECIE, AnimalArchivado.class)
+                    .setParameter("especie", especie)
+                    .list()
+                    .forEach(archivado -> animales.add(desarchivar(archivado)));
+            return animales;
+        });
+    }
+
+    /**
+     * Busca animales por edad en la tabla activa y en el archivo.
+     *
+     * @param edad Edad de los animales a buscar.
+     * @return Lista con los animales activos seguidos de los archivados.
+     */
+    @Override
+    public List<Animales> buscarPorEdadIncluyendoArchivo(int edad) {
+        return EnrutadorLecturas.enLectura(session, () -> {
+            List<Animales> animales = new ArrayList<>(buscarPorEdad(edad));
+            session.createNamedQuery(AnimalArchivado.BUSCAR_POR_EDAD, AnimalArchivado.class)
+                    .setParameter("edad", edad)
+                    .list()
+                    .forEach(archivado -> animales.add(desarchivar(archivado)));
+            return animales;
+        });
     }
 
     /**
@@ -85,10 +219,13 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public Animales guardar(Animales animal) {
+        EnrutadorLecturas.marcarEscritura(session);
         Transaction tx = session.beginTransaction();
         try {
             session.save(animal);
+            Situacion situacion = Situacion.de(animal);
             tx.commit();
+            trasGuardar(session.getSessionFactory(), animal, situacion);
             return animal;
         } catch (HibernateException e) {
             tx.rollback();
@@ -105,10 +242,16 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public Animales actualizar(Animales animal) {
+        EnrutadorLecturas.marcarEscritura(session);
         Transaction tx = session.beginTransaction();
         try {
+            SessionFactory sessionFactory = session.getSessionFactory();
+            boolean seguido = ContadoresOcupacion.de(sessionFactory) != null || HistorialAnimales.de(sessionFactory) != null;
+            Situacion antes = seguido ? situacionGuardada(animal.getId()) : null;
             session.update(animal);
+            Situacion despues = Situacion.de(animal);
             tx.commit();
+            trasActualizar(sessionFactory, animal, antes, despues);
             return animal;
         } catch (HibernateException e) {
             tx.rollback();
@@ -125,18 +268,357 @@ public class AnimalesImpl implements AnimalesInt {
      */
     @Override
     public boolean eliminarPorId(Long id) {
+        EnrutadorLecturas.marcarEscritura(session);
         Transaction tx = session.beginTransaction();
         try {
             Animales animal = session.get(Animales.class, id);
             if (animal != null) {
+                ContadoresOcupacion contadores = ContadoresOcupacion.de(session.getSessionFactory());
+                ContadoresOcupacion.Clave antes = contadores != null ? Situacion.de(animal).clave() : null;
                 session.delete(animal);
                 tx.commit();
+                if (contadores != null) {
+                    contadores.mover(antes, null, 1);
+                }
+                trasEliminar(session.getSessionFactory(), Collections.singletonList(id));
                 return true;
             }
+            tx.rollback();
             return false;
         } catch (HibernateException e) {
             tx.rollback();
             throw new HibernateException("Error al eliminar el animal.", e);
         }
     }
+
+    /**
+     * Elimina varios animales por lotes de {@value #TAMANO_LOTE}, cada lote en su propia transacción,
+     * o todos en la de quien llama si ya hay una en curso.
+     *
+     * @param ids Identificadores de los animales a eliminar.
+     * @return Número de animales eliminados.
+     * @throws HibernateException Si ocurre un error durante la eliminación.
+     */
+    @Override
+    public int eliminarPorIds(Collection<Long> ids) {
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        int eliminados = 0;
+        for (int desde = 0; desde < distintos.size(); desde += TAMANO_LOTE) {
+            eliminados += eliminarLote(distintos.subList(desde, Math.min(desde + TAMANO_LOTE, distintos.size())));
+        }
+        reconciliarOcupacion(eliminados);
+        return eliminados;
+    }
+
+    /**
+     * Elimina por lotes los animales que se encuentran en el estado indicado.
+     *
+     * @param estado Estado de los animales a eliminar.
+     * @return Número de animales eliminados.
+     * @throws HibernateException Si ocurre un error durante la eliminación.
+     */
+    @Override
+    public int purgarPorEstado(Estado estado) {
+        return purgar("a.estado = :valor", estado);
+    }
+
+    /**
+     * Elimina por lotes los animales que ingresaron antes de la fecha indicada.
+     *
+     * @param fecha Fecha límite de ingreso.
+     * @return Número de animales eliminados.
+     * @throws HibernateException Si ocurre un error durante la eliminación.
+     */
+    @Override
+    public int purgarAnterioresA(LocalDateTime fecha) {
+        return purgar("a.fechaIngreso < :valor", fecha);
+    }
+
+    /**
+     * Selecciona lotes de identificadores que cumplen la condición y los elimina hasta agotarlos.
+     * Solo se leen identificadores, nunca entidades completas.
+     */
+    private int purgar(String condicion, Object valor) {
+        int eliminados = 0;
+        List<Long> lote;
+        do {
+            lote = session.createQuery("SELECT a.id FROM Animales a WHERE " + condicion + " ORDER BY a.id", Long.class)
+                    .setParameter("valor", valor)
+                    .setMaxResults(TAMANO_LOTE)
+                    .list();
+            if (!lote.isEmpty()) {
+                eliminados += eliminarLote(lote);
+            }
+        } while (lote.size() == TAMANO_LOTE);
+        reconciliarOcupacion(eliminados);
+        return eliminados;
+    }
+
+    /**
+     * Elimina un lote en su propia transacción, o en la de quien llama si ya hay una en curso; en
+     * ese caso los índices se actualizan solo cuando esta se confirma.
+     */
+    private int eliminarLote(List<Long> lote) {
+        EnrutadorLecturas.marcarEscritura(session);
+        Transaction transaccion = session.getTransaction();
+        boolean propia = !transaccion.isActive();
+        if (propia) {
+            transaccion.begin();
+        }
+        try {
+            int eliminados = session.createMutationQuery("DELETE FROM Animales WHERE id IN :ids")
+                    .setParameterList("ids", lote)
+                    .executeUpdate();
+            if (propia) {
+                transaccion.commit();
+            }
+            SessionFactory sessionFactory = session.getSessionFactory();
+            List<Long> eliminadosIds = List.copyOf(lote);
+            FamiliaImpl.trasConfirmar(transaccion, propia, () -> trasEliminar(sessionFactory, eliminadosIds));
+            return eliminados;
+        } catch (HibernateException e) {
+            FamiliaImpl.deshacer(transaccion, propia);
+            throw new HibernateException("Error al eliminar los animales.", e);
+        }
+    }
+
+    /**
+     * Construye una copia no gestionada del animal archivado. La familia es una referencia
+     * perezosa por identificador y solo se consulta si se accede a ella.
+     */
+    private Animales desarchivar(AnimalArchivado archivado) {
+        Animales animal = new Animales(archivado.getNombre(), archivado.getTipo(), archivado.getAños(), archivado.getDetalles());
+        animal.setId(archivado.getId());
+        animal.setFechaIngreso(archivado.getFechaIngreso());
+        if (archivado.getEstado() != null) {
+            animal.setEstado(archivado.getEstado().name());
+        }
+        if (archivado.getFamiliaId() != null) {
+            animal.setFamilia(session.getReference(Familia.class, archivado.getFamiliaId()));
+        }
+        animal.setFechaAdopcion(archivado.getFechaAdopcion());
+        return animal;
+    }
+
+    /**
+     * Especie, estado, familia y ciudad de un animal en un momento dado: la combinación con la que
+     * cuenta en la ocupación y lo que anota el historial. Se toma antes de confirmar, para que los
+     * efectos posteriores no dependan de cambios que el animal reciba después en la misma sesión.
+     */
+    static final class Situacion {
+
+        private final String tipo;
+        private final Estado estado;
+        private final Long familia;
+        private final String ciudad;
+
+        private Situacion(String tipo, Estado estado, Long familia, String ciudad) {
+            this.tipo = tipo;
+            this.estado = estado;
+            this.familia = familia;
+            this.ciudad = ciudad;
+        }
+
+        /**
+         * Situación actual del animal en memoria.
+         */
+        static Situacion de(Animales animal) {
+            Familia familia = animal.getFamilia();
+            return new Situacion(animal.getTipo(), animal.getEstado(),
+                    familia != null ? familia.obtenerId() : null, familia != null ? familia.obtenerCiudad() : null);
+        }
+
+        /**
+         * Combinación de especie, estado y ciudad con la que el animal cuenta en la ocupación.
+         */
+        ContadoresOcupacion.Clave clave() {
+            return new ContadoresOcupacion.Clave(tipo, estado, ciudad);
+        }
+    }
+
+    /**
+     * Lee de la base de datos la situación que tiene ahora el animal, sin volcar antes los cambios
+     * pendientes de la sesión.
+     */
+    private Situacion situacionGuardada(Long id) {
+        if (id == null) {
+            return null;
+        }
+        List<Object[]> filas = session.createQuery(
+                        "SELECT a.tipo, a.estado, f.id, f.ciudad FROM Animales a LEFT JOIN a.familia f WHERE a.id = :id", Object[].class)
+                .setParameter("id", id)
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .list();
+        return filas.isEmpty() ? null
+                : new Situacion((String) filas.get(0)[0], (Estado) filas.get(0)[1], (Long) filas.get(0)[2], (String) filas.get(0)[3]);
+    }
+
+    /**
+     * Efectos de un alta ya confirmada: cuenta el animal en la ocupación, anota el alta en el
+     * historial y lo añade a los índices en memoria.
+     *
+     * @param situacion Situación del animal al guardarlo.
+     */
+    static void trasGuardar(SessionFactory sessionFactory, Animales animal, Situacion situacion) {
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(sessionFactory);
+        if (contadores != null) {
+            contadores.mover(null, situacion.clave(), 1);
+        }
+        HistorialAnimales historial = HistorialAnimales.de(sessionFactory);
+        if (historial != null) {
+            historial.alta(animal.getId(), situacion.tipo, situacion.estado);
+            if (situacion.familia != null) {
+                historial.cambioFamilia(animal.getId(), situacion.tipo, situacion.familia);
+            }
+        }
+        indexar(sessionFactory, animal);
+    }
+
+    /**
+     * Efectos de una actualización ya confirmada: mueve el animal en la ocupación, anota en el
+     * historial los cambios de estado y de familia y actualiza los índices en memoria.
+     *
+     * @param antes Situación guardada antes de la actualización, o {@code null} si no se leyó.
+     * @param despues Situación del animal al actualizarlo.
+     */
+    static void trasActualizar(SessionFactory sessionFactory, Animales animal, Situacion antes, Situacion despues) {
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(sessionFactory);
+        if (contadores != null) {
+            contadores.mover(antes != null ? antes.clave() : null, despues.clave(), 1);
+        }
+        HistorialAnimales historial = HistorialAnimales.de(sessionFactory);
+        if (historial != null && antes != null) {
+            if (despues.estado != antes.estado) {
+                historial.cambioEstado(animal.getId(), despues.tipo, despues.estado);
+            }
+            if (!Objects.equals(despues.familia, antes.familia)) {
+                historial.cambioFamilia(animal.getId(), despues.tipo, despues.familia);
+            }
+        }
+        indexar(sessionFactory, animal);
+    }
+
+    /**
+     * Añade o actualiza el animal en los índices en memoria que estén activos (duplicados y
+     * autocompletado), invalida su entrada en la caché cercana y avanza la {@link VersionDatos}.
+     */
+    static void indexar(SessionFactory sessionFactory, Animales animal) {
+        DetectorDuplicados detector = DetectorDuplicados.de(sessionFactory);
+        if (detector != null) {
+            detector.registrar(animal);
+        }
+        Autocompletado autocompletado = Autocompletado.de(sessionFactory);
+        if (autocompletado != null && animal.getId() != null) {
+            autocompletado.animales().agregar(animal.getId(), animal.getNombre());
+        }
+        CacheCercana cache = CacheCercana.de(sessionFactory);
+        if (cache != null && animal.getId() != null) {
+            cache.invalidarAnimales(Collections.singletonList(animal.getId()));
+        }
+        VersionDatos version = VersionDatos.de(sessionFactory);
+        if (version != null) {
+            version.avanzar();
+        }
+    }
+
+    /**
+     * Quita de los índices en memoria y de la caché cercana que estén activos los animales eliminados o
+     * archivados, y avanza la {@link VersionDatos}.
+     */
+    static void desindexar(SessionFactory sessionFactory, Collection<Long> ids) {
+        DetectorDuplicados detector = DetectorDuplicados.de(sessionFactory);
+        if (detector != null) {
+            detector.retirar(ids);
+        }
+        Autocompletado autocompletado = Autocompletado.de(sessionFactory);
+        if (autocompletado != null) {
+            ids.forEach(autocompletado.animales()::retirar);
+        }
+        CacheCercana cache = CacheCercana.de(sessionFactory);
+        if (cache != null) {
+            cache.invalidarAnimales(ids);
+        }
+        VersionDatos version = VersionDatos.de(sessionFactory);
+        if (version != null) {
+            version.avanzar();
+        }
+    }
+
+    /**
+     * Efectos de eliminar animales definitivamente: además de desindexarlos, elimina sus adjuntos si
+     * hay un {@link AlmacenAdjuntos} abierto. Los archivados conservan los suyos, así que el
+     * archivador solo los desindexa.
+     */
+    static void trasEliminar(SessionFactory sessionFactory, Collection<Long> ids) {
+        desindexar(sessionFactory, ids);
+        AlmacenAdjuntos adjuntos = AlmacenAdjuntos.de(sessionFactory);
+        if (adjuntos != null && !ids.isEmpty()) {
+            adjuntos.eliminarDeAnimales(ids);
+        }
+    }
+
+    /**
+     * Identificadores de las filas de {@link #FIRMAS_COMPRIMIDOS} cuya firma puede contener la descripción.
+     */
+    static List<Long> candidatos(List<Object[]> firmas, String descripcion) {
+        List<Long> candidatos = new ArrayList<>();
+        for (Object[] fila : firmas) {
+            if (FirmaTrigramas.puedeContener((byte[]) fila[1], descripcion)) {
+                candidatos.add(((Number) fila[0]).longValue());
+            }
+        }
+        return candidatos;
+    }
+
+    /**
+     * Identificadores de las filas de {@link #DETALLES_POR_ID} cuyos detalles contienen la
+     * descripción, una vez normalizados los dos.
+     */
+    static List<Long> coincidentes(List<Object[]> detalles, String descripcion) {
+        String buscado = TextoNormalizado.normalizar(descripcion);
+        List<Long> coincidentes = new ArrayList<>();
+        for (Object[] fila : detalles) {
+            if (TextoNormalizado.normalizar((String) fila[1]).contains(buscado)) {
+                coincidentes.add((Long) fila[0]);
+            }
+        }
+        return coincidentes;
+    }
+
+    /**
+     * Divide unos identificadores en lotes de {@value #TAMANO_LOTE} para las consultas con {@code IN}.
+     */
+    static List<List<Long>> lotes(List<Long> ids) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int desde = 0; desde < ids.size(); desde += TAMANO_LOTE) {
+            lotes.add(ids.subList(desde, Math.min(desde + TAMANO_LOTE, ids.size())));
+        }
+        return lotes;
+    }
+
+    /**
+     * Tras una eliminación masiva no se sabe qué combinaciones han cambiado: se vuelven a contar,
+     * cuando se confirme la transacción de quien llama si los lotes se eliminaron en ella.
+     */
+    private void reconciliarOcupacion(int eliminados) {
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(session.getSessionFactory());
+        if (contadores != null && eliminados > 0) {
+            Transaction transaccion = session.getTransaction();
+            FamiliaImpl.trasConfirmar(transaccion, !transaccion.isActive(), contadores::reconciliar);
+        }
+    }
+
+    /**
+     * Carga en bloque las familias de los animales si se ha pedido. Las que ya están inicializadas
+     * en la sesión no se vuelven a consultar.
+     */
+    private List<Animales> conFamilias(List<Animales> animales, boolean conFamilia) {
+        if (!conFamilia) {
+            return animales;
+        }
+        if (cargadorFamilias == null) {
+            cargadorFamilias = new CargadorFamilias(session);
+        }
+        return cargadorFamilias.resolver(animales);
+    }
 }
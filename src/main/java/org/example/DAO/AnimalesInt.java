@@ -1,8 +1,11 @@
 package org.example.DAO;
 
 import org.example.entities.Animales;
+import org.example.entities.Estado;
 import org.hibernate.HibernateException;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -49,6 +52,45 @@ public interface AnimalesInt {
      */
     List<Animales> buscarPorDescripcion(String descripcion) throws HibernateException;
 
+    /**
+     * Busca animales por especie y, si se pide, carga sus familias de acogida en bloque.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @param conFamilia {@code true} para inicializar la familia de cada animal con una sola consulta adicional.
+     * @return Lista de animales de la especie indicada.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscarPorEspecie(String especie, boolean conFamilia) throws HibernateException;
+
+    /**
+     * Busca animales según su edad y, si se pide, carga sus familias de acogida en bloque.
+     *
+     * @param edad Edad de los animales a buscar.
+     * @param conFamilia {@code true} para inicializar la familia de cada animal con una sola consulta adicional.
+     * @return Lista de animales con la edad especificada.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscarPorEdad(int edad, boolean conFamilia) throws HibernateException;
+
+    /**
+     * Busca animales por descripción y, si se pide, carga sus familias de acogida en bloque.
+     *
+     * @param descripcion Texto parcial de la descripción a buscar.
+     * @param conFamilia {@code true} para inicializar la familia de cada animal con una sola consulta adicional.
+     * @return Lista de animales que coincidan con el criterio de búsqueda.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscarPorDescripcion(String descripcion, boolean conFamilia) throws HibernateException;
+
+    /**
+     * Busca animales que cumplan a la vez todos los criterios del filtro, con una sola consulta.
+     *
+     * @param filtro Criterios de búsqueda y ordenación.
+     * @return Lista de animales que cumplen el filtro, en el orden pedido.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscar(FiltroAnimales filtro) throws HibernateException;
+
     /**
      * Inserta un nuevo animal en la base de datos.
      *
@@ -75,4 +117,52 @@ public interface AnimalesInt {
      * @throws HibernateException En caso de error de conexión o consulta.
      */
     boolean eliminarPorId(Long id) throws HibernateException;
+
+    /**
+     * Elimina varios animales con sentencias DELETE por lotes, sin cargarlos en memoria.
+     * Los animales ya cargados en la sesión no se actualizan.
+     *
+     * @param ids Identificadores de los animales a eliminar.
+     * @return Número de animales eliminados.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    int eliminarPorIds(Collection<Long> ids) throws HibernateException;
+
+    /**
+     * Elimina por lotes todos los animales que se encuentran en un estado.
+     *
+     * @param estado Estado de los animales a eliminar.
+     * @return Número de animales eliminados.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    int purgarPorEstado(Estado estado) throws HibernateException;
+
+    /**
+     * Elimina por lotes todos los animales que ingresaron en el refugio antes de una fecha.
+     *
+     * @param fecha Fecha límite; se eliminan los animales con fecha de ingreso anterior.
+     * @return Número de animales eliminados.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    int purgarAnterioresA(LocalDateTime fecha) throws HibernateException;
+
+    /**
+     * Busca animales por especie tanto en el conjunto activo como en el archivo de adoptados.
+     * Los animales archivados se devuelven como copias de solo lectura, fuera de la sesión.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @return Lista con los animales activos seguidos de los archivados.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscarPorEspecieIncluyendoArchivo(String especie) throws HibernateException;
+
+    /**
+     * Busca animales según su edad tanto en el conjunto activo como en el archivo de adoptados.
+     * Los animales archivados se devuelven como copias de solo lectura, fuera de la sesión.
+     *
+     * @param edad Edad de los animales a buscar.
+     * @return Lista con los animales activos seguidos de los archivados.
+     * @throws HibernateException En caso de error de conexión o consulta.
+     */
+    List<Animales> buscarPorEdadIncluyendoArchivo(int edad) throws HibernateException;
 }
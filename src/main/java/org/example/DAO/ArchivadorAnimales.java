@@ -0,0 +1,137 @@
+package org.example.DAO;
+
+import org.example.entities.Estado;
+import org.example.util.ContadoresOcupacion;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traslada los animales adoptados de la tabla {@code animales} a {@code animales_archivo}.
+ * Un animal se considera frío cuando tiene familia, está {@link Estado#ADOPTADO} y se adoptó antes
+ * de la fecha límite. Lo que cuenta es la fecha de adopción y no la de ingreso: un animal que pasó
+ * años en el refugio y se adoptó ayer sigue consultándose a menudo. Los adoptados antes de existir
+ * {@code fechaAdopcion} no la tienen y se comparan por su fecha de ingreso.
+ * <p>
+ * Cada lote de {@link AnimalesImpl#TAMANO_LOTE} animales se copia con {@code INSERT ... SELECT} y se
+ * elimina de la tabla activa en una misma transacción, con su propia sesión, de modo que el traslado
+ * puede ejecutarse en segundo plano sin bloquear la aplicación. El animal archivado conserva su
+ * identificador, así que sus adjuntos siguen disponibles sin moverlos.
+ */
+public class ArchivadorAnimales implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ArchivadorAnimales.class.getName());
+
+    private final SessionFactory sessionFactory;
+    private ScheduledExecutorService programador;
+
+    /**
+     * Constructor que recibe la SessionFactory con la que se abren las sesiones del traslado.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     */
+    public ArchivadorAnimales(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Archiva por lotes todos los animales adoptados antes de la fecha indicada.
+     *
+     * @param anteriorA Fecha límite de adopción.
+     * @return Número de animales trasladados al archivo.
+     * @throws HibernateException Si ocurre un error durante el traslado; los lotes ya confirmados se conservan.
+     */
+    public int archivar(LocalDateTime anteriorA) {
+        int archivados = 0;
+        int trasladados;
+        do {
+            trasladados = archivarLote(anteriorA);
+            archivados += trasladados;
+        } while (trasladados == AnimalesImpl.TAMANO_LOTE);
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(sessionFactory);
+        if (contadores != null && archivados > 0) {
+            contadores.reconciliar();
+        }
+        return archivados;
+    }
+
+    /**
+     * Programa el archivado periódico en un hilo en segundo plano.
+     *
+     * @param periodo Tiempo entre dos ejecuciones.
+     * @param antiguedad Tiempo mínimo desde la adopción de los animales que se archivan.
+     * @throws IllegalStateException Si el archivado periódico ya está en marcha.
+     */
+    public synchronized void iniciar(Duration periodo, Duration antiguedad) {
+        if (programador != null) {
+            throw new IllegalStateException("El archivado periódico ya está en marcha");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "archivador-animales");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                int archivados = archivar(LocalDateTime.now().minus(antiguedad));
+                LOG.fine(() -> "Animales archivados: " + archivados);
+            } catch (HibernateException e) {
+                // Se reintenta en la siguiente ejecución
+                LOG.log(Level.WARNING, "Error al archivar animales", e);
+            }
+        }, periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene el archivado periódico. El lote en curso, si lo hay, termina normalmente.
+     */
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    private int archivarLote(LocalDateTime anteriorA) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                List<Long> lote = session.createQuery(
+                                "SELECT a.id FROM Animales a WHERE a.familia IS NOT NULL AND a.estado = :estado"
+                                        + " AND COALESCE(a.fechaAdopcion, a.fechaIngreso) < :limite ORDER BY a.id", Long.class)
+                        .setParameter("estado", Estado.ADOPTADO)
+                        .setParameter("limite", anteriorA)
+                        .setMaxResults(AnimalesImpl.TAMANO_LOTE)
+                        .list();
+                if (!lote.isEmpty()) {
+                    session.createMutationQuery(
+                                    "INSERT INTO AnimalArchivado (id, nombre, tipo, años, detalles, estado, familiaId, fechaIngreso, fechaAdopcion, fechaArchivo)"
+                                            + " SELECT a.id, a.nombre, a.tipo, a.años, a.detalles, a.estado, a.familia.id, a.fechaIngreso, a.fechaAdopcion, local datetime"
+                                            + " FROM Animales a WHERE a.id IN :ids")
+                            .setParameterList("ids", lote)
+                            .executeUpdate();
+                    session.createMutationQuery("DELETE FROM Animales WHERE id IN :ids")
+                            .setParameterList("ids", lote)
+                            .executeUpdate();
+                }
+                tx.commit();
+                AnimalesImpl.desindexar(sessionFactory, lote);
+                return lote.size();
+            } catch (HibernateException e) {
+                tx.rollback();
+                throw new HibernateException("Error al archivar los animales.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.DAO;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Autocompletado de nombres de animales y familias. Mantiene un {@link IndiceNombres} para cada
+ * entidad, cargado una vez desde la base de datos y actualizado por {@link AnimalesImpl} y
+ * {@link FamiliaImpl} en cada escritura mientras está activo.
+ */
+public final class Autocompletado implements AutoCloseable {
+
+    private static final Map<SessionFactory, Autocompletado> ACTIVOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final SessionFactory sessionFactory;
+    private final IndiceNombres animales = new IndiceNombres();
+    private final IndiceNombres familias = new IndiceNombres();
+
+    private Autocompletado(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Carga los índices de una SessionFactory y los activa. Si ya estaban activos, devuelve los existentes.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return El autocompletado activo.
+     * @throws HibernateException Si ocurre un error durante la carga.
+     */
+    public static Autocompletado iniciar(SessionFactory sessionFactory) {
+        synchronized (ACTIVOS) {
+            Autocompletado autocompletado = ACTIVOS.get(sessionFactory);
+            if (autocompletado == null) {
+                autocompletado = new Autocompletado(sessionFactory);
+                try (Session session = sessionFactory.openSession()) {
+                    autocompletado.animales.cargar(nombres(session, "SELECT a.id, a.nombre FROM Animales a"));
+                    autocompletado.familias.cargar(nombres(session, "SELECT f.id, f.nombre FROM Familia f"));
+                } catch (HibernateException e) {
+                    throw new HibernateException("No se pudieron cargar los nombres para el autocompletado", e);
+                }
+                ACTIVOS.put(sessionFactory, autocompletado);
+            }
+            return autocompletado;
+        }
+    }
+
+    /**
+     * Obtiene el autocompletado activo de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return El autocompletado, o {@code null} si no se ha activado.
+     */
+    public static Autocompletado de(SessionFactory sessionFactory) {
+        return ACTIVOS.get(sessionFactory);
+    }
+
+    /**
+     * Sugiere animales cuyo nombre empieza por el texto indicado.
+     *
+     * @param prefijo Texto escrito; no distingue mayúsculas ni tildes.
+     * @param n Número máximo de sugerencias.
+     * @return Las sugerencias, en orden alfabético.
+     */
+    public List<IndiceNombres.Sugerencia> sugerirAnimales(String prefijo, int n) {
+        return animales.sugerir(prefijo, n);
+    }
+
+    /**
+     * Sugiere familias cuyo nombre empieza por el texto indicado.
+     *
+     * @param prefijo Texto escrito; no distingue mayúsculas ni tildes.
+     * @param n Número máximo de sugerencias.
+     * @return Las sugerencias, en orden alfabético.
+     */
+    public List<IndiceNombres.Sugerencia> sugerirFamilias(String prefijo, int n) {
+        return familias.sugerir(prefijo, n);
+    }
+
+    IndiceNombres animales() {
+        return animales;
+    }
+
+    IndiceNombres familias() {
+        return familias;
+    }
+
+    /**
+     * Desactiva el autocompletado: los DAOs dejan de mantener sus índices.
+     */
+    @Override
+    public void close() {
+        ACTIVOS.remove(sessionFactory, this);
+    }
+
+    private static Map<Long, String> nombres(Session session, String consulta) {
+        Map<Long, String> nombres = new HashMap<>();
+        for (Object[] fila : session.createQuery(consulta, Object[].class).list()) {
+            nombres.put((Long) fila[0], (String) fila[1]);
+        }
+        return nombres;
+    }
+}
@@ -0,0 +1,323 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.BusInvalidaciones;
+import org.example.util.VersionDatos;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Caché local de animales y familias por identificador, coherente entre varias instancias de la
+ * aplicación. {@link AnimalesImpl} y {@link FamiliaImpl} invalidan las entradas que modifican
+ * después de confirmar cada transacción, y las invalidaciones se propagan a los demás nodos por un
+ * {@link BusInvalidaciones}. Invalidar una familia invalida también los animales que acoge.
+ * <p>
+ * Cada entrada lleva como versión la época de la caché en la que empezó su carga, y cada
+ * invalidación avanza la época y la anota para su identificador. Una carga solo se guarda si no ha
+ * llegado ninguna invalidación de ese identificador desde que empezó, así que una invalidación que
+ * llega mientras otro hilo lee la fila antigua, o un mensaje que llega fuera de orden, no pueden
+ * dejar en la caché datos anteriores a la escritura. Las entradas caducan además al cabo de un
+ * tiempo máximo, como red de seguridad frente a escrituras que no pasan por los DAOs.
+ * <p>
+ * Las instancias devueltas están desligadas de cualquier sesión, se comparten entre hilos y no
+ * deben modificarse: para cambiar un animal hay que cargarlo en una sesión. Los animales se
+ * guardan con su familia y sus detalles cargados; las familias, sin sus animales acogidos.
+ */
+public final class CacheCercana implements AutoCloseable, BusInvalidaciones.Oyente {
+
+    /** Región de los animales en el bus de invalidaciones. */
+    static final byte ANIMALES = 0;
+    /** Región de las familias en el bus de invalidaciones. */
+    static final byte FAMILIAS = 1;
+
+    private static final Map<SessionFactory, CacheCercana> ACTIVAS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final SessionFactory sessionFactory;
+    private final BusInvalidaciones bus;
+    private final AtomicLong epoca = new AtomicLong();
+    private final Region<Animales> animales;
+    private final Region<Familia> familias;
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    private CacheCercana(SessionFactory sessionFactory, BusInvalidaciones bus, int capacidad, Duration vida) {
+        this.sessionFactory = sessionFactory;
+        this.bus = bus;
+        this.familias = new Region<>(capacidad, vida.toNanos(), (familia, version) -> false);
+        this.animales = new Region<>(capacidad, vida.toNanos(),
+                (animal, version) -> familiaDe(animal) != -1 && familias.invalidadaDesde(familiaDe(animal), version));
+    }
+
+    /**
+     * Activa la caché de una SessionFactory y la suscribe al bus. Si ya estaba activa, devuelve la
+     * existente.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param bus Bus de invalidaciones compartido con los demás nodos.
+     * @param capacidad Máximo de entradas por entidad.
+     * @param vida Tiempo máximo que una entrada permanece en la caché.
+     * @return La caché activa.
+     */
+    public static CacheCercana iniciar(SessionFactory sessionFactory, BusInvalidaciones bus, int capacidad, Duration vida) {
+        synchronized (ACTIVAS) {
+            CacheCercana cache = ACTIVAS.get(sessionFactory);
+            if (cache == null) {
+                cache = new CacheCercana(sessionFactory, bus, capacidad, vida);
+                bus.suscribir(cache);
+                ACTIVAS.put(sessionFactory, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Obtiene la caché activa de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return La caché, o {@code null} si no se ha activado.
+     */
+    public static CacheCercana de(SessionFactory sessionFactory) {
+        return ACTIVAS.get(sessionFactory);
+    }
+
+    /**
+     * Obtiene un animal de la caché o, si no está, de la base de datos.
+     *
+     * @param id Identificador del animal.
+     * @return El animal, o {@code null} si no existe.
+     * @throws HibernateException Si ocurre un error al cargarlo.
+     */
+    public Animales animal(Long id) {
+        return animales.obtener(id, clave -> cargar(session -> {
+            Animales animal = session.get(Animales.class, clave);
+            if (animal != null) {
+                Hibernate.initialize(animal.getFamilia());
+                animal.getDetalles();
+            }
+            return animal;
+        }));
+    }
+
+    /**
+     * Obtiene una familia de la caché o, si no está, de la base de datos.
+     *
+     * @param id Identificador de la familia.
+     * @return La familia, o {@code null} si no existe.
+     * @throws HibernateException Si ocurre un error al cargarla.
+     */
+    public Familia familia(Long id) {
+        return familias.obtener(id, clave -> cargar(session -> session.get(Familia.class, clave)));
+    }
+
+    /**
+     * Aciertos de la caché desde su activación.
+     *
+     * @return El número de lecturas servidas desde la caché.
+     */
+    public long aciertos() {
+        return aciertos.sum();
+    }
+
+    /**
+     * Fallos de la caché desde su activación.
+     *
+     * @return El número de lecturas que fueron a la base de datos.
+     */
+    public long fallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * Invalida animales en este nodo y en los demás tras confirmar una escritura.
+     */
+    void invalidarAnimales(Collection<Long> ids) {
+        for (Long id : ids) {
+            invalidar(ANIMALES, id);
+            bus.publicar(ANIMALES, id);
+        }
+    }
+
+    /**
+     * Invalida familias, y los animales que acogen, en este nodo y en los demás tras confirmar una escritura.
+     */
+    void invalidarFamilias(Collection<Long> ids) {
+        for (Long id : ids) {
+            invalidar(FAMILIAS, id);
+            bus.publicar(FAMILIAS, id);
+        }
+    }
+
+    @Override
+    public void invalidar(byte region, long id) {
+        avanzarVersionDatos();
+        long version = epoca.incrementAndGet();
+        if (region == ANIMALES) {
+            animales.invalidar(id, version);
+        } else if (region == FAMILIAS) {
+            familias.invalidar(id, version);
+            // Los animales guardan una copia de su familia: se invalidan uno a uno los de esta familia;
+            // las cargas en curso de sus animales las descarta la comprobación de la familia en obtener
+            animales.invalidarSi(version, animal -> familiaDe(animal) == id);
+        }
+    }
+
+    @Override
+    public void invalidarTodo() {
+        avanzarVersionDatos();
+        long version = epoca.incrementAndGet();
+        animales.invalidarTodo(version);
+        familias.invalidarTodo(version);
+    }
+
+    /**
+     * Las invalidaciones que llegan por el bus son escrituras de otros nodos: cambian también los
+     * listados de este.
+     */
+    private void avanzarVersionDatos() {
+        VersionDatos version = VersionDatos.de(sessionFactory);
+        if (version != null) {
+            version.avanzar();
+        }
+    }
+
+    /**
+     * Identificador de la familia de un animal guardado en la caché, o -1 si no tiene.
+     */
+    private static long familiaDe(Animales animal) {
+        return animal.getFamilia() != null ? animal.getFamilia().obtenerId() : -1;
+    }
+
+    /**
+     * Desactiva la caché y la retira del bus. El bus no se cierra.
+     */
+    @Override
+    public void close() {
+        bus.desuscribir(this);
+        ACTIVAS.remove(sessionFactory, this);
+    }
+
+    private <T> T cargar(Function<Session, T> carga) {
+        try (Session session = sessionFactory.openSession()) {
+            return carga.apply(session);
+        } catch (HibernateException e) {
+            throw new HibernateException("No se pudo cargar la entrada de la caché", e);
+        }
+    }
+
+    /**
+     * Entrada de la caché con la época en que empezó su carga.
+     */
+    private static final class Entrada<T> {
+
+        private final T valor;
+        private final long version;
+        private final long caduca;
+
+        private Entrada(T valor, long version, long caduca) {
+            this.valor = valor;
+            this.version = version;
+            this.caduca = caduca;
+        }
+    }
+
+    /**
+     * Entradas de una entidad y la época de la última invalidación de cada identificador. Para que
+     * el registro de invalidaciones no crezca sin límite, al superar la capacidad se sustituye por
+     * una barrera que descarta todas las cargas empezadas antes.
+     */
+    private final class Region<T> {
+
+        private final int capacidad;
+        private final long vidaNanos;
+        /** Indica si un valor cargado depende de otra entrada invalidada desde la versión dada. */
+        private final BiPredicate<T, Long> dependenciaInvalidada;
+        private final ConcurrentHashMap<Long, Entrada<T>> entradas = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Long> invalidadas = new ConcurrentHashMap<>();
+        private final AtomicLong barrera = new AtomicLong();
+
+        private Region(int capacidad, long vidaNanos, BiPredicate<T, Long> dependenciaInvalidada) {
+            this.capacidad = capacidad;
+            this.vidaNanos = vidaNanos;
+            this.dependenciaInvalidada = dependenciaInvalidada;
+        }
+
+        private T obtener(Long id, Function<Long, T> carga) {
+            long ahora = System.nanoTime();
+            Entrada<T> entrada = entradas.get(id);
+            if (entrada != null && entrada.caduca - ahora > 0 && !invalidadaDesde(id, entrada.version)) {
+                aciertos.increment();
+                return entrada.valor;
+            }
+            fallos.increment();
+            long version = epoca.get();
+            T valor = carga.apply(id);
+            if (valor == null || obsoleta(id, valor, version)) {
+                return valor;
+            }
+            Entrada<T> nueva = new Entrada<>(valor, version, ahora + vidaNanos);
+            entradas.put(id, nueva);
+            // Una invalidación anotada entre la comprobación y el put no habría encontrado la entrada
+            if (obsoleta(id, valor, version)) {
+                entradas.remove(id, nueva);
+            }
+            if (entradas.size() > capacidad) {
+                Iterator<Long> claves = entradas.keySet().iterator();
+                if (claves.hasNext()) {
+                    claves.next();
+                    claves.remove();
+                }
+            }
+            return valor;
+        }
+
+        private boolean invalidadaDesde(long id, long version) {
+            return barrera.get() > version || invalidadas.getOrDefault(id, 0L) > version;
+        }
+
+        private boolean obsoleta(long id, T valor, long version) {
+            return invalidadaDesde(id, version) || dependenciaInvalidada.test(valor, version);
+        }
+
+        private void invalidar(long id, long version) {
+            if (invalidadas.size() >= capacidad) {
+                barrera.accumulateAndGet(version, Math::max);
+                invalidadas.clear();
+            } else {
+                invalidadas.merge(id, version, Math::max);
+            }
+            entradas.remove(id);
+        }
+
+        /**
+         * Invalida una a una las entradas que cumplen la condición, sin afectar a las demás.
+         */
+        private void invalidarSi(long version, Predicate<T> condicion) {
+            entradas.forEach((id, entrada) -> {
+                if (condicion.test(entrada.valor)) {
+                    invalidar(id, version);
+                }
+            });
+        }
+
+        private void invalidarTodo(long version) {
+            barrera.accumulateAndGet(version, Math::max);
+            entradas.clear();
+        }
+    }
+}
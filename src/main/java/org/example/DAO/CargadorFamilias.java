@@ -0,0 +1,59 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.hibernate.Hibernate;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Carga en bloque las familias de un conjunto de animales. En lugar de inicializar cada proxy
+ * de {@link Animales#getFamilia()} por separado (una consulta por familia), reúne los
+ * identificadores pendientes y los carga con una sola consulta {@code IN (...)}.
+ * Las familias ya inicializadas en la sesión no se vuelven a consultar; el cargador no guarda nada
+ * por su cuenta, así que tras vaciar la sesión o desligar las familias se cargan de nuevo en bloque.
+ */
+public class CargadorFamilias {
+
+    private final Session session;
+
+    /**
+     * Constructor que recibe la sesión sobre la que se cargan las familias.
+     *
+     * @param session Sesión de Hibernate de la unidad de trabajo.
+     */
+    public CargadorFamilias(Session session) {
+        this.session = session;
+    }
+
+    /**
+     * Inicializa las familias de todos los animales recibidos con, como mucho, una consulta.
+     *
+     * @param animales Animales cuyas familias se quieren usar.
+     * @param <C> Tipo de la colección de animales.
+     * @return La misma colección, con las familias ya inicializadas.
+     * @throws HibernateException Si ocurre un error durante la carga.
+     */
+    public <C extends Collection<Animales>> C resolver(C animales) {
+        Set<Long> pendientes = new LinkedHashSet<>();
+        for (Animales animal : animales) {
+            Familia familia = animal.getFamilia();
+            if (familia != null && !Hibernate.isInitialized(familia)) {
+                pendientes.add((Long) session.getSessionFactory().getPersistenceUnitUtil().getIdentifier(familia));
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            try {
+                session.byMultipleIds(Familia.class).multiLoad(new ArrayList<>(pendientes));
+            } catch (HibernateException e) {
+                throw new HibernateException("Error al cargar las familias de los animales.", e);
+            }
+        }
+        return animales;
+    }
+}
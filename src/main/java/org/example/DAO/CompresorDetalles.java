@@ -0,0 +1,175 @@
+package org.example.DAO;
+
+import org.example.entities.DetallesComprimidos;
+import org.example.util.CompresionTexto;
+import org.example.util.FirmaTrigramas;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Comprime los detalles ya guardados sin comprimir que alcanzan el umbral de
+ * {@link DetallesComprimidos} configurado en la SessionFactory: los anteriores a la conversión y los
+ * insertados directamente por SQL. En {@code animales} guarda además la firma de trigramas para la
+ * búsqueda por descripción, también en las filas ya comprimidas que no la tienen. Recorre
+ * {@code animales} y {@code animales_archivo} por orden de identificador, en lotes de
+ * {@link AnimalesImpl#TAMANO_LOTE} filas con su propia transacción, y reescribe cada fila solo si
+ * sus detalles no han cambiado desde que se leyeron. El texto de los detalles no cambia, así que no
+ * hay que avisar a los índices ni a la caché cercana.
+ */
+public class CompresorDetalles implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(CompresorDetalles.class.getName());
+
+    private static final List<String> TABLAS = List.of("animales", "animales_archivo");
+
+    private final SessionFactory sessionFactory;
+    private final int umbral;
+    private final DetallesComprimidos conversor;
+    private ScheduledExecutorService programador;
+
+    /**
+     * Constructor que recibe la SessionFactory con la que se abren las sesiones de la compresión.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     */
+    public CompresorDetalles(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.umbral = DetallesComprimidos.umbral(sessionFactory.getProperties());
+        this.conversor = new DetallesComprimidos(umbral);
+    }
+
+    /**
+     * Comprime por lotes todos los detalles pendientes.
+     *
+     * @return Número de filas comprimidas.
+     * @throws HibernateException Si ocurre un error; los lotes ya confirmados se conservan.
+     */
+    public int comprimir() {
+        int comprimidas = 0;
+        for (String tabla : TABLAS) {
+            long[] marca = {0};
+            int revisadas;
+            do {
+                int[] resultado = comprimirLote(tabla, marca);
+                revisadas = resultado[0];
+                comprimidas += resultado[1];
+            } while (revisadas == AnimalesImpl.TAMANO_LOTE);
+        }
+        return comprimidas;
+    }
+
+    /**
+     * Programa la compresión periódica en un hilo en segundo plano.
+     *
+     * @param periodo Tiempo entre dos ejecuciones.
+     * @throws IllegalStateException Si la compresión periódica ya está en marcha.
+     */
+    public synchronized void iniciar(Duration periodo) {
+        if (programador != null) {
+            throw new IllegalStateException("La compresión periódica ya está en marcha");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "compresor-detalles");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                int comprimidas = comprimir();
+                LOG.fine(() -> "Detalles comprimidos: " + comprimidas);
+            } catch (HibernateException e) {
+                // Se reintenta en la siguiente ejecución
+                LOG.log(Level.WARNING, "Error al comprimir los detalles", e);
+            }
+        }, 0, periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene la compresión periódica. El lote en curso, si lo hay, termina normalmente.
+     */
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    /**
+     * Comprime el siguiente lote de la tabla a partir de la marca, que avanza hasta la última fila leída.
+     *
+     * @return Las filas leídas y las comprimidas.
+     */
+    private int[] comprimirLote(String tabla, long[] marca) {
+        boolean conFirma = tabla.equals("animales");
+        String pendientes = "CHAR_LENGTH(detalles) >= ? AND detalles NOT LIKE ?";
+        if (conFirma) {
+            pendientes = "(" + pendientes + ") OR (detalles LIKE ? AND detalles_firma IS NULL)";
+        }
+        String consulta = "SELECT id, detalles FROM " + tabla + " WHERE id > ? AND (" + pendientes + ") ORDER BY id";
+        String escritura = "UPDATE " + tabla + " SET detalles = ?" + (conFirma ? ", detalles_firma = ?" : "")
+                + " WHERE id = ? AND detalles = ?";
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                int[] resultado = session.doReturningWork(conexion -> {
+                    int revisadas = 0;
+                    try (PreparedStatement seleccion = conexion.prepareStatement(consulta);
+                         PreparedStatement actualizacion = conexion.prepareStatement(escritura)) {
+                        seleccion.setLong(1, marca[0]);
+                        seleccion.setInt(2, umbral);
+                        seleccion.setString(3, CompresionTexto.PREFIJO + "%");
+                        if (conFirma) {
+                            seleccion.setString(4, CompresionTexto.PREFIJO + "%");
+                        }
+                        seleccion.setMaxRows(AnimalesImpl.TAMANO_LOTE);
+                        try (ResultSet filas = seleccion.executeQuery()) {
+                            while (filas.next()) {
+                                revisadas++;
+                                marca[0] = filas.getLong(1);
+                                String leido = filas.getString(2);
+                                String texto = CompresionTexto.descomprimir(leido);
+                                String guardado = CompresionTexto.comprimido(leido) ? leido : conversor.convertToDatabaseColumn(texto);
+                                boolean comprimido = CompresionTexto.comprimido(guardado);
+                                if (guardado.equals(leido) && !(conFirma && comprimido)) {
+                                    continue;
+                                }
+                                int indice = 1;
+                                actualizacion.setString(indice++, guardado);
+                                if (conFirma) {
+                                    actualizacion.setBytes(indice++, comprimido ? FirmaTrigramas.de(texto) : null);
+                                }
+                                actualizacion.setLong(indice++, marca[0]);
+                                actualizacion.setString(indice, leido);
+                                actualizacion.addBatch();
+                            }
+                        }
+                        int comprimidas = 0;
+                        for (int filasActualizadas : actualizacion.executeBatch()) {
+                            comprimidas += filasActualizadas == Statement.SUCCESS_NO_INFO ? 1 : filasActualizadas;
+                        }
+                        return new int[]{revisadas, comprimidas};
+                    }
+                });
+                tx.commit();
+                return resultado;
+            } catch (HibernateException e) {
+                tx.rollback();
+                throw new HibernateException("Error al comprimir los detalles de " + tabla, e);
+            }
+        }
+    }
+}
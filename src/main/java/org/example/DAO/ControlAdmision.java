@@ -0,0 +1,359 @@
+package org.example.DAO;
+
+import org.example.util.Plazo;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión de las operaciones de los DAOs por clase de carga. Cada {@link ClaseCarga}
+ * tiene su propio compartimento con un límite de operaciones concurrentes, una cola acotada y una
+ * espera máxima, de modo que los informes pesados no pueden ocupar las conexiones que necesitan
+ * las altas y adopciones.
+ * <p>
+ * El límite de cada compartimento se adapta a la latencia observada (AIMD): crece en una unidad
+ * por ventana mientras el compartimento está lleno y la latencia se mantiene por debajo del
+ * objetivo, y se reduce un 25 % como mucho una vez por latencia media cuando lo supera. Con la ley
+ * de Little se estima la espera de cada operación que llega: si la cola prevista tardaría más que la
+ * espera permitida, la operación se rechaza de inmediato con {@link SobrecargaException} en lugar de
+ * ocupar la cola hasta agotar el tiempo. Si hay un {@link Plazo} activo, la espera nunca lo supera.
+ *
+ * @see AnimalesAdmision
+ * @see FamiliaAdmision
+ */
+public final class ControlAdmision {
+
+    /**
+     * Clases de carga con compartimentos independientes.
+     */
+    public enum ClaseCarga {
+        /** Consultas cortas de la interfaz: búsquedas por especie, edad, ciudad o identificador. */
+        LECTURA,
+        /** Altas, modificaciones y bajas individuales. */
+        ESCRITURA,
+        /** Listados completos, búsquedas por texto libre y operaciones en bloque. */
+        INFORME
+    }
+
+    private static final int LIMITE_MINIMO = 1;
+    private static final long VENTANA_RENDIMIENTO = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<ClaseCarga, Compartimento> compartimentos = new EnumMap<>(ClaseCarga.class);
+
+    /**
+     * Crea el control con los límites por defecto: 32 lecturas con objetivo de 50 ms, 16 escrituras
+     * con objetivo de 100 ms y 4 informes con objetivo de 2 s.
+     */
+    public ControlAdmision() {
+        limitar(ClaseCarga.LECTURA, 32, Duration.ofMillis(50), 64, Duration.ofMillis(200));
+        limitar(ClaseCarga.ESCRITURA, 16, Duration.ofMillis(100), 64, Duration.ofSeconds(1));
+        limitar(ClaseCarga.INFORME, 4, Duration.ofSeconds(2), 8, Duration.ofSeconds(5));
+    }
+
+    /**
+     * Configura el compartimento de una clase de carga. El límite adaptativo empieza en la mitad
+     * del máximo. Debe llamarse antes de empezar a admitir operaciones.
+     *
+     * @param clase Clase de carga.
+     * @param maximo Máximo de operaciones concurrentes.
+     * @param latenciaObjetivo Latencia por encima de la cual se reduce el límite.
+     * @param cola Máximo de operaciones esperando turno.
+     * @param espera Tiempo máximo que una operación espera turno.
+     * @return Este control, para encadenar llamadas.
+     */
+    public ControlAdmision limitar(ClaseCarga clase, int maximo, Duration latenciaObjetivo, int cola, Duration espera) {
+        if (maximo < LIMITE_MINIMO || cola < 0) {
+            throw new IllegalArgumentException("El máximo debe ser positivo y la cola no negativa");
+        }
+        compartimentos.put(clase, new Compartimento(clase, maximo, latenciaObjetivo.toNanos(), cola, espera.toNanos()));
+        return this;
+    }
+
+    /**
+     * Ejecuta una operación cuando su compartimento la admite.
+     *
+     * @param clase Clase de carga de la operación.
+     * @param operacion Operación a ejecutar.
+     * @param <T> Tipo del resultado.
+     * @return El resultado de la operación.
+     * @throws SobrecargaException Si el compartimento rechaza la operación.
+     */
+    public <T> T ejecutar(ClaseCarga clase, Supplier<T> operacion) {
+        Compartimento compartimento = compartimentos.get(clase);
+        compartimento.adquirir();
+        long inicio = System.nanoTime();
+        try {
+            return operacion.get();
+        } finally {
+            compartimento.liberar(inicio);
+        }
+    }
+
+    /**
+     * Estado actual de una clase de carga.
+     *
+     * @param clase Clase de carga.
+     * @return Las métricas del compartimento.
+     */
+    public Metricas metricas(ClaseCarga clase) {
+        return compartimentos.get(clase).metricas();
+    }
+
+    /**
+     * Estado actual de todas las clases de carga.
+     *
+     * @return Las métricas de cada compartimento.
+     */
+    public Map<ClaseCarga, Metricas> metricas() {
+        Map<ClaseCarga, Metricas> metricas = new EnumMap<>(ClaseCarga.class);
+        compartimentos.forEach((clase, compartimento) -> metricas.put(clase, compartimento.metricas()));
+        return Collections.unmodifiableMap(metricas);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder();
+        metricas().values().forEach(m -> texto.append(m).append('\n'));
+        return texto.toString();
+    }
+
+    /**
+     * Fotografía del estado de un compartimento.
+     */
+    public static final class Metricas {
+
+        private final ClaseCarga clase;
+        private final int limite;
+        private final int enCurso;
+        private final int enCola;
+        private final long admitidas;
+        private final long rechazadas;
+        private final long latenciaMediaNanos;
+        private final double rendimiento;
+
+        private Metricas(ClaseCarga clase, int limite, int enCurso, int enCola, long admitidas, long rechazadas,
+                         long latenciaMediaNanos, double rendimiento) {
+            this.clase = clase;
+            this.limite = limite;
+            this.enCurso = enCurso;
+            this.enCola = enCola;
+            this.admitidas = admitidas;
+            this.rechazadas = rechazadas;
+            this.latenciaMediaNanos = latenciaMediaNanos;
+            this.rendimiento = rendimiento;
+        }
+
+        /**
+         * Clase de carga del compartimento.
+         *
+         * @return La clase de carga.
+         */
+        public ClaseCarga getClase() {
+            return clase;
+        }
+
+        /**
+         * Límite actual de operaciones concurrentes.
+         *
+         * @return El límite adaptativo.
+         */
+        public int getLimite() {
+            return limite;
+        }
+
+        /**
+         * Operaciones en ejecución.
+         *
+         * @return El número de operaciones admitidas que no han terminado.
+         */
+        public int getEnCurso() {
+            return enCurso;
+        }
+
+        /**
+         * Operaciones esperando turno.
+         *
+         * @return El tamaño actual de la cola.
+         */
+        public int getEnCola() {
+            return enCola;
+        }
+
+        /**
+         * Operaciones admitidas desde la creación del control.
+         *
+         * @return El total de operaciones admitidas.
+         */
+        public long getAdmitidas() {
+            return admitidas;
+        }
+
+        /**
+         * Operaciones rechazadas desde la creación del control.
+         *
+         * @return El total de operaciones rechazadas.
+         */
+        public long getRechazadas() {
+            return rechazadas;
+        }
+
+        /**
+         * Media móvil exponencial de la latencia de las operaciones.
+         *
+         * @return La latencia media.
+         */
+        public Duration getLatenciaMedia() {
+            return Duration.ofNanos(latenciaMediaNanos);
+        }
+
+        /**
+         * Operaciones completadas por segundo en la última ventana.
+         *
+         * @return El rendimiento en operaciones por segundo.
+         */
+        public double getRendimiento() {
+            return rendimiento;
+        }
+
+        /**
+         * Concurrencia que explica el rendimiento y la latencia observados según la ley de Little
+         * (rendimiento × latencia media).
+         *
+         * @return La concurrencia estimada.
+         */
+        public double getConcurrenciaEstimada() {
+            return rendimiento * latenciaMediaNanos / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-9s límite %3d  en curso %3d  en cola %3d  admitidas %8d  rechazadas %6d  latencia %8.2f ms  %8.1f op/s",
+                    clase, limite, enCurso, enCola, admitidas, rechazadas, latenciaMediaNanos / 1e6, rendimiento);
+        }
+    }
+
+    /**
+     * Compartimento de una clase de carga. Todo su estado se protege con un cerrojo justo, cuya
+     * condición atiende a las operaciones en cola por orden de llegada.
+     */
+    private static final class Compartimento {
+
+        private final ClaseCarga clase;
+        private final int maximo;
+        private final long objetivoNanos;
+        private final int cola;
+        private final long esperaNanos;
+        private final ReentrantLock cerrojo = new ReentrantLock(true);
+        private final Condition libre = cerrojo.newCondition();
+
+        private double limite;
+        private int enCurso;
+        private int enCola;
+        private long admitidas;
+        private long rechazadas;
+        private long latenciaMediaNanos;
+        private long ultimoRecorte;
+        private long inicioVentana = System.nanoTime();
+        private long completadasVentana;
+        private double rendimiento;
+
+        private Compartimento(ClaseCarga clase, int maximo, long objetivoNanos, int cola, long esperaNanos) {
+            this.clase = clase;
+            this.maximo = maximo;
+            this.objetivoNanos = objetivoNanos;
+            this.cola = cola;
+            this.esperaNanos = esperaNanos;
+            this.limite = Math.max(LIMITE_MINIMO, maximo / 2);
+        }
+
+        private void adquirir() {
+            long espera = esperaNanos;
+            Plazo plazo = Plazo.actual();
+            if (plazo != null) {
+                espera = Math.min(espera, plazo.restante().toNanos());
+            }
+            cerrojo.lock();
+            try {
+                if (enCola == 0 && enCurso < (int) limite) {
+                    enCurso++;
+                    admitidas++;
+                    return;
+                }
+                if (enCola >= cola) {
+                    throw rechazar("cola llena (" + cola + ")");
+                }
+                long prevista = (long) ((enCola + 1) * (double) latenciaMediaNanos / (int) limite);
+                if (prevista > espera) {
+                    throw rechazar("espera prevista de " + TimeUnit.NANOSECONDS.toMillis(prevista) + " ms");
+                }
+                enCola++;
+                try {
+                    long restante = espera;
+                    while (enCurso >= (int) limite) {
+                        if (restante <= 0) {
+                            throw rechazar("tiempo de espera agotado");
+                        }
+                        restante = libre.awaitNanos(restante);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw rechazar("espera interrumpida");
+                } finally {
+                    enCola--;
+                }
+                enCurso++;
+                admitidas++;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        private void liberar(long inicio) {
+            long ahora = System.nanoTime();
+            long latencia = ahora - inicio;
+            cerrojo.lock();
+            try {
+                boolean lleno = enCurso >= (int) limite;
+                enCurso--;
+                latenciaMediaNanos = latenciaMediaNanos == 0 ? latencia : latenciaMediaNanos + (latencia - latenciaMediaNanos) / 5;
+                if (latencia > objetivoNanos) {
+                    if (ahora - ultimoRecorte > latenciaMediaNanos) {
+                        limite = Math.max(LIMITE_MINIMO, limite * 0.75);
+                        ultimoRecorte = ahora;
+                    }
+                } else if (lleno) {
+                    limite = Math.min(maximo, limite + 1 / limite);
+                }
+                completadasVentana++;
+                if (ahora - inicioVentana >= VENTANA_RENDIMIENTO) {
+                    rendimiento = completadasVentana * 1e9 / (ahora - inicioVentana);
+                    completadasVentana = 0;
+                    inicioVentana = ahora;
+                }
+                libre.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        private SobrecargaException rechazar(String motivo) {
+            rechazadas++;
+            return new SobrecargaException(clase, "Operación de tipo " + clase + " rechazada: " + motivo);
+        }
+
+        private Metricas metricas() {
+            cerrojo.lock();
+            try {
+                return new Metricas(clase, (int) limite, enCurso, enCola, admitidas, rechazadas, latenciaMediaNanos, rendimiento);
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+}
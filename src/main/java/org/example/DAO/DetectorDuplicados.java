@@ -0,0 +1,369 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.util.TextoNormalizado;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Detecta animales registrados dos veces con datos ligeramente distintos. De cada animal se
+ * guarda una firma MinHash de los trigramas de caracteres de su nombre, tipo, edad y detalles, y
+ * las firmas se reparten en bandas (LSH): dos animales solo se comparan si coinciden en alguna
+ * banda, por lo que ni la comprobación de un alta ni la agrupación de toda la tabla necesitan
+ * comparar todos los pares. La similitud de Jaccard se estima con la fracción de valores iguales
+ * entre las dos firmas.
+ * <p>
+ * Si se activa con {@link #iniciar}, {@link AnimalesImpl} mantiene el índice en cada escritura y
+ * marca los posibles duplicados al guardar un animal.
+ */
+public final class DetectorDuplicados implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(DetectorDuplicados.class.getName());
+
+    /** Número de funciones hash de cada firma. */
+    static final int NUM_HASHES = 64;
+    /** Valores de la firma por banda; con 16 bandas de 4, los pares con similitud 0,5 coinciden en alguna banda el 65 % de las veces. */
+    static final int FILAS_POR_BANDA = 4;
+    private static final int BANDAS = NUM_HASHES / FILAS_POR_BANDA;
+    private static final int N = 3;
+
+    /** Semillas fijas para que las firmas sean reproducibles entre ejecuciones. */
+    private static final long[] SEMILLAS = new long[NUM_HASHES];
+
+    static {
+        long semilla = 0x5DEECE66DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            semilla = mezclar(semilla + i);
+            SEMILLAS[i] = semilla;
+        }
+    }
+
+    private static final Map<SessionFactory, DetectorDuplicados> ACTIVOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final double umbral;
+    private final Map<Long, int[]> firmas = new ConcurrentHashMap<>();
+    private final List<Map<Long, Set<Long>>> bandas = new ArrayList<>(BANDAS);
+    private final Map<Long, List<Long>> marcados = new ConcurrentHashMap<>();
+    private final LongAdder comparaciones = new LongAdder();
+    private SessionFactory registradoEn;
+
+    /**
+     * Crea un detector vacío.
+     *
+     * @param umbral Similitud estimada, entre 0 y 1, a partir de la cual dos animales se consideran duplicados.
+     * @throws IllegalArgumentException Si el umbral no está entre 0 y 1.
+     */
+    public DetectorDuplicados(double umbral) {
+        if (umbral <= 0 || umbral > 1) {
+            throw new IllegalArgumentException("El umbral debe estar entre 0 y 1");
+        }
+        this.umbral = umbral;
+        for (int b = 0; b < BANDAS; b++) {
+            bandas.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Crea un detector con todos los animales de la base de datos. Las firmas se calculan en paralelo.
+     *
+     * @param session Sesión de Hibernate.
+     * @param umbral Similitud a partir de la cual dos animales se consideran duplicados.
+     * @return El detector con el índice cargado.
+     * @throws HibernateException Si ocurre un error durante la carga.
+     */
+    public static DetectorDuplicados cargar(Session session, double umbral) {
+        List<Object[]> filas;
+        try {
+            filas = session.createQuery("SELECT a.id, a.nombre, a.tipo, a.años, a.detalles FROM Animales a", Object[].class).list();
+        } catch (HibernateException e) {
+            throw new HibernateException("Error al cargar los animales para detectar duplicados.", e);
+        }
+        DetectorDuplicados detector = new DetectorDuplicados(umbral);
+        filas.parallelStream().forEach(fila -> detector.indexar((Long) fila[0],
+                firma((String) fila[1], (String) fila[2], (Integer) fila[3], (String) fila[4])));
+        return detector;
+    }
+
+    /**
+     * Carga el detector de una SessionFactory y lo activa para que los DAOs lo mantengan. Si ya
+     * estaba activo, devuelve el existente.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param umbral Similitud a partir de la cual dos animales se consideran duplicados.
+     * @return El detector activo.
+     * @throws HibernateException Si ocurre un error durante la carga.
+     */
+    public static DetectorDuplicados iniciar(SessionFactory sessionFactory, double umbral) {
+        synchronized (ACTIVOS) {
+            DetectorDuplicados detector = ACTIVOS.get(sessionFactory);
+            if (detector == null) {
+                try (Session session = sessionFactory.openSession()) {
+                    detector = cargar(session, umbral);
+                }
+                detector.registradoEn = sessionFactory;
+                ACTIVOS.put(sessionFactory, detector);
+            }
+            return detector;
+        }
+    }
+
+    /**
+     * Obtiene el detector activo de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return El detector, o {@code null} si no se ha activado.
+     */
+    public static DetectorDuplicados de(SessionFactory sessionFactory) {
+        return ACTIVOS.get(sessionFactory);
+    }
+
+    /**
+     * Busca posibles duplicados de un animal sin añadirlo al índice.
+     *
+     * @param animal Animal a comprobar; sus detalles deben estar cargados.
+     * @return Identificadores de los animales indexados que probablemente son el mismo, del más al menos parecido.
+     */
+    public List<Long> buscarDuplicados(Animales animal) {
+        return buscar(animal.getId(), firma(animal));
+    }
+
+    /**
+     * Añade o actualiza un animal en el índice y, si se parece a otros, lo marca como posible duplicado.
+     *
+     * @param animal Animal con identificador asignado; sus detalles deben estar cargados.
+     * @return Identificadores de sus posibles duplicados.
+     */
+    public List<Long> registrar(Animales animal) {
+        Long id = animal.getId();
+        int[] firma = firma(animal);
+        retirar(id);
+        List<Long> duplicados = buscar(id, firma);
+        indexar(id, firma);
+        if (!duplicados.isEmpty()) {
+            marcados.put(id, duplicados);
+            LOG.info(() -> "Posible duplicado: animal " + id + " se parece a " + duplicados);
+        }
+        return duplicados;
+    }
+
+    /**
+     * Quita un animal del índice.
+     *
+     * @param id Identificador del animal.
+     */
+    public void retirar(Long id) {
+        int[] firma = firmas.remove(id);
+        if (firma == null) {
+            return;
+        }
+        for (int b = 0; b < BANDAS; b++) {
+            Set<Long> cubo = bandas.get(b).get(claveBanda(firma, b));
+            if (cubo != null) {
+                cubo.remove(id);
+            }
+        }
+        marcados.remove(id);
+    }
+
+    /**
+     * Quita varios animales del índice.
+     *
+     * @param ids Identificadores de los animales.
+     */
+    public void retirar(Collection<Long> ids) {
+        ids.forEach(this::retirar);
+    }
+
+    /**
+     * Animales marcados al registrarse como posibles duplicados de otros.
+     *
+     * @return Mapa del animal marcado a sus posibles duplicados.
+     */
+    public Map<Long, List<Long>> marcados() {
+        return Collections.unmodifiableMap(marcados);
+    }
+
+    /**
+     * Agrupa todos los animales del índice en conjuntos de posibles duplicados. Las bandas se
+     * recorren en paralelo y solo se comparan los animales que comparten cubo.
+     *
+     * @return Grupos de dos o más animales que probablemente son el mismo.
+     */
+    public List<Set<Long>> agrupar() {
+        List<long[]> pares = IntStream.range(0, BANDAS).parallel()
+                .mapToObj(b -> paresDeBanda(bandas.get(b)))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        Map<Long, Long> padres = new HashMap<>();
+        for (long[] par : pares) {
+            Long raizA = raiz(padres, par[0]);
+            Long raizB = raiz(padres, par[1]);
+            if (!raizA.equals(raizB)) {
+                padres.put(raizA, raizB);
+            }
+        }
+        Map<Long, Set<Long>> grupos = new HashMap<>();
+        for (Long id : padres.keySet()) {
+            grupos.computeIfAbsent(raiz(padres, id), r -> new LinkedHashSet<>()).add(id);
+        }
+        return grupos.values().stream().filter(g -> g.size() > 1).collect(Collectors.toList());
+    }
+
+    /**
+     * Desactiva el detector: los DAOs dejan de mantenerlo.
+     */
+    @Override
+    public void close() {
+        if (registradoEn != null) {
+            ACTIVOS.remove(registradoEn, this);
+        }
+    }
+
+    /**
+     * Número de pares de firmas comparados desde que se creó el detector, al buscar duplicados y
+     * al agrupar.
+     *
+     * @return Las comparaciones hechas.
+     */
+    long comparaciones() {
+        return comparaciones.sum();
+    }
+
+    /**
+     * Estima la similitud de Jaccard de dos animales a partir de sus firmas.
+     */
+    static double similitud(int[] a, int[] b) {
+        int iguales = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) iguales++;
+        }
+        return (double) iguales / NUM_HASHES;
+    }
+
+    static int[] firma(Animales animal) {
+        return firma(animal.getNombre(), animal.getTipo(), animal.getAños(), animal.getDetalles());
+    }
+
+    /**
+     * Calcula la firma MinHash de los trigramas del texto normalizado del animal (minúsculas, sin
+     * tildes y con los espacios simplificados). La edad se añade como un elemento más.
+     */
+    static int[] firma(String nombre, String tipo, int años, String detalles) {
+        String texto = TextoNormalizado.normalizar(nombre) + " | " + TextoNormalizado.normalizar(tipo)
+                + " | " + TextoNormalizado.normalizar(detalles);
+        int[] firma = new int[NUM_HASHES];
+        Arrays.fill(firma, Integer.MAX_VALUE);
+        String relleno = "  " + texto + "  ";
+        for (int i = 0; i + N <= relleno.length(); i++) {
+            acumular(firma, relleno.substring(i, i + N).hashCode());
+        }
+        acumular(firma, 31 * años + 0x7A3B);
+        return firma;
+    }
+
+    private static void acumular(int[] firma, int elemento) {
+        for (int h = 0; h < NUM_HASHES; h++) {
+            int valor = (int) mezclar(elemento ^ SEMILLAS[h]);
+            if (valor < firma[h]) {
+                firma[h] = valor;
+            }
+        }
+    }
+
+    private List<Long> buscar(Long id, int[] firma) {
+        Set<Long> candidatos = new LinkedHashSet<>();
+        for (int b = 0; b < BANDAS; b++) {
+            Set<Long> cubo = bandas.get(b).get(claveBanda(firma, b));
+            if (cubo != null) {
+                candidatos.addAll(cubo);
+            }
+        }
+        candidatos.remove(id);
+        Map<Long, Double> parecidos = new HashMap<>();
+        for (Long candidato : candidatos) {
+            int[] otra = firmas.get(candidato);
+            if (otra != null) {
+                comparaciones.increment();
+                double s = similitud(firma, otra);
+                if (s >= umbral) {
+                    parecidos.put(candidato, s);
+                }
+            }
+        }
+        List<Long> duplicados = new ArrayList<>(parecidos.keySet());
+        duplicados.sort((a, b) -> Double.compare(parecidos.get(b), parecidos.get(a)));
+        return duplicados;
+    }
+
+    private void indexar(Long id, int[] firma) {
+        firmas.put(id, firma);
+        for (int b = 0; b < BANDAS; b++) {
+            bandas.get(b).computeIfAbsent(claveBanda(firma, b), c -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private List<long[]> paresDeBanda(Map<Long, Set<Long>> banda) {
+        List<long[]> pares = new ArrayList<>();
+        for (Set<Long> cubo : banda.values()) {
+            if (cubo.size() < 2) continue;
+            Long[] ids = cubo.toArray(new Long[0]);
+            for (int i = 0; i < ids.length; i++) {
+                int[] a = firmas.get(ids[i]);
+                if (a == null) continue;
+                for (int j = i + 1; j < ids.length; j++) {
+                    int[] b = firmas.get(ids[j]);
+                    if (b == null) continue;
+                    comparaciones.increment();
+                    if (similitud(a, b) >= umbral) {
+                        pares.add(new long[]{ids[i], ids[j]});
+                    }
+                }
+            }
+        }
+        return pares;
+    }
+
+    private static Long raiz(Map<Long, Long> padres, Long id) {
+        Long actual = id;
+        Long padre;
+        while ((padre = padres.putIfAbsent(actual, actual)) != null && !padre.equals(actual)) {
+            Long abuelo = padres.get(padre);
+            padres.put(actual, abuelo);  // Compresión de caminos a la mitad
+            actual = abuelo;
+        }
+        return actual;
+    }
+
+    private static long claveBanda(int[] firma, int banda) {
+        long clave = banda;
+        for (int i = banda * FILAS_POR_BANDA; i < (banda + 1) * FILAS_POR_BANDA; i++) {
+            clave = clave * 0x9E3779B97F4A7C15L + firma[i];
+        }
+        return clave;
+    }
+
+    /** Finalizador de SplitMix64: reparte bien los bits de entradas parecidas. */
+    private static long mezclar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
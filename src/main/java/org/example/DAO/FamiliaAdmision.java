@@ -0,0 +1,66 @@
+package org.example.DAO;
+
+import org.example.DAO.ControlAdmision.ClaseCarga;
+import org.example.entities.Familia;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DAO de familias que pasa cada operación por un {@link ControlAdmision} antes de delegarla. Las
+ * búsquedas por identificador o ciudad son lecturas interactivas; el registro, la modificación y la
+ * baja individual, escrituras; y el listado completo y las bajas en bloque, informes.
+ *
+ * @see AnimalesAdmision
+ */
+public class FamiliaAdmision implements FamiliaInt {
+
+    private final FamiliaInt delegado;
+    private final ControlAdmision control;
+
+    /**
+     * Constructor que recibe el DAO real y el control de admisión compartido.
+     *
+     * @param delegado DAO que ejecuta las operaciones.
+     * @param control Control de admisión de la aplicación.
+     */
+    public FamiliaAdmision(FamiliaInt delegado, ControlAdmision control) {
+        this.delegado = delegado;
+        this.control = control;
+    }
+
+    @Override
+    public List<Familia> obtenerTodas() {
+        return control.ejecutar(ClaseCarga.INFORME, delegado::obtenerTodas);
+    }
+
+    @Override
+    public Familia buscarPorId(Long id) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorId(id));
+    }
+
+    @Override
+    public List<Familia> buscarPorCiudad(String ciudad) {
+        return control.ejecutar(ClaseCarga.LECTURA, () -> delegado.buscarPorCiudad(ciudad));
+    }
+
+    @Override
+    public Familia registrar(Familia familia) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.registrar(familia));
+    }
+
+    @Override
+    public Familia modificar(Familia familia) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.modificar(familia));
+    }
+
+    @Override
+    public boolean eliminarPorId(Long id) {
+        return control.ejecutar(ClaseCarga.ESCRITURA, () -> delegado.eliminarPorId(id));
+    }
+
+    @Override
+    public int eliminarPorIds(Collection<Long> ids, boolean eliminarAnimales) {
+        return control.ejecutar(ClaseCarga.INFORME, () -> delegado.eliminarPorIds(ids, eliminarAnimales));
+    }
+}
@@ -1,13 +1,22 @@
 package org.example.DAO;
 
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.example.entities.Estado;
 import org.example.entities.Familia;
-import org.example.util.HibernateUtil;
+import org.example.util.ContadoresOcupacion;
+import org.example.util.EnrutadorLecturas;
+import org.example.util.VersionDatos;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.HibernateException;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.FlushMode;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 /**
@@ -24,15 +33,13 @@ public class FamiliaImpl implements FamiliaInt {
 
     /**
      * Constructor que recibe una sesión de Hibernate.
+     * Si la sesión ya tiene una transacción activa, las operaciones de escritura se unen a ella
+     * y dejan su confirmación en manos de quien la inició.
      *
      * @param session Instancia de sesión activa para realizar operaciones en la base de datos.
      */
     public FamiliaImpl(Session session) {
         this.session = session;
-        SessionFactory factory = new Configuration()
-                .configure("hibernate.cfg.xml")
-                .addAnnotatedClass(Familia.class)
-                .buildSessionFactory();
     }
 
     /**
@@ -43,8 +50,8 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public List<Familia> obtenerTodas() {
-        try (Session session = HibernateUtil.getSession()) {
-            return session.createQuery("FROM Familia", Familia.class).getResultList();
+        try {
+            return session.createNamedQuery(Familia.OBTENER_TODAS, Familia.class).getResultList();
         } catch (HibernateException e) {
             throw new HibernateException("No se pudieron obtener las familias", e);
         }
@@ -59,7 +66,7 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public Familia buscarPorId(Long id) {
-        try (Session session = HibernateUtil.getSession()) {
+        try {
             return session.get(Familia.class, id);
         } catch (HibernateException e) {
             throw new HibernateException("No se pudo encontrar la familia con ID: " + id, e);
@@ -75,8 +82,8 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public List<Familia> buscarPorCiudad(String ciudad) {
-        try (Session session = HibernateUtil.getSession()) {
-            return session.createQuery("FROM Familia WHERE ciudad = :ciudad", Familia.class)
+        try {
+            return session.createNamedQuery(Familia.BUSCAR_POR_CIUDAD, Familia.class)
                     .setParameter("ciudad", ciudad)
                     .getResultList();
         } catch (HibernateException e) {
@@ -93,14 +100,17 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public Familia registrar(Familia familia) {
-        Transaction transaccion = null;
-        try (Session session = HibernateUtil.getSession()) {
-            transaccion = session.beginTransaction();
+        EnrutadorLecturas.marcarEscritura(session);
+        Transaction transaccion = session.getTransaction();
+        boolean propia = !transaccion.isActive();
+        try {
+            if (propia) transaccion.begin();
             session.persist(familia);
-            transaccion.commit();
+            if (propia) transaccion.commit();
+            trasConfirmar(transaccion, propia, () -> indexar(session.getSessionFactory(), familia));
             return familia;
         } catch (HibernateException e) {
-            if (transaccion != null) transaccion.rollback();
+            deshacer(transaccion, propia);
             throw new HibernateException("No se pudo registrar la familia", e);
         }
     }
@@ -114,14 +124,21 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public Familia modificar(Familia familia) {
-        Transaction transaccion = null;
-        try (Session session = HibernateUtil.getSession()) {
-            transaccion = session.beginTransaction();
+        EnrutadorLecturas.marcarEscritura(session);
+        Transaction transaccion = session.getTransaction();
+        boolean propia = !transaccion.isActive();
+        try {
+            if (propia) transaccion.begin();
+            List<Object[]> ocupacion = ocupacionDe(Collections.singletonList(familia.obtenerId()));
             session.merge(familia);
-            transaccion.commit();
+            if (propia) transaccion.commit();
+            trasConfirmar(transaccion, propia, () -> {
+                moverOcupacion(ocupacion, false, familia.obtenerCiudad());
+                indexar(session.getSessionFactory(), familia);
+            });
             return familia;
         } catch (HibernateException e) {
-            if (transaccion != null) transaccion.rollback();
+            deshacer(transaccion, propia);
             throw new HibernateException("No se pudo actualizar la información de la familia", e);
         }
     }
@@ -135,20 +152,217 @@ public class FamiliaImpl implements FamiliaInt {
      */
     @Override
     public boolean eliminarPorId(Long id) {
-        Transaction transaccion = null;
-        try (Session session = HibernateUtil.getSession()) {
-            transaccion = session.beginTransaction();
+        EnrutadorLecturas.marcarEscritura(session);
+        Transaction transaccion = session.getTransaction();
+        boolean propia = !transaccion.isActive();
+        try {
+            if (propia) transaccion.begin();
             Familia familia = session.get(Familia.class, id);
             if (familia != null) {
+                // Los animales acogidos se eliminan en cascada con la familia
+                List<Object[]> ocupacion = ocupacionDe(Collections.singletonList(id));
+                List<Long> animales = animalesIndexadosDe(Collections.singletonList(id));
                 session.remove(familia);
-                transaccion.commit();
+                if (propia) transaccion.commit();
+                trasConfirmar(transaccion, propia, () -> {
+                    moverOcupacion(ocupacion, true, null);
+                    desindexar(Collections.singletonList(id), animales);
+                });
                 return true;
             }
-            transaccion.rollback();
+            if (propia) transaccion.rollback();
             return false;
         } catch (HibernateException e) {
-            if (transaccion != null) transaccion.rollback();
+            deshacer(transaccion, propia);
             throw new HibernateException("No se pudo eliminar la familia con ID: " + id, e);
         }
     }
+
+    /**
+     * Elimina varias familias por lotes con sentencias DELETE, sin cargarlas. Por cada lote se
+     * eliminan o desvinculan primero sus animales acogidos y después las familias.
+     *
+     * @param ids Identificadores de las familias a eliminar.
+     * @param eliminarAnimales {@code true} para eliminar también sus animales, {@code false} para dejarlos sin familia.
+     * @return Número de familias eliminadas.
+     * @throws HibernateException Si ocurre un error durante la eliminación.
+     */
+    @Override
+    public int eliminarPorIds(Collection<Long> ids, boolean eliminarAnimales) {
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        int eliminadas = 0;
+        for (int desde = 0; desde < distintos.size(); desde += AnimalesImpl.TAMANO_LOTE) {
+            List<Long> lote = distintos.subList(desde, Math.min(desde + AnimalesImpl.TAMANO_LOTE, distintos.size()));
+            eliminadas += eliminarLote(lote, eliminarAnimales);
+        }
+        return eliminadas;
+    }
+
+    private int eliminarLote(List<Long> lote, boolean eliminarAnimales) {
+        EnrutadorLecturas.marcarEscritura(session);
+        Transaction transaccion = session.getTransaction();
+        boolean propia = !transaccion.isActive();
+        try {
+            if (propia) transaccion.begin();
+            List<Object[]> ocupacion = ocupacionDe(lote);
+            List<Long> eliminados = eliminarAnimales ? animalesIndexadosDe(lote) : Collections.emptyList();
+            HistorialAnimales historial = HistorialAnimales.de(session.getSessionFactory());
+            List<Object[]> desvinculados = historial != null && !eliminarAnimales
+                    ? session.createQuery("SELECT a.id, a.tipo FROM Animales a WHERE a.familia.id IN :ids", Object[].class)
+                            .setParameterList("ids", lote)
+                            .setHibernateFlushMode(FlushMode.MANUAL)
+                            .list()
+                    : Collections.emptyList();
+            String animales = eliminarAnimales
+                    ? "DELETE FROM Animales WHERE familia.id IN :ids"
+                    : "UPDATE Animales SET familia = null, fechaAdopcion = null WHERE familia.id IN :ids";
+            session.createMutationQuery(animales).setParameterList("ids", lote).executeUpdate();
+            int eliminadas = session.createMutationQuery("DELETE FROM Familia WHERE id IN :ids")
+                    .setParameterList("ids", lote)
+                    .executeUpdate();
+            if (propia) transaccion.commit();
+            trasConfirmar(transaccion, propia, () -> {
+                moverOcupacion(ocupacion, eliminarAnimales, null);
+                desindexar(lote, eliminados);
+                desvinculados.forEach(fila -> historial.cambioFamilia((Long) fila[0], (String) fila[1], null));
+            });
+            return eliminadas;
+        } catch (HibernateException e) {
+            deshacer(transaccion, propia);
+            throw new HibernateException("No se pudieron eliminar las familias", e);
+        }
+    }
+
+    /**
+     * Cuenta, tal como están en la base de datos, los animales acogidos por las familias agrupados
+     * por especie, estado y ciudad. Solo se consulta si los contadores de ocupación están activos.
+     */
+    private List<Object[]> ocupacionDe(Collection<Long> ids) {
+        if (ContadoresOcupacion.de(session.getSessionFactory()) == null || ids.contains(null)) {
+            return Collections.emptyList();
+        }
+        return session.createQuery("SELECT a.tipo, a.estado, f.ciudad, COUNT(a) FROM Animales a JOIN a.familia f"
+                        + " WHERE f.id IN :ids GROUP BY a.tipo, a.estado, f.ciudad", Object[].class)
+                .setParameterList("ids", ids)
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .list();
+    }
+
+    /**
+     * Traslada en los contadores de ocupación los animales contados por {@link #ocupacionDe}: a la
+     * nueva ciudad, o fuera de la ocupación si se han eliminado.
+     */
+    private void moverOcupacion(List<Object[]> ocupacion, boolean eliminados, String ciudadNueva) {
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(session.getSessionFactory());
+        if (contadores == null) {
+            return;
+        }
+        for (Object[] fila : ocupacion) {
+            ContadoresOcupacion.Clave antes = new ContadoresOcupacion.Clave((String) fila[0], (Estado) fila[1], (String) fila[2]);
+            ContadoresOcupacion.Clave despues = eliminados ? null : new ContadoresOcupacion.Clave((String) fila[0], (Estado) fila[1], ciudadNueva);
+            contadores.mover(antes, despues, (Long) fila[3]);
+        }
+    }
+
+    /**
+     * Identificadores de los animales acogidos por las familias, necesarios para quitarlos de los
+     * índices en memoria y eliminar sus adjuntos cuando se eliminan con ellas. Solo se consulta si
+     * hay algún índice activo o un almacén de adjuntos abierto.
+     */
+    private List<Long> animalesIndexadosDe(Collection<Long> ids) {
+        SessionFactory sessionFactory = session.getSessionFactory();
+        if ((Autocompletado.de(sessionFactory) == null && DetectorDuplicados.de(sessionFactory) == null
+                && AlmacenAdjuntos.de(sessionFactory) == null) || ids.contains(null)) {
+            return Collections.emptyList();
+        }
+        return session.createQuery("SELECT a.id FROM Animales a WHERE a.familia.id IN :ids", Long.class)
+                .setParameterList("ids", ids)
+                .setHibernateFlushMode(FlushMode.MANUAL)
+                .list();
+    }
+
+    /**
+     * Añade o actualiza la familia en el autocompletado, invalida su entrada en la caché cercana y
+     * avanza la {@link VersionDatos}, si están activos.
+     */
+    static void indexar(SessionFactory sessionFactory, Familia familia) {
+        Autocompletado autocompletado = Autocompletado.de(sessionFactory);
+        if (autocompletado != null && familia.obtenerId() != null) {
+            autocompletado.familias().agregar(familia.obtenerId(), familia.obtenerNombre());
+        }
+        CacheCercana cache = CacheCercana.de(sessionFactory);
+        if (cache != null && familia.obtenerId() != null) {
+            cache.invalidarFamilias(Collections.singletonList(familia.obtenerId()));
+        }
+        VersionDatos version = VersionDatos.de(sessionFactory);
+        if (version != null) {
+            version.avanzar();
+        }
+    }
+
+    /**
+     * Quita de los índices en memoria y de la caché cercana las familias eliminadas y los animales
+     * eliminados con ellas, y avanza la {@link VersionDatos}.
+     */
+    private void desindexar(Collection<Long> familias, List<Long> animales) {
+        Autocompletado autocompletado = Autocompletado.de(session.getSessionFactory());
+        if (autocompletado != null) {
+            familias.forEach(autocompletado.familias()::retirar);
+        }
+        CacheCercana cache = CacheCercana.de(session.getSessionFactory());
+        if (cache != null) {
+            cache.invalidarFamilias(familias);
+        }
+        VersionDatos version = VersionDatos.de(session.getSessionFactory());
+        if (version != null) {
+            version.avanzar();
+        }
+        if (!animales.isEmpty()) {
+            AnimalesImpl.trasEliminar(session.getSessionFactory(), animales);
+        }
+    }
+
+    /**
+     * Aplica los efectos posteriores a una escritura (contadores, índices en memoria, caché cercana e
+     * historial) cuando su transacción se confirma: en el momento si la inició este DAO, que ya la ha
+     * confirmado, o al terminar la transacción de quien llama, y solo si esta se confirma.
+     *
+     * @param transaccion Transacción de la escritura.
+     * @param propia {@code true} si la transacción la inició este DAO.
+     * @param efectos Efectos que dependen de que la escritura sea visible.
+     */
+    static void trasConfirmar(Transaction transaccion, boolean propia, Runnable efectos) {
+        if (propia) {
+            efectos.run();
+            return;
+        }
+        transaccion.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int estado) {
+                if (estado == Status.STATUS_COMMITTED) {
+                    efectos.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Deshace la transacción tras un error: si la inició este DAO la revierte, y si pertenece
+     * a quien llama la marca para que solo pueda revertirse.
+     *
+     * @param transaccion Transacción en curso.
+     * @param propia {@code true} si la transacción la inició este DAO.
+     */
+    static void deshacer(Transaction transaccion, boolean propia) {
+        if (!transaccion.isActive()) return;
+        if (propia) {
+            transaccion.rollback();
+        } else {
+            transaccion.markRollbackOnly();
+        }
+    }
 }
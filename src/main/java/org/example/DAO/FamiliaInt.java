@@ -1,6 +1,8 @@
 package org.example.DAO;
 
 import org.example.entities.Familia;
+
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -57,4 +59,16 @@ public interface FamiliaInt {
      * @return {@code true} si la eliminación fue exitosa, {@code false} si la familia no existe.
      */
     boolean eliminarPorId(Long id);
+
+    /**
+     * Elimina varias familias con sentencias DELETE por lotes, sin cargarlas en memoria.
+     * Los animales acogidos por esas familias se eliminan con ellas o se devuelven al refugio
+     * (sin familia), según se indique.
+     *
+     * @param ids Identificadores de las familias a eliminar.
+     * @param eliminarAnimales {@code true} para eliminar también sus animales acogidos,
+     *                         {@code false} para dejarlos sin familia.
+     * @return Número de familias eliminadas.
+     */
+    int eliminarPorIds(Collection<Long> ids, boolean eliminarAnimales);
 }
@@ -0,0 +1,209 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filtro de búsqueda de animales que combina cualquier subconjunto de criterios (especie, rango de
+ * edad, estado y ciudad de la familia de acogida) en una única consulta HQL. Los valores se pasan
+ * como parámetros, de modo que todos los filtros con los mismos criterios activos y la misma
+ * ordenación generan el mismo texto de consulta y comparten plan.
+ *
+ * <pre>{@code
+ * List<Animales> perros = animalesDao.buscar(new FiltroAnimales()
+ *         .especie("Perro")
+ *         .edadEntre(1, 5)
+ *         .ciudad("Madrid")
+ *         .ordenarPor(FiltroAnimales.Orden.EDAD, true));
+ * }</pre>
+ */
+public class FiltroAnimales {
+
+    /**
+     * Atributos por los que se pueden ordenar los resultados.
+     */
+    public enum Orden {
+        NOMBRE("nombre"),
+        EDAD("años"),
+        FECHA_INGRESO("fechaIngreso");
+
+        private final String atributo;
+
+        Orden(String atributo) {
+            this.atributo = atributo;
+        }
+    }
+
+    /**
+     * Texto HQL de cada forma de filtro. Se guarda el texto y no una consulta construida porque es
+     * inmutable y sirve para cualquier sesión; Hibernate usa el mismo texto como clave de su caché
+     * de planes.
+     */
+    private static final Map<String, String> CONSULTAS = new ConcurrentHashMap<>();
+
+    private String especie;
+    private Integer edadMinima;
+    private Integer edadMaxima;
+    private Estado estado;
+    private String ciudad;
+    private final Map<Orden, Boolean> ordenacion = new LinkedHashMap<>();
+
+    /**
+     * Limita la búsqueda a una especie.
+     *
+     * @param especie Especie (tipo) de los animales.
+     * @return Este filtro.
+     */
+    public FiltroAnimales especie(String especie) {
+        this.especie = especie;
+        return this;
+    }
+
+    /**
+     * Limita la búsqueda a un rango de edad, ambos extremos incluidos.
+     *
+     * @param minima Edad mínima en años.
+     * @param maxima Edad máxima en años.
+     * @return Este filtro.
+     * @throws IllegalArgumentException Si la edad mínima es mayor que la máxima.
+     */
+    public FiltroAnimales edadEntre(int minima, int maxima) {
+        if (minima > maxima) {
+            throw new IllegalArgumentException("La edad mínima no puede ser mayor que la máxima");
+        }
+        this.edadMinima = minima;
+        this.edadMaxima = maxima;
+        return this;
+    }
+
+    /**
+     * Limita la búsqueda a los animales con una edad mínima.
+     *
+     * @param minima Edad mínima en años.
+     * @return Este filtro.
+     */
+    public FiltroAnimales edadMinima(int minima) {
+        this.edadMinima = minima;
+        return this;
+    }
+
+    /**
+     * Limita la búsqueda a los animales con una edad máxima.
+     *
+     * @param maxima Edad máxima en años.
+     * @return Este filtro.
+     */
+    public FiltroAnimales edadMaxima(int maxima) {
+        this.edadMaxima = maxima;
+        return this;
+    }
+
+    /**
+     * Limita la búsqueda a un estado.
+     *
+     * @param estado Estado de los animales.
+     * @return Este filtro.
+     */
+    public FiltroAnimales estado(Estado estado) {
+        this.estado = estado;
+        return this;
+    }
+
+    /**
+     * Limita la búsqueda a los animales acogidos por familias de una ciudad.
+     *
+     * @param ciudad Ciudad de la familia de acogida.
+     * @return Este filtro.
+     */
+    public FiltroAnimales ciudad(String ciudad) {
+        this.ciudad = ciudad;
+        return this;
+    }
+
+    /**
+     * Añade un criterio de ordenación. Los criterios se aplican en el orden en que se añaden.
+     *
+     * @param orden Atributo por el que ordenar.
+     * @param ascendente {@code true} para orden ascendente, {@code false} para descendente.
+     * @return Este filtro.
+     */
+    public FiltroAnimales ordenarPor(Orden orden, boolean ascendente) {
+        ordenacion.put(orden, ascendente);
+        return this;
+    }
+
+    /**
+     * Crea la consulta del filtro sobre la sesión indicada, con los parámetros ya asignados.
+     * El texto de cada forma se construye una sola vez y se reutiliza, de modo que Hibernate
+     * encuentra su plan en la caché en las siguientes búsquedas.
+     *
+     * @param session Sesión de Hibernate.
+     * @return La consulta lista para ejecutarse.
+     */
+    Query<Animales> crearConsulta(Session session) {
+        String hql = CONSULTAS.computeIfAbsent(forma(), f -> construir());
+
+        Query<Animales> consulta = session.createQuery(hql, Animales.class);
+        if (especie != null) consulta.setParameter("especie", especie);
+        if (edadMinima != null) consulta.setParameter("edadMinima", edadMinima);
+        if (edadMaxima != null) consulta.setParameter("edadMaxima", edadMaxima);
+        if (estado != null) consulta.setParameter("estado", estado);
+        if (ciudad != null) consulta.setParameter("ciudad", ciudad);
+        return consulta;
+    }
+
+    /**
+     * Clave que identifica qué criterios están activos y cómo se ordena, sin los valores.
+     */
+    private String forma() {
+        StringBuilder forma = new StringBuilder()
+                .append(especie != null ? 'E' : '-')
+                .append(edadMinima != null ? 'm' : '-')
+                .append(edadMaxima != null ? 'M' : '-')
+                .append(estado != null ? 'S' : '-')
+                .append(ciudad != null ? 'C' : '-');
+        ordenacion.forEach((orden, ascendente) -> forma.append(':').append(orden.name()).append(ascendente ? '+' : '-'));
+        return forma.toString();
+    }
+
+    /**
+     * Construye el texto HQL de la forma del filtro. Solo se hace el join con la familia si se
+     * filtra por ciudad.
+     */
+    private String construir() {
+        StringBuilder hql = new StringBuilder("SELECT a FROM Animales a");
+        if (ciudad != null) {
+            hql.append(" JOIN a.familia f");
+        }
+        List<String> condiciones = new ArrayList<>();
+        if (especie != null) condiciones.add("a.tipo = :especie");
+        if (edadMinima != null) condiciones.add("a.años >= :edadMinima");
+        if (edadMaxima != null) condiciones.add("a.años <= :edadMaxima");
+        if (estado != null) condiciones.add("a.estado = :estado");
+        if (ciudad != null) condiciones.add("f.ciudad = :ciudad");
+        if (!condiciones.isEmpty()) {
+            hql.append(" WHERE ").append(String.join(" AND ", condiciones));
+        }
+
+        List<String> orden = new ArrayList<>();
+        ordenacion.forEach((atributo, ascendente) -> orden.add("a." + atributo.atributo + (ascendente ? " ASC" : " DESC")));
+        if (!orden.isEmpty()) {
+            hql.append(" ORDER BY ").append(String.join(", ", orden));
+        }
+        return hql.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroAnimales{especie=" + especie + ", edad=[" + edadMinima + ", " + edadMaxima + "], estado=" + estado
+                + ", ciudad=" + ciudad + ", orden=" + ordenacion + "}";
+    }
+}
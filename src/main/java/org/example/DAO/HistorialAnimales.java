@@ -0,0 +1,618 @@
+package org.example.DAO;
+
+import org.example.entities.Estado;
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Historial de los cambios de estado y de familia de los animales, guardado en disco como un
+ * registro de solo inserción, fuera de la base de datos. {@link AnimalesImpl},
+ * {@link FamiliaImpl} y {@link TransicionesEstado} encolan los cambios tras confirmar cada
+ * transacción, y un hilo en segundo plano los escribe por lotes, de modo que las escrituras de los
+ * DAOs no esperan al disco.
+ * <p>
+ * Los eventos se guardan en un fichero por mes (UTC), {@code historial-AAAA-MM.bin}, con una
+ * codificación compacta de 4 a 8 bytes por evento:
+ * <pre>
+ * cabecera (1 byte): tipo (bits 0-1) | ordinal del estado, 7 sin estado, o "con familia" (bits 2-4)
+ * instante: varint, milisegundos desde el evento anterior del fichero (o desde el inicio del mes)
+ * animal:   varint
+ * especie:  varint, índice en el diccionario del fichero
+ * familia:  varint, solo en los cambios de familia con familia
+ * </pre>
+ * La primera vez que aparece una especie en un fichero se escribe antes un registro de diccionario
+ * con su nombre. Las consultas por rango de fechas solo abren los ficheros de los meses afectados y
+ * los recorren secuencialmente, sin tocar la tabla {@code animales}.
+ */
+public final class HistorialAnimales implements AutoCloseable {
+
+    /**
+     * Tipo de evento del historial.
+     */
+    public enum TipoEvento {
+        /** Alta del animal, con su estado inicial. */
+        ALTA,
+        /** Cambio de estado. */
+        ESTADO,
+        /** Cambio de familia de acogida, o pérdida de la familia. */
+        FAMILIA
+    }
+
+    /**
+     * Retroceso por defecto de {@link #tiempoMedio(Estado, Estado, Instant, Instant)}: cuánto antes
+     * del intervalo se buscan las entradas en el estado de origen.
+     */
+    public static final Duration RETROCESO_POR_DEFECTO = Duration.ofDays(366);
+
+    private static final Logger LOG = Logger.getLogger(HistorialAnimales.class.getName());
+
+    private static final Map<SessionFactory, HistorialAnimales> ACTIVOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final int TIPO_ESPECIE = 3;
+    private static final int SIN_ESTADO = 7;
+    private static final int MAXIMO_LOTE = 4096;
+    private static final Estado[] ESTADOS = Estado.values();
+    private static final TipoEvento[] TIPOS = TipoEvento.values();
+
+    /** Marca que {@link #close()} encola para que el escritor termine tras escribir lo anterior. */
+    private static final Evento FIN = new Evento(TipoEvento.ALTA, 0, 0, null, null, null);
+
+    private final SessionFactory sessionFactory;
+    private final Path directorio;
+    private final BlockingQueue<Evento> cola = new LinkedBlockingQueue<>(100_000);
+    private final Thread escritor;
+    private final Object avance = new Object();
+    private long encolados;
+    private long escritos;
+    private volatile boolean cerrado;
+    private Segmento segmento;
+
+    /**
+     * Evento del historial.
+     */
+    public static final class Evento {
+
+        private final TipoEvento tipo;
+        private final long instante;
+        private final long animalId;
+        private final String especie;
+        private final Estado estado;
+        private final Long familiaId;
+
+        private Evento(TipoEvento tipo, long instante, long animalId, String especie, Estado estado, Long familiaId) {
+            this.tipo = tipo;
+            this.instante = instante;
+            this.animalId = animalId;
+            this.especie = especie != null ? especie : "";
+            this.estado = estado;
+            this.familiaId = familiaId;
+        }
+
+        /**
+         * Tipo del evento.
+         *
+         * @return El tipo del evento.
+         */
+        public TipoEvento getTipo() {
+            return tipo;
+        }
+
+        /**
+         * Momento del cambio, con precisión de milisegundos.
+         *
+         * @return El instante del evento.
+         */
+        public Instant getInstante() {
+            return Instant.ofEpochMilli(instante);
+        }
+
+        /**
+         * Identificador del animal.
+         *
+         * @return El identificador del animal.
+         */
+        public long getAnimalId() {
+            return animalId;
+        }
+
+        /**
+         * Especie del animal en el momento del cambio.
+         *
+         * @return La especie, o una cadena vacía si no se conocía.
+         */
+        public String getEspecie() {
+            return especie;
+        }
+
+        /**
+         * Estado nuevo, en las altas y los cambios de estado.
+         *
+         * @return El estado, o {@code null} en los cambios de familia.
+         */
+        public Estado getEstado() {
+            return estado;
+        }
+
+        /**
+         * Familia nueva, en los cambios de familia.
+         *
+         * @return El identificador de la familia, o {@code null} si el animal se quedó sin familia o
+         * el evento no es un cambio de familia.
+         */
+        public Long getFamiliaId() {
+            return familiaId;
+        }
+    }
+
+    private HistorialAnimales(SessionFactory sessionFactory, Path directorio) {
+        this.sessionFactory = sessionFactory;
+        this.directorio = directorio;
+        this.escritor = new Thread(this::escribir, "historial-animales");
+        this.escritor.setDaemon(true);
+    }
+
+    /**
+     * Activa el historial de una SessionFactory. Si ya estaba activo, devuelve el existente.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param directorio Directorio de los ficheros del historial; se crea si no existe.
+     * @return El historial activo.
+     * @throws HibernateException Si no se puede crear el directorio.
+     */
+    public static HistorialAnimales iniciar(SessionFactory sessionFactory, Path directorio) {
+        synchronized (ACTIVOS) {
+            HistorialAnimales historial = ACTIVOS.get(sessionFactory);
+            if (historial == null) {
+                try {
+                    Files.createDirectories(directorio);
+                } catch (IOException e) {
+                    throw new HibernateException("No se pudo crear el directorio del historial " + directorio, e);
+                }
+                historial = new HistorialAnimales(sessionFactory, directorio);
+                historial.escritor.start();
+                ACTIVOS.put(sessionFactory, historial);
+            }
+            return historial;
+        }
+    }
+
+    /**
+     * Obtiene el historial activo de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return El historial, o {@code null} si no se ha activado.
+     */
+    public static HistorialAnimales de(SessionFactory sessionFactory) {
+        return ACTIVOS.get(sessionFactory);
+    }
+
+    /**
+     * Encola el alta de un animal.
+     */
+    void alta(long animalId, String especie, Estado estado) {
+        encolar(new Evento(TipoEvento.ALTA, System.currentTimeMillis(), animalId, especie, estado, null));
+    }
+
+    /**
+     * Encola un cambio de estado.
+     */
+    void cambioEstado(long animalId, String especie, Estado estado) {
+        encolar(new Evento(TipoEvento.ESTADO, System.currentTimeMillis(), animalId, especie, estado, null));
+    }
+
+    /**
+     * Encola un cambio de familia.
+     */
+    void cambioFamilia(long animalId, String especie, Long familiaId) {
+        encolar(new Evento(TipoEvento.FAMILIA, System.currentTimeMillis(), animalId, especie, null, familiaId));
+    }
+
+    private void encolar(Evento evento) {
+        if (cerrado) {
+            return;
+        }
+        synchronized (avance) {
+            encolados++;
+        }
+        try {
+            // Si el disco no da abasto, los DAOs esperan en lugar de perder eventos
+            cola.put(evento);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (avance) {
+                encolados--;
+            }
+        }
+    }
+
+    /**
+     * Espera a que todos los eventos encolados hasta ahora estén escritos.
+     *
+     * @param espera Tiempo máximo de espera.
+     * @return {@code true} si se escribieron todos a tiempo.
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    public boolean sincronizar(Duration espera) throws InterruptedException {
+        long limite = System.nanoTime() + espera.toNanos();
+        synchronized (avance) {
+            long objetivo = encolados;
+            while (escritos < objetivo) {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) {
+                    return false;
+                }
+                avance.wait(Math.max(1, restante / 1_000_000));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Recorre los eventos de un intervalo en orden de escritura. Solo se leen los ficheros de los
+     * meses que se solapan con el intervalo.
+     *
+     * @param desde Inicio del intervalo, incluido.
+     * @param hasta Fin del intervalo, excluido.
+     * @param accion Acción a aplicar a cada evento.
+     * @throws UncheckedIOException Si no se pueden leer los ficheros.
+     */
+    public void recorrer(Instant desde, Instant hasta, Consumer<Evento> accion) {
+        long inicio = desde.toEpochMilli();
+        long fin = hasta.toEpochMilli();
+        for (Map.Entry<YearMonth, Path> fichero : ficheros().entrySet()) {
+            YearMonth mes = fichero.getKey();
+            if (inicioDe(mes.plusMonths(1)) <= inicio || inicioDe(mes) >= fin) {
+                continue;
+            }
+            leer(fichero.getValue(), mes, evento -> {
+                if (evento.instante >= inicio && evento.instante < fin) {
+                    accion.accept(evento);
+                }
+            });
+        }
+    }
+
+    /**
+     * Tiempo medio, por especie, que tardan los animales en pasar de un estado a otro, con un
+     * retroceso de {@link #RETROCESO_POR_DEFECTO}.
+     *
+     * @param origen Estado de origen, p. ej. {@link Estado#RECIEN_ABANDONADO}.
+     * @param destino Estado de destino, p. ej. {@link Estado#ADOPTADO}.
+     * @param desde Inicio del intervalo, incluido.
+     * @param hasta Fin del intervalo, excluido.
+     * @return El tiempo medio por especie, ordenado por especie.
+     * @see #tiempoMedio(Estado, Estado, Instant, Instant, Duration)
+     */
+    public Map<String, Duration> tiempoMedio(Estado origen, Estado destino, Instant desde, Instant hasta) {
+        return tiempoMedio(origen, destino, desde, hasta, RETROCESO_POR_DEFECTO);
+    }
+
+    /**
+     * Tiempo medio, por especie, que tardan los animales en pasar de un estado a otro, contando los
+     * animales que llegaron al estado de destino dentro del intervalo. Para cada uno se mide desde
+     * el último evento que lo dejó en el estado de origen, aunque sea anterior al intervalo, siempre
+     * que no lo sea en más del retroceso: solo se leen los meses desde {@code desde - retroceso}, y
+     * los animales que llegaron al origen antes no se cuentan.
+     *
+     * @param origen Estado de origen, p. ej. {@link Estado#RECIEN_ABANDONADO}.
+     * @param destino Estado de destino, p. ej. {@link Estado#ADOPTADO}.
+     * @param desde Inicio del intervalo, incluido.
+     * @param hasta Fin del intervalo, excluido.
+     * @param retroceso Tiempo máximo antes de {@code desde} en el que se buscan las entradas en el origen.
+     * @return El tiempo medio por especie, ordenado por especie.
+     */
+    public Map<String, Duration> tiempoMedio(Estado origen, Estado destino, Instant desde, Instant hasta, Duration retroceso) {
+        Map<Long, Long> enOrigen = new HashMap<>();
+        Map<String, long[]> sumas = new TreeMap<>();
+        long inicio = desde.toEpochMilli();
+        recorrer(desde.minus(retroceso), hasta, evento -> {
+            if (evento.estado == null) {
+                return;
+            }
+            if (evento.estado == origen) {
+                enOrigen.put(evento.animalId, evento.instante);
+            } else if (evento.estado == destino) {
+                Long entrada = enOrigen.remove(evento.animalId);
+                if (entrada != null && evento.instante >= inicio) {
+                    long[] suma = sumas.computeIfAbsent(evento.especie, e -> new long[2]);
+                    suma[0] += evento.instante - entrada;
+                    suma[1]++;
+                }
+            }
+        });
+        Map<String, Duration> medias = new TreeMap<>();
+        sumas.forEach((especie, suma) -> medias.put(especie, Duration.ofMillis(suma[0] / suma[1])));
+        return medias;
+    }
+
+    /**
+     * Escribe los eventos pendientes y detiene el historial.
+     */
+    @Override
+    public void close() {
+        synchronized (ACTIVOS) {
+            ACTIVOS.remove(sessionFactory, this);
+        }
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        // Sin interrumpir al escritor: una interrupción durante una escritura cerraría el canal
+        try {
+            cola.put(FIN);
+            escritor.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void escribir() {
+        List<Evento> lote = new ArrayList<>(MAXIMO_LOTE);
+        ByteBuffer buffer = ByteBuffer.allocate(MAXIMO_LOTE * 64);
+        boolean fin = false;
+        while (!fin) {
+            try {
+                lote.add(cola.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            cola.drainTo(lote, MAXIMO_LOTE - lote.size());
+            fin = lote.removeIf(evento -> evento == FIN);
+            if (lote.isEmpty()) {
+                continue;
+            }
+            try {
+                escribirLote(lote, buffer);
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.SEVERE, "No se pudieron escribir " + lote.size() + " eventos del historial", e);
+                descartarLote(buffer);
+            }
+            synchronized (avance) {
+                escritos += lote.size();
+                avance.notifyAll();
+            }
+            lote.clear();
+        }
+        try {
+            if (segmento != null) {
+                segmento.canal.force(false);
+                segmento.canal.close();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Error al cerrar el historial", e);
+        }
+    }
+
+    private void escribirLote(List<Evento> lote, ByteBuffer buffer) throws IOException {
+        lote.sort(Comparator.comparingLong(e -> e.instante));
+        for (Evento evento : lote) {
+            YearMonth mes = YearMonth.from(Instant.ofEpochMilli(evento.instante).atOffset(ZoneOffset.UTC));
+            if (segmento == null || !segmento.mes.equals(mes)) {
+                if (segmento != null) {
+                    vaciar(buffer);
+                    segmento.canal.close();
+                    segmento = null;
+                }
+                segmento = abrir(mes);
+            }
+            if (buffer.remaining() < 64 + evento.especie.length() * 3) {
+                vaciar(buffer);
+            }
+            Integer especie = segmento.especies.get(evento.especie);
+            if (especie == null) {
+                especie = segmento.especies.size();
+                segmento.especies.put(evento.especie, especie);
+                byte[] nombre = evento.especie.getBytes(StandardCharsets.UTF_8);
+                buffer.put((byte) TIPO_ESPECIE);
+                escribirVarint(buffer, nombre.length);
+                buffer.put(nombre);
+            }
+            // Los eventos de lotes distintos pueden llegar con relojes de hilos distintos: el instante nunca retrocede
+            long instante = Math.max(evento.instante, segmento.ultimoInstante);
+            int valor = evento.tipo == TipoEvento.FAMILIA ? (evento.familiaId != null ? 1 : 0)
+                    : evento.estado != null ? evento.estado.ordinal() : SIN_ESTADO;
+            buffer.put((byte) (evento.tipo.ordinal() | valor << 2));
+            escribirVarint(buffer, instante - segmento.ultimoInstante);
+            escribirVarint(buffer, evento.animalId);
+            escribirVarint(buffer, especie);
+            if (evento.tipo == TipoEvento.FAMILIA && evento.familiaId != null) {
+                escribirVarint(buffer, evento.familiaId);
+            }
+            segmento.ultimoInstante = instante;
+        }
+        vaciar(buffer);
+        segmento.confirmar();
+    }
+
+    /**
+     * Deshace en el segmento abierto lo que el lote fallido haya añadido desde la última
+     * confirmación: las especies nuevas del diccionario, el último instante y los bytes escritos.
+     * Si no se puede recortar el fichero, se cierra y el siguiente lote lo vuelve a abrir desde el disco.
+     */
+    private void descartarLote(ByteBuffer buffer) {
+        buffer.clear();
+        if (segmento == null) {
+            return;
+        }
+        segmento.especies.values().removeIf(indice -> indice >= segmento.especiesConfirmadas);
+        segmento.ultimoInstante = segmento.instanteConfirmado;
+        try {
+            segmento.canal.truncate(segmento.posicionConfirmada);
+            segmento.canal.position(segmento.posicionConfirmada);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "No se pudo recortar el historial de " + segmento.mes, e);
+            try {
+                segmento.canal.close();
+            } catch (IOException cierre) {
+                e.addSuppressed(cierre);
+            }
+            segmento = null;
+        }
+    }
+
+    private void vaciar(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmento.canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Abre el fichero de un mes para añadir eventos. Si ya existía, se recorre para recuperar su
+     * diccionario y su último instante, y se descarta un registro final incompleto.
+     */
+    private Segmento abrir(YearMonth mes) throws IOException {
+        Segmento nuevo = new Segmento(mes);
+        Path ruta = ruta(mes);
+        long valido = Files.exists(ruta) ? leer(ruta, mes, evento -> nuevo.ultimoInstante = evento.instante, nuevo.especies) : 0;
+        nuevo.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        nuevo.canal.truncate(valido);
+        nuevo.canal.position(valido);
+        nuevo.confirmar();
+        return nuevo;
+    }
+
+    private long leer(Path ruta, YearMonth mes, Consumer<Evento> accion) {
+        return leer(ruta, mes, accion, new HashMap<>());
+    }
+
+    /**
+     * Decodifica un fichero del historial.
+     *
+     * @return La longitud de la parte del fichero formada por registros completos.
+     */
+    private long leer(Path ruta, YearMonth mes, Consumer<Evento> accion, Map<String, Integer> diccionario) {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            List<String> especies = new ArrayList<>();
+            long instante = inicioDe(mes);
+            int valido = 0;
+            try {
+                while (datos.hasRemaining()) {
+                    int cabecera = datos.get() & 0xFF;
+                    int tipo = cabecera & 0b11;
+                    if (tipo == TIPO_ESPECIE) {
+                        byte[] nombre = new byte[(int) leerVarint(datos)];
+                        datos.get(nombre);
+                        String especie = new String(nombre, StandardCharsets.UTF_8);
+                        diccionario.put(especie, especies.size());
+                        especies.add(especie);
+                    } else {
+                        int valor = cabecera >>> 2;
+                        instante += leerVarint(datos);
+                        long animalId = leerVarint(datos);
+                        String especie = especies.get((int) leerVarint(datos));
+                        TipoEvento tipoEvento = TIPOS[tipo];
+                        Long familiaId = tipoEvento == TipoEvento.FAMILIA && valor == 1 ? leerVarint(datos) : null;
+                        Estado estado = tipoEvento == TipoEvento.FAMILIA || valor == SIN_ESTADO ? null : ESTADOS[valor];
+                        accion.accept(new Evento(tipoEvento, instante, animalId, especie, estado, familiaId));
+                    }
+                    valido = datos.position();
+                }
+            } catch (BufferUnderflowException e) {
+                // Un lote a medio escribir, o el final de un fichero que se cerró de golpe
+                LOG.fine("Registro incompleto al final de " + ruta + " en la posición " + valido);
+            }
+            return valido;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el historial " + ruta, e);
+        }
+    }
+
+    private Map<YearMonth, Path> ficheros() {
+        Map<YearMonth, Path> ficheros = new TreeMap<>();
+        try (DirectoryStream<Path> rutas = Files.newDirectoryStream(directorio, "historial-*.bin")) {
+            for (Path ruta : rutas) {
+                String nombre = ruta.getFileName().toString();
+                ficheros.put(YearMonth.parse(nombre.substring("historial-".length(), nombre.length() - ".bin".length())), ruta);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el historial en " + directorio, e);
+        }
+        return ficheros;
+    }
+
+    private Path ruta(YearMonth mes) {
+        return directorio.resolve("historial-" + mes + ".bin");
+    }
+
+    private static long inicioDe(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    private static void escribirVarint(ByteBuffer buffer, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    private static long leerVarint(ByteBuffer buffer) {
+        long valor = 0;
+        for (int desplazamiento = 0; ; desplazamiento += 7) {
+            byte b = buffer.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+    }
+
+    /**
+     * Fichero del mes en el que se están añadiendo eventos.
+     */
+    private static final class Segmento {
+
+        private final YearMonth mes;
+        private final Map<String, Integer> especies = new HashMap<>();
+        private FileChannel canal;
+        private long ultimoInstante;
+
+        /** Estado tras el último lote escrito entero, al que se vuelve si un lote falla a medias. */
+        private long posicionConfirmada;
+        private int especiesConfirmadas;
+        private long instanteConfirmado;
+
+        private Segmento(YearMonth mes) {
+            this.mes = mes;
+            this.ultimoInstante = inicioDe(mes);
+        }
+
+        private void confirmar() throws IOException {
+            posicionConfirmada = canal.position();
+            especiesConfirmadas = especies.size();
+            instanteConfirmado = ultimoInstante;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.DAO;
+
+import org.example.util.TextoNormalizado;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de prefijos sobre nombres, sin distinguir mayúsculas ni tildes. Los nombres normalizados
+ * se guardan ordenados en arrays y un prefijo se localiza con búsqueda binaria; las sugerencias son
+ * las entradas consecutivas que empiezan por él.
+ * <p>
+ * Las lecturas no bloquean: trabajan sobre una instantánea inmutable publicada en un campo
+ * {@code volatile}. Cada escritura copia los arrays con la entrada añadida o quitada y publica la
+ * nueva instantánea, por lo que el índice está pensado para muchas más lecturas que escrituras.
+ */
+public final class IndiceNombres {
+
+    /**
+     * Sugerencia de autocompletado: identificador y nombre tal como se guardó.
+     */
+    public static final class Sugerencia {
+
+        private final long id;
+        private final String nombre;
+
+        Sugerencia(long id, String nombre) {
+            this.id = id;
+            this.nombre = nombre;
+        }
+
+        /**
+         * Obtiene el identificador de la entidad sugerida.
+         *
+         * @return El identificador.
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Obtiene el nombre original de la entidad sugerida.
+         *
+         * @return El nombre.
+         */
+        public String getNombre() {
+            return nombre;
+        }
+
+        @Override
+        public String toString() {
+            return nombre + " (" + id + ")";
+        }
+    }
+
+    /** Arrays paralelos ordenados por clave normalizada y, a igual clave, por identificador. */
+    private static final class Instantanea {
+
+        final String[] claves;
+        final long[] ids;
+        final String[] nombres;
+
+        Instantanea(String[] claves, long[] ids, String[] nombres) {
+            this.claves = claves;
+            this.ids = ids;
+            this.nombres = nombres;
+        }
+    }
+
+    private volatile Instantanea actual = new Instantanea(new String[0], new long[0], new String[0]);
+
+    /** Clave normalizada de cada identificador indexado; solo se usa con el bloqueo de escritura. */
+    private final Map<Long, String> clavePorId = new HashMap<>();
+
+    /**
+     * Añade una entrada o sustituye el nombre de una existente.
+     *
+     * @param id Identificador de la entidad.
+     * @param nombre Nombre a indexar; si es {@code null} la entrada se quita.
+     */
+    public synchronized void agregar(long id, String nombre) {
+        retirar(id);
+        if (nombre == null) {
+            return;
+        }
+        String clave = TextoNormalizado.normalizar(nombre);
+        Instantanea base = actual;
+        int posicion = posicion(base, clave, id);
+        int tamano = base.claves.length;
+        String[] claves = new String[tamano + 1];
+        long[] ids = new long[tamano + 1];
+        String[] nombres = new String[tamano + 1];
+        System.arraycopy(base.claves, 0, claves, 0, posicion);
+        System.arraycopy(base.ids, 0, ids, 0, posicion);
+        System.arraycopy(base.nombres, 0, nombres, 0, posicion);
+        claves[posicion] = clave;
+        ids[posicion] = id;
+        nombres[posicion] = nombre;
+        System.arraycopy(base.claves, posicion, claves, posicion + 1, tamano - posicion);
+        System.arraycopy(base.ids, posicion, ids, posicion + 1, tamano - posicion);
+        System.arraycopy(base.nombres, posicion, nombres, posicion + 1, tamano - posicion);
+        clavePorId.put(id, clave);
+        actual = new Instantanea(claves, ids, nombres);
+    }
+
+    /**
+     * Sustituye todo el contenido del índice de una vez, ordenando las entradas una sola vez.
+     *
+     * @param nombresPorId Nombres a indexar por identificador.
+     */
+    public synchronized void cargar(Map<Long, String> nombresPorId) {
+        Long[] orden = nombresPorId.entrySet().stream()
+                .filter(e -> e.getValue() != null)
+                .map(Map.Entry::getKey)
+                .toArray(Long[]::new);
+        Map<Long, String> claves = new HashMap<>();
+        for (Long id : orden) {
+            claves.put(id, TextoNormalizado.normalizar(nombresPorId.get(id)));
+        }
+        Arrays.parallelSort(orden, (a, b) -> {
+            int c = claves.get(a).compareTo(claves.get(b));
+            return c != 0 ? c : Long.compare(a, b);
+        });
+        String[] clavesOrdenadas = new String[orden.length];
+        long[] ids = new long[orden.length];
+        String[] nombres = new String[orden.length];
+        for (int i = 0; i < orden.length; i++) {
+            clavesOrdenadas[i] = claves.get(orden[i]);
+            ids[i] = orden[i];
+            nombres[i] = nombresPorId.get(orden[i]);
+        }
+        clavePorId.clear();
+        clavePorId.putAll(claves);
+        actual = new Instantanea(clavesOrdenadas, ids, nombres);
+    }
+
+    /**
+     * Quita una entrada del índice.
+     *
+     * @param id Identificador de la entidad.
+     */
+    public synchronized void retirar(long id) {
+        String clave = clavePorId.remove(id);
+        if (clave == null) {
+            return;
+        }
+        Instantanea base = actual;
+        int posicion = posicion(base, clave, id);
+        int tamano = base.claves.length;
+        String[] claves = new String[tamano - 1];
+        long[] ids = new long[tamano - 1];
+        String[] nombres = new String[tamano - 1];
+        System.arraycopy(base.claves, 0, claves, 0, posicion);
+        System.arraycopy(base.ids, 0, ids, 0, posicion);
+        System.arraycopy(base.nombres, 0, nombres, 0, posicion);
+        System.arraycopy(base.claves, posicion + 1, claves, posicion, tamano - posicion - 1);
+        System.arraycopy(base.ids, posicion + 1, ids, posicion, tamano - posicion - 1);
+        System.arraycopy(base.nombres, posicion + 1, nombres, posicion, tamano - posicion - 1);
+        actual = new Instantanea(claves, ids, nombres);
+    }
+
+    /**
+     * Devuelve hasta {@code n} entradas cuyo nombre empieza por el prefijo, en orden alfabético.
+     *
+     * @param prefijo Texto escrito por el usuario; no distingue mayúsculas ni tildes.
+     * @param n Número máximo de sugerencias.
+     * @return Las sugerencias encontradas; ninguna si el prefijo es {@code null} o está en blanco.
+     */
+    public List<Sugerencia> sugerir(String prefijo, int n) {
+        if (prefijo == null || prefijo.isBlank() || n <= 0) {
+            return Collections.emptyList();
+        }
+        Instantanea instantanea = actual;
+        String clave = TextoNormalizado.normalizar(prefijo);
+        List<Sugerencia> sugerencias = new ArrayList<>(Math.min(n, 16));
+        for (int i = posicion(instantanea, clave, Long.MIN_VALUE);
+             i < instantanea.claves.length && sugerencias.size() < n && instantanea.claves[i].startsWith(clave); i++) {
+            sugerencias.add(new Sugerencia(instantanea.ids[i], instantanea.nombres[i]));
+        }
+        return sugerencias;
+    }
+
+    /**
+     * Número de entradas del índice.
+     *
+     * @return El número de nombres indexados.
+     */
+    public int tamano() {
+        return actual.claves.length;
+    }
+
+    /**
+     * Primera posición cuya entrada (clave, id) no es menor que la indicada.
+     */
+    private static int posicion(Instantanea instantanea, String clave, long id) {
+        int desde = 0;
+        int hasta = instantanea.claves.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int c = instantanea.claves[medio].compareTo(clave);
+            if (c < 0 || (c == 0 && instantanea.ids[medio] < id)) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return desde;
+    }
+}
@@ -0,0 +1,429 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de emparejamiento entre animales que esperan familia y familias de acogida. Cada pareja se
+ * puntúa según la ciudad de la familia, su edad, los animales que ya acoge y si ya acoge animales de
+ * la misma especie, y para cada familia se guardan los {@code k} animales mejor puntuados.
+ * <p>
+ * Los datos se guardan en arrays de tipos primitivos (una posición por animal o familia) y las
+ * puntuaciones se calculan en paralelo con fork-join, repartiendo las familias entre los hilos.
+ * Las altas y bajas son incrementales: un animal nuevo solo se compara con el peor de los {@code k}
+ * mejores de cada familia, y una familia nueva solo calcula su propia lista.
+ * Todos los métodos públicos están sincronizados; los cálculos en paralelo ocurren dentro del bloqueo.
+ */
+public class MotorEmparejamiento {
+
+    /** Peso de que la familia viva en la ciudad del refugio. */
+    static final float PESO_CIUDAD = 0.30f;
+    /** Peso de la cercanía entre la edad de la familia y la edad ideal para el animal. */
+    static final float PESO_EDAD = 0.25f;
+    /** Peso de la carga actual de la familia: cuantos menos animales acoge, más puntúa. */
+    static final float PESO_CARGA = 0.25f;
+    /** Peso de que la familia ya acoja animales de la misma especie. */
+    static final float PESO_ESPECIE = 0.20f;
+
+    /** Número de familias por debajo del cual una tarea fork-join deja de dividirse. */
+    private static final int UMBRAL_FAMILIAS = 64;
+
+    private final int k;
+    private final String ciudadRefugio;
+    private final ForkJoinPool pool;
+
+    // Animales, indexados por posición
+    private int numAnimales;
+    private long[] idAnimal = new long[16];
+    private int[] especieAnimal = new int[16];
+    private int[] edadAnimal = new int[16];
+    private boolean[] animalActivo = new boolean[16];
+    private final Map<Long, Integer> posicionAnimal = new HashMap<>();
+
+    // Familias, indexadas por posición
+    private int numFamilias;
+    private long[] idFamilia = new long[16];
+    private int[] edadFamilia = new int[16];
+    private boolean[] enCiudad = new boolean[16];
+    private int[] cargaFamilia = new int[16];
+    private long[] especiesFamilia = new long[16];
+    private int[][] mejores = new int[16][];
+    private float[][] puntuacionMejores = new float[16][];
+    private final Map<Long, Integer> posicionFamilia = new HashMap<>();
+
+    private final Map<String, Integer> especies = new HashMap<>();
+
+    /**
+     * Crea un motor vacío que usa el pool fork-join común.
+     *
+     * @param k Número de animales que se guardan por familia.
+     * @param ciudadRefugio Ciudad del refugio; las familias de esa ciudad puntúan más. Puede ser {@code null}.
+     * @throws IllegalArgumentException Si {@code k} no es positivo.
+     */
+    public MotorEmparejamiento(int k, String ciudadRefugio) {
+        this(k, ciudadRefugio, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Crea un motor vacío.
+     *
+     * @param k Número de animales que se guardan por familia.
+     * @param ciudadRefugio Ciudad del refugio; las familias de esa ciudad puntúan más. Puede ser {@code null}.
+     * @param pool Pool fork-join en el que se calculan las puntuaciones.
+     * @throws IllegalArgumentException Si {@code k} no es positivo.
+     */
+    public MotorEmparejamiento(int k, String ciudadRefugio, ForkJoinPool pool) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k debe ser positivo");
+        }
+        this.k = k;
+        this.ciudadRefugio = ciudadRefugio;
+        this.pool = pool;
+    }
+
+    /**
+     * Crea un motor con todos los animales sin familia y todas las familias de la base de datos.
+     * Solo se leen las columnas necesarias, sin cargar entidades.
+     *
+     * @param session Sesión de Hibernate.
+     * @param k Número de animales que se guardan por familia.
+     * @param ciudadRefugio Ciudad del refugio, o {@code null}.
+     * @return El motor con las puntuaciones calculadas.
+     * @throws HibernateException Si ocurre un error durante la carga.
+     */
+    public static MotorEmparejamiento cargar(Session session, int k, String ciudadRefugio) {
+        MotorEmparejamiento motor = new MotorEmparejamiento(k, ciudadRefugio);
+        try {
+            Map<Long, List<String>> especiesAcogidas = new HashMap<>();
+            for (Object[] fila : session.createQuery(
+                    "SELECT a.familia.id, a.tipo FROM Animales a WHERE a.familia IS NOT NULL GROUP BY a.familia.id, a.tipo",
+                    Object[].class).list()) {
+                especiesAcogidas.computeIfAbsent((Long) fila[0], id -> new ArrayList<>()).add((String) fila[1]);
+            }
+            synchronized (motor) {
+                for (Object[] fila : session.createQuery(
+                        "SELECT a.id, a.tipo, a.años FROM Animales a WHERE a.familia IS NULL", Object[].class).list()) {
+                    motor.anadirAnimal((Long) fila[0], (String) fila[1], (Integer) fila[2]);
+                }
+                for (Object[] fila : session.createQuery(
+                        "SELECT f.id, f.edad, f.ciudad, COUNT(a) FROM Familia f LEFT JOIN f.animalesAcogidos a"
+                                + " GROUP BY f.id, f.edad, f.ciudad", Object[].class).list()) {
+                    Long id = (Long) fila[0];
+                    motor.anadirFamilia(id, (Integer) fila[1], (String) fila[2], ((Long) fila[3]).intValue(),
+                            especiesAcogidas.getOrDefault(id, Collections.emptyList()));
+                }
+                motor.recalcular(0, motor.numFamilias);
+            }
+        } catch (HibernateException e) {
+            throw new HibernateException("Error al cargar los datos de emparejamiento.", e);
+        }
+        return motor;
+    }
+
+    /**
+     * Añade un animal que espera familia y lo incorpora a las listas de las familias en las que
+     * supera al peor de sus {@code k} mejores.
+     *
+     * @param animal Animal con identificador asignado.
+     */
+    public synchronized void agregarAnimal(Animales animal) {
+        retirar(animal.getId());
+        int posicion = anadirAnimal(animal.getId(), animal.getTipo(), animal.getAños());
+        pool.invoke(new Tarea(0, numFamilias, posicion));
+    }
+
+    /**
+     * Retira un animal, p. ej. porque ya ha sido acogido. Solo se recalculan las familias que lo
+     * tenían entre sus mejores.
+     *
+     * @param id Identificador del animal.
+     */
+    public synchronized void retirarAnimal(long id) {
+        retirar(id);
+    }
+
+    /**
+     * Añade o sustituye una familia candidata y calcula sus mejores animales. La lista de animales
+     * acogidos de la familia debe estar inicializada.
+     *
+     * @param familia Familia con identificador asignado.
+     */
+    public synchronized void agregarFamilia(Familia familia) {
+        List<String> acogidas = new ArrayList<>();
+        for (Animales animal : familia.obtenerAnimalesAcogidos()) {
+            acogidas.add(animal.getTipo());
+        }
+        int posicion = anadirFamilia(familia.obtenerId(), familia.obtenerEdad(), familia.obtenerCiudad(),
+                familia.obtenerNumeroDeAnimales(), acogidas);
+        calcularFamilia(posicion);
+    }
+
+    /**
+     * Obtiene los animales mejor puntuados para una familia, de mayor a menor puntuación.
+     *
+     * @param familiaId Identificador de la familia.
+     * @return Identificadores de hasta {@code k} animales, o una lista vacía si la familia no está en el motor.
+     */
+    public synchronized List<Long> mejoresAnimales(long familiaId) {
+        Integer f = posicionFamilia.get(familiaId);
+        if (f == null) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(mejores[f].length);
+        for (int a : mejores[f]) {
+            ids.add(idAnimal[a]);
+        }
+        return ids;
+    }
+
+    /**
+     * Obtiene el animal mejor puntuado para una familia.
+     *
+     * @param familiaId Identificador de la familia.
+     * @return Identificador del animal, o {@code null} si no hay ninguno.
+     */
+    public synchronized Long mejorAnimal(long familiaId) {
+        List<Long> ids = mejoresAnimales(familiaId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Puntúa una pareja de animal y familia entre 0 y 1.
+     */
+    float puntuar(int a, int f) {
+        float puntuacion = enCiudad[f] ? PESO_CIUDAD : 0f;
+        int edadIdeal = edadAnimal[a] <= 2 ? 35 : edadAnimal[a] >= 10 ? 55 : 45;
+        puntuacion += PESO_EDAD * Math.max(0f, 1f - Math.abs(edadFamilia[f] - edadIdeal) / 40f);
+        puntuacion += PESO_CARGA / (1 + cargaFamilia[f]);
+        if (especiesFamilia[f] == 0) {
+            puntuacion += PESO_ESPECIE / 2;  // Sin historial: ni a favor ni en contra
+        } else if ((especiesFamilia[f] & bitEspecie(especieAnimal[a])) != 0) {
+            puntuacion += PESO_ESPECIE;
+        }
+        return puntuacion;
+    }
+
+    private int anadirAnimal(long id, String tipo, int años) {
+        if (numAnimales == idAnimal.length) {
+            int capacidad = numAnimales * 2;
+            idAnimal = Arrays.copyOf(idAnimal, capacidad);
+            especieAnimal = Arrays.copyOf(especieAnimal, capacidad);
+            edadAnimal = Arrays.copyOf(edadAnimal, capacidad);
+            animalActivo = Arrays.copyOf(animalActivo, capacidad);
+        }
+        int posicion = numAnimales++;
+        idAnimal[posicion] = id;
+        especieAnimal[posicion] = indiceEspecie(tipo);
+        edadAnimal[posicion] = años;
+        animalActivo[posicion] = true;
+        posicionAnimal.put(id, posicion);
+        return posicion;
+    }
+
+    private int anadirFamilia(long id, int edad, String ciudad, int carga, Collection<String> acogidas) {
+        Integer existente = posicionFamilia.get(id);
+        int posicion;
+        if (existente != null) {
+            posicion = existente;
+        } else {
+            if (numFamilias == idFamilia.length) {
+                int capacidad = numFamilias * 2;
+                idFamilia = Arrays.copyOf(idFamilia, capacidad);
+                edadFamilia = Arrays.copyOf(edadFamilia, capacidad);
+                enCiudad = Arrays.copyOf(enCiudad, capacidad);
+                cargaFamilia = Arrays.copyOf(cargaFamilia, capacidad);
+                especiesFamilia = Arrays.copyOf(especiesFamilia, capacidad);
+                mejores = Arrays.copyOf(mejores, capacidad);
+                puntuacionMejores = Arrays.copyOf(puntuacionMejores, capacidad);
+            }
+            posicion = numFamilias++;
+            posicionFamilia.put(id, posicion);
+        }
+        idFamilia[posicion] = id;
+        edadFamilia[posicion] = edad;
+        enCiudad[posicion] = ciudad != null && ciudad.equalsIgnoreCase(ciudadRefugio);
+        cargaFamilia[posicion] = carga;
+        long mascara = 0;
+        for (String tipo : acogidas) {
+            mascara |= bitEspecie(indiceEspecie(tipo));
+        }
+        especiesFamilia[posicion] = mascara;
+        mejores[posicion] = new int[0];
+        puntuacionMejores[posicion] = new float[0];
+        return posicion;
+    }
+
+    private void retirar(Long id) {
+        Integer posicion = id != null ? posicionAnimal.remove(id) : null;
+        if (posicion == null) {
+            return;
+        }
+        animalActivo[posicion] = false;
+        for (int f = 0; f < numFamilias; f++) {
+            for (int a : mejores[f]) {
+                if (a == posicion) {
+                    calcularFamilia(f);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void recalcular(int desde, int hasta) {
+        pool.invoke(new Tarea(desde, hasta, -1));
+    }
+
+    /**
+     * Calcula desde cero los mejores animales de una familia con un montículo de mínimos de tamaño
+     * {@code k} sobre arrays: la raíz es el peor de los mejores encontrados hasta el momento.
+     */
+    private void calcularFamilia(int f) {
+        int[] indices = new int[k];
+        float[] puntuaciones = new float[k];
+        int tamano = 0;
+        for (int a = 0; a < numAnimales; a++) {
+            if (!animalActivo[a]) continue;
+            float puntuacion = puntuar(a, f);
+            if (tamano < k) {
+                indices[tamano] = a;
+                puntuaciones[tamano] = puntuacion;
+                subir(indices, puntuaciones, tamano++);
+            } else if (puntuacion > puntuaciones[0]) {
+                indices[0] = a;
+                puntuaciones[0] = puntuacion;
+                bajar(indices, puntuaciones, tamano);
+            }
+        }
+        guardarOrdenado(f, indices, puntuaciones, tamano);
+    }
+
+    /**
+     * Incorpora un animal nuevo a la lista de una familia si supera al peor de sus mejores.
+     */
+    private void considerar(int f, int a) {
+        float puntuacion = puntuar(a, f);
+        int[] actuales = mejores[f];
+        float[] puntuaciones = puntuacionMejores[f];
+        if (actuales.length == k && puntuacion <= puntuaciones[k - 1]) {
+            return;
+        }
+        int hueco = actuales.length;
+        while (hueco > 0 && puntuaciones[hueco - 1] < puntuacion) {
+            hueco--;
+        }
+        int tamano = Math.min(k, actuales.length + 1);
+        int[] nuevos = new int[tamano];
+        float[] nuevasPuntuaciones = new float[tamano];
+        System.arraycopy(actuales, 0, nuevos, 0, hueco);
+        System.arraycopy(puntuaciones, 0, nuevasPuntuaciones, 0, hueco);
+        nuevos[hueco] = a;
+        nuevasPuntuaciones[hueco] = puntuacion;
+        System.arraycopy(actuales, hueco, nuevos, hueco + 1, tamano - hueco - 1);
+        System.arraycopy(puntuaciones, hueco, nuevasPuntuaciones, hueco + 1, tamano - hueco - 1);
+        mejores[f] = nuevos;
+        puntuacionMejores[f] = nuevasPuntuaciones;
+    }
+
+    private void guardarOrdenado(int f, int[] indices, float[] puntuaciones, int tamano) {
+        int[] ordenados = new int[tamano];
+        float[] ordenadas = new float[tamano];
+        // Extrae del montículo de peor a mejor y rellena desde el final
+        for (int i = tamano - 1; i >= 0; i--) {
+            ordenados[i] = indices[0];
+            ordenadas[i] = puntuaciones[0];
+            indices[0] = indices[i];
+            puntuaciones[0] = puntuaciones[i];
+            bajar(indices, puntuaciones, i);
+        }
+        mejores[f] = ordenados;
+        puntuacionMejores[f] = ordenadas;
+    }
+
+    private static void subir(int[] indices, float[] puntuaciones, int i) {
+        while (i > 0) {
+            int padre = (i - 1) / 2;
+            if (puntuaciones[padre] <= puntuaciones[i]) return;
+            intercambiar(indices, puntuaciones, i, padre);
+            i = padre;
+        }
+    }
+
+    private static void bajar(int[] indices, float[] puntuaciones, int tamano) {
+        int i = 0;
+        while (true) {
+            int menor = i;
+            int izquierdo = 2 * i + 1;
+            int derecho = izquierdo + 1;
+            if (izquierdo < tamano && puntuaciones[izquierdo] < puntuaciones[menor]) menor = izquierdo;
+            if (derecho < tamano && puntuaciones[derecho] < puntuaciones[menor]) menor = derecho;
+            if (menor == i) return;
+            intercambiar(indices, puntuaciones, i, menor);
+            i = menor;
+        }
+    }
+
+    private static void intercambiar(int[] indices, float[] puntuaciones, int i, int j) {
+        int indice = indices[i];
+        indices[i] = indices[j];
+        indices[j] = indice;
+        float puntuacion = puntuaciones[i];
+        puntuaciones[i] = puntuaciones[j];
+        puntuaciones[j] = puntuacion;
+    }
+
+    private int indiceEspecie(String tipo) {
+        String clave = tipo != null ? tipo.toLowerCase(Locale.ROOT) : "";
+        return especies.computeIfAbsent(clave, c -> especies.size());
+    }
+
+    /** Bit de la especie en la máscara de especies acogidas; a partir de la 64 comparten el último bit. */
+    private static long bitEspecie(int indice) {
+        return 1L << Math.min(indice, 63);
+    }
+
+    /**
+     * Reparte un rango de familias entre los hilos del pool. Con {@code animal < 0} recalcula la
+     * lista completa de cada familia; en otro caso solo considera ese animal.
+     */
+    private final class Tarea extends RecursiveAction {
+
+        private final int desde;
+        private final int hasta;
+        private final int animal;
+
+        Tarea(int desde, int hasta, int animal) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.animal = animal;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= UMBRAL_FAMILIAS) {
+                for (int f = desde; f < hasta; f++) {
+                    if (animal < 0) {
+                        calcularFamilia(f);
+                    } else {
+                        considerar(f, animal);
+                    }
+                }
+                return;
+            }
+            int mitad = (desde + hasta) >>> 1;
+            invokeAll(new Tarea(desde, mitad, animal), new Tarea(mitad, hasta, animal));
+        }
+    }
+}
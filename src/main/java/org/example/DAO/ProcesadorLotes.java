@@ -0,0 +1,516 @@
+package org.example.DAO;
+
+import jakarta.persistence.PersistenceException;
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.EnrutadorLecturas;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ejecuta sin interacción un guion de órdenes del refugio, leído línea a línea de un fichero o de
+ * la entrada estándar. Cada línea es una orden con sus campos separados por {@code ;}; las líneas
+ * vacías y las que empiezan por {@code #} se ignoran:
+ *
+ * <pre>
+ * animal;Toby;Perro;3;Recién abandonado[;alias]
+ * familia;García;45;Madrid[;alias]
+ * adoptar;animal;familia
+ * buscar;especie|edad|descripcion;valor
+ * </pre>
+ *
+ * En {@code adoptar}, el animal y la familia se indican por su identificador o por el alias con el
+ * que se registraron antes en el mismo guion. Las escrituras se agrupan en transacciones de
+ * {@code tamanoTransaccion} órdenes; si una transacción falla se revierte entera y la ejecución se
+ * detiene, con las anteriores ya confirmadas. Las búsquedas se lanzan en paralelo, cada una en su
+ * propia sesión, en cuanto se ha confirmado la transacción que contiene las escrituras anteriores a
+ * ellas, y sus resultados se escriben en el orden del guion. Una línea mal formada se informa y se
+ * salta sin detener la ejecución.
+ *
+ * <pre>
+ * try (ProcesadorLotes procesador = new ProcesadorLotes(sessionFactory, 200, 4, System.out)) {
+ *     System.out.println(procesador.ejecutar(new InputStreamReader(System.in)));
+ * }
+ * </pre>
+ */
+public class ProcesadorLotes implements AutoCloseable {
+
+    /** Escrituras por transacción si no se indica otro valor. */
+    public static final int TAMANO_TRANSACCION_POR_DEFECTO = 200;
+
+    /** Búsquedas lanzadas cuyo resultado aún no se ha escrito; al superarlo se espera a la más antigua. */
+    private static final int MAXIMO_BUSQUEDAS_EN_CURSO = 256;
+
+    private final SessionFactory sessionFactory;
+    private final int tamanoTransaccion;
+    private final ExecutorService busquedas;
+    private final PrintStream salida;
+
+    /**
+     * Constructor que recibe la SessionFactory, el tamaño de las transacciones, los hilos de búsqueda
+     * y el destino de los resultados.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param tamanoTransaccion Número máximo de escrituras por transacción.
+     * @param hilosBusqueda Número de búsquedas que pueden ejecutarse a la vez.
+     * @param salida Destino de los resultados de las búsquedas y de los errores.
+     */
+    public ProcesadorLotes(SessionFactory sessionFactory, int tamanoTransaccion, int hilosBusqueda, PrintStream salida) {
+        if (tamanoTransaccion < 1 || hilosBusqueda < 1) {
+            throw new IllegalArgumentException("El tamaño de la transacción y los hilos de búsqueda deben ser positivos");
+        }
+        this.sessionFactory = sessionFactory;
+        this.tamanoTransaccion = tamanoTransaccion;
+        this.salida = salida;
+        AtomicInteger numero = new AtomicInteger();
+        this.busquedas = Executors.newFixedThreadPool(hilosBusqueda, tarea -> {
+            Thread hilo = new Thread(tarea, "lotes-busqueda-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Ejecuta todas las órdenes del guion y espera a que terminen sus búsquedas.
+     *
+     * @param entrada Guion de órdenes.
+     * @return El resumen de la ejecución.
+     * @throws IOException Si ocurre un error al leer el guion.
+     * @throws HibernateException Si falla una transacción; las anteriores se conservan.
+     */
+    public Resumen ejecutar(Reader entrada) throws IOException {
+        Ejecucion ejecucion = new Ejecucion();
+        BufferedReader lector = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada);
+        String linea;
+        int numero = 0;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            String texto = linea.trim();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            ejecucion.ordenes++;
+            try {
+                ejecucion.procesar(new Orden(numero, texto.split(";", -1)));
+            } catch (IllegalArgumentException e) {
+                ejecucion.error(numero, e.getMessage());
+            }
+        }
+        ejecucion.confirmar();
+        ejecucion.escribirBusquedas(true);
+        return ejecucion.resumen();
+    }
+
+    /**
+     * Detiene los hilos de búsqueda.
+     */
+    @Override
+    public void close() {
+        busquedas.shutdownNow();
+    }
+
+    /**
+     * Resultado de la ejecución de un guion.
+     */
+    public static final class Resumen {
+
+        private final long ordenes;
+        private final long escrituras;
+        private final long busquedas;
+        private final long errores;
+        private final long transacciones;
+        private final Duration duracion;
+
+        private Resumen(long ordenes, long escrituras, long busquedas, long errores, long transacciones, Duration duracion) {
+            this.ordenes = ordenes;
+            this.escrituras = escrituras;
+            this.busquedas = busquedas;
+            this.errores = errores;
+            this.transacciones = transacciones;
+            this.duracion = duracion;
+        }
+
+        /**
+         * Obtiene el número de órdenes leídas, sin contar comentarios ni líneas vacías.
+         *
+         * @return Órdenes leídas, sin contar comentarios ni líneas vacías.
+         */
+        public long getOrdenes() {
+            return ordenes;
+        }
+
+        /**
+         * Obtiene el número de escrituras confirmadas.
+         *
+         * @return Escrituras confirmadas.
+         */
+        public long getEscrituras() {
+            return escrituras;
+        }
+
+        /**
+         * Obtiene el número de búsquedas ejecutadas.
+         *
+         * @return Búsquedas ejecutadas.
+         */
+        public long getBusquedas() {
+            return busquedas;
+        }
+
+        /**
+         * Obtiene el número de órdenes que no se pudieron ejecutar.
+         *
+         * @return Órdenes que no se pudieron ejecutar.
+         */
+        public long getErrores() {
+            return errores;
+        }
+
+        /**
+         * Obtiene el número de transacciones confirmadas.
+         *
+         * @return Transacciones confirmadas.
+         */
+        public long getTransacciones() {
+            return transacciones;
+        }
+
+        /**
+         * Obtiene el tiempo total de la ejecución.
+         *
+         * @return Tiempo total de la ejecución.
+         */
+        public Duration getDuracion() {
+            return duracion;
+        }
+
+        /**
+         * Órdenes ejecutadas por segundo.
+         *
+         * @return El rendimiento de la ejecución.
+         */
+        public double ordenesPorSegundo() {
+            return duracion.isZero() ? 0 : ordenes * 1e9 / duracion.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d órdenes en %d ms (%.1f órdenes/s): %d escrituras en %d transacciones, %d búsquedas, %d errores",
+                    ordenes, duracion.toMillis(), ordenesPorSegundo(), escrituras, transacciones, busquedas, errores);
+        }
+    }
+
+    /**
+     * Línea del guion ya dividida en campos.
+     */
+    private static final class Orden {
+
+        private final int linea;
+        private final String[] campos;
+
+        private Orden(int linea, String[] campos) {
+            this.linea = linea;
+            this.campos = campos;
+            for (int i = 0; i < campos.length; i++) {
+                campos[i] = campos[i].trim();
+            }
+        }
+
+        private String tipo() {
+            return campos[0].toLowerCase();
+        }
+
+        private String campo(int indice) {
+            return indice < campos.length && !campos[indice].isEmpty() ? campos[indice] : null;
+        }
+
+        private int entero(int indice) {
+            try {
+                return Integer.parseInt(campos[indice]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("se esperaba un número en lugar de '" + campos[indice] + "'");
+            }
+        }
+
+        private void exigirCampos(int minimo, int maximo) {
+            if (campos.length < minimo || campos.length > maximo) {
+                throw new IllegalArgumentException("número de campos incorrecto para '" + campos[0] + "'");
+            }
+        }
+    }
+
+    /**
+     * Búsqueda lanzada y el texto de su resultado.
+     */
+    private static final class Busqueda {
+
+        private final Orden orden;
+        private Future<String> resultado;
+
+        private Busqueda(Orden orden) {
+            this.orden = orden;
+        }
+    }
+
+    /**
+     * Estado de la ejecución de un guion: la transacción en curso, los alias confirmados y las
+     * búsquedas pendientes.
+     */
+    private final class Ejecucion {
+
+        private final long inicio = System.nanoTime();
+        private final Map<String, Long> animalesConfirmados = new HashMap<>();
+        private final Map<String, Long> familiasConfirmadas = new HashMap<>();
+        private final Set<String> animalesPendientes = new HashSet<>();
+        private final Set<String> familiasPendientes = new HashSet<>();
+        private final List<Orden> escrituras = new ArrayList<>();
+        private final List<Busqueda> esperando = new ArrayList<>();
+        private final Deque<Busqueda> enCurso = new ArrayDeque<>();
+        private final LongAdder errores = new LongAdder();
+        private long ordenes;
+        private long confirmadas;
+        private long transacciones;
+        private long lanzadas;
+
+        private void procesar(Orden orden) {
+            switch (orden.tipo()) {
+                case "animal":
+                    orden.exigirCampos(5, 6);
+                    orden.entero(3);
+                    reservarAlias(orden.campo(5), animalesPendientes, animalesConfirmados);
+                    agregarEscritura(orden);
+                    break;
+                case "familia":
+                    orden.exigirCampos(4, 5);
+                    orden.entero(2);
+                    reservarAlias(orden.campo(4), familiasPendientes, familiasConfirmadas);
+                    agregarEscritura(orden);
+                    break;
+                case "adoptar":
+                    orden.exigirCampos(3, 3);
+                    comprobarReferencia(orden.campos[1], animalesPendientes, animalesConfirmados, "animal");
+                    comprobarReferencia(orden.campos[2], familiasPendientes, familiasConfirmadas, "familia");
+                    agregarEscritura(orden);
+                    break;
+                case "buscar":
+                    orden.exigirCampos(3, 3);
+                    String criterio = orden.campos[1].toLowerCase();
+                    if (criterio.equals("edad")) {
+                        orden.entero(2);
+                    } else if (!criterio.equals("especie") && !criterio.equals("descripcion")) {
+                        throw new IllegalArgumentException("criterio de búsqueda desconocido '" + orden.campos[1] + "'");
+                    }
+                    Busqueda busqueda = new Busqueda(orden);
+                    if (escrituras.isEmpty()) {
+                        lanzar(busqueda);
+                    } else {
+                        // Debe ver las escrituras anteriores: espera a que se confirme su transacción
+                        esperando.add(busqueda);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("orden desconocida '" + orden.campos[0] + "'");
+            }
+        }
+
+        private void reservarAlias(String alias, Set<String> pendientes, Map<String, Long> confirmados) {
+            if (alias != null && (pendientes.contains(alias) || confirmados.containsKey(alias))) {
+                throw new IllegalArgumentException("el alias '" + alias + "' ya está en uso");
+            }
+        }
+
+        private void comprobarReferencia(String referencia, Set<String> pendientes, Map<String, Long> confirmados, String entidad) {
+            if (!pendientes.contains(referencia) && !confirmados.containsKey(referencia) && !referencia.matches("\\d+")) {
+                throw new IllegalArgumentException("no hay ningún " + entidad + " con el alias '" + referencia + "'");
+            }
+        }
+
+        private void agregarEscritura(Orden orden) {
+            if (orden.tipo().equals("animal") && orden.campo(5) != null) {
+                animalesPendientes.add(orden.campo(5));
+            } else if (orden.tipo().equals("familia") && orden.campo(4) != null) {
+                familiasPendientes.add(orden.campo(4));
+            }
+            escrituras.add(orden);
+            if (escrituras.size() >= tamanoTransaccion) {
+                confirmar();
+                escribirBusquedas(false);
+            }
+        }
+
+        /**
+         * Aplica las escrituras acumuladas en una transacción, ejecuta los efectos posteriores a la
+         * confirmación y lanza las búsquedas que esperaban por ellas. Los efectos se ejecutan con la
+         * sesión todavía abierta, porque pueden leer atributos perezosos de los animales escritos,
+         * como los detalles que firma el detector de duplicados.
+         */
+        private void confirmar() {
+            if (!escrituras.isEmpty()) {
+                Map<String, Animales> animalesNuevos = new HashMap<>();
+                Map<String, Familia> familiasNuevas = new HashMap<>();
+                List<Runnable> trasConfirmar = new ArrayList<>();
+                int aplicadas = 0;
+                try (Session session = sessionFactory.openSession()) {
+                    EnrutadorLecturas.marcarEscritura(session);
+                    Transaction tx = session.beginTransaction();
+                    try {
+                        for (Orden orden : escrituras) {
+                            if (aplicar(session, orden, animalesNuevos, familiasNuevas, trasConfirmar)) {
+                                aplicadas++;
+                            }
+                        }
+                        tx.commit();
+                    } catch (PersistenceException e) {
+                        if (tx.isActive()) {
+                            tx.rollback();
+                        }
+                        throw new HibernateException("Error en la transacción de las líneas " + escrituras.get(0).linea + " a "
+                                + escrituras.get(escrituras.size() - 1).linea + "; las transacciones anteriores están confirmadas", e);
+                    }
+                    animalesNuevos.forEach((alias, animal) -> animalesConfirmados.put(alias, animal.getId()));
+                    familiasNuevas.forEach((alias, familia) -> familiasConfirmadas.put(alias, familia.obtenerId()));
+                    animalesPendientes.clear();
+                    familiasPendientes.clear();
+                    escrituras.clear();
+                    confirmadas += aplicadas;
+                    transacciones++;
+                    trasConfirmar.forEach(Runnable::run);
+                }
+            }
+            esperando.forEach(this::lanzar);
+            esperando.clear();
+        }
+
+        /**
+         * Aplica una escritura en la transacción en curso.
+         *
+         * @return {@code false} si la orden hace referencia a un animal o una familia inexistentes
+         *         y se ha saltado.
+         */
+        private boolean aplicar(Session session, Orden orden, Map<String, Animales> animalesNuevos,
+                                Map<String, Familia> familiasNuevas, List<Runnable> trasConfirmar) {
+            SessionFactory factoria = session.getSessionFactory();
+            switch (orden.tipo()) {
+                case "animal": {
+                    Animales animal = new Animales(orden.campos[1], orden.campos[2], orden.entero(3), orden.campo(4));
+                    session.persist(animal);
+                    if (orden.campo(5) != null) {
+                        animalesNuevos.put(orden.campo(5), animal);
+                    }
+                    // La situación se toma ahora: una adopción posterior en el mismo lote la cambia
+                    AnimalesImpl.Situacion situacion = AnimalesImpl.Situacion.de(animal);
+                    trasConfirmar.add(() -> AnimalesImpl.trasGuardar(factoria, animal, situacion));
+                    return true;
+                }
+                case "familia": {
+                    Familia familia = new Familia(orden.campos[1], orden.entero(2), orden.campos[3]);
+                    session.persist(familia);
+                    if (orden.campo(4) != null) {
+                        familiasNuevas.put(orden.campo(4), familia);
+                    }
+                    trasConfirmar.add(() -> FamiliaImpl.indexar(factoria, familia));
+                    return true;
+                }
+                default: {
+                    Animales animal = animalesNuevos.get(orden.campos[1]);
+                    if (animal == null) {
+                        Long id = animalesConfirmados.get(orden.campos[1]);
+                        animal = session.get(Animales.class, id != null ? id : Long.valueOf(orden.campos[1]));
+                    }
+                    Familia familia = familiasNuevas.get(orden.campos[2]);
+                    if (familia == null) {
+                        Long id = familiasConfirmadas.get(orden.campos[2]);
+                        familia = session.get(Familia.class, id != null ? id : Long.valueOf(orden.campos[2]));
+                    }
+                    if (animal == null || familia == null) {
+                        error(orden.linea, "no existe " + (animal == null ? "el animal " + orden.campos[1] : "la familia " + orden.campos[2]));
+                        return false;
+                    }
+                    AnimalesImpl.Situacion antes = AnimalesImpl.Situacion.de(animal);
+                    animal.setFamilia(familia);
+                    AnimalesImpl.Situacion despues = AnimalesImpl.Situacion.de(animal);
+                    Animales adoptado = animal;
+                    trasConfirmar.add(() -> AnimalesImpl.trasActualizar(factoria, adoptado, antes, despues));
+                    return true;
+                }
+            }
+        }
+
+        private void lanzar(Busqueda busqueda) {
+            String criterio = busqueda.orden.campos[1].toLowerCase();
+            String valor = busqueda.orden.campos[2];
+            busqueda.resultado = busquedas.submit(() -> {
+                try (Session session = sessionFactory.openSession()) {
+                    AnimalesImpl dao = new AnimalesImpl(session);
+                    List<Animales> animales = criterio.equals("especie") ? dao.buscarPorEspecie(valor)
+                            : criterio.equals("edad") ? dao.buscarPorEdad(Integer.parseInt(valor))
+                            : dao.buscarPorDescripcion(valor);
+                    // El texto se compone con la sesión abierta: los detalles se cargan de forma perezosa
+                    StringBuilder texto = new StringBuilder("línea ").append(busqueda.orden.linea).append(": buscar ")
+                            .append(criterio).append(' ').append(valor).append(" -> ").append(animales.size()).append(" animales");
+                    animales.forEach(animal -> texto.append(System.lineSeparator()).append("  ").append(animal));
+                    return texto.toString();
+                }
+            });
+            enCurso.addLast(busqueda);
+            lanzadas++;
+            if (enCurso.size() > MAXIMO_BUSQUEDAS_EN_CURSO) {
+                escribir(enCurso.pollFirst());
+            }
+        }
+
+        /**
+         * Escribe, en el orden del guion, los resultados de las búsquedas terminadas.
+         *
+         * @param esperar {@code true} para esperar también a las que siguen en curso.
+         */
+        private void escribirBusquedas(boolean esperar) {
+            while (!enCurso.isEmpty() && (esperar || enCurso.peekFirst().resultado.isDone())) {
+                escribir(enCurso.pollFirst());
+            }
+        }
+
+        private void escribir(Busqueda busqueda) {
+            try {
+                salida.println(busqueda.resultado.get());
+            } catch (ExecutionException e) {
+                error(busqueda.orden.linea, "la búsqueda ha fallado: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HibernateException("Ejecución interrumpida mientras se esperaba una búsqueda", e);
+            }
+        }
+
+        private void error(int linea, String mensaje) {
+            errores.increment();
+            salida.println("línea " + linea + ": error, " + mensaje);
+        }
+
+        private Resumen resumen() {
+            return new Resumen(ordenes, confirmadas, lanzadas, errores.sum(), transacciones,
+                    Duration.ofNanos(System.nanoTime() - inicio));
+        }
+    }
+}
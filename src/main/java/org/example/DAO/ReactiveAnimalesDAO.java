@@ -0,0 +1,173 @@
+package org.example.DAO;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.example.entities.Animales;
+import org.hibernate.HibernateException;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Versión no bloqueante de las operaciones de {@link AnimalesInt}, construida sobre Hibernate Reactive.
+ * Cada operación abre su propia sesión reactiva y devuelve un {@link Uni} que se completa cuando
+ * la base de datos responde, sin ocupar un hilo mientras tanto. Usa los mismos mapeos que {@link AnimalesImpl};
+ * los detalles del animal se cargan de forma perezosa y deben pedirse con {@code Mutiny.Session#fetch}.
+ *
+ * @see AnimalesImpl
+ */
+public class ReactiveAnimalesDAO {
+
+    private final Mutiny.SessionFactory sessionFactory;
+
+    /**
+     * Constructor que recibe la SessionFactory reactiva.
+     *
+     * @param sessionFactory Factoría de sesiones reactivas.
+     */
+    public ReactiveAnimalesDAO(Mutiny.SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Obtiene todos los animales de la base de datos.
+     *
+     * @return Lista con todos los registros de animales.
+     */
+    public Uni<List<Animales>> obtenerTodos() {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Animales.OBTENER_TODOS, Animales.class).getResultList())
+                .onFailure().transform(e -> new HibernateException("Error al obtener los animales.", e));
+    }
+
+    /**
+     * Busca animales por especie.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @return Lista de animales de la especie indicada.
+     */
+    public Uni<List<Animales>> buscarPorEspecie(String especie) {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Animales.BUSCAR_POR_ESPECIE, Animales.class)
+                                .setParameter("especie", especie)
+                                .getResultList())
+                .onFailure().transform(e -> new HibernateException("Error al buscar animales por especie.", e));
+    }
+
+    /**
+     * Busca animales de varias especies a la vez, con una sola consulta en una sola sesión.
+     *
+     * @param especies Especies a buscar.
+     * @return Animales encontrados agrupados por especie, en el orden recibido; las especies sin
+     * animales tienen una lista vacía.
+     */
+    public Uni<Map<String, List<Animales>>> buscarPorEspecies(Collection<String> especies) {
+        Map<String, List<Animales>> porEspecie = new LinkedHashMap<>();
+        especies.forEach(especie -> porEspecie.put(especie, new ArrayList<>()));
+        if (porEspecie.isEmpty()) {
+            return Uni.createFrom().item(porEspecie);
+        }
+        return sessionFactory.withSession(session ->
+                        session.createQuery("FROM Animales WHERE tipo IN :especies", Animales.class)
+                                .setParameter("especies", porEspecie.keySet())
+                                .getResultList())
+                .map(animales -> {
+                    // La intercalación de la base de datos puede no distinguir mayúsculas
+                    Map<String, List<Animales>> sinMayusculas = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    sinMayusculas.putAll(porEspecie);
+                    for (Animales animal : animales) {
+                        List<Animales> lista = sinMayusculas.get(animal.getTipo());
+                        (lista != null ? lista : porEspecie.computeIfAbsent(animal.getTipo(), t -> new ArrayList<>())).add(animal);
+                    }
+                    return porEspecie;
+                })
+                .onFailure().transform(e -> new HibernateException("Error al buscar animales por especies.", e));
+    }
+
+    /**
+     * Busca animales según su edad.
+     *
+     * @param edad Edad de los animales a buscar.
+     * @return Lista de animales con la edad especificada.
+     */
+    public Uni<List<Animales>> buscarPorEdad(int edad) {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Animales.BUSCAR_POR_EDAD, Animales.class)
+                                .setParameter("edad", edad)
+                                .getResultList())
+                .onFailure().transform(e -> new HibernateException("Error al buscar animales por edad.", e));
+    }
+
+    /**
+     * Busca animales cuya descripción contenga un texto específico, igual que
+     * {@link AnimalesImpl#buscarPorDescripcion(String)}: los detalles comprimidos solo se leen si
+     * pasan el filtro de su firma de trigramas.
+     *
+     * @param descripcion Texto parcial de la descripción a buscar.
+     * @return Lista de animales que coincidan con el criterio de búsqueda.
+     */
+    public Uni<List<Animales>> buscarPorDescripcion(String descripcion) {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Animales.BUSCAR_POR_DESCRIPCION, Animales.class)
+                                .setParameter("descripcion", "%" + descripcion + "%")
+                                .getResultList()
+                                .chain(sinComprimir -> session.createNativeQuery(AnimalesImpl.FIRMAS_COMPRIMIDOS, Object[].class)
+                                        .getResultList()
+                                        .onItem().transformToMulti(firmas ->
+                                                Multi.createFrom().iterable(AnimalesImpl.lotes(AnimalesImpl.candidatos(firmas, descripcion))))
+                                        .onItem().transformToUniAndConcatenate(lote -> session.createQuery(AnimalesImpl.DETALLES_POR_ID, Object[].class)
+                                                .setParameter("ids", lote)
+                                                .getResultList()
+                                                .chain(detalles -> {
+                                                    List<Long> encontrados = AnimalesImpl.coincidentes(detalles, descripcion);
+                                                    return encontrados.isEmpty()
+                                                            ? Uni.createFrom().item(List.<Animales>of())
+                                                            : session.createQuery(AnimalesImpl.ANIMALES_POR_ID, Animales.class)
+                                                                    .setParameter("ids", encontrados)
+                                                                    .getResultList();
+                                                }))
+                                        .collect().<List<Animales>>in(() -> new ArrayList<>(sinComprimir), List::addAll)))
+                .onFailure().transform(e -> new HibernateException("Error al buscar animales por descripción.", e));
+    }
+
+    /**
+     * Guarda un nuevo animal en la base de datos.
+     *
+     * @param animal Objeto Animales a registrar.
+     * @return El animal registrado, con su ID asignado.
+     */
+    public Uni<Animales> guardar(Animales animal) {
+        return sessionFactory.withTransaction(session -> session.persist(animal).replaceWith(animal))
+                .onFailure().transform(e -> new HibernateException("Error al guardar el animal.", e));
+    }
+
+    /**
+     * Actualiza los datos de un animal existente.
+     *
+     * @param animal Objeto Animales con la información actualizada.
+     * @return El animal actualizado.
+     */
+    public Uni<Animales> actualizar(Animales animal) {
+        return sessionFactory.withTransaction(session -> session.merge(animal))
+                .onFailure().transform(e -> new HibernateException("Error al actualizar el animal.", e));
+    }
+
+    /**
+     * Elimina un animal de la base de datos según su ID.
+     *
+     * @param id Identificador del animal a eliminar.
+     * @return {@code true} si la eliminación fue exitosa, {@code false} si no se encontró el registro.
+     */
+    public Uni<Boolean> eliminarPorId(Long id) {
+        return sessionFactory.withTransaction(session -> session.find(Animales.class, id)
+                        .chain(animal -> animal == null
+                                ? Uni.createFrom().item(false)
+                                : session.remove(animal).replaceWith(true)))
+                .onFailure().transform(e -> new HibernateException("Error al eliminar el animal.", e));
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.DAO;
+
+import io.smallrye.mutiny.Uni;
+import org.example.entities.Familia;
+import org.hibernate.HibernateException;
+import org.hibernate.reactive.mutiny.Mutiny;
+
+import java.util.List;
+
+/**
+ * Versión no bloqueante de las operaciones de {@link FamiliaInt}, construida sobre Hibernate Reactive.
+ * Cada operación abre su propia sesión reactiva y devuelve un {@link Uni} que se completa cuando
+ * la base de datos responde.
+ *
+ * @see FamiliaImpl
+ */
+public class ReactiveFamiliaDAO {
+
+    private final Mutiny.SessionFactory sessionFactory;
+
+    /**
+     * Constructor que recibe la SessionFactory reactiva.
+     *
+     * @param sessionFactory Factoría de sesiones reactivas.
+     */
+    public ReactiveFamiliaDAO(Mutiny.SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Obtiene el listado completo de familias registradas.
+     *
+     * @return Una lista con todas las familias almacenadas.
+     */
+    public Uni<List<Familia>> obtenerTodas() {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Familia.OBTENER_TODAS, Familia.class).getResultList())
+                .onFailure().transform(e -> new HibernateException("No se pudieron obtener las familias", e));
+    }
+
+    /**
+     * Localiza una familia a través de su identificador único.
+     *
+     * @param id Identificador de la familia a buscar.
+     * @return La familia correspondiente, o {@code null} si no se encuentra.
+     */
+    public Uni<Familia> buscarPorId(Long id) {
+        return sessionFactory.withSession(session -> session.find(Familia.class, id))
+                .onFailure().transform(e -> new HibernateException("No se pudo encontrar la familia con ID: " + id, e));
+    }
+
+    /**
+     * Busca todas las familias que residen en una ciudad específica.
+     *
+     * @param ciudad Nombre de la ciudad a consultar.
+     * @return Una lista de familias de la ciudad proporcionada.
+     */
+    public Uni<List<Familia>> buscarPorCiudad(String ciudad) {
+        return sessionFactory.withSession(session ->
+                        session.createNamedQuery(Familia.BUSCAR_POR_CIUDAD, Familia.class)
+                                .setParameter("ciudad", ciudad)
+                                .getResultList())
+                .onFailure().transform(e -> new HibernateException("Error al obtener familias de la ciudad: " + ciudad, e));
+    }
+
+    /**
+     * Registra una nueva familia.
+     *
+     * @param familia Familia que será almacenada.
+     * @return La familia recién creada.
+     */
+    public Uni<Familia> registrar(Familia familia) {
+        return sessionFactory.withTransaction(session -> session.persist(familia).replaceWith(familia))
+                .onFailure().transform(e -> new HibernateException("No se pudo registrar la familia", e));
+    }
+
+    /**
+     * Modifica los datos de una familia previamente registrada.
+     *
+     * @param familia Familia con los nuevos valores.
+     * @return La familia después de ser actualizada.
+     */
+    public Uni<Familia> modificar(Familia familia) {
+        return sessionFactory.withTransaction(session -> session.merge(familia))
+                .onFailure().transform(e -> new HibernateException("No se pudo actualizar la información de la familia", e));
+    }
+
+    /**
+     * Elimina una familia utilizando su ID.
+     *
+     * @param id Identificador de la familia que se desea eliminar.
+     * @return {@code true} si la eliminación fue exitosa, {@code false} si la familia no existe.
+     */
+    public Uni<Boolean> eliminarPorId(Long id) {
+        return sessionFactory.withTransaction(session -> session.find(Familia.class, id)
+                        .chain(familia -> familia == null
+                                ? Uni.createFrom().item(false)
+                                : session.remove(familia).replaceWith(true)))
+                .onFailure().transform(e -> new HibernateException("No se pudo eliminar la familia con ID: " + id, e));
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.GestorShards;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Punto de acceso a los datos de un refugio repartido en varias bases de datos regionales.
+ * Las operaciones sobre una familia se enrutan a la región de su ciudad, las de un animal
+ * a la región indicada, y las búsquedas globales se lanzan en paralelo sobre todas las regiones.
+ *
+ * @see GestorShards
+ */
+public class RefugioRegional {
+
+    private final GestorShards shards;
+
+    /**
+     * Constructor que recibe el gestor de regiones.
+     *
+     * @param shards Gestor con la SessionFactory de cada región.
+     */
+    public RefugioRegional(GestorShards shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Ejecuta una operación con una sesión abierta sobre la base de datos de una región.
+     * La sesión se cierra al terminar la operación.
+     *
+     * @param region Región sobre la que operar.
+     * @param operacion Operación a ejecutar con la sesión de la región.
+     * @param <T> Tipo del resultado.
+     * @return El resultado de la operación.
+     */
+    public <T> T enRegion(String region, Function<Session, T> operacion) {
+        try (Session session = shards.getSessionFactory(region).openSession()) {
+            return operacion.apply(session);
+        }
+    }
+
+    /**
+     * Registra una familia en la región que corresponde a su ciudad.
+     *
+     * @param familia Familia a registrar.
+     * @return La familia registrada.
+     * @throws HibernateException Si ocurre un error durante la inserción.
+     */
+    public Familia registrarFamilia(Familia familia) {
+        return enRegion(shards.regionDeCiudad(familia.obtenerCiudad()), session -> new FamiliaImpl(session).registrar(familia));
+    }
+
+    /**
+     * Busca las familias de una ciudad en la región a la que pertenece.
+     *
+     * @param ciudad Ciudad a consultar.
+     * @return Lista de familias de la ciudad.
+     * @throws HibernateException Si ocurre un error en la consulta.
+     */
+    public List<Familia> buscarFamiliasPorCiudad(String ciudad) {
+        return enRegion(shards.regionDeCiudad(ciudad), session -> new FamiliaImpl(session).buscarPorCiudad(ciudad));
+    }
+
+    /**
+     * Guarda un animal en la región indicada. Si el animal tiene familia, se guarda
+     * en la región de la ciudad de la familia.
+     *
+     * @param region Región del refugio que registra el animal.
+     * @param animal Animal a guardar.
+     * @return El animal registrado.
+     * @throws HibernateException Si ocurre un error durante el guardado.
+     */
+    public Animales guardarAnimal(String region, Animales animal) {
+        String destino = animal.getFamilia() != null ? shards.regionDeCiudad(animal.getFamilia().obtenerCiudad()) : region;
+        return enRegion(destino, session -> new AnimalesImpl(session).guardar(animal));
+    }
+
+    /**
+     * Busca animales de una especie en todas las regiones en paralelo.
+     *
+     * @param especie Especie de los animales a buscar.
+     * @return Animales de todas las regiones, agrupados por región.
+     * @throws HibernateException Si la consulta falla en alguna región.
+     */
+    public List<Animales> buscarPorEspecie(String especie) {
+        return shards.consultarTodas(session -> new AnimalesImpl(session).buscarPorEspecie(especie));
+    }
+
+    /**
+     * Obtiene todas las familias de todas las regiones en paralelo.
+     *
+     * @return Familias de todas las regiones, agrupadas por región.
+     * @throws HibernateException Si la consulta falla en alguna región.
+     */
+    public List<Familia> obtenerTodasLasFamilias() {
+        return shards.consultarTodas(session -> new FamiliaImpl(session).obtenerTodas());
+    }
+}
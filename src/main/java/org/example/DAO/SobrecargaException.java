@@ -0,0 +1,33 @@
+package org.example.DAO;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Se lanza cuando {@link ControlAdmision} rechaza una operación porque su clase de carga está
+ * saturada: la cola está llena, la espera prevista supera el máximo o el tiempo de espera se agota.
+ * Conviene tratarla como un error temporal y reintentar más tarde.
+ */
+public class SobrecargaException extends HibernateException {
+
+    private final ControlAdmision.ClaseCarga clase;
+
+    /**
+     * Crea la excepción para la clase de carga rechazada.
+     *
+     * @param clase Clase de carga saturada.
+     * @param mensaje Motivo del rechazo.
+     */
+    public SobrecargaException(ControlAdmision.ClaseCarga clase, String mensaje) {
+        super(mensaje);
+        this.clase = clase;
+    }
+
+    /**
+     * Clase de carga que rechazó la operación.
+     *
+     * @return La clase de carga.
+     */
+    public ControlAdmision.ClaseCarga getClase() {
+        return clase;
+    }
+}
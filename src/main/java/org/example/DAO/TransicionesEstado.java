@@ -0,0 +1,288 @@
+package org.example.DAO;
+
+import jakarta.persistence.LockModeType;
+import org.example.entities.Estado;
+import org.example.entities.MarcaTransicion;
+import org.example.util.ContadoresOcupacion;
+import org.example.util.VersionDatos;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aplica en segundo plano las transiciones de {@link Estado} que dependen del tiempo o de reglas
+ * fijas, sin cargar los animales. Cada regla recorre por orden de identificador los animales que
+ * están en su estado de origen, en lotes de {@link AnimalesImpl#TAMANO_LOTE}; cada lote bloquea sus
+ * filas, anota el cambio en {@code animales_transiciones} con {@code INSERT ... SELECT}, cambia el
+ * estado con un único {@code UPDATE} y avanza la {@link MarcaTransicion marca} de la regla, todo en
+ * la misma transacción. Una ejecución interrumpida continúa desde la marca, y un lote que falla se
+ * reintenta entero en la siguiente.
+ *
+ * <pre>
+ * try (TransicionesEstado transiciones = new TransicionesEstado(sessionFactory, TransicionesEstado.reglasPorDefecto())) {
+ *     transiciones.iniciar(Duration.ofHours(24));
+ *     ...
+ * }
+ * </pre>
+ */
+public class TransicionesEstado implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(TransicionesEstado.class.getName());
+
+    private final SessionFactory sessionFactory;
+    private final List<Regla> reglas;
+    private ScheduledExecutorService programador;
+
+    /**
+     * Regla de transición: los animales en el estado de origen que cumplen las condiciones pasan al
+     * estado de destino.
+     */
+    public static final class Regla {
+
+        private final String nombre;
+        private final Estado desde;
+        private final Estado hasta;
+        private Duration trasIngreso;
+        private Boolean conFamilia;
+
+        private Regla(String nombre, Estado desde, Estado hasta) {
+            this.nombre = Objects.requireNonNull(nombre);
+            this.desde = Objects.requireNonNull(desde);
+            this.hasta = Objects.requireNonNull(hasta);
+        }
+
+        /**
+         * Crea una regla sin condiciones: todos los animales en el estado de origen cambian.
+         *
+         * @param nombre Nombre único de la regla; identifica su marca de avance y su historial.
+         * @param desde Estado de origen.
+         * @param hasta Estado de destino.
+         * @return La regla.
+         */
+        public static Regla de(String nombre, Estado desde, Estado hasta) {
+            return new Regla(nombre, desde, hasta);
+        }
+
+        /**
+         * Exige que haya pasado un tiempo mínimo desde el ingreso del animal.
+         *
+         * @param antiguedad Tiempo mínimo desde la fecha de ingreso.
+         * @return Esta regla, para encadenar llamadas.
+         */
+        public Regla trasIngreso(Duration antiguedad) {
+            this.trasIngreso = antiguedad;
+            return this;
+        }
+
+        /**
+         * Exige que el animal tenga, o no tenga, familia asignada.
+         *
+         * @param conFamilia {@code true} para exigir familia, {@code false} para exigir que no la tenga.
+         * @return Esta regla, para encadenar llamadas.
+         */
+        public Regla conFamilia(boolean conFamilia) {
+            this.conFamilia = conFamilia;
+            return this;
+        }
+
+        /**
+         * Obtiene el nombre de la regla.
+         *
+         * @return El nombre de la regla.
+         */
+        public String getNombre() {
+            return nombre;
+        }
+
+        private String condiciones() {
+            StringBuilder condiciones = new StringBuilder(" WHERE a.estado = :desde AND a.id > :marca");
+            if (trasIngreso != null) {
+                condiciones.append(" AND a.fechaIngreso < :corte");
+            }
+            if (conFamilia != null) {
+                condiciones.append(conFamilia ? " AND a.familia IS NOT NULL" : " AND a.familia IS NULL");
+            }
+            return condiciones.toString();
+        }
+    }
+
+    /**
+     * Reglas del ciclo de vida habitual: un animal recién abandonado pasa a estar en el refugio a
+     * los siete días de su ingreso, y un animal en el refugio con familia asignada pasa a estar
+     * próximamente en acogida.
+     *
+     * @return Las reglas por defecto.
+     */
+    public static List<Regla> reglasPorDefecto() {
+        List<Regla> reglas = new ArrayList<>();
+        reglas.add(Regla.de("ingreso-en-refugio", Estado.RECIEN_ABANDONADO, Estado.EN_REFUGIO).trasIngreso(Duration.ofDays(7)));
+        reglas.add(Regla.de("familia-asignada", Estado.EN_REFUGIO, Estado.PROXIMAMENTE_EN_ACOGIDA).conFamilia(true));
+        return reglas;
+    }
+
+    /**
+     * Constructor que recibe la SessionFactory con la que se abren las sesiones y las reglas a aplicar.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @param reglas Reglas de transición, que se aplican en el orden indicado.
+     */
+    public TransicionesEstado(SessionFactory sessionFactory, List<Regla> reglas) {
+        this.sessionFactory = sessionFactory;
+        this.reglas = new ArrayList<>(reglas);
+    }
+
+    /**
+     * Aplica todas las reglas por lotes hasta que no quedan animales que las cumplan.
+     *
+     * @return Número de animales que han cambiado de estado.
+     * @throws HibernateException Si ocurre un error; los lotes ya confirmados se conservan.
+     */
+    public int aplicar() {
+        int cambiados = 0;
+        for (Regla regla : reglas) {
+            cambiados += aplicar(regla);
+        }
+        ContadoresOcupacion contadores = ContadoresOcupacion.de(sessionFactory);
+        if (contadores != null && cambiados > 0) {
+            contadores.reconciliar();
+        }
+        return cambiados;
+    }
+
+    /**
+     * Programa la aplicación periódica de las reglas en un hilo en segundo plano.
+     *
+     * @param periodo Tiempo entre dos ejecuciones.
+     * @throws IllegalStateException Si la aplicación periódica ya está en marcha.
+     */
+    public synchronized void iniciar(Duration periodo) {
+        if (programador != null) {
+            throw new IllegalStateException("Las transiciones periódicas ya están en marcha");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "transiciones-estado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                int cambiados = aplicar();
+                LOG.fine(() -> "Animales que han cambiado de estado: " + cambiados);
+            } catch (HibernateException e) {
+                // Se reanuda desde la marca en la siguiente ejecución
+                LOG.log(Level.WARNING, "Error al aplicar las transiciones de estado", e);
+            }
+        }, periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene la aplicación periódica. El lote en curso, si lo hay, termina normalmente.
+     */
+    @Override
+    public synchronized void close() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    private int aplicar(Regla regla) {
+        LocalDateTime corte = regla.trasIngreso != null ? LocalDateTime.now().minus(regla.trasIngreso) : null;
+        int cambiados = 0;
+        int cambiadosLote;
+        do {
+            cambiadosLote = aplicarLote(regla, corte);
+            cambiados += Math.max(0, cambiadosLote);
+        } while (cambiadosLote >= 0);
+        return cambiados;
+    }
+
+    /**
+     * Aplica la regla al siguiente lote a partir de su marca.
+     *
+     * @return Número de animales cambiados, o -1 si no quedaban animales y la ejecución ha terminado.
+     */
+    private int aplicarLote(Regla regla, LocalDateTime corte) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                MarcaTransicion marca = session.find(MarcaTransicion.class, regla.nombre, LockModeType.PESSIMISTIC_WRITE);
+                if (marca == null) {
+                    marca = new MarcaTransicion(regla.nombre);
+                    session.persist(marca);
+                }
+                Query<Long> seleccion = session.createQuery("SELECT a.id FROM Animales a" + regla.condiciones() + " ORDER BY a.id", Long.class)
+                        .setParameter("desde", regla.desde)
+                        .setParameter("marca", marca.getUltimoId())
+                        .setMaxResults(AnimalesImpl.TAMANO_LOTE)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+                if (corte != null) {
+                    seleccion.setParameter("corte", corte);
+                }
+                List<Long> lote = seleccion.list();
+                if (lote.isEmpty()) {
+                    marca.setUltimoId(0);
+                    marca.setUltimaEjecucion(LocalDateTime.now());
+                    tx.commit();
+                    return -1;
+                }
+                session.createMutationQuery(
+                                "INSERT INTO TransicionEstado (animalId, desde, hasta, regla, fecha)"
+                                        + " SELECT a.id, a.estado, :hasta, :regla, local datetime FROM Animales a WHERE a.id IN :ids")
+                        .setParameter("hasta", regla.hasta)
+                        .setParameter("regla", regla.nombre)
+                        .setParameterList("ids", lote)
+                        .executeUpdate();
+                HistorialAnimales historial = HistorialAnimales.de(sessionFactory);
+                List<Object[]> especies = historial != null ? especiesDe(session, lote) : null;
+                // Como en Animales#setEstado: la fecha de adopción solo se conserva o se anota si el animal queda adoptado con familia
+                String adopcion = regla.hasta == Estado.ADOPTADO
+                        ? "CASE WHEN familia IS NOT NULL THEN COALESCE(fechaAdopcion, local datetime) END"
+                        : "NULL";
+                int cambiados = session.createMutationQuery("UPDATE Animales SET estado = :hasta, fechaAdopcion = " + adopcion + " WHERE id IN :ids")
+                        .setParameter("hasta", regla.hasta)
+                        .setParameterList("ids", lote)
+                        .executeUpdate();
+                marca.setUltimoId(lote.get(lote.size() - 1));
+                tx.commit();
+                CacheCercana cache = CacheCercana.de(sessionFactory);
+                if (cache != null) {
+                    cache.invalidarAnimales(lote);
+                }
+                VersionDatos version = VersionDatos.de(sessionFactory);
+                if (version != null) {
+                    version.avanzar();
+                }
+                if (especies != null) {
+                    especies.forEach(fila -> historial.cambioEstado((Long) fila[0], (String) fila[1], regla.hasta));
+                }
+                return cambiados;
+            } catch (HibernateException e) {
+                tx.rollback();
+                throw new HibernateException("Error al aplicar la regla de transición " + regla.nombre, e);
+            }
+        }
+    }
+
+    /**
+     * Identificador y especie de los animales del lote, para el historial.
+     */
+    private static List<Object[]> especiesDe(Session session, List<Long> ids) {
+        return session.createQuery("SELECT a.id, a.tipo FROM Animales a WHERE a.id IN :ids", Object[].class)
+                .setParameterList("ids", ids)
+                .list();
+    }
+}
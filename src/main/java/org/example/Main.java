@@ -2,23 +2,48 @@ package org.example;
 
 import org.example.DAO.AnimalesImpl;
 import org.example.DAO.FamiliaImpl;
+import org.example.DAO.MotorEmparejamiento;
+import org.example.DAO.ProcesadorLotes;
 import org.example.entities.Animales;
 import org.example.entities.Familia;
+import org.example.http.ServidorRefugio;
 import org.example.util.HibernateUtil;
 import org.hibernate.Session;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Collectors;
 
 /**
  * Clase principal que ejecuta el programa de gestión de un refugio de animales.
  * Permite registrar animales, buscar animales por diversas características y
  * registrar familias que acojan a los animales. Utiliza Hibernate para gestionar
  * la persistencia de los datos.
+ * Con el argumento {@code --http [puerto]} arranca en su lugar el servicio HTTP/JSON {@link ServidorRefugio},
+ * y con {@code --lote [fichero|-] [tamañoTransacción] [hilosBúsqueda]} ejecuta sin menú el guion de órdenes
+ * del fichero o de la entrada estándar con {@link ProcesadorLotes}.
  */
 public class Main {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--http")) {
+            int puerto = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+            ServidorRefugio servidor = new ServidorRefugio(HibernateUtil.getSessionFactory(), puerto, 20);  // 20: tamaño por defecto del pool de Hibernate
+            servidor.iniciar();
+            System.out.println("Servicio del refugio escuchando en el puerto " + servidor.getPuerto());
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--lote")) {
+            ejecutarLote(args);
+            return;
+        }
+
         // Crear la sesión de Hibernate
         Session session = HibernateUtil.getSession();
 
@@ -71,6 +96,25 @@ public class Main {
         scanner.close();
     }
 
+    /**
+     * Ejecuta un guion de órdenes sin menú y muestra el resumen de la ejecución.
+     *
+     * @param args Argumentos del programa: {@code --lote}, el fichero ({@code -} o ninguno para la
+     *             entrada estándar), el tamaño de las transacciones y el número de hilos de búsqueda.
+     * @throws IOException Si no se puede leer el guion.
+     */
+    private static void ejecutarLote(String[] args) throws IOException {
+        String fichero = args.length > 1 ? args[1] : "-";
+        int tamanoTransaccion = args.length > 2 ? Integer.parseInt(args[2]) : ProcesadorLotes.TAMANO_TRANSACCION_POR_DEFECTO;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        try (Reader entrada = fichero.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(fichero), StandardCharsets.UTF_8);
+             ProcesadorLotes procesador = new ProcesadorLotes(HibernateUtil.getSessionFactory(), tamanoTransaccion, hilos, System.out)) {
+            System.out.println(procesador.ejecutar(entrada));
+        }
+    }
+
     /**
      * Registra un nuevo animal en el sistema. Solicita los datos del animal al usuario
      * y lo guarda en la base de datos utilizando el DAO {@link AnimalesImpl}.
@@ -155,9 +199,9 @@ public class Main {
     }
 
     /**
-     * Registra una nueva familia que acoge a un animal. El usuario selecciona un animal
-     * de la lista de animales disponibles y luego ingresa los datos de la familia.
-     * El animal seleccionado es actualizado con la familia correspondiente.
+     * Registra una nueva familia que acoge a un animal. El usuario elige una especie de la lista
+     * de animales disponibles y luego ingresa los datos de la familia. Entre los animales de esa
+     * especie sin familia, {@link MotorEmparejamiento} elige el que mejor encaja con ella.
      *
      * @param scanner El escáner utilizado para leer la entrada del usuario.
      * @param animalesDAO El DAO utilizado para obtener y actualizar los animales.
@@ -176,13 +220,12 @@ public class Main {
         System.out.print("Ingrese la especie del animal que desea acoger: ");
         String especie = scanner.nextLine();
 
-        // Filtrar el animal por especie
-        Animales animalAcojer = animales.stream()
-                .filter(a -> a.getEspecie().equalsIgnoreCase(especie))
-                .findFirst()
-                .orElse(null);
+        // Animales de la especie pedida que aún no tienen familia
+        List<Animales> candidatos = animales.stream()
+                .filter(a -> a.getEspecie().equalsIgnoreCase(especie) && a.getFamilia() == null)
+                .collect(Collectors.toList());
 
-        if (animalAcojer == null) {
+        if (candidatos.isEmpty()) {
             System.out.println("No se encontró un animal con esa especie.");
         } else {
             System.out.println("Ingrese los datos de la familia:");
@@ -199,9 +242,19 @@ public class Main {
             Familia nuevaFamilia = new Familia(nombre, edad, ciudad);
             familiaDAO.registrar(nuevaFamilia);  // Registrar la familia
 
+            // Elegir, entre los candidatos, el que mejor encaja con la familia
+            MotorEmparejamiento motor = new MotorEmparejamiento(1, null);
+            candidatos.forEach(motor::agregarAnimal);
+            motor.agregarFamilia(nuevaFamilia);
+            Long elegido = motor.mejorAnimal(nuevaFamilia.obtenerId());
+            Animales animalAcojer = candidatos.stream()
+                    .filter(a -> a.getId().equals(elegido))
+                    .findFirst()
+                    .orElse(candidatos.get(0));
+
             animalAcojer.setFamilia(nuevaFamilia);  // Asignar la familia al animal
             animalesDAO.actualizar(animalAcojer);  // Actualizar el animal en la base de datos
-            System.out.println("La familia ha acogido al animal correctamente.");
+            System.out.println("La familia ha acogido a " + animalAcojer.getNombre() + " correctamente.");
         }
     }
 }
@@ -0,0 +1,161 @@
+package org.example.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Metadatos de una foto o documento adjunto a un animal. El contenido no se guarda en la base de
+ * datos sino en disco, en una ruta derivada de su resumen SHA-256, de modo que dos adjuntos con el
+ * mismo contenido comparten un único fichero. El animal se referencia por su identificador como
+ * valor simple, igual que en {@link AnimalArchivado}, para que los adjuntos sigan disponibles cuando
+ * el animal se archiva, que conserva su identificador, y no impidan las eliminaciones masivas de
+ * {@code animales}; el almacén de adjuntos los elimina después cuando el animal se elimina.
+ */
+@Entity
+@Table(name = "animales_adjuntos", indexes = {
+        @Index(name = "idx_adjuntos_animal", columnList = "animal_id"),
+        @Index(name = "idx_adjuntos_resumen", columnList = "resumen")
+})
+@NamedQueries({
+        @NamedQuery(name = AdjuntoAnimal.BUSCAR_POR_ANIMAL, query = "FROM AdjuntoAnimal WHERE animalId = :animalId ORDER BY id"),
+        @NamedQuery(name = AdjuntoAnimal.CONTAR_POR_RESUMEN, query = "SELECT COUNT(a) FROM AdjuntoAnimal a WHERE a.resumen = :resumen")
+})
+public class AdjuntoAnimal implements Serializable {
+
+    /** Nombre de la consulta que obtiene los adjuntos de un animal (parámetro {@code animalId}). */
+    public static final String BUSCAR_POR_ANIMAL = "AdjuntoAnimal.buscarPorAnimal";
+
+    /** Nombre de la consulta que cuenta los adjuntos que comparten contenido (parámetro {@code resumen}). */
+    public static final String CONTAR_POR_RESUMEN = "AdjuntoAnimal.contarPorResumen";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "animal_id", nullable = false)
+    private Long animalId;
+
+    /** Resumen SHA-256 del contenido en hexadecimal; determina la ruta del fichero. */
+    @Column(nullable = false, length = 64)
+    private String resumen;
+
+    private String nombreArchivo;
+    private String tipoContenido;
+    private long tamaño;
+    private LocalDateTime fechaSubida;
+
+    /**
+     * Constructor vacío requerido por Hibernate.
+     */
+    public AdjuntoAnimal() {}
+
+    /**
+     * Crea los metadatos de un adjunto ya almacenado.
+     *
+     * @param animalId Identificador del animal.
+     * @param resumen Resumen SHA-256 del contenido.
+     * @param nombreArchivo Nombre original del fichero.
+     * @param tipoContenido Tipo MIME del contenido, p. ej. {@code image/jpeg}.
+     * @param tamaño Tamaño del contenido en bytes.
+     */
+    public AdjuntoAnimal(Long animalId, String resumen, String nombreArchivo, String tipoContenido, long tamaño) {
+        this.animalId = animalId;
+        this.resumen = resumen;
+        this.nombreArchivo = nombreArchivo;
+        this.tipoContenido = tipoContenido;
+        this.tamaño = tamaño;
+        this.fechaSubida = LocalDateTime.now();
+    }
+
+    /**
+     * Obtiene el identificador del adjunto.
+     *
+     * @return El identificador del adjunto.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el identificador del animal al que pertenece el adjunto.
+     *
+     * @return El identificador del animal.
+     */
+    public Long getAnimalId() {
+        return animalId;
+    }
+
+    /**
+     * Obtiene el resumen SHA-256 del contenido.
+     *
+     * @return El resumen en hexadecimal.
+     */
+    public String getResumen() {
+        return resumen;
+    }
+
+    /**
+     * Obtiene el nombre original del fichero.
+     *
+     * @return El nombre del fichero.
+     */
+    public String getNombreArchivo() {
+        return nombreArchivo;
+    }
+
+    /**
+     * Obtiene el tipo MIME del contenido.
+     *
+     * @return El tipo de contenido.
+     */
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    /**
+     * Obtiene el tamaño del contenido.
+     *
+     * @return El tamaño en bytes.
+     */
+    public long getTamaño() {
+        return tamaño;
+    }
+
+    /**
+     * Obtiene el momento en que se subió el adjunto.
+     *
+     * @return La fecha de subida.
+     */
+    public LocalDateTime getFechaSubida() {
+        return fechaSubida;
+    }
+
+    /**
+     * Indica si el adjunto es una imagen de la que puede generarse una miniatura.
+     *
+     * @return {@code true} si el tipo de contenido es {@code image/*}.
+     */
+    public boolean esImagen() {
+        return tipoContenido != null && tipoContenido.startsWith("image/");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AdjuntoAnimal)) return false;
+        AdjuntoAnimal other = (AdjuntoAnimal) o;
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return AdjuntoAnimal.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AdjuntoAnimal{id=" + id + ", animalId=" + animalId + ", nombreArchivo='" + nombreArchivo
+                + "', resumen='" + resumen + "', tamaño=" + tamaño + "}";
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Copia histórica de un animal que ya no forma parte del conjunto activo del refugio. Los animales
+ * adoptados se trasladan a la tabla {@code animales_archivo} para que la tabla {@code animales} y sus
+ * índices se mantengan pequeños. El registro conserva el identificador original del animal y el de
+ * su familia como valor simple, sin relación, porque la familia puede eliminarse más adelante.
+ */
+@Entity
+@Table(name = "animales_archivo", indexes = {
+        @Index(name = "idx_archivo_tipo", columnList = "tipo"),
+        @Index(name = "idx_archivo_años", columnList = "años")
+})
+@NamedQueries({
+        @NamedQuery(name = AnimalArchivado.BUSCAR_POR_ESPECIE, query = "FROM AnimalArchivado WHERE tipo = :especie"),
+        @NamedQuery(name = AnimalArchivado.BUSCAR_POR_EDAD, query = "FROM AnimalArchivado WHERE años = :edad")
+})
+public class AnimalArchivado implements Serializable {
+
+    /** Nombre de la consulta que busca animales archivados por especie (parámetro {@code especie}). */
+    public static final String BUSCAR_POR_ESPECIE = "AnimalArchivado.buscarPorEspecie";
+
+    /** Nombre de la consulta que busca animales archivados por edad (parámetro {@code edad}). */
+    public static final String BUSCAR_POR_EDAD = "AnimalArchivado.buscarPorEdad";
+
+    /** Identificador que tenía el animal en la tabla {@code animales}. */
+    @Id
+    private Long id;
+
+    private String nombre;
+    private String tipo;
+    private int años;
+
+    /** Se guarda con la misma conversión que en {@link Animales}, para copiar el valor tal cual al archivar. */
+    @Column(length = Length.LONG)
+    @Convert(converter = DetallesComprimidos.class)
+    private String detalles;
+
+    @Enumerated(EnumType.STRING)
+    private Estado estado;
+
+    @Column(name = "familia_id")
+    private Long familiaId;
+
+    private LocalDateTime fechaIngreso;
+
+    private LocalDateTime fechaAdopcion;
+
+    /** Momento en que el animal se trasladó al archivo. */
+    private LocalDateTime fechaArchivo;
+
+    /**
+     * Constructor vacío requerido por Hibernate.
+     */
+    public AnimalArchivado() {}
+
+    /**
+     * Obtiene el identificador original del animal.
+     *
+     * @return El identificador del animal.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el nombre del animal.
+     *
+     * @return El nombre del animal.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el tipo (especie) del animal.
+     *
+     * @return El tipo del animal.
+     */
+    public String getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene la edad del animal en años.
+     *
+     * @return La edad del animal.
+     */
+    public int getAños() {
+        return años;
+    }
+
+    /**
+     * Obtiene los detalles del animal.
+     *
+     * @return Los detalles del animal.
+     */
+    public String getDetalles() {
+        return detalles;
+    }
+
+    /**
+     * Obtiene el estado del animal en el momento de archivarlo.
+     *
+     * @return El estado del animal.
+     */
+    public Estado getEstado() {
+        return estado;
+    }
+
+    /**
+     * Obtiene el identificador de la familia que acogió al animal.
+     *
+     * @return El identificador de la familia, o {@code null} si no tenía.
+     */
+    public Long getFamiliaId() {
+        return familiaId;
+    }
+
+    /**
+     * Obtiene la fecha de entrada del animal en el refugio.
+     *
+     * @return La fecha de ingreso.
+     */
+    public LocalDateTime getFechaIngreso() {
+        return fechaIngreso;
+    }
+
+    /**
+     * Obtiene la fecha en que el animal quedó adoptado.
+     *
+     * @return La fecha de adopción, o {@code null} si no se conoce.
+     */
+    public LocalDateTime getFechaAdopcion() {
+        return fechaAdopcion;
+    }
+
+    /**
+     * Obtiene la fecha en que el animal se archivó.
+     *
+     * @return La fecha de archivo.
+     */
+    public LocalDateTime getFechaArchivo() {
+        return fechaArchivo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AnimalArchivado)) return false;
+        AnimalArchivado other = (AnimalArchivado) o;
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return AnimalArchivado.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "AnimalArchivado{id=" + id + ", nombre='" + nombre + "', tipo='" + tipo + "', fechaArchivo=" + fechaArchivo + "}";
+    }
+}
@@ -1,7 +1,13 @@
 package org.example.entities;
 
 import jakarta.persistence.*;
+import org.example.util.FirmaTrigramas;
+import org.hibernate.Length;
+import org.hibernate.annotations.LazyGroup;
+
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 
 /**
  * Representación de un animal en el sistema. La clase {@link Animales} mapea la entidad
@@ -10,9 +16,36 @@ import java.io.Serializable;
  * con la clase {@link Familia} que representa la familia a la que pertenece el animal.
  */
 @Entity
-@Table(name = "animales")
+@Table(name = "animales", indexes = {
+        // Recorrido por lotes de los animales de un estado en TransicionesEstado
+        @Index(name = "idx_animales_estado", columnList = "estado, id")
+})
+@NamedQueries({
+        @NamedQuery(name = Animales.OBTENER_TODOS, query = "FROM Animales"),
+        @NamedQuery(name = Animales.BUSCAR_POR_ESPECIE, query = "FROM Animales WHERE tipo = :especie"),
+        @NamedQuery(name = Animales.BUSCAR_POR_EDAD, query = "FROM Animales WHERE años = :edad"),
+        @NamedQuery(name = Animales.BUSCAR_POR_DESCRIPCION, query = "FROM Animales"
+                + " WHERE detalles LIKE cast(:descripcion AS String) AND substring(detalles, 1, 1) <> '\u001F'")
+})
 public class Animales implements Serializable {
 
+    /** Nombre de la consulta que obtiene todos los animales. */
+    public static final String OBTENER_TODOS = "Animales.obtenerTodos";
+
+    /** Nombre de la consulta que busca animales por especie (parámetro {@code especie}). */
+    public static final String BUSCAR_POR_ESPECIE = "Animales.buscarPorEspecie";
+
+    /** Nombre de la consulta que busca animales por edad (parámetro {@code edad}). */
+    public static final String BUSCAR_POR_EDAD = "Animales.buscarPorEdad";
+
+    /**
+     * Nombre de la consulta que busca animales por un patrón LIKE sobre los detalles sin comprimir
+     * (parámetro {@code descripcion}); descarta los comprimidos para que el patrón no coincida con
+     * su codificación por azar. El patrón se convierte a {@code String} para que no pase por el
+     * conversor del atributo. Los comprimidos se buscan aparte con su firma de trigramas.
+     */
+    public static final String BUSCAR_POR_DESCRIPCION = "Animales.buscarPorDescripcion";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -20,8 +53,28 @@ public class Animales implements Serializable {
     private String nombre;
     private String tipo;
     private int años;
+
+    /**
+     * Texto libre con las observaciones del animal. Se carga de forma perezosa (requiere la
+     * mejora de bytecode de Hibernate) para que los listados no lo traigan en cada consulta, y las
+     * notas largas se guardan comprimidas con {@link DetallesComprimidos}.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @Column(length = Length.LONG)
+    @Convert(converter = DetallesComprimidos.class)
     private String detalles;
 
+    /**
+     * Detalles de los que se guarda la firma de trigramas en la columna {@code detalles_firma}, solo
+     * si se guardan comprimidos, para la búsqueda por descripción. Se asigna con los detalles y al
+     * leerlo vale {@code null}; va en otro grupo perezoso para que leer los detalles no lo traiga.
+     */
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("busqueda")
+    @Column(name = "detalles_firma", length = FirmaTrigramas.BYTES)
+    @Convert(converter = DetallesComprimidos.FirmaBusqueda.class)
+    private String firmaDetalles;
+
     @Enumerated(EnumType.STRING)
     private Estado estado;  // Aquí definimos el estado del animal como un Enum
 
@@ -29,6 +82,16 @@ public class Animales implements Serializable {
     @JoinColumn(name = "familia_id")
     private Familia familia;  // Relación con la clase Familia
 
+    /** Fecha y hora de entrada del animal en el refugio; se asigna al persistirlo si no se indicó. */
+    private LocalDateTime fechaIngreso;
+
+    /**
+     * Fecha y hora en que el animal quedó adoptado: pasa a {@link Estado#ADOPTADO} teniendo
+     * familia, o recibe familia estando adoptado. Se borra si deja de cumplir alguna de las dos
+     * condiciones. Es la fecha que usa el archivado para decidir qué animales están fríos.
+     */
+    private LocalDateTime fechaAdopcion;
+
     /**
      * Constructor vacío de la clase Animales.
      */
@@ -47,6 +110,7 @@ public class Animales implements Serializable {
         this.tipo = tipo;
         this.años = años;
         this.detalles = detalles;
+        this.firmaDetalles = detalles;
     }
 
     /**
@@ -137,6 +201,7 @@ public class Animales implements Serializable {
      */
     public void setDetalles(String detalles) {
         this.detalles = detalles;
+        this.firmaDetalles = detalles;
     }
 
     /**
@@ -159,8 +224,9 @@ public class Animales implements Serializable {
         try {
             this.estado = Estado.valueOf(estado.toUpperCase());  // Convierte el valor de estado a su valor Enum
         } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Estado no válido. Valores válidos son: " + Estado.values());
+            throw new IllegalArgumentException("Estado no válido. Valores válidos son: " + Arrays.toString(Estado.values()));
         }
+        actualizarAdopcion();
     }
 
     /**
@@ -179,6 +245,65 @@ public class Animales implements Serializable {
      */
     public void setFamilia(Familia familia) {
         this.familia = familia;
+        actualizarAdopcion();
+    }
+
+    /**
+     * Obtiene la fecha de entrada del animal en el refugio.
+     *
+     * @return La fecha de ingreso, o {@code null} en registros anteriores a este campo.
+     */
+    public LocalDateTime getFechaIngreso() {
+        return fechaIngreso;
+    }
+
+    /**
+     * Establece la fecha de entrada del animal en el refugio.
+     *
+     * @param fechaIngreso La fecha de ingreso a asignar.
+     */
+    public void setFechaIngreso(LocalDateTime fechaIngreso) {
+        this.fechaIngreso = fechaIngreso;
+    }
+
+    /**
+     * Obtiene la fecha en que el animal quedó adoptado.
+     *
+     * @return La fecha de adopción, o {@code null} si no está adoptado o se adoptó antes de existir este campo.
+     */
+    public LocalDateTime getFechaAdopcion() {
+        return fechaAdopcion;
+    }
+
+    /**
+     * Establece la fecha en que el animal quedó adoptado, p. ej. al importar registros antiguos.
+     *
+     * @param fechaAdopcion La fecha de adopción a asignar.
+     */
+    public void setFechaAdopcion(LocalDateTime fechaAdopcion) {
+        this.fechaAdopcion = fechaAdopcion;
+    }
+
+    /**
+     * Anota el momento de la adopción cuando el animal pasa a estar adoptado y con familia, y lo
+     * borra si deja de estarlo.
+     */
+    private void actualizarAdopcion() {
+        if (estado != Estado.ADOPTADO || familia == null) {
+            fechaAdopcion = null;
+        } else if (fechaAdopcion == null) {
+            fechaAdopcion = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Asigna la fecha de ingreso actual antes de insertar el animal si no tiene una.
+     */
+    @PrePersist
+    void asignarFechaIngreso() {
+        if (fechaIngreso == null) {
+            fechaIngreso = LocalDateTime.now();
+        }
     }
 
     /**
@@ -199,6 +324,31 @@ public class Animales implements Serializable {
         this.tipo = especie;  // Asignamos tipo como especie
     }
 
+    /**
+     * Dos animales son iguales si son de la misma entidad y comparten identificador.
+     * Los animales todavía no persistidos solo son iguales a sí mismos.
+     *
+     * @param o Objeto a comparar.
+     * @return {@code true} si ambos representan el mismo registro.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Animales)) return false;
+        Long otroId = ((Animales) o).getId();
+        return id != null && id.equals(otroId);
+    }
+
+    /**
+     * Código hash constante por clase, estable antes y después de asignar el identificador.
+     *
+     * @return El código hash del animal.
+     */
+    @Override
+    public int hashCode() {
+        return Animales.class.hashCode();
+    }
+
     /**
      * Devuelve una representación en forma de cadena del animal.
      *
@@ -0,0 +1,116 @@
+package org.example.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.example.util.CompresionTexto;
+import org.example.util.FirmaTrigramas;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.util.Map;
+
+/**
+ * Guarda comprimidos con {@link CompresionTexto} los textos libres que alcanzan el umbral de la
+ * propiedad de Hibernate {@value #UMBRAL} ({@value #UMBRAL_POR_DEFECTO} caracteres por defecto). Los
+ * textos más cortos, o los que no se reducen al comprimirlos, se guardan tal cual, y al leer se
+ * aceptan las dos formas.
+ * <p>
+ * Hibernate crea los conversores sin pasarles su configuración, así que
+ * {@link org.example.util.HibernateUtil} los construye con el umbral de cada SessionFactory; sin ella
+ * se usa el umbral por defecto.
+ * <p>
+ * Una condición {@code LIKE} sobre el atributo solo encuentra los textos sin comprimir: para buscar
+ * en los comprimidos se guarda aparte una firma de trigramas con {@link FirmaBusqueda}, que descarta
+ * la mayoría sin descomprimirlos.
+ */
+@Converter
+public class DetallesComprimidos implements AttributeConverter<String, String> {
+
+    /** Propiedad de Hibernate con el número mínimo de caracteres a partir del cual se comprime. */
+    public static final String UMBRAL = "refugio.detalles.umbral_compresion";
+
+    /** Umbral por defecto; por debajo, lo que ahorra Deflate apenas compensa lo que añade Base64. */
+    public static final int UMBRAL_POR_DEFECTO = 256;
+
+    private final int umbral;
+
+    /**
+     * Conversor con el umbral por defecto.
+     */
+    public DetallesComprimidos() {
+        this(UMBRAL_POR_DEFECTO);
+    }
+
+    /**
+     * Conversor con un umbral dado.
+     *
+     * @param umbral Número mínimo de caracteres a partir del cual se comprime un texto.
+     */
+    public DetallesComprimidos(int umbral) {
+        this.umbral = umbral;
+    }
+
+    /**
+     * Umbral de compresión de una configuración de Hibernate.
+     *
+     * @param configuracion Propiedades de Hibernate, p. ej. las de una SessionFactory.
+     * @return El número mínimo de caracteres a partir del cual se comprime un texto.
+     */
+    public static int umbral(Map<?, ?> configuracion) {
+        return ConfigurationHelper.getInt(UMBRAL, configuracion, UMBRAL_POR_DEFECTO);
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String texto) {
+        // Un texto que empieza por el prefijo se comprime siempre para no confundirlo al leerlo
+        if (texto == null || (texto.length() < umbral && !CompresionTexto.comprimido(texto))) {
+            return texto;
+        }
+        String comprimido = CompresionTexto.comprimir(texto);
+        return comprimido.length() < texto.length() || CompresionTexto.comprimido(texto) ? comprimido : texto;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String guardado) {
+        return CompresionTexto.descomprimir(guardado);
+    }
+
+    /**
+     * Firma de trigramas de unos detalles, para descartar sin descomprimirlos los que no pueden
+     * contener un texto buscado: se guarda la firma de {@link FirmaTrigramas} solo si
+     * {@link DetallesComprimidos}, con el mismo umbral, guardaría el texto comprimido, y {@code null}
+     * en otro caso, porque los textos sin comprimir se buscan directamente con {@code LIKE}.
+     * <p>
+     * Al leer devuelve siempre {@code null}; la firma se consulta sobre la columna.
+     */
+    @Converter
+    public static class FirmaBusqueda implements AttributeConverter<String, byte[]> {
+
+        private final DetallesComprimidos detalles;
+
+        /**
+         * Firma con el umbral por defecto.
+         */
+        public FirmaBusqueda() {
+            this(UMBRAL_POR_DEFECTO);
+        }
+
+        /**
+         * Firma con un umbral dado, que debe ser el de los detalles.
+         *
+         * @param umbral Número mínimo de caracteres a partir del cual se comprimen los detalles.
+         */
+        public FirmaBusqueda(int umbral) {
+            this.detalles = new DetallesComprimidos(umbral);
+        }
+
+        @Override
+        public byte[] convertToDatabaseColumn(String texto) {
+            return texto != null && CompresionTexto.comprimido(detalles.convertToDatabaseColumn(texto)) ? FirmaTrigramas.de(texto) : null;
+        }
+
+        @Override
+        public String convertToEntityAttribute(byte[] guardado) {
+            return null;
+        }
+    }
+}
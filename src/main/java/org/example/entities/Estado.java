@@ -3,7 +3,7 @@ package org.example.entities;
 /**
  * Enumeración que representa los diferentes estados en los que un animal puede encontrarse en el sistema.
  * Cada estado está asociado con una descripción detallada que indica la situación o el proceso en el que
- * se encuentra el animal. Los estados posibles son: recién abandonado, en refugio, y próximamente en acogida.
+ * se encuentra el animal. Los estados posibles son: recién abandonado, en refugio, próximamente en acogida y adoptado.
  */
 public enum Estado {
 
@@ -14,7 +14,13 @@ public enum Estado {
     EN_REFUGIO("En refugio"),
 
     /** Estado que indica que el animal estará próximamente en acogida. */
-    PROXIMAMENTE_EN_ACOGIDA("Próximamente en acogida");
+    PROXIMAMENTE_EN_ACOGIDA("Próximamente en acogida"),
+
+    /** Estado final que indica que el animal ha sido adoptado por su familia. */
+    ADOPTADO("Adoptado");
+
+    /** Copia única de {@link #values()} para no clonar el array en cada búsqueda. */
+    private static final Estado[] VALORES = values();
 
     private final String descripcion;
 
@@ -44,7 +50,7 @@ public enum Estado {
      * @throws IllegalArgumentException Si la descripción no coincide con ningún estado válido.
      */
     public static Estado obtenerEstadoPorDescripcion(String descripcion) {
-        for (Estado estado : Estado.values()) {
+        for (Estado estado : VALORES) {
             if (estado.obtenerDescripcion().equalsIgnoreCase(descripcion)) {
                 return estado;
             }
@@ -59,7 +65,7 @@ public enum Estado {
      */
     private static String obtenerDescripcionesValidas() {
         StringBuilder descripciones = new StringBuilder();
-        for (Estado estado : Estado.values()) {
+        for (Estado estado : VALORES) {
             descripciones.append(estado.obtenerDescripcion()).append(", ");
         }
         // Elimina la última coma
@@ -3,6 +3,7 @@ package org.example.entities;
 import jakarta.persistence.*;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,8 +13,18 @@ import java.util.List;
  */
 @Entity
 @Table(name = "familias")
+@NamedQueries({
+        @NamedQuery(name = Familia.OBTENER_TODAS, query = "FROM Familia"),
+        @NamedQuery(name = Familia.BUSCAR_POR_CIUDAD, query = "FROM Familia WHERE ciudad = :ciudad")
+})
 public class Familia implements Serializable {
 
+    /** Nombre de la consulta que obtiene todas las familias. */
+    public static final String OBTENER_TODAS = "Familia.obtenerTodas";
+
+    /** Nombre de la consulta que busca familias por ciudad (parámetro {@code ciudad}). */
+    public static final String BUSCAR_POR_CIUDAD = "Familia.buscarPorCiudad";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -134,13 +145,13 @@ public class Familia implements Serializable {
     }
 
     /**
-     * Obtiene la lista de animales acogidos por la familia. Retorna una copia de la lista
-     * para evitar modificaciones directas sobre la lista original.
+     * Obtiene la lista de animales acogidos por la familia. Retorna una vista de solo lectura
+     * de la lista original, sin copiar sus elementos, para evitar modificaciones directas.
      *
-     * @return Una copia de la lista de animales acogidos.
+     * @return Una vista no modificable de la lista de animales acogidos.
      */
     public List<Animales> obtenerAnimalesAcogidos() {
-        return new ArrayList<>(animalesAcogidos);
+        return Collections.unmodifiableList(animalesAcogidos);
     }
 
     /**
@@ -174,6 +185,31 @@ public class Familia implements Serializable {
         return animalesAcogidos.size();
     }
 
+    /**
+     * Dos familias son iguales si son de la misma entidad y comparten identificador.
+     * Las familias todavía no persistidas solo son iguales a sí mismas.
+     *
+     * @param o Objeto a comparar.
+     * @return {@code true} si ambas representan el mismo registro.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Familia)) return false;
+        Long otroId = ((Familia) o).obtenerId();
+        return id != null && id.equals(otroId);
+    }
+
+    /**
+     * Código hash constante por clase, estable antes y después de asignar el identificador.
+     *
+     * @return El código hash de la familia.
+     */
+    @Override
+    public int hashCode() {
+        return Familia.class.hashCode();
+    }
+
     /**
      * Devuelve una representación en cadena de texto de la familia, incluyendo su nombre, edad, ciudad
      * y el número total de animales acogidos.
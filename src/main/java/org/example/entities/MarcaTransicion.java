@@ -0,0 +1,84 @@
+package org.example.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de avance de una regla de transición de estado. Guarda el último identificador de animal
+ * procesado por la ejecución en curso, actualizado en la misma transacción que cada lote, de modo
+ * que una ejecución interrumpida continúa donde se quedó. Al terminar una ejecución la marca vuelve
+ * a cero y se anota la fecha de finalización.
+ */
+@Entity
+@Table(name = "transiciones_marcas")
+public class MarcaTransicion implements Serializable {
+
+    /** Nombre de la regla. */
+    @Id
+    private String regla;
+
+    private long ultimoId;
+
+    /** Momento en que terminó la última ejecución completa, o {@code null} si nunca ha terminado. */
+    private LocalDateTime ultimaEjecucion;
+
+    /**
+     * Constructor vacío requerido por Hibernate.
+     */
+    public MarcaTransicion() {}
+
+    /**
+     * Crea la marca de una regla que todavía no se ha ejecutado.
+     *
+     * @param regla Nombre de la regla.
+     */
+    public MarcaTransicion(String regla) {
+        this.regla = regla;
+    }
+
+    /**
+     * Obtiene el nombre de la regla.
+     *
+     * @return El nombre de la regla.
+     */
+    public String getRegla() {
+        return regla;
+    }
+
+    /**
+     * Obtiene el último identificador procesado por la ejecución en curso.
+     *
+     * @return El identificador, o 0 si no hay ninguna ejecución a medias.
+     */
+    public long getUltimoId() {
+        return ultimoId;
+    }
+
+    /**
+     * Asigna el último identificador procesado.
+     *
+     * @param ultimoId Identificador del último animal del lote confirmado.
+     */
+    public void setUltimoId(long ultimoId) {
+        this.ultimoId = ultimoId;
+    }
+
+    /**
+     * Obtiene el momento en que terminó la última ejecución completa.
+     *
+     * @return La fecha de finalización, o {@code null} si nunca ha terminado.
+     */
+    public LocalDateTime getUltimaEjecucion() {
+        return ultimaEjecucion;
+    }
+
+    /**
+     * Asigna el momento en que terminó la última ejecución completa.
+     *
+     * @param ultimaEjecucion Fecha de finalización.
+     */
+    public void setUltimaEjecucion(LocalDateTime ultimaEjecucion) {
+        this.ultimaEjecucion = ultimaEjecucion;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Registro histórico de un cambio de estado aplicado por una regla de transición. La tabla
+ * {@code animales_transiciones} solo recibe inserciones: las filas se escriben con
+ * {@code INSERT ... SELECT} en la misma transacción que el {@code UPDATE} que cambia el estado y
+ * nunca se modifican. El animal se referencia por su identificador como valor simple, igual que en
+ * {@link AnimalArchivado}, para que el historial sobreviva al archivado y a las eliminaciones.
+ */
+@Entity
+@Table(name = "animales_transiciones", indexes = {
+        @Index(name = "idx_transiciones_animal", columnList = "animal_id"),
+        @Index(name = "idx_transiciones_fecha", columnList = "fecha")
+})
+@NamedQueries({
+        @NamedQuery(name = TransicionEstado.BUSCAR_POR_ANIMAL, query = "FROM TransicionEstado WHERE animalId = :animalId ORDER BY id")
+})
+public class TransicionEstado implements Serializable {
+
+    /** Nombre de la consulta que obtiene el historial de un animal (parámetro {@code animalId}). */
+    public static final String BUSCAR_POR_ANIMAL = "TransicionEstado.buscarPorAnimal";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "animal_id", nullable = false)
+    private Long animalId;
+
+    @Enumerated(EnumType.STRING)
+    private Estado desde;
+
+    @Enumerated(EnumType.STRING)
+    private Estado hasta;
+
+    /** Nombre de la regla que aplicó el cambio. */
+    private String regla;
+
+    private LocalDateTime fecha;
+
+    /**
+     * Constructor vacío requerido por Hibernate.
+     */
+    public TransicionEstado() {}
+
+    /**
+     * Obtiene el identificador del registro.
+     *
+     * @return El identificador del registro.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el identificador del animal que cambió de estado.
+     *
+     * @return El identificador del animal.
+     */
+    public Long getAnimalId() {
+        return animalId;
+    }
+
+    /**
+     * Obtiene el estado anterior al cambio.
+     *
+     * @return El estado de origen.
+     */
+    public Estado getDesde() {
+        return desde;
+    }
+
+    /**
+     * Obtiene el estado posterior al cambio.
+     *
+     * @return El estado de destino.
+     */
+    public Estado getHasta() {
+        return hasta;
+    }
+
+    /**
+     * Obtiene el nombre de la regla que aplicó el cambio.
+     *
+     * @return El nombre de la regla.
+     */
+    public String getRegla() {
+        return regla;
+    }
+
+    /**
+     * Obtiene el momento en que se aplicó el cambio.
+     *
+     * @return La fecha y hora del cambio.
+     */
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+}
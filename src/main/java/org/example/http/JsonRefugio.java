@@ -0,0 +1,93 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Conversión entre JSON y las entidades del refugio. La escritura se hace en streaming con un
+ * {@link JsonGenerator}, elemento a elemento, sin construir la respuesta completa en memoria.
+ * Los listados no incluyen los detalles del animal ni el número de animales de cada familia,
+ * que se cargan de forma perezosa y provocarían una consulta adicional por fila.
+ */
+final class JsonRefugio {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private JsonRefugio() {}
+
+    static JsonGenerator abrir(OutputStream salida) throws IOException {
+        return FACTORY.createGenerator(salida);
+    }
+
+    static JsonNode leer(InputStream entrada) throws IOException {
+        JsonNode nodo = MAPPER.readTree(entrada);
+        if (nodo == null || !nodo.isObject()) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON.");
+        }
+        return nodo;
+    }
+
+    static void escribirAnimal(JsonGenerator json, Session session, Animales animal, boolean completo) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", animal.getId());
+        json.writeStringField("nombre", animal.getNombre());
+        json.writeStringField("tipo", animal.getTipo());
+        json.writeNumberField("años", animal.getAños());
+        json.writeStringField("estado", animal.getEstado() != null ? animal.getEstado().name() : null);
+        if (animal.getFamilia() != null) {
+            // Solo el identificador: no inicializa el proxy de la familia
+            Object familiaId = session.getSessionFactory().getPersistenceUnitUtil().getIdentifier(animal.getFamilia());
+            json.writeNumberField("familiaId", ((Number) familiaId).longValue());
+        } else {
+            json.writeNullField("familiaId");
+        }
+        if (completo) {
+            json.writeStringField("detalles", animal.getDetalles());
+        }
+        json.writeEndObject();
+    }
+
+    static void escribirFamilia(JsonGenerator json, Familia familia, boolean completo) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", familia.obtenerId());
+        json.writeStringField("nombre", familia.obtenerNombre());
+        json.writeNumberField("edad", familia.obtenerEdad());
+        json.writeStringField("ciudad", familia.obtenerCiudad());
+        if (completo) {
+            json.writeNumberField("animalesAcogidos", familia.obtenerNumeroDeAnimales());
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Copia en el animal los campos presentes en el JSON.
+     */
+    static void aplicarAnimal(JsonNode json, Animales animal) {
+        if (json.hasNonNull("nombre")) animal.setNombre(json.get("nombre").asText());
+        if (json.hasNonNull("tipo")) animal.setTipo(json.get("tipo").asText());
+        if (json.hasNonNull("especie")) animal.setEspecie(json.get("especie").asText());
+        if (json.hasNonNull("años")) animal.setAños(json.get("años").asInt());
+        if (json.hasNonNull("edad")) animal.setEdad(json.get("edad").asInt());
+        if (json.hasNonNull("detalles")) animal.setDetalles(json.get("detalles").asText());
+        if (json.hasNonNull("estado")) animal.setEstado(json.get("estado").asText());
+    }
+
+    /**
+     * Copia en la familia los campos presentes en el JSON, con las validaciones de la entidad.
+     */
+    static void aplicarFamilia(JsonNode json, Familia familia) {
+        if (json.hasNonNull("nombre")) familia.asignarNombre(json.get("nombre").asText());
+        if (json.hasNonNull("edad")) familia.asignarEdad(json.get("edad").asInt());
+        if (json.hasNonNull("ciudad")) familia.asignarCiudad(json.get("ciudad").asText());
+    }
+}
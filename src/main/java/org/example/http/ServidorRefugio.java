@@ -0,0 +1,334 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.DAO.AnimalesImpl;
+import org.example.DAO.FamiliaImpl;
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.VersionDatos;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servicio HTTP/JSON que expone las operaciones de {@link AnimalesImpl} y {@link FamiliaImpl}
+ * sobre el servidor HTTP del JDK. Cada petición se atiende en su propio hilo (virtual si la JVM
+ * los ofrece) con su propia sesión de Hibernate, y el número de peticiones que usan la base de datos
+ * a la vez se limita al tamaño del pool de conexiones.
+ *
+ * <p>Rutas disponibles:</p>
+ * <ul>
+ *     <li>{@code GET /animales[?especie=|?edad=|?descripcion=]}, {@code GET /animales/{id}}</li>
+ *     <li>{@code POST /animales}, {@code PUT /animales/{id}}, {@code DELETE /animales/{id}}</li>
+ *     <li>{@code GET /familias[?ciudad=]}, {@code GET /familias/{id}}</li>
+ *     <li>{@code POST /familias}, {@code PUT /familias/{id}}, {@code DELETE /familias/{id}}</li>
+ * </ul>
+ *
+ * <p>Los listados llevan como {@code ETag} la {@link VersionDatos} de la SessionFactory y responden
+ * {@code 304} a un {@code If-None-Match} que coincida. La versión cambia con las escrituras de los
+ * DAOs en este proceso y con las invalidaciones de otros nodos que recibe la caché cercana, y empieza
+ * en una época aleatoria en cada arranque.</p>
+ */
+public class ServidorRefugio {
+
+    private static final Logger LOG = Logger.getLogger(ServidorRefugio.class.getName());
+
+    private final SessionFactory sessionFactory;
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final Semaphore conexiones;
+    private final VersionDatos version;
+
+    /**
+     * Crea el servidor sin arrancarlo.
+     *
+     * @param sessionFactory Factoría de sesiones con la que se atienden las peticiones.
+     * @param puerto Puerto TCP en el que escuchar, o 0 para uno libre.
+     * @param maxConexiones Número máximo de peticiones que usan la base de datos a la vez.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorRefugio(SessionFactory sessionFactory, int puerto, int maxConexiones) throws IOException {
+        this.sessionFactory = sessionFactory;
+        this.version = VersionDatos.iniciar(sessionFactory);
+        this.conexiones = new Semaphore(maxConexiones, true);
+        this.hilos = crearEjecutor();
+        this.servidor = HttpServer.create(new InetSocketAddress(puerto), 4096);
+        this.servidor.setExecutor(hilos);
+        this.servidor.createContext("/animales", intercambio -> atender(intercambio, this::animales));
+        this.servidor.createContext("/familias", intercambio -> atender(intercambio, this::familias));
+    }
+
+    /**
+     * Arranca el servidor.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Detiene el servidor esperando como mucho un segundo a las peticiones en curso.
+     */
+    public void detener() {
+        servidor.stop(1);
+        hilos.shutdown();
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     *
+     * @return El puerto TCP.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void animales(HttpExchange intercambio, Session session, Long id) throws IOException {
+        AnimalesImpl dao = new AnimalesImpl(session);
+        String metodo = intercambio.getRequestMethod();
+        if ("GET".equals(metodo) && id == null) {
+            Map<String, String> parametros = parametros(intercambio);
+            String etag = version.etag();
+            if (noModificado(intercambio, etag)) return;
+            List<Animales> animales;
+            if (parametros.containsKey("especie")) {
+                animales = dao.buscarPorEspecie(parametros.get("especie"));
+            } else if (parametros.containsKey("edad")) {
+                animales = dao.buscarPorEdad(Integer.parseInt(parametros.get("edad")));
+            } else if (parametros.containsKey("descripcion")) {
+                animales = dao.buscarPorDescripcion(parametros.get("descripcion"));
+            } else {
+                animales = dao.obtenerTodos();
+            }
+            intercambio.getResponseHeaders().set("ETag", etag);
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                json.writeStartArray();
+                for (Animales animal : animales) {
+                    JsonRefugio.escribirAnimal(json, session, animal, false);
+                }
+                json.writeEndArray();
+            }
+        } else if ("GET".equals(metodo)) {
+            Animales animal = session.get(Animales.class, id);
+            if (animal == null) {
+                error(intercambio, 404, "No existe el animal con ID: " + id);
+                return;
+            }
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                JsonRefugio.escribirAnimal(json, session, animal, true);
+            }
+        } else if ("POST".equals(metodo) && id == null) {
+            Animales animal = new Animales();
+            JsonRefugio.aplicarAnimal(JsonRefugio.leer(intercambio.getRequestBody()), animal);
+            dao.guardar(animal);
+            try (JsonGenerator json = responder(intercambio, 201)) {
+                JsonRefugio.escribirAnimal(json, session, animal, true);
+            }
+        } else if ("PUT".equals(metodo) && id != null) {
+            Animales animal = session.get(Animales.class, id);
+            if (animal == null) {
+                error(intercambio, 404, "No existe el animal con ID: " + id);
+                return;
+            }
+            JsonRefugio.aplicarAnimal(JsonRefugio.leer(intercambio.getRequestBody()), animal);
+            dao.actualizar(animal);
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                JsonRefugio.escribirAnimal(json, session, animal, true);
+            }
+        } else if ("DELETE".equals(metodo) && id != null) {
+            if (dao.eliminarPorId(id)) {
+                sinContenido(intercambio);
+            } else {
+                error(intercambio, 404, "No existe el animal con ID: " + id);
+            }
+        } else {
+            error(intercambio, 405, "Método no permitido: " + metodo);
+        }
+    }
+
+    private void familias(HttpExchange intercambio, Session session, Long id) throws IOException {
+        FamiliaImpl dao = new FamiliaImpl(session);
+        String metodo = intercambio.getRequestMethod();
+        if ("GET".equals(metodo) && id == null) {
+            Map<String, String> parametros = parametros(intercambio);
+            String etag = version.etag();
+            if (noModificado(intercambio, etag)) return;
+            List<Familia> familias = parametros.containsKey("ciudad")
+                    ? dao.buscarPorCiudad(parametros.get("ciudad"))
+                    : dao.obtenerTodas();
+            intercambio.getResponseHeaders().set("ETag", etag);
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                json.writeStartArray();
+                for (Familia familia : familias) {
+                    JsonRefugio.escribirFamilia(json, familia, false);
+                }
+                json.writeEndArray();
+            }
+        } else if ("GET".equals(metodo)) {
+            Familia familia = dao.buscarPorId(id);
+            if (familia == null) {
+                error(intercambio, 404, "No existe la familia con ID: " + id);
+                return;
+            }
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                JsonRefugio.escribirFamilia(json, familia, true);
+            }
+        } else if ("POST".equals(metodo) && id == null) {
+            Familia familia = new Familia();
+            JsonRefugio.aplicarFamilia(JsonRefugio.leer(intercambio.getRequestBody()), familia);
+            dao.registrar(familia);
+            try (JsonGenerator json = responder(intercambio, 201)) {
+                JsonRefugio.escribirFamilia(json, familia, false);
+            }
+        } else if ("PUT".equals(metodo) && id != null) {
+            Familia familia = dao.buscarPorId(id);
+            if (familia == null) {
+                error(intercambio, 404, "No existe la familia con ID: " + id);
+                return;
+            }
+            JsonRefugio.aplicarFamilia(JsonRefugio.leer(intercambio.getRequestBody()), familia);
+            dao.modificar(familia);
+            try (JsonGenerator json = responder(intercambio, 200)) {
+                JsonRefugio.escribirFamilia(json, familia, false);
+            }
+        } else if ("DELETE".equals(metodo) && id != null) {
+            if (dao.eliminarPorId(id)) {
+                sinContenido(intercambio);
+            } else {
+                error(intercambio, 404, "No existe la familia con ID: " + id);
+            }
+        } else {
+            error(intercambio, 405, "Método no permitido: " + metodo);
+        }
+    }
+
+    /**
+     * Atiende una petición: extrae el ID de la ruta, reserva una conexión, abre la sesión y
+     * traduce las excepciones a códigos de estado HTTP.
+     */
+    private void atender(HttpExchange intercambio, Manejador manejador) {
+        try {
+            Long id;
+            try {
+                id = idDeRuta(intercambio);
+            } catch (NumberFormatException e) {
+                error(intercambio, 400, "Identificador no válido.");
+                return;
+            }
+            conexiones.acquire();
+            try (Session session = sessionFactory.openSession()) {
+                manejador.manejar(intercambio, session, id);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                error(intercambio, 400, e.getMessage());
+            } catch (HibernateException e) {
+                LOG.log(Level.WARNING, "Error de persistencia en " + intercambio.getRequestURI(), e);
+                error(intercambio, 500, e.getMessage());
+            } finally {
+                conexiones.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Conexión cerrada por el cliente", e);
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    private static boolean noModificado(HttpExchange intercambio, String etag) throws IOException {
+        if (etag.equals(intercambio.getRequestHeaders().getFirst("If-None-Match"))) {
+            intercambio.getResponseHeaders().set("ETag", etag);
+            intercambio.sendResponseHeaders(304, -1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Envía las cabeceras con transferencia por bloques y devuelve un generador JSON sobre el cuerpo.
+     */
+    private static JsonGenerator responder(HttpExchange intercambio, int estado) throws IOException {
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, 0);
+        return JsonRefugio.abrir(intercambio.getResponseBody());
+    }
+
+    private static void sinContenido(HttpExchange intercambio) throws IOException {
+        intercambio.sendResponseHeaders(204, -1);
+    }
+
+    private static void error(HttpExchange intercambio, int estado, String mensaje) throws IOException {
+        byte[] cuerpo;
+        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+             JsonGenerator json = JsonRefugio.abrir(buffer)) {
+            json.writeStartObject();
+            json.writeStringField("error", mensaje);
+            json.writeEndObject();
+            json.flush();
+            cuerpo = buffer.toByteArray();
+        }
+        intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(cuerpo);
+        }
+    }
+
+    private static Long idDeRuta(HttpExchange intercambio) {
+        String contexto = intercambio.getHttpContext().getPath();
+        String resto = intercambio.getRequestURI().getPath().substring(contexto.length());
+        if (resto.isEmpty() || "/".equals(resto)) {
+            return null;
+        }
+        return Long.valueOf(resto.substring(1));
+    }
+
+    private static Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = intercambio.getRequestURI().getRawQuery();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    /**
+     * Usa un hilo virtual por petición si la JVM los soporta (Java 21+) y, si no, un pool de hilos.
+     */
+    private static ExecutorService crearEjecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(64, Runtime.getRuntime().availableProcessors() * 16));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Manejador {
+        void manejar(HttpExchange intercambio, Session session, Long id) throws IOException;
+    }
+}
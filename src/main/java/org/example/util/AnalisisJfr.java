@@ -0,0 +1,213 @@
+package org.example.util;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Resume una grabación JFR con los eventos de {@link EventosPersistencia}: el tiempo total por tipo
+ * de evento, las sentencias SQL que más tiempo acumulan agrupadas por forma y la tasa de aciertos de
+ * la caché de segundo nivel.
+ *
+ * <pre>java -cp ... org.example.util.AnalisisJfr grabacion.jfr [n]</pre>
+ */
+public final class AnalisisJfr {
+
+    private static final Pattern LISTA_PARAMETROS = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern CADENA = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private AnalisisJfr() {}
+
+    /**
+     * Tiempo acumulado por un grupo de eventos.
+     */
+    public static final class Total {
+
+        private final String clave;
+        private long eventos;
+        private long nanos;
+        private long maximoNanos;
+        private long filas;
+
+        Total(String clave) {
+            this.clave = clave;
+        }
+
+        void sumar(RecordedEvent evento, long filasEvento) {
+            long duracion = evento.getDuration().toNanos();
+            eventos++;
+            nanos += duracion;
+            maximoNanos = Math.max(maximoNanos, duracion);
+            filas += Math.max(0, filasEvento);
+        }
+
+        /**
+         * Tipo de evento o forma de la sentencia.
+         *
+         * @return La clave del grupo.
+         */
+        public String getClave() {
+            return clave;
+        }
+
+        /**
+         * Número de eventos del grupo.
+         *
+         * @return El número de eventos.
+         */
+        public long getEventos() {
+            return eventos;
+        }
+
+        /**
+         * Duración acumulada de los eventos del grupo.
+         *
+         * @return La duración total.
+         */
+        public Duration getTotal() {
+            return Duration.ofNanos(nanos);
+        }
+
+        /**
+         * Duración del evento más largo del grupo.
+         *
+         * @return La duración máxima.
+         */
+        public Duration getMaximo() {
+            return Duration.ofNanos(maximoNanos);
+        }
+
+        /**
+         * Filas leídas o modificadas por las sentencias del grupo.
+         *
+         * @return El número de filas.
+         */
+        public long getFilas() {
+            return filas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%8d  %10.3f ms  %9.3f ms  %10d  %s", eventos, nanos / 1e6, maximoNanos / 1e6, filas, clave);
+        }
+    }
+
+    /**
+     * Agrupa los eventos de persistencia por tipo, ordenados por tiempo total descendente.
+     *
+     * @param eventos Eventos de la grabación.
+     * @return Los totales por tipo de evento.
+     */
+    public static List<Total> porTipo(List<RecordedEvent> eventos) {
+        Map<String, Total> totales = new HashMap<>();
+        for (RecordedEvent evento : eventos) {
+            String tipo = evento.getEventType().getName();
+            if (tipo.startsWith(EventosPersistencia.PREFIJO)) {
+                totales.computeIfAbsent(tipo.substring(EventosPersistencia.PREFIJO.length()), Total::new)
+                        .sumar(evento, evento.hasField("filas") ? evento.getLong("filas") : 0);
+            }
+        }
+        return ordenar(totales);
+    }
+
+    /**
+     * Las sentencias que más tiempo acumulan, agrupadas por forma.
+     *
+     * @param eventos Eventos de la grabación.
+     * @param n Número máximo de sentencias.
+     * @return Los totales por forma de sentencia.
+     */
+    public static List<Total> sentenciasMasCostosas(List<RecordedEvent> eventos, int n) {
+        Map<String, Total> totales = new HashMap<>();
+        for (RecordedEvent evento : eventos) {
+            if (evento.getEventType().getName().equals(EventosPersistencia.PREFIJO + "Sentencia")) {
+                totales.computeIfAbsent(forma(evento.getString("sql")), Total::new).sumar(evento, evento.getLong("filas"));
+            }
+        }
+        return ordenar(totales).stream().limit(n).collect(Collectors.toList());
+    }
+
+    /**
+     * Proporción de aciertos de la caché de segundo nivel.
+     *
+     * @param eventos Eventos de la grabación.
+     * @return La tasa de aciertos entre 0 y 1, o {@code NaN} si no hubo accesos.
+     */
+    public static double tasaAciertosCache(List<RecordedEvent> eventos) {
+        long accesos = 0;
+        long aciertos = 0;
+        for (RecordedEvent evento : eventos) {
+            if (evento.getEventType().getName().equals(EventosPersistencia.PREFIJO + "AccesoCache")) {
+                accesos++;
+                if (evento.getBoolean("acierto")) {
+                    aciertos++;
+                }
+            }
+        }
+        return accesos == 0 ? Double.NaN : (double) aciertos / accesos;
+    }
+
+    /**
+     * Reduce una sentencia a su forma: sin literales y con las listas {@code IN} de cualquier
+     * longitud unificadas.
+     *
+     * @param sql Sentencia SQL.
+     * @return La forma de la sentencia.
+     */
+    static String forma(String sql) {
+        if (sql == null) {
+            return "(desconocida)";
+        }
+        String forma = CADENA.matcher(sql).replaceAll("?");
+        forma = NUMERO.matcher(forma).replaceAll("?");
+        forma = LISTA_PARAMETROS.matcher(forma).replaceAll("(?, ...)");
+        return forma.replaceAll("\\s+", " ").trim();
+    }
+
+    private static List<Total> ordenar(Map<String, Total> totales) {
+        List<Total> lista = new ArrayList<>(totales.values());
+        lista.sort(Comparator.comparingLong((Total t) -> t.nanos).reversed());
+        return lista;
+    }
+
+    /**
+     * Imprime el resumen de una grabación.
+     *
+     * @param args Ruta del fichero .jfr y, opcionalmente, el número de sentencias a mostrar (10 por defecto).
+     * @throws IOException Si no se puede leer la grabación.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: AnalisisJfr <grabacion.jfr> [n]");
+            return;
+        }
+        Path grabacion = Paths.get(args[0]);
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(grabacion);
+        String cabecera = String.format("%8s  %13s  %12s  %10s  %s", "eventos", "total", "máximo", "filas", "");
+
+        System.out.println("== Persistencia por tipo de evento ==");
+        System.out.println(cabecera);
+        porTipo(eventos).forEach(System.out::println);
+        System.out.println();
+        System.out.println("== Sentencias que más tiempo acumulan ==");
+        System.out.println(cabecera);
+        sentenciasMasCostosas(eventos, n).forEach(System.out::println);
+        double tasa = tasaAciertosCache(eventos);
+        if (!Double.isNaN(tasa)) {
+            System.out.printf("%nAciertos de la caché de segundo nivel: %.1f %%%n", tasa * 100);
+        }
+    }
+}
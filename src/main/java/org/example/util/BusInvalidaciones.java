@@ -0,0 +1,312 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bus de invalidaciones entre instancias de la aplicación sobre UDP. Cada invalidación identifica
+ * una región (por ejemplo, animales o familias) y un identificador. Las invalidaciones publicadas se
+ * acumulan y se envían cada {@code intervalo} en datagramas de hasta {@value #POR_DATAGRAMA}
+ * entradas; las repetidas dentro del mismo intervalo se funden en una sola.
+ * <p>
+ * Cada datagrama lleva el identificador del nodo emisor y un número de secuencia consecutivo. En
+ * los intervalos sin invalidaciones se envía un latido sin entradas con la última secuencia usada,
+ * de modo que la pérdida del último datagrama se detecta en el intervalo siguiente. Un receptor que
+ * detecta un hueco en la secuencia de un emisor (un datagrama perdido o que llega desordenado), o
+ * que recibe de un emisor desconocido un datagrama que no es el primero de su secuencia, no puede
+ * saber qué invalidaciones se ha perdido, así que avisa a sus oyentes para que lo invaliden todo;
+ * los datagramas atrasados que lleguen después se descartan.
+ *
+ * <pre>
+ * 0      4         12          20       22
+ * | MAGIA | nodo    | secuencia | número | (región: 1 byte, id: 8 bytes) × número
+ * </pre>
+ * <p>
+ * Un latido lleva {@code número} 0 y repite la secuencia del último datagrama con entradas (0 si
+ * todavía no se ha enviado ninguno).
+ */
+public final class BusInvalidaciones implements AutoCloseable {
+
+    /**
+     * Recibe las invalidaciones de los demás nodos, desde el hilo de recepción del bus.
+     */
+    public interface Oyente {
+
+        /**
+         * Invalida una entrada.
+         *
+         * @param region Región de la entrada.
+         * @param id Identificador de la entrada.
+         */
+        void invalidar(byte region, long id);
+
+        /**
+         * Invalida todas las entradas, porque se han podido perder invalidaciones.
+         */
+        void invalidarTodo();
+    }
+
+    private static final Logger LOG = Logger.getLogger(BusInvalidaciones.class.getName());
+
+    private static final int MAGIA = 0x52465549;
+    private static final int CABECERA = 22;
+    private static final int ENTRADA = 9;
+    /** Entradas por datagrama, para no superar una MTU habitual de 1500 bytes. */
+    public static final int POR_DATAGRAMA = 150;
+
+    private final long nodo = ThreadLocalRandom.current().nextLong();
+    private final DatagramChannel canal;
+    private final List<SocketAddress> nodos = new CopyOnWriteArrayList<>();
+    private final List<Oyente> oyentes = new CopyOnWriteArrayList<>();
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> ultimaSecuencia = new ConcurrentHashMap<>();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final ScheduledExecutorService envio;
+    private final Thread recepcion;
+    private final ByteBuffer bufferEnvio = ByteBuffer.allocateDirect(CABECERA + POR_DATAGRAMA * ENTRADA);
+
+    private final LongAdder publicadas = new LongAdder();
+    private final LongAdder datagramasEnviados = new LongAdder();
+    private final LongAdder recibidas = new LongAdder();
+    private final LongAdder huecos = new LongAdder();
+
+    /**
+     * Abre el bus escuchando en la dirección indicada.
+     *
+     * @param local Dirección local; con puerto 0 se elige uno libre.
+     * @param intervalo Cada cuánto se envían las invalidaciones acumuladas.
+     * @throws IOException Si no se puede abrir el socket.
+     */
+    public BusInvalidaciones(InetSocketAddress local, Duration intervalo) throws IOException {
+        canal = DatagramChannel.open();
+        canal.bind(local);
+        envio = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "bus-invalidaciones-envio");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        envio.scheduleWithFixedDelay(this::enviar, intervalo.toNanos(), intervalo.toNanos(), TimeUnit.NANOSECONDS);
+        recepcion = new Thread(this::recibir, "bus-invalidaciones-recepcion");
+        recepcion.setDaemon(true);
+        recepcion.start();
+    }
+
+    /**
+     * Dirección en la que escucha este nodo, para darla de alta en los demás.
+     *
+     * @return La dirección local del bus.
+     * @throws IOException Si el socket está cerrado.
+     */
+    public InetSocketAddress direccion() throws IOException {
+        return (InetSocketAddress) canal.getLocalAddress();
+    }
+
+    /**
+     * Añade un nodo al que enviar las invalidaciones.
+     *
+     * @param direccion Dirección del bus del otro nodo.
+     * @return Este bus, para encadenar llamadas.
+     */
+    public BusInvalidaciones agregarNodo(InetSocketAddress direccion) {
+        nodos.add(direccion);
+        return this;
+    }
+
+    /**
+     * Registra un oyente de las invalidaciones que llegan de otros nodos.
+     *
+     * @param oyente Oyente a registrar.
+     */
+    public void suscribir(Oyente oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Retira un oyente registrado.
+     *
+     * @param oyente Oyente a retirar.
+     */
+    public void desuscribir(Oyente oyente) {
+        oyentes.remove(oyente);
+    }
+
+    /**
+     * Publica una invalidación; se enviará a los demás nodos en el siguiente intervalo.
+     *
+     * @param region Región de la entrada, entre 0 y 127.
+     * @param id Identificador de la entrada, menor que 2<sup>56</sup>.
+     */
+    public void publicar(byte region, long id) {
+        publicadas.increment();
+        pendientes.add(((long) region << 56) | id);
+    }
+
+    /**
+     * Invalidaciones publicadas en este nodo, incluidas las que se fundieron con otras.
+     *
+     * @return El número de invalidaciones publicadas.
+     */
+    public long publicadas() {
+        return publicadas.sum();
+    }
+
+    /**
+     * Datagramas con invalidaciones enviados a cada nodo, sin contar los latidos.
+     *
+     * @return El número de datagramas enviados.
+     */
+    public long datagramasEnviados() {
+        return datagramasEnviados.sum();
+    }
+
+    /**
+     * Invalidaciones recibidas de otros nodos.
+     *
+     * @return El número de invalidaciones recibidas.
+     */
+    public long recibidas() {
+        return recibidas.sum();
+    }
+
+    /**
+     * Huecos detectados en la secuencia de algún emisor, incluido el inicio de la secuencia de un
+     * emisor desconocido; cada uno provocó una invalidación total.
+     *
+     * @return El número de huecos.
+     */
+    public long huecos() {
+        return huecos.sum();
+    }
+
+    private void enviar() {
+        if (pendientes.isEmpty()) {
+            bufferEnvio.clear();
+            bufferEnvio.putInt(MAGIA).putLong(nodo).putLong(secuencia.get()).putShort((short) 0).flip();
+            difundir();
+            return;
+        }
+        Iterator<Long> claves = pendientes.iterator();
+        while (claves.hasNext()) {
+            bufferEnvio.clear();
+            bufferEnvio.putInt(MAGIA).putLong(nodo).putLong(secuencia.incrementAndGet()).putShort((short) 0);
+            short numero = 0;
+            while (numero < POR_DATAGRAMA && claves.hasNext()) {
+                long clave = claves.next();
+                claves.remove();
+                bufferEnvio.put((byte) (clave >>> 56)).putLong(clave & 0x00FF_FFFF_FFFF_FFFFL);
+                numero++;
+            }
+            bufferEnvio.putShort(20, numero).flip();
+            difundir();
+            datagramasEnviados.increment();
+        }
+    }
+
+    /**
+     * Envía el datagrama preparado en el buffer de envío a todos los nodos.
+     */
+    private void difundir() {
+        for (SocketAddress destino : nodos) {
+            try {
+                canal.send(bufferEnvio.duplicate(), destino);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "No se pudo enviar invalidaciones a " + destino, e);
+            }
+        }
+    }
+
+    private void recibir() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CABECERA + POR_DATAGRAMA * ENTRADA);
+        while (canal.isOpen()) {
+            try {
+                buffer.clear();
+                canal.receive(buffer);
+                buffer.flip();
+                if (buffer.remaining() < CABECERA || buffer.getInt() != MAGIA) {
+                    continue;
+                }
+                long emisor = buffer.getLong();
+                long numeroSecuencia = buffer.getLong();
+                int numero = buffer.getShort();
+                if (emisor == nodo || !enOrden(emisor, numeroSecuencia, numero == 0)) {
+                    continue;
+                }
+                for (int i = 0; i < numero && buffer.remaining() >= ENTRADA; i++) {
+                    byte region = buffer.get();
+                    long id = buffer.getLong();
+                    recibidas.increment();
+                    for (Oyente oyente : oyentes) {
+                        oyente.invalidar(region, id);
+                    }
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Error al recibir invalidaciones", e);
+            }
+        }
+    }
+
+    /**
+     * Comprueba la secuencia de un emisor. Un datagrama con entradas debe llevar la secuencia
+     * siguiente a la última recibida, y un latido la misma; de un emisor desconocido se espera el
+     * principio de la secuencia (1, o 0 en un latido).
+     *
+     * @param latido {@code true} si el datagrama no lleva entradas.
+     * @return {@code false} si el datagrama está repetido o llega atrasado y debe descartarse.
+     */
+    private boolean enOrden(long emisor, long numeroSecuencia, boolean latido) {
+        Long anterior = ultimaSecuencia.get(emisor);
+        long esperada = (anterior != null ? anterior : 0) + (latido ? 0 : 1);
+        if (numeroSecuencia < esperada) {
+            return false;
+        }
+        ultimaSecuencia.put(emisor, numeroSecuencia);
+        if (numeroSecuencia != esperada) {
+            huecos.increment();
+            LOG.fine("Hueco en las invalidaciones de " + Long.toHexString(emisor) + ": " + anterior + " -> " + numeroSecuencia);
+            for (Oyente oyente : oyentes) {
+                oyente.invalidarTodo();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Envía las invalidaciones pendientes y cierra el bus.
+     */
+    @Override
+    public void close() {
+        envio.shutdown();
+        try {
+            envio.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        enviar();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Error al cerrar el bus de invalidaciones", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresión de textos libres para guardarlos en columnas de texto. El texto se comprime con
+ * Deflate usando un diccionario previo de expresiones frecuentes en las fichas del refugio, de
+ * modo que incluso las notas de unos cientos de caracteres se reducen, y el resultado se guarda en
+ * Base64 detrás de {@link #PREFIJO}. Un valor sin el prefijo es un texto sin comprimir, así que
+ * las filas anteriores y las insertadas directamente por SQL se leen sin cambios.
+ * <p>
+ * El prefijo incluye la versión del diccionario: si este cambia, los valores antiguos deben seguir
+ * descomprimiéndose con el diccionario con el que se escribieron.
+ */
+public final class CompresionTexto {
+
+    /** Marca de un valor comprimido: un carácter de control que no aparece en texto escrito y la versión del diccionario. */
+    public static final String PREFIJO = "\u001Fz1:";
+
+    /**
+     * Diccionario previo. Deflate busca coincidencias en los últimos 32 KiB, así que las
+     * expresiones más frecuentes van al final, donde las referencias son más cortas.
+     */
+    private static final byte[] DICCIONARIO = (
+            "microchip desparasitación interna y externa analítica completa leishmania filaria ehrlichia "
+                    + "test de inmunodeficiencia y leucemia felina negativo positivo displasia de cadera otitis "
+                    + "dermatitis alergia alimentaria pienso hipoalergénico tratamiento con antibiótico durante "
+                    + "días revisión en la clínica veterinaria cicatriz fractura cojera operado de la pata "
+                    + "esterilizada esterilizado castrado castrada pendiente de castración vacunado vacunada "
+                    + "vacuna de la rabia polivalente trivalente sociable con otros perros sociable con gatos "
+                    + "no apto para convivir con niños pequeños apto para piso necesita jardín paseos largos "
+                    + "miedoso miedosa tímido tímida cariñoso cariñosa juguetón juguetona tranquilo tranquila "
+                    + "muy activo muy activa educado educada sabe ir con correa hace sus necesidades fuera "
+                    + "encontrado en la calle abandonado en la carretera entregado por su familia anterior "
+                    + "recogido por la protectora llegó al refugio con bajo peso desnutrido desnutrida "
+                    + "recién abandonado en refugio próximamente en acogida adoptado adoptada la familia "
+                    + "de acogida el animal la perra el perro la gata el gato los cachorros peso kg años meses "
+                    + "observaciones del veterinario: estado general bueno buen estado de salud ")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Deflater> COMPRESORES = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_COMPRESSION));
+    private static final ThreadLocal<Inflater> DESCOMPRESORES = ThreadLocal.withInitial(Inflater::new);
+
+    private CompresionTexto() {}
+
+    /**
+     * Comprime un texto.
+     *
+     * @param texto Texto a comprimir.
+     * @return El texto comprimido, con el prefijo y en Base64.
+     */
+    public static String comprimir(String texto) {
+        byte[] entrada = texto.getBytes(StandardCharsets.UTF_8);
+        Deflater compresor = COMPRESORES.get();
+        compresor.reset();
+        compresor.setDictionary(DICCIONARIO);
+        compresor.setInput(entrada);
+        compresor.finish();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(entrada.length / 2 + 16);
+        byte[] bloque = new byte[Math.min(8192, entrada.length + 64)];
+        while (!compresor.finished()) {
+            int escritos = compresor.deflate(bloque);
+            salida.write(bloque, 0, escritos);
+        }
+        return PREFIJO + Base64.getEncoder().encodeToString(salida.toByteArray());
+    }
+
+    /**
+     * Devuelve el texto original de un valor guardado, comprimido o no.
+     *
+     * @param guardado Valor leído de la base de datos.
+     * @return El texto original.
+     * @throws IllegalArgumentException Si el valor tiene el prefijo pero no es un texto comprimido válido.
+     */
+    public static String descomprimir(String guardado) {
+        if (!comprimido(guardado)) {
+            return guardado;
+        }
+        byte[] entrada = Base64.getDecoder().decode(guardado.substring(PREFIJO.length()));
+        Inflater descompresor = DESCOMPRESORES.get();
+        descompresor.reset();
+        descompresor.setInput(entrada);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(entrada.length * 3);
+        byte[] bloque = new byte[8192];
+        try {
+            while (!descompresor.finished()) {
+                int leidos = descompresor.inflate(bloque);
+                if (leidos == 0) {
+                    if (descompresor.needsDictionary()) {
+                        descompresor.setDictionary(DICCIONARIO);
+                    } else if (descompresor.needsInput()) {
+                        throw new IllegalArgumentException("Texto comprimido truncado");
+                    }
+                }
+                salida.write(bloque, 0, leidos);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Texto comprimido no válido", e);
+        }
+        return new String(salida.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica si un valor guardado está comprimido.
+     *
+     * @param guardado Valor leído de la base de datos.
+     * @return {@code true} si empieza por {@link #PREFIJO}.
+     */
+    public static boolean comprimido(String guardado) {
+        return guardado != null && guardado.startsWith(PREFIJO);
+    }
+}
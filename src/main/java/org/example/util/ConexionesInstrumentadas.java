@@ -0,0 +1,541 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.DatabaseConnectionInfo;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Proveedor de conexiones que envuelve a otro para vigilar lo que se ejecuta en ellas. El proveedor
+ * real se indica en {@value #PROVEEDOR} (por defecto, el pool incorporado de Hibernate) y recibe la
+ * misma configuración. Sobre sus conexiones:
+ * <ul>
+ *     <li>emite los eventos JFR de transacciones y sentencias de {@link EventosPersistencia};</li>
+ *     <li>traslada el {@link Plazo} activo del hilo al timeout de cada sentencia y a la espera por
+ *     bloqueos de la conexión, o aplica {@value #TIMEOUT_SENTENCIAS} si no hay plazo;</li>
+ *     <li>revierte las transacciones que superan {@value #MAXIMO_TRANSACCION}: si la conexión está
+ *     ociosa la transacción se revierte desde el hilo vigilante, y si hay una sentencia en curso se
+ *     cancela. Tras revertir una transacción con escrituras, la conexión rechaza el {@code commit} y
+ *     nuevas sentencias hasta que su dueño haga {@code rollback}.</li>
+ * </ul>
+ * Si nada de esto está activo al entregar una conexión, se devuelve sin envolver. Las sentencias de
+ * una conexión envuelta miden desde que se ejecutan hasta que se cierra su resultado, de modo que el
+ * evento incluye la lectura de las filas además del viaje a la base de datos.
+ */
+public class ConexionesInstrumentadas implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    /** Clase del proveedor de conexiones real. */
+    public static final String PROVEEDOR = "refugio.jfr.proveedor";
+
+    /** Timeout en milisegundos de las sentencias que se ejecutan sin {@link Plazo} (0, sin límite). */
+    public static final String TIMEOUT_SENTENCIAS = "refugio.sentencias.timeout_ms";
+
+    /** Duración máxima en milisegundos de una transacción antes de revertirla (0, sin límite). */
+    public static final String MAXIMO_TRANSACCION = "refugio.transacciones.maximo_ms";
+
+    private static final Logger LOG = Logger.getLogger(ConexionesInstrumentadas.class.getName());
+
+    private ServiceRegistryImplementor registro;
+    private ConnectionProvider delegado;
+    private long timeoutSentenciasMs;
+    private long maximoTransaccionMs;
+    private ScheduledExecutorService vigilante;
+
+    /** Conexiones con una transacción abierta, revisadas por el vigilante. */
+    private final Set<ConexionInstrumentada> abiertas = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.registro = serviceRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, Object> configuracion) {
+        String clase = ConfigurationHelper.getString(PROVEEDOR, configuracion, DriverManagerConnectionProviderImpl.class.getName());
+        try {
+            delegado = (ConnectionProvider) Class.forName(clase).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new HibernateException("No se pudo crear el proveedor de conexiones " + clase, e);
+        }
+        if (delegado instanceof ServiceRegistryAwareService) {
+            ((ServiceRegistryAwareService) delegado).injectServices(registro);
+        }
+        if (delegado instanceof Configurable) {
+            ((Configurable) delegado).configure(configuracion);
+        }
+        timeoutSentenciasMs = ConfigurationHelper.getLong(TIMEOUT_SENTENCIAS, configuracion, 0);
+        maximoTransaccionMs = ConfigurationHelper.getLong(MAXIMO_TRANSACCION, configuracion, 0);
+        if (maximoTransaccionMs > 0) {
+            long revision = Math.max(10, maximoTransaccionMs / 4);
+            vigilante = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "vigilante-transacciones");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            vigilante.scheduleWithFixedDelay(this::revisarTransacciones, revision, revision, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection conexion = delegado.getConnection();
+        if (timeoutSentenciasMs <= 0 && vigilante == null && Plazo.actual() == null
+                && !new EventosPersistencia.Sentencia().isEnabled() && !new EventosPersistencia.Transaccion().isEnabled()) {
+            return conexion;
+        }
+        ConexionInstrumentada instrumentada = new ConexionInstrumentada(conexion);
+        instrumentada.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, instrumentada);
+        return instrumentada.proxy;
+    }
+
+    @Override
+    public void closeConnection(Connection conexion) throws SQLException {
+        if (Proxy.isProxyClass(conexion.getClass()) && Proxy.getInvocationHandler(conexion) instanceof ConexionInstrumentada) {
+            ConexionInstrumentada instrumentada = (ConexionInstrumentada) Proxy.getInvocationHandler(conexion);
+            instrumentada.terminarTransaccion(false);
+            instrumentada.restaurarEsperaBloqueos();
+            conexion = instrumentada.real;
+        }
+        delegado.closeConnection(conexion);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return delegado.supportsAggressiveRelease();
+    }
+
+    @Override
+    public DatabaseConnectionInfo getDatabaseConnectionInfo(Dialect dialect) {
+        return delegado.getDatabaseConnectionInfo(dialect);
+    }
+
+    @Override
+    public void stop() {
+        if (vigilante != null) {
+            vigilante.shutdownNow();
+        }
+        if (delegado instanceof Stoppable) {
+            ((Stoppable) delegado).stop();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> tipo) {
+        return ConnectionProvider.class.equals(tipo) || ConexionesInstrumentadas.class.isAssignableFrom(tipo)
+                || delegado.isUnwrappableAs(tipo);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> tipo) {
+        if (ConnectionProvider.class.equals(tipo) || ConexionesInstrumentadas.class.isAssignableFrom(tipo)) {
+            return (T) this;
+        }
+        return delegado.unwrap(tipo);
+    }
+
+    /**
+     * Revierte las transacciones abiertas durante más de {@value #MAXIMO_TRANSACCION}.
+     */
+    private void revisarTransacciones() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(maximoTransaccionMs);
+        for (ConexionInstrumentada conexion : abiertas) {
+            long inicio = conexion.inicioTransaccion;
+            if (inicio != 0 && inicio - limite < 0) {
+                conexion.revertirPorVigilante();
+            }
+        }
+    }
+
+    private static Object invocar(Object real, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(real, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Conexión instrumentada. Sus métodos y la ejecución de sus sentencias se serializan con un
+     * cerrojo para que el vigilante no revierta la transacción en mitad de una llamada.
+     */
+    private final class ConexionInstrumentada implements InvocationHandler {
+
+        private final Connection real;
+        private final ReentrantLock cerrojo = new ReentrantLock();
+        private Connection proxy;
+        private boolean autoCommit;
+
+        /** Momento ({@link System#nanoTime()}) en que empezó la transacción, o 0 si no hay ninguna. */
+        private volatile long inicioTransaccion;
+        private volatile boolean escrituras;
+        private volatile boolean revertida;
+        private volatile Statement enCurso;
+        private String hiloTransaccion;
+        private EventosPersistencia.Transaccion transaccion;
+        private boolean esperaAjustada;
+        private String producto;
+        private Long esperaOriginal;
+
+        private ConexionInstrumentada(Connection real) throws SQLException {
+            this.real = real;
+            this.autoCommit = real.getAutoCommit();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            cerrojo.lock();
+            try {
+                if (revertida && nombre.equals("commit")) {
+                    throw new SQLException("La transacción se revirtió por superar " + maximoTransaccionMs + " ms");
+                }
+                Object resultado = invocar(real, metodo, args);
+                switch (nombre) {
+                    case "prepareStatement":
+                    case "prepareCall":
+                        return envolver((Statement) resultado, (String) args[0]);
+                    case "createStatement":
+                        return envolver((Statement) resultado, null);
+                    case "commit":
+                        terminarTransaccion(true);
+                        break;
+                    case "rollback":
+                        if (args == null) {
+                            revertida = false;
+                            terminarTransaccion(false);
+                        }
+                        break;
+                    case "setAutoCommit":
+                        autoCommit = (Boolean) args[0];
+                        if (autoCommit) {
+                            terminarTransaccion(true);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+                return resultado;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        private Statement envolver(Statement sentencia, String sql) {
+            Class<?> tipo = sentencia instanceof CallableStatement ? CallableStatement.class
+                    : sentencia instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo},
+                    new SentenciaInstrumentada(this, sentencia, sql));
+        }
+
+        /**
+         * Prepara la ejecución de una sentencia con el cerrojo tomado: comprueba el plazo y el estado
+         * de la transacción, fija los timeouts y abre la transacción si es la primera sentencia.
+         */
+        private void antesDeEjecutar(Statement sentencia, Plazo plazo, boolean escritura) throws SQLException {
+            if (revertida) {
+                throw new SQLException("La transacción se revirtió por superar " + maximoTransaccionMs
+                        + " ms; debe deshacerse antes de continuar");
+            }
+            if (plazo != null) {
+                plazo.comprobar();
+                long restanteMs = Math.max(1, plazo.restante().toMillis());
+                int segundos = (int) Math.max(1, (restanteMs + 999) / 1000);
+                int actual = sentencia.getQueryTimeout();
+                sentencia.setQueryTimeout(actual > 0 ? Math.min(actual, segundos) : segundos);
+                if (!esperaAjustada && !autoCommit) {
+                    ajustarEsperaBloqueos(restanteMs);
+                    esperaAjustada = true;
+                }
+            } else if (timeoutSentenciasMs > 0 && sentencia.getQueryTimeout() == 0) {
+                sentencia.setQueryTimeout((int) Math.max(1, (timeoutSentenciasMs + 999) / 1000));
+            }
+            if (autoCommit) {
+                return;
+            }
+            if (inicioTransaccion == 0) {
+                inicioTransaccion = System.nanoTime();
+                hiloTransaccion = Thread.currentThread().getName();
+                EventosPersistencia.Transaccion evento = new EventosPersistencia.Transaccion();
+                if (evento.isEnabled()) {
+                    transaccion = evento;
+                    transaccion.begin();
+                }
+                abiertas.add(this);
+            }
+            escrituras |= escritura;
+            if (transaccion != null) {
+                transaccion.sentencias++;
+            }
+        }
+
+        private void terminarTransaccion(boolean confirmada) {
+            if (transaccion != null) {
+                transaccion.confirmada = confirmada;
+                transaccion.commit();
+                transaccion = null;
+            }
+            inicioTransaccion = 0;
+            escrituras = false;
+            esperaAjustada = false;
+            abiertas.remove(this);
+        }
+
+        /**
+         * Llamado desde el hilo vigilante. Si la conexión está ociosa revierte la transacción; si no,
+         * cancela la sentencia en curso y la reversión queda para la siguiente revisión o para su dueño.
+         */
+        private void revertirPorVigilante() {
+            if (!cerrojo.tryLock()) {
+                Statement sentencia = enCurso;
+                if (sentencia != null) {
+                    try {
+                        sentencia.cancel();
+                    } catch (SQLException e) {
+                        LOG.log(Level.FINE, "No se pudo cancelar la sentencia", e);
+                    }
+                }
+                revertida = true;
+                return;
+            }
+            try {
+                if (inicioTransaccion == 0) {
+                    return;
+                }
+                long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioTransaccion);
+                boolean conEscrituras = escrituras;
+                real.rollback();
+                terminarTransaccion(false);
+                // Sin escrituras no se pierde nada: la conexión puede seguir usándose
+                revertida = conEscrituras;
+                LOG.warning("Transacción de " + hiloTransaccion + " revertida tras " + duracionMs + " ms"
+                        + (conEscrituras ? " con escrituras pendientes" : ""));
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "No se pudo revertir la transacción de " + hiloTransaccion, e);
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        /**
+         * Limita la espera por bloqueos de la conexión al tiempo restante del plazo. El valor
+         * original se restaura al devolver la conexión al pool.
+         */
+        private void ajustarEsperaBloqueos(long milisegundos) throws SQLException {
+            if (producto == null) {
+                producto = real.getMetaData().getDatabaseProductName();
+            }
+            try (Statement sentencia = real.createStatement()) {
+                if (producto.startsWith("MySQL") || producto.startsWith("MariaDB")) {
+                    if (esperaOriginal == null) {
+                        try (ResultSet fila = sentencia.executeQuery("SELECT @@SESSION.innodb_lock_wait_timeout")) {
+                            fila.next();
+                            esperaOriginal = fila.getLong(1);
+                        }
+                    }
+                    sentencia.execute("SET SESSION innodb_lock_wait_timeout = " + Math.max(1, (milisegundos + 999) / 1000));
+                } else if (producto.startsWith("H2")) {
+                    if (esperaOriginal == null) {
+                        try (ResultSet fila = sentencia.executeQuery(
+                                "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'LOCK_TIMEOUT'")) {
+                            esperaOriginal = fila.next() ? Long.parseLong(fila.getString(1)) : 10_000L;
+                        }
+                    }
+                    sentencia.execute("SET LOCK_TIMEOUT " + milisegundos);
+                }
+            }
+        }
+
+        private void restaurarEsperaBloqueos() {
+            if (esperaOriginal == null) {
+                return;
+            }
+            try (Statement sentencia = real.createStatement()) {
+                sentencia.execute(producto.startsWith("H2")
+                        ? "SET LOCK_TIMEOUT " + esperaOriginal
+                        : "SET SESSION innodb_lock_wait_timeout = " + esperaOriginal);
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "No se pudo restaurar la espera por bloqueos", e);
+            }
+            esperaOriginal = null;
+        }
+    }
+
+    /**
+     * Sentencia instrumentada. En las consultas, el evento JFR queda abierto hasta que se cierra el
+     * resultado o la sentencia, contando las filas leídas.
+     */
+    private static final class SentenciaInstrumentada implements InvocationHandler {
+
+        private final ConexionInstrumentada conexion;
+        private final Statement real;
+        private String sql;
+        private int lote;
+        private EventosPersistencia.Sentencia pendiente;
+
+        private SentenciaInstrumentada(ConexionInstrumentada conexion, Statement real, String sql) {
+            this.conexion = conexion;
+            this.real = real;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            if (!nombre.startsWith("execute")) {
+                switch (nombre) {
+                    case "addBatch":
+                        lote++;
+                        if (args != null && args.length == 1 && args[0] instanceof String) {
+                            sql = (String) args[0];
+                        }
+                        break;
+                    case "clearBatch":
+                        lote = 0;
+                        break;
+                    case "close":
+                        terminar();
+                        break;
+                    case "getConnection":
+                        return conexion.proxy;
+                    default:
+                        break;
+                }
+                return invocar(real, metodo, args);
+            }
+
+            terminar();
+            String texto = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            boolean consulta = nombre.equals("executeQuery");
+            EventosPersistencia.Sentencia evento = new EventosPersistencia.Sentencia();
+            evento.sql = texto;
+            evento.lote = nombre.contains("Batch") ? lote : 1;
+            evento.filas = -1;
+            Plazo plazo = Plazo.actual();
+            Object resultado;
+            conexion.cerrojo.lock();
+            try {
+                conexion.antesDeEjecutar(real, plazo, !consulta && !esConsulta(texto));
+                if (plazo != null) {
+                    plazo.registrar(real);
+                }
+                conexion.enCurso = real;
+                evento.begin();
+                try {
+                    resultado = invocar(real, metodo, args);
+                } catch (Throwable e) {
+                    evento.commit();
+                    throw e;
+                } finally {
+                    conexion.enCurso = null;
+                    if (plazo != null) {
+                        plazo.retirar(real);
+                    }
+                }
+            } finally {
+                conexion.cerrojo.unlock();
+            }
+            if (resultado instanceof ResultSet) {
+                if (!evento.isEnabled()) {
+                    return resultado;
+                }
+                pendiente = evento;
+                evento.filas = 0;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new ResultadoInstrumentado(this, (ResultSet) resultado, (Statement) proxy));
+            }
+            if (resultado instanceof Integer || resultado instanceof Long) {
+                evento.filas = ((Number) resultado).longValue();
+            } else if (resultado instanceof int[]) {
+                evento.filas = 0;
+                for (int filas : (int[]) resultado) {
+                    evento.filas += Math.max(0, filas);
+                }
+                lote = 0;
+            } else if (resultado instanceof long[]) {
+                evento.filas = 0;
+                for (long filas : (long[]) resultado) {
+                    evento.filas += Math.max(0, filas);
+                }
+                lote = 0;
+            } else if (Boolean.FALSE.equals(resultado)) {
+                evento.filas = real.getUpdateCount();
+            }
+            evento.commit();
+            return resultado;
+        }
+
+        private void terminar() {
+            if (pendiente != null) {
+                pendiente.commit();
+                pendiente = null;
+            }
+        }
+
+        private static boolean esConsulta(String sql) {
+            return sql != null && sql.regionMatches(true, 0, "select", 0, 6) && !sql.toLowerCase().contains(" for update");
+        }
+    }
+
+    /**
+     * Resultado de una consulta instrumentada: cuenta las filas y cierra el evento de la sentencia.
+     */
+    private static final class ResultadoInstrumentado implements InvocationHandler {
+
+        private final SentenciaInstrumentada sentencia;
+        private final ResultSet real;
+        private final Statement proxySentencia;
+
+        private ResultadoInstrumentado(SentenciaInstrumentada sentencia, ResultSet real, Statement proxySentencia) {
+            this.sentencia = sentencia;
+            this.real = real;
+            this.proxySentencia = proxySentencia;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "next":
+                    Object hay = invocar(real, metodo, args);
+                    if (Boolean.TRUE.equals(hay) && sentencia.pendiente != null) {
+                        sentencia.pendiente.filas++;
+                    }
+                    return hay;
+                case "close":
+                    sentencia.terminar();
+                    return invocar(real, metodo, args);
+                case "getStatement":
+                    return proxySentencia;
+                default:
+                    return invocar(real, metodo, args);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Proveedor de conexiones que separa lecturas y escrituras: las lecturas marcadas por
+ * {@link EnrutadorLecturas} se reparten en turno rotatorio entre las réplicas y el resto
+ * de conexiones se toman de la base de datos principal. Una réplica que falla al entregar
+ * una conexión queda expulsada durante un tiempo y sus lecturas pasan a la siguiente réplica
+ * o, si no queda ninguna, a la principal.
+ *
+ * <p>Se activa con {@code hibernate.connection.provider_class} y la lista de réplicas en
+ * {@value #REPLICAS}, separadas por comas. Cada base de datos tiene su propio pool.</p>
+ */
+public class ConexionesReplicadas implements ConnectionProvider, Configurable, Stoppable, ServiceRegistryAwareService {
+
+    /** URLs JDBC de las réplicas, separadas por comas. */
+    public static final String REPLICAS = "refugio.replicas.urls";
+
+    /** Milisegundos que una réplica permanece expulsada tras un fallo (30 s por defecto). */
+    public static final String EXPULSION_MS = "refugio.replicas.expulsion_ms";
+
+    private static final Logger LOG = Logger.getLogger(ConexionesReplicadas.class.getName());
+
+    private ServiceRegistryImplementor registro;
+    private DriverManagerConnectionProviderImpl principal;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Map<Connection, DriverManagerConnectionProviderImpl> origen = new ConcurrentHashMap<>();
+    private final AtomicInteger turno = new AtomicInteger();
+    private long expulsionMs;
+
+    @Override
+    public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+        this.registro = serviceRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, Object> configuracion) {
+        principal = crearPool(configuracion, null);
+        expulsionMs = ConfigurationHelper.getInt(EXPULSION_MS, configuracion, 30_000);
+        String urls = ConfigurationHelper.getString(REPLICAS, configuracion, "");
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                replicas.add(new Replica(url.trim(), crearPool(configuracion, url.trim())));
+            }
+        }
+    }
+
+    /**
+     * Entrega una conexión de una réplica disponible si el hilo está en una lectura,
+     * o de la base de datos principal en cualquier otro caso.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (EnrutadorLecturas.esLecturaEnCurso()) {
+            long ahora = System.currentTimeMillis();
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(Math.floorMod(turno.getAndIncrement(), replicas.size()));
+                if (replica.expulsadaHasta > ahora) {
+                    continue;
+                }
+                try {
+                    return registrar(replica.pool.getConnection(), replica.pool);
+                } catch (SQLException | HibernateException e) {
+                    replica.expulsadaHasta = ahora + expulsionMs;
+                    LOG.warning("Réplica " + replica.url + " expulsada durante " + expulsionMs + " ms: " + e.getMessage());
+                }
+            }
+        }
+        return registrar(principal.getConnection(), principal);
+    }
+
+    @Override
+    public void closeConnection(Connection conexion) throws SQLException {
+        DriverManagerConnectionProviderImpl pool = origen.remove(conexion);
+        (pool != null ? pool : principal).closeConnection(conexion);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    /**
+     * Indica si una réplica está expulsada en este momento.
+     *
+     * @param url URL JDBC de la réplica.
+     * @return {@code true} si la réplica existe y está expulsada.
+     */
+    public boolean estaExpulsada(String url) {
+        long ahora = System.currentTimeMillis();
+        return replicas.stream().anyMatch(r -> r.url.equals(url) && r.expulsadaHasta > ahora);
+    }
+
+    @Override
+    public void stop() {
+        replicas.forEach(r -> r.pool.stop());
+        if (principal != null) {
+            principal.stop();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> tipo) {
+        return ConnectionProvider.class.equals(tipo) || ConexionesReplicadas.class.isAssignableFrom(tipo);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> tipo) {
+        if (isUnwrappableAs(tipo)) {
+            return (T) this;
+        }
+        throw new UnknownUnwrapTypeException(tipo);
+    }
+
+    private Connection registrar(Connection conexion, DriverManagerConnectionProviderImpl pool) {
+        origen.put(conexion, pool);
+        return conexion;
+    }
+
+    private DriverManagerConnectionProviderImpl crearPool(Map<String, Object> configuracion, String url) {
+        Map<String, Object> propias = new HashMap<>(configuracion);
+        if (url != null) {
+            // Las réplicas no abren conexiones al arrancar: una réplica caída no debe impedir el inicio
+            propias.put(AvailableSettings.URL, url);
+            propias.put(DriverManagerConnectionProviderImpl.INITIAL_SIZE, "0");
+            propias.put(DriverManagerConnectionProviderImpl.MIN_SIZE, "0");
+        }
+        DriverManagerConnectionProviderImpl pool = new DriverManagerConnectionProviderImpl();
+        pool.injectServices(registro);
+        pool.configure(propias);
+        return pool;
+    }
+
+    private static final class Replica {
+        private final String url;
+        private final DriverManagerConnectionProviderImpl pool;
+        private volatile long expulsadaHasta;
+
+        private Replica(String url, DriverManagerConnectionProviderImpl pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.util;
+
+import io.vertx.mysqlclient.MySQLConnectOptions;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.SqlConnectOptions;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.reactive.pool.impl.DefaultSqlClientPoolConfiguration;
+import org.hibernate.reactive.pool.impl.SqlClientPoolConfiguration;
+import org.hibernate.service.spi.Configurable;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Configuración del pool reactivo de Vert.x. Sobre MySQL activa el pipelining del protocolo,
+ * de modo que una conexión puede enviar varias consultas sin esperar la respuesta de la anterior.
+ * El límite se configura con {@value #PIPELINING}. El resto de opciones son las de
+ * {@link DefaultSqlClientPoolConfiguration}, a la que delega.
+ */
+public class ConfiguracionPoolReactivo implements SqlClientPoolConfiguration, Configurable {
+
+    /** Número máximo de consultas en vuelo por conexión (256 por defecto). */
+    public static final String PIPELINING = "refugio.reactivo.pipelining";
+
+    private final DefaultSqlClientPoolConfiguration predeterminada = new DefaultSqlClientPoolConfiguration();
+    private int pipelining = 256;
+
+    @Override
+    public void configure(Map<String, Object> configuracion) {
+        predeterminada.configure(configuracion);
+        pipelining = ConfigurationHelper.getInt(PIPELINING, configuracion, pipelining);
+    }
+
+    @Override
+    public PoolOptions poolOptions() {
+        return predeterminada.poolOptions();
+    }
+
+    @Override
+    public SqlConnectOptions connectOptions(URI uri) {
+        SqlConnectOptions opciones = predeterminada.connectOptions(uri);
+        if ("mysql".equals(uri.getScheme())) {
+            return new MySQLConnectOptions(opciones).setPipeliningLimit(pipelining);
+        }
+        return opciones;
+    }
+}
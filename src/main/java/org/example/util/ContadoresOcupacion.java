@@ -0,0 +1,252 @@
+package org.example.util;
+
+import org.example.entities.Especies;
+import org.example.entities.Estado;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Contadores en memoria de la ocupación del refugio por especie, estado y ciudad de la familia de
+ * acogida. Se cargan una vez de la base de datos con una consulta agrupada y después los mantienen
+ * los DAOs en cada escritura, de modo que consultar la ocupación no toca la base de datos. Cada
+ * combinación tiene su propio {@link LongAdder}, por lo que las escrituras concurrentes no compiten
+ * por un mismo contador.
+ * <p>
+ * Las escrituras que no pasan por los DAOs, las transacciones revertidas después de actualizar los
+ * contadores y las altas en cascada desde una familia pueden desviar los valores; por eso conviene
+ * programar una {@link #reconciliar() reconciliación} periódica.
+ */
+public final class ContadoresOcupacion implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ContadoresOcupacion.class.getName());
+
+    /** Contadores activos por SessionFactory; los DAOs solo los actualizan si existen. */
+    private static final Map<SessionFactory, ContadoresOcupacion> ACTIVOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final SessionFactory sessionFactory;
+    private final ConcurrentHashMap<Clave, LongAdder> contadores = new ConcurrentHashMap<>();
+    private ScheduledExecutorService programador;
+
+    private ContadoresOcupacion(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /**
+     * Activa los contadores de una SessionFactory, cargándolos desde la base de datos. Si ya
+     * estaban activos, devuelve los existentes.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return Los contadores de la factoría.
+     * @throws HibernateException Si no se pueden cargar los contadores.
+     */
+    public static ContadoresOcupacion iniciar(SessionFactory sessionFactory) {
+        synchronized (ACTIVOS) {
+            ContadoresOcupacion contadores = ACTIVOS.get(sessionFactory);
+            if (contadores == null) {
+                contadores = new ContadoresOcupacion(sessionFactory);
+                contadores.reconciliar();
+                ACTIVOS.put(sessionFactory, contadores);
+            }
+            return contadores;
+        }
+    }
+
+    /**
+     * Obtiene los contadores activos de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return Los contadores, o {@code null} si no se han activado.
+     */
+    public static ContadoresOcupacion de(SessionFactory sessionFactory) {
+        return ACTIVOS.get(sessionFactory);
+    }
+
+    /**
+     * Número de animales de una especie, en un estado y acogidos en una ciudad.
+     *
+     * @param especie Especie (tipo) del animal; no distingue mayúsculas.
+     * @param estado Estado del animal.
+     * @param ciudad Ciudad de la familia de acogida, o {@code null} para los animales sin familia.
+     * @return El número de animales.
+     */
+    public long ocupacion(String especie, Estado estado, String ciudad) {
+        LongAdder contador = contadores.get(new Clave(especie, estado, ciudad));
+        return contador != null ? contador.sum() : 0;
+    }
+
+    /**
+     * Número de animales de una especie en un estado, en cualquier ciudad.
+     *
+     * @param especie Especie del animal.
+     * @param estado Estado del animal.
+     * @return El número de animales.
+     */
+    public long ocupacion(Especies especie, Estado estado) {
+        String tipo = especie.name();
+        long total = 0;
+        for (Map.Entry<Clave, LongAdder> entrada : contadores.entrySet()) {
+            Clave clave = entrada.getKey();
+            if (tipo.equals(clave.tipo) && clave.estado == estado) {
+                total += entrada.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Número de animales por especie en un estado.
+     *
+     * @param estado Estado de los animales.
+     * @return Mapa de especie (en mayúsculas) a número de animales.
+     */
+    public Map<String, Long> ocupacionPorEspecie(Estado estado) {
+        Map<String, Long> porEspecie = new HashMap<>();
+        contadores.forEach((clave, contador) -> {
+            if (clave.estado == estado) {
+                porEspecie.merge(clave.tipo, contador.sum(), Long::sum);
+            }
+        });
+        return porEspecie;
+    }
+
+    /**
+     * Registra que un animal pasa de una combinación a otra. Lo llaman los DAOs tras cada escritura.
+     *
+     * @param antes Combinación anterior, o {@code null} si el animal es nuevo.
+     * @param despues Combinación nueva, o {@code null} si el animal se ha eliminado.
+     * @param animales Número de animales que cambian.
+     */
+    public void mover(Clave antes, Clave despues, long animales) {
+        if (Objects.equals(antes, despues)) {
+            return;
+        }
+        if (antes != null) {
+            contadores.computeIfAbsent(antes, c -> new LongAdder()).add(-animales);
+        }
+        if (despues != null) {
+            contadores.computeIfAbsent(despues, c -> new LongAdder()).add(animales);
+        }
+    }
+
+    /**
+     * Vuelve a contar los animales en la base de datos y corrige los contadores. Las escrituras
+     * concurrentes con la reconciliación pueden quedar sin reflejar hasta la siguiente.
+     *
+     * @throws HibernateException Si ocurre un error durante la consulta.
+     */
+    public void reconciliar() {
+        Map<Clave, Long> reales = new HashMap<>();
+        try (Session session = sessionFactory.openSession()) {
+            for (Object[] fila : session.createQuery(
+                    "SELECT a.tipo, a.estado, f.ciudad, COUNT(a) FROM Animales a LEFT JOIN a.familia f"
+                            + " GROUP BY a.tipo, a.estado, f.ciudad", Object[].class).list()) {
+                reales.merge(new Clave((String) fila[0], (Estado) fila[1], (String) fila[2]), (Long) fila[3], Long::sum);
+            }
+        } catch (HibernateException e) {
+            throw new HibernateException("No se pudo contar la ocupación del refugio", e);
+        }
+        contadores.forEach((clave, contador) -> {
+            if (!reales.containsKey(clave)) {
+                contador.add(-contador.sum());
+            }
+        });
+        reales.forEach((clave, total) -> {
+            LongAdder contador = contadores.computeIfAbsent(clave, c -> new LongAdder());
+            contador.add(total - contador.sum());
+        });
+    }
+
+    /**
+     * Programa la reconciliación periódica en un hilo en segundo plano.
+     *
+     * @param periodo Tiempo entre dos reconciliaciones.
+     * @throws IllegalStateException Si la reconciliación periódica ya está en marcha.
+     */
+    public synchronized void programarReconciliacion(Duration periodo) {
+        if (programador != null) {
+            throw new IllegalStateException("La reconciliación periódica ya está en marcha");
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "reconciliacion-ocupacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                reconciliar();
+            } catch (HibernateException e) {
+                LOG.log(Level.WARNING, "Error al reconciliar la ocupación", e);
+            }
+        }, periodo.toMillis(), periodo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Desactiva los contadores: los DAOs dejan de actualizarlos y se detiene la reconciliación.
+     */
+    @Override
+    public synchronized void close() {
+        ACTIVOS.remove(sessionFactory, this);
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+
+    /**
+     * Combinación de especie, estado y ciudad de acogida que identifica un contador.
+     * La especie se guarda en mayúsculas para que "Perro" y {@link Especies#PERRO} coincidan.
+     */
+    public static final class Clave {
+
+        private final String tipo;
+        private final Estado estado;
+        private final String ciudad;
+
+        /**
+         * Crea la clave de un animal.
+         *
+         * @param tipo Especie (tipo) del animal.
+         * @param estado Estado del animal, puede ser {@code null}.
+         * @param ciudad Ciudad de su familia de acogida, o {@code null} si no tiene.
+         */
+        public Clave(String tipo, Estado estado, String ciudad) {
+            this.tipo = tipo != null ? tipo.toUpperCase(Locale.ROOT) : null;
+            this.estado = estado;
+            this.ciudad = ciudad;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return Objects.equals(tipo, otra.tipo) && estado == otra.estado && Objects.equals(ciudad, otra.ciudad);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipo, estado, ciudad);
+        }
+
+        @Override
+        public String toString() {
+            return tipo + "/" + estado + "/" + ciudad;
+        }
+    }
+}
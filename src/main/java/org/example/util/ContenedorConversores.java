@@ -0,0 +1,65 @@
+package org.example.util;
+
+import org.example.entities.DetallesComprimidos;
+import org.hibernate.resource.beans.container.spi.BeanContainer;
+import org.hibernate.resource.beans.container.spi.ContainedBean;
+import org.hibernate.resource.beans.spi.BeanInstanceProducer;
+import org.hibernate.resource.beans.spi.ManagedBean;
+
+/**
+ * Contenedor de beans de Hibernate que crea los conversores de {@link DetallesComprimidos} con el
+ * umbral de la configuración de su SessionFactory, ya que Hibernate los instancia con el
+ * constructor vacío. Los demás beans se crean como lo haría Hibernate sin contenedor.
+ */
+final class ContenedorConversores implements BeanContainer {
+
+    private final int umbral;
+
+    ContenedorConversores(int umbral) {
+        this.umbral = umbral;
+    }
+
+    @Override
+    public <B> ContainedBean<B> getBean(Class<B> tipo, LifecycleOptions opciones, BeanInstanceProducer alternativa) {
+        if (tipo == DetallesComprimidos.class) {
+            return new Bean<>(tipo, tipo.cast(new DetallesComprimidos(umbral)));
+        }
+        if (tipo == DetallesComprimidos.FirmaBusqueda.class) {
+            return new Bean<>(tipo, tipo.cast(new DetallesComprimidos.FirmaBusqueda(umbral)));
+        }
+        return new Bean<>(tipo, alternativa.produceBeanInstance(tipo));
+    }
+
+    @Override
+    public <B> ContainedBean<B> getBean(String nombre, Class<B> tipo, LifecycleOptions opciones, BeanInstanceProducer alternativa) {
+        return new Bean<>(tipo, alternativa.produceBeanInstance(nombre, tipo));
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    /**
+     * Bean ya creado. Hibernate trata lo que devuelve el contenedor también como {@link ManagedBean}.
+     */
+    private static final class Bean<B> implements ContainedBean<B>, ManagedBean<B> {
+
+        private final Class<B> tipo;
+        private final B instancia;
+
+        private Bean(Class<B> tipo, B instancia) {
+            this.tipo = tipo;
+            this.instancia = instancia;
+        }
+
+        @Override
+        public Class<B> getBeanClass() {
+            return tipo;
+        }
+
+        @Override
+        public B getBeanInstance() {
+            return instancia;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Marca las consultas de solo lectura para que {@link ConexionesReplicadas} las envíe a una réplica.
+ * Tras una escritura en una sesión, todas sus lecturas posteriores se quedan en la base de datos
+ * principal para que la sesión vea siempre sus propios cambios.
+ */
+public final class EnrutadorLecturas {
+
+    private static final ThreadLocal<Boolean> LECTURA = new ThreadLocal<>();
+
+    /** Sesiones que ya han escrito; se liberan solas cuando la sesión deja de usarse. */
+    private static final Map<Session, Boolean> SESIONES_CON_ESCRITURA = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private EnrutadorLecturas() {}
+
+    /**
+     * Ejecuta una consulta de solo lectura. Si la SessionFactory usa {@link ConexionesReplicadas},
+     * la sesión no tiene transacción activa y no ha escrito antes, la consulta se ejecuta en una
+     * transacción corta cuya conexión se toma de una réplica; en otro caso se ejecuta tal cual.
+     *
+     * @param session Sesión sobre la que se ejecuta la consulta.
+     * @param consulta Consulta a ejecutar.
+     * @param <T> Tipo del resultado.
+     * @return El resultado de la consulta.
+     * @throws HibernateException Si ocurre un error durante la consulta.
+     */
+    public static <T> T enLectura(Session session, Supplier<T> consulta) {
+        if (!usaReplicas(session) || session.getTransaction().isActive() || SESIONES_CON_ESCRITURA.containsKey(session)) {
+            return consulta.get();
+        }
+        LECTURA.set(Boolean.TRUE);
+        Transaction tx = null;
+        try {
+            tx = session.beginTransaction();
+            T resultado = consulta.get();
+            tx.commit();
+            return resultado;
+        } catch (HibernateException e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            throw e;
+        } finally {
+            LECTURA.remove();
+        }
+    }
+
+    /**
+     * Registra que la sesión ha escrito, de modo que sus lecturas posteriores vayan a la principal.
+     *
+     * @param session Sesión que ha realizado la escritura.
+     */
+    public static void marcarEscritura(Session session) {
+        SESIONES_CON_ESCRITURA.put(session, Boolean.TRUE);
+    }
+
+    /**
+     * Indica si el hilo actual está abriendo una conexión para una lectura enrutable a réplica.
+     *
+     * @return {@code true} si hay una lectura en curso en este hilo.
+     */
+    static boolean esLecturaEnCurso() {
+        return LECTURA.get() != null;
+    }
+
+    /**
+     * Indica si el proveedor de conexiones es {@link ConexionesReplicadas}, directamente o envuelto
+     * por otro proveedor como {@link ConexionesInstrumentadas}.
+     */
+    private static boolean usaReplicas(Session session) {
+        ConnectionProvider proveedor = session.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        return proveedor != null && proveedor.isUnwrappableAs(ConexionesReplicadas.class);
+    }
+}
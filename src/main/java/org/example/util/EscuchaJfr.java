@@ -0,0 +1,85 @@
+package org.example.util;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Escucha de eventos de sesión que emite los eventos JFR de {@link EventosPersistencia}: la vida de
+ * la sesión, la espera por una conexión, los flushes y los accesos a la caché de segundo nivel.
+ * Hibernate crea una instancia por sesión cuando se configura en {@code hibernate.session.events.auto},
+ * por lo que no necesita sincronización.
+ */
+public class EscuchaJfr implements SessionEventListener {
+
+    private final transient EventosPersistencia.Sesion sesion = new EventosPersistencia.Sesion();
+    private transient EventosPersistencia.ObtencionConexion obtencion;
+    private transient EventosPersistencia.Flush flush;
+    private transient EventosPersistencia.AccesoCache acceso;
+
+    /**
+     * Crea la escucha de una sesión que se acaba de abrir.
+     */
+    public EscuchaJfr() {
+        sesion.begin();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        obtencion = new EventosPersistencia.ObtencionConexion();
+        obtencion.begin();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        if (obtencion != null) {
+            obtencion.commit();
+            obtencion = null;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        sesion.sentencias++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        sesion.sentencias++;
+    }
+
+    @Override
+    public void flushStart() {
+        flush = new EventosPersistencia.Flush();
+        flush.begin();
+    }
+
+    @Override
+    public void flushEnd(int entidades, int colecciones) {
+        sesion.flushes++;
+        if (flush != null) {
+            flush.entidades = entidades;
+            flush.colecciones = colecciones;
+            flush.commit();
+            flush = null;
+        }
+    }
+
+    @Override
+    public void cacheGetStart() {
+        acceso = new EventosPersistencia.AccesoCache();
+        acceso.begin();
+    }
+
+    @Override
+    public void cacheGetEnd(boolean acierto) {
+        if (acceso != null) {
+            acceso.acierto = acierto;
+            acceso.commit();
+            acceso = null;
+        }
+    }
+
+    @Override
+    public void end() {
+        sesion.commit();
+    }
+}
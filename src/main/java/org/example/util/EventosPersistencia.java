@@ -0,0 +1,116 @@
+package org.example.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos de Java Flight Recorder de la capa de persistencia. Los emiten {@link EscuchaJfr} (sesiones,
+ * obtención de conexiones, flushes y caché de segundo nivel) y {@link ConexionesInstrumentadas}
+ * (transacciones y sentencias). Cuando no hay una grabación que los tenga activados, JFR descarta
+ * los eventos sin coste apreciable y las conexiones ni siquiera se instrumentan.
+ * <p>
+ * Para grabarlos basta con arrancar la JVM con {@code -XX:StartFlightRecording} y, después,
+ * resumir la grabación con {@link AnalisisJfr}.
+ */
+public final class EventosPersistencia {
+
+    /** Prefijo común de los nombres de los eventos. */
+    public static final String PREFIJO = "org.example.refugio.";
+
+    private EventosPersistencia() {}
+
+    /**
+     * Vida de una sesión de Hibernate, desde que se abre hasta que se cierra.
+     */
+    @Name(PREFIJO + "Sesion")
+    @Label("Sesión de Hibernate")
+    @Category({"Refugio", "Persistencia"})
+    @StackTrace(false)
+    public static final class Sesion extends Event {
+
+        @Label("Sentencias")
+        @Description("Sentencias JDBC ejecutadas durante la sesión")
+        int sentencias;
+
+        @Label("Flushes")
+        int flushes;
+    }
+
+    /**
+     * Espera hasta obtener una conexión JDBC del pool.
+     */
+    @Name(PREFIJO + "ObtencionConexion")
+    @Label("Obtención de conexión")
+    @Category({"Refugio", "Persistencia"})
+    public static final class ObtencionConexion extends Event {
+    }
+
+    /**
+     * Transacción vista desde la base de datos: desde la primera sentencia hasta la confirmación o
+     * la reversión.
+     */
+    @Name(PREFIJO + "Transaccion")
+    @Label("Transacción")
+    @Category({"Refugio", "Persistencia"})
+    @StackTrace(false)
+    public static final class Transaccion extends Event {
+
+        @Label("Confirmada")
+        boolean confirmada;
+
+        @Label("Sentencias")
+        int sentencias;
+    }
+
+    /**
+     * Volcado de los cambios de una sesión a la base de datos.
+     */
+    @Name(PREFIJO + "Flush")
+    @Label("Flush")
+    @Category({"Refugio", "Persistencia"})
+    public static final class Flush extends Event {
+
+        @Label("Entidades")
+        int entidades;
+
+        @Label("Colecciones")
+        int colecciones;
+    }
+
+    /**
+     * Ejecución de una sentencia JDBC, incluida la lectura de sus filas en las consultas.
+     */
+    @Name(PREFIJO + "Sentencia")
+    @Label("Sentencia SQL")
+    @Category({"Refugio", "Persistencia"})
+    public static final class Sentencia extends Event {
+
+        @Label("SQL")
+        String sql;
+
+        @Label("Filas")
+        @Description("Filas leídas o modificadas; -1 si el driver no lo informa")
+        long filas;
+
+        @Label("Lote")
+        @Description("Número de sentencias del lote, o 1 si no es un lote")
+        int lote;
+    }
+
+    /**
+     * Consulta a la caché de segundo nivel.
+     */
+    @Name(PREFIJO + "AccesoCache")
+    @Label("Acceso a caché")
+    @Category({"Refugio", "Persistencia"})
+    @StackTrace(false)
+    public static final class AccesoCache extends Event {
+
+        @Label("Acierto")
+        boolean acierto;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.util;
+
+/**
+ * Firma de {@value #BYTES} bytes con los trigramas de un texto normalizado con
+ * {@link TextoNormalizado}: cada trigrama activa un bit. Sirve de filtro previo a una búsqueda de
+ * subcadenas sin leer el texto: si falta algún bit de los trigramas del fragmento, el texto no lo
+ * contiene. Al revés no es seguro, porque varios trigramas comparten bit, así que los candidatos
+ * deben comprobarse con el texto.
+ */
+public final class FirmaTrigramas {
+
+    /** Tamaño de la firma en bytes. */
+    public static final int BYTES = 64;
+
+    private FirmaTrigramas() {}
+
+    /**
+     * Firma de un texto.
+     *
+     * @param texto Texto a firmar; {@code null} se trata como vacío.
+     * @return La firma, de {@value #BYTES} bytes.
+     */
+    public static byte[] de(String texto) {
+        byte[] firma = new byte[BYTES];
+        String normalizado = TextoNormalizado.normalizar(texto);
+        for (int i = 0; i + 3 <= normalizado.length(); i++) {
+            int bit = bit(normalizado, i);
+            firma[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+        return firma;
+    }
+
+    /**
+     * Indica si el texto de una firma puede contener un fragmento, una vez normalizados los dos.
+     *
+     * @param firma Firma obtenida con {@link #de(String)}.
+     * @param fragmento Fragmento buscado.
+     * @return {@code false} si seguro que no lo contiene; {@code true} si puede contenerlo, también
+     *         cuando el fragmento es demasiado corto para tener trigramas.
+     */
+    public static boolean puedeContener(byte[] firma, String fragmento) {
+        String normalizado = TextoNormalizado.normalizar(fragmento);
+        for (int i = 0; i + 3 <= normalizado.length(); i++) {
+            int bit = bit(normalizado, i);
+            if ((firma[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bit del trigrama que empieza en la posición indicada: los bits altos de un hash multiplicativo.
+     */
+    private static int bit(String texto, int desde) {
+        int hash = (texto.charAt(desde) * 31 + texto.charAt(desde + 1)) * 31 + texto.charAt(desde + 2);
+        return (hash * 0x9E3779B9) >>> (Integer.SIZE - 9);
+    }
+}
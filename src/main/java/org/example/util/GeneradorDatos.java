@@ -0,0 +1,366 @@
+package org.example.util;
+
+import org.example.entities.Especies;
+import org.example.entities.Estado;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Generador determinista de un refugio sintético para pruebas de volumen y benchmarks. Con la misma
+ * semilla y los mismos tamaños produce siempre el mismo contenido: cada lote de filas usa su propio
+ * generador aleatorio derivado de la semilla y del número de lote, por lo que el resultado no depende
+ * del número de hilos ni del orden en que terminen. Los identificadores sí los asigna la base de datos.
+ * <p>
+ * Los animales cubren todas las {@link Especies} y todos los {@link Estado}, con más perros y gatos
+ * que del resto y edades sesgadas hacia los animales jóvenes. Las ciudades de las familias siguen una
+ * distribución de Zipf, y también las familias que acogen: unas pocas acogen a muchos animales. Los
+ * animales adoptados o próximamente en acogida siempre tienen familia.
+ * <p>
+ * La carga se hace por JDBC con sentencias por lotes en varios hilos, cada uno con su sesión y su
+ * conexión, saltándose el contexto de persistencia. En MySQL conviene añadir
+ * {@code rewriteBatchedStatements=true} a la URL para que cada lote viaje en una sola sentencia.
+ * Los índices en memoria (contadores de ocupación, autocompletado, duplicados) no ven esta carga:
+ * deben iniciarse o reconciliarse después.
+ */
+public class GeneradorDatos {
+
+    private static final Logger LOG = Logger.getLogger(GeneradorDatos.class.getName());
+
+    /** Fecha de referencia de las fechas de ingreso, fija para que el resultado sea reproducible. */
+    private static final LocalDateTime REFERENCIA = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static final String[] CIUDADES = {
+            "Madrid", "Barcelona", "Valencia", "Sevilla", "Zaragoza", "Málaga", "Murcia", "Palma", "Bilbao",
+            "Alicante", "Córdoba", "Valladolid", "Vigo", "Gijón", "Granada", "A Coruña", "Vitoria", "Oviedo",
+            "Pamplona", "Santander", "Cádiz", "Lugo", "Soria", "Teruel"
+    };
+    private static final String[] APELLIDOS = {
+            "García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez",
+            "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso",
+            "Gutiérrez", "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil", "Ramírez", "Serrano"
+    };
+    private static final String[] SILABAS = {
+            "to", "bi", "lu", "na", "ma", "ky", "ro", "co", "la", "ne", "ri", "su", "pe", "ca", "mi", "do", "fi", "ta"
+    };
+    private static final String[] RASGOS = {
+            "Juguetón", "Tranquilo", "Tímido", "Cariñoso", "Muy activo", "Dormilón", "Curioso", "Independiente"
+    };
+    private static final String[] NOTAS = {
+            "vacunado", "esterilizado", "con microchip", "necesita dieta especial", "convive con niños",
+            "no tolera otros animales", "recuperándose de una lesión", "desparasitado"
+    };
+
+    /** Pesos acumulados de cada especie, en el orden de {@link Especies#values()}. */
+    private static final double[] PESOS_ESPECIE = acumular(30, 35, 10, 5, 5, 5, 10);
+
+    /** Pesos acumulados de cada estado, en el orden de {@link Estado#values()}. */
+    private static final double[] PESOS_ESTADO = acumular(15, 45, 15, 25);
+
+    private final long semilla;
+    private int familias = 1_000;
+    private int animales = 20_000;
+    private int hilos = Runtime.getRuntime().availableProcessors();
+    private int tamanoLote = 5_000;
+
+    /**
+     * Crea un generador con la semilla indicada.
+     *
+     * @param semilla Semilla de la que se deriva todo el contenido.
+     */
+    public GeneradorDatos(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Establece el número de familias a generar.
+     *
+     * @param familias Número de familias, al menos una.
+     * @return Este generador.
+     */
+    public GeneradorDatos familias(int familias) {
+        if (familias < 1) {
+            throw new IllegalArgumentException("Se necesita al menos una familia");
+        }
+        this.familias = familias;
+        return this;
+    }
+
+    /**
+     * Establece el número de animales a generar.
+     *
+     * @param animales Número de animales.
+     * @return Este generador.
+     */
+    public GeneradorDatos animales(int animales) {
+        this.animales = animales;
+        return this;
+    }
+
+    /**
+     * Establece el número de hilos que cargan los animales.
+     *
+     * @param hilos Número de hilos, al menos uno.
+     * @return Este generador.
+     */
+    public GeneradorDatos hilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+        return this;
+    }
+
+    /**
+     * Establece el número de filas por lote JDBC y por transacción.
+     *
+     * @param tamanoLote Filas por lote, al menos una.
+     * @return Este generador.
+     */
+    public GeneradorDatos tamanoLote(int tamanoLote) {
+        this.tamanoLote = Math.max(1, tamanoLote);
+        return this;
+    }
+
+    /**
+     * Genera y carga las familias y después los animales.
+     *
+     * @param sessionFactory Factoría de sesiones de la base de datos de destino.
+     * @return El tiempo que ha tardado la carga.
+     * @throws HibernateException Si falla alguna inserción; los lotes ya confirmados se conservan.
+     */
+    public Duration cargar(SessionFactory sessionFactory) {
+        long inicio = System.nanoTime();
+        try {
+            cargarAnimales(sessionFactory, cargarFamilias(sessionFactory));
+        } finally {
+            // Los lotes ya confirmados se conservan aunque falle la carga
+            VersionDatos version = VersionDatos.de(sessionFactory);
+            if (version != null) {
+                version.avanzar();
+            }
+        }
+        Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+        LOG.info(() -> "Cargadas " + familias + " familias y " + animales + " animales en " + duracion.toMillis() + " ms");
+        return duracion;
+    }
+
+    /**
+     * Las familias son pocas: se insertan en un solo hilo y en orden, de modo que el i-ésimo
+     * identificador generado corresponde a la i-ésima familia.
+     */
+    private long[] cargarFamilias(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.doReturningWork(conexion -> {
+                boolean autoCommit = conexion.getAutoCommit();
+                conexion.setAutoCommit(false);
+                try {
+                    return insertarFamilias(conexion);
+                } finally {
+                    conexion.setAutoCommit(autoCommit);
+                }
+            });
+        } catch (HibernateException e) {
+            throw new HibernateException("No se pudieron generar las familias", e);
+        }
+    }
+
+    private long[] insertarFamilias(Connection conexion) throws SQLException {
+        long maximo = maximoId(conexion, "familias");
+        try (PreparedStatement insercion = conexion.prepareStatement(
+                "INSERT INTO familias (nombre, edad, ciudad) VALUES (?, ?, ?)")) {
+            double[] pesosCiudad = zipf(CIUDADES.length, 1.1);
+            for (int desde = 0; desde < familias; desde += tamanoLote) {
+                SplittableRandom aleatorio = aleatorio(-1 - desde / tamanoLote);
+                for (int i = desde; i < Math.min(desde + tamanoLote, familias); i++) {
+                    insercion.setString(1, elegir(aleatorio, APELLIDOS) + " " + elegir(aleatorio, APELLIDOS));
+                    insercion.setInt(2, 25 + aleatorio.nextInt(50));
+                    insercion.setString(3, CIUDADES[muestrear(aleatorio, pesosCiudad)]);
+                    insercion.addBatch();
+                }
+                insercion.executeBatch();
+                conexion.commit();
+            }
+        }
+        long[] ids = new long[familias];
+        try (PreparedStatement consulta = conexion.prepareStatement(
+                "SELECT id FROM familias WHERE id > ? ORDER BY id")) {
+            consulta.setLong(1, maximo);
+            try (ResultSet filas = consulta.executeQuery()) {
+                for (int i = 0; i < familias && filas.next(); i++) {
+                    ids[i] = filas.getLong(1);
+                }
+            }
+        }
+        conexion.commit();
+        return ids;
+    }
+
+    private void cargarAnimales(SessionFactory sessionFactory, long[] idsFamilias) {
+        double[] pesosAcogida = zipf(idsFamilias.length, 0.9);
+        int lotes = (animales + tamanoLote - 1) / tamanoLote;
+        AtomicInteger siguiente = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "generador-datos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(ejecutor.submit(() -> {
+                    try (Session session = sessionFactory.openSession()) {
+                        session.doWork(conexion -> {
+                            boolean autoCommit = conexion.getAutoCommit();
+                            conexion.setAutoCommit(false);
+                            try (PreparedStatement insercion = conexion.prepareStatement(
+                                    "INSERT INTO animales (nombre, tipo, años, detalles, estado, familia_id, fechaIngreso)"
+                                            + " VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                                for (int lote = siguiente.getAndIncrement(); lote < lotes; lote = siguiente.getAndIncrement()) {
+                                    cargarLote(conexion, insercion, lote, idsFamilias, pesosAcogida);
+                                }
+                            } finally {
+                                conexion.setAutoCommit(autoCommit);
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HibernateException("Carga de animales interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new HibernateException("No se pudieron generar los animales", e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private void cargarLote(Connection conexion, PreparedStatement insercion, int lote, long[] idsFamilias,
+                            double[] pesosAcogida) throws SQLException {
+        SplittableRandom aleatorio = aleatorio(lote);
+        Especies[] especies = Especies.values();
+        Estado[] estados = Estado.values();
+        int desde = lote * tamanoLote;
+        for (int i = desde; i < Math.min(desde + tamanoLote, animales); i++) {
+            Especies especie = especies[muestrear(aleatorio, PESOS_ESPECIE)];
+            Estado estado = estados[muestrear(aleatorio, PESOS_ESTADO)];
+            // Edad geométrica: la mayoría son jóvenes
+            int edad = Math.min(20, (int) (Math.log(1 - aleatorio.nextDouble()) / Math.log(0.75)));
+            insercion.setString(1, nombre(aleatorio));
+            insercion.setString(2, especie.name());
+            insercion.setInt(3, edad);
+            insercion.setString(4, elegir(aleatorio, RASGOS) + ", " + elegir(aleatorio, NOTAS) + " y " + elegir(aleatorio, NOTAS));
+            insercion.setString(5, estado.name());
+            boolean acogido = estado == Estado.ADOPTADO || estado == Estado.PROXIMAMENTE_EN_ACOGIDA
+                    || (estado == Estado.EN_REFUGIO && aleatorio.nextInt(10) == 0);
+            if (acogido) {
+                insercion.setLong(6, idsFamilias[muestrear(aleatorio, pesosAcogida)]);
+            } else {
+                insercion.setNull(6, Types.BIGINT);
+            }
+            insercion.setTimestamp(7, Timestamp.valueOf(REFERENCIA.minusMinutes(aleatorio.nextInt(5 * 365 * 24 * 60))));
+            insercion.addBatch();
+        }
+        insercion.executeBatch();
+        conexion.commit();
+    }
+
+    /**
+     * Generador del lote indicado, derivado de la semilla con la función de mezcla de SplitMix64.
+     */
+    private SplittableRandom aleatorio(long lote) {
+        long z = semilla + (lote + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    private static String nombre(SplittableRandom aleatorio) {
+        StringBuilder nombre = new StringBuilder();
+        for (int i = 2 + aleatorio.nextInt(2); i > 0; i--) {
+            nombre.append(elegir(aleatorio, SILABAS));
+        }
+        nombre.setCharAt(0, Character.toUpperCase(nombre.charAt(0)));
+        return nombre.toString();
+    }
+
+    private static String elegir(SplittableRandom aleatorio, String[] valores) {
+        return valores[aleatorio.nextInt(valores.length)];
+    }
+
+    /**
+     * Pesos acumulados de una distribución de Zipf sobre {@code n} elementos.
+     */
+    private static double[] zipf(int n, double exponente) {
+        double[] acumulados = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1 / Math.pow(k + 1, exponente);
+            acumulados[k] = total;
+        }
+        return acumulados;
+    }
+
+    /**
+     * Elige un índice con probabilidad proporcional a su peso, a partir de los pesos acumulados.
+     */
+    private static int muestrear(SplittableRandom aleatorio, double[] acumulados) {
+        double objetivo = aleatorio.nextDouble() * acumulados[acumulados.length - 1];
+        int posicion = Arrays.binarySearch(acumulados, objetivo);
+        return Math.min(posicion >= 0 ? posicion + 1 : -posicion - 1, acumulados.length - 1);
+    }
+
+    private static double[] acumular(double... pesos) {
+        Arrays.parallelPrefix(pesos, Double::sum);
+        return pesos;
+    }
+
+    private static long maximoId(Connection conexion, String tabla) throws SQLException {
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet fila = sentencia.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            fila.next();
+            return fila.getLong(1);
+        }
+    }
+
+    /**
+     * Carga un refugio sintético en la base de datos configurada en hibernate.cfg.xml.
+     *
+     * @param args Número de animales, número de familias y semilla (por defecto 1000000, 20000 y 42).
+     */
+    public static void main(String[] args) {
+        int animales = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int familias = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        try {
+            Duration duracion = new GeneradorDatos(semilla).animales(animales).familias(familias)
+                    .cargar(HibernateUtil.getSessionFactory());
+            System.out.printf("%d animales y %d familias en %d ms (%.0f filas/s)%n", animales, familias,
+                    duracion.toMillis(), (animales + familias) / Math.max(0.001, duracion.toNanos() / 1e9));
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Mantiene una SessionFactory (con su propio pool de conexiones) por cada región del refugio,
+ * es decir, por cada base de datos {@code refugio} regional. Permite enrutar las operaciones
+ * a la región que corresponde a una ciudad y lanzar en paralelo una misma consulta
+ * sobre todas las regiones.
+ */
+public class GestorShards implements AutoCloseable {
+
+    private final Map<String, SessionFactory> factorias;
+    private final Map<String, String> regionPorCiudad;
+    private final String regionPorDefecto;
+    private final ExecutorService ejecutor;
+
+    /**
+     * Crea el gestor construyendo una SessionFactory por región.
+     *
+     * @param urlPorRegion URL JDBC de la base de datos de cada región, en el orden en que se combinarán los resultados.
+     * @param regionPorCiudad Región a la que pertenece cada ciudad.
+     * @param regionPorDefecto Región utilizada para las ciudades no registradas en {@code regionPorCiudad}.
+     * @throws IllegalArgumentException Si no hay regiones o la región por defecto no existe.
+     * @throws HibernateException Si no se puede construir alguna de las SessionFactory.
+     */
+    public GestorShards(Map<String, String> urlPorRegion, Map<String, String> regionPorCiudad, String regionPorDefecto) {
+        if (urlPorRegion.isEmpty() || !urlPorRegion.containsKey(regionPorDefecto)) {
+            throw new IllegalArgumentException("La región por defecto debe estar entre las regiones configuradas.");
+        }
+        Map<String, SessionFactory> creadas = new LinkedHashMap<>();
+        try {
+            urlPorRegion.forEach((region, url) ->
+                    creadas.put(region, HibernateUtil.crearSessionFactory(Map.of("hibernate.connection.url", url))));
+        } catch (HibernateException e) {
+            creadas.values().forEach(SessionFactory::close);
+            throw new HibernateException("No se pudieron inicializar las regiones del refugio", e);
+        }
+        this.factorias = Collections.unmodifiableMap(creadas);
+        Map<String, String> ciudades = new HashMap<>();
+        regionPorCiudad.forEach((ciudad, region) -> ciudades.put(normalizar(ciudad), region));
+        this.regionPorCiudad = ciudades;
+        this.regionPorDefecto = regionPorDefecto;
+        this.ejecutor = Executors.newFixedThreadPool(creadas.size(), tarea -> {
+            Thread hilo = new Thread(tarea, "shard-consulta");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Obtiene las regiones configuradas.
+     *
+     * @return Conjunto de regiones en el orden de configuración.
+     */
+    public Set<String> getRegiones() {
+        return factorias.keySet();
+    }
+
+    /**
+     * Obtiene la SessionFactory de una región.
+     *
+     * @param region Nombre de la región.
+     * @return La SessionFactory de la región.
+     * @throws IllegalArgumentException Si la región no existe.
+     */
+    public SessionFactory getSessionFactory(String region) {
+        SessionFactory factoria = factorias.get(region);
+        if (factoria == null) {
+            throw new IllegalArgumentException("Región desconocida: " + region);
+        }
+        return factoria;
+    }
+
+    /**
+     * Devuelve la región a la que pertenece una ciudad, sin distinguir mayúsculas.
+     *
+     * @param ciudad Ciudad de la familia.
+     * @return La región asignada o la región por defecto.
+     */
+    public String regionDeCiudad(String ciudad) {
+        if (ciudad == null) {
+            return regionPorDefecto;
+        }
+        return regionPorCiudad.getOrDefault(normalizar(ciudad), regionPorDefecto);
+    }
+
+    /**
+     * Ejecuta la consulta en paralelo sobre todas las regiones, cada una con su propia sesión,
+     * y concatena los resultados en el orden de las regiones.
+     *
+     * @param consulta Consulta a ejecutar con la sesión de cada región.
+     * @param <T> Tipo de los elementos devueltos.
+     * @return Resultados combinados de todas las regiones.
+     * @throws HibernateException Si la consulta falla en alguna región.
+     */
+    public <T> List<T> consultarTodas(Function<Session, List<T>> consulta) {
+        List<CompletableFuture<List<T>>> pendientes = new ArrayList<>(factorias.size());
+        for (Map.Entry<String, SessionFactory> region : factorias.entrySet()) {
+            pendientes.add(CompletableFuture.supplyAsync(() -> {
+                try (Session session = region.getValue().openSession()) {
+                    return consulta.apply(session);
+                } catch (HibernateException e) {
+                    throw new HibernateException("Error al consultar la región " + region.getKey(), e);
+                }
+            }, ejecutor));
+        }
+        List<T> resultado = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> pendiente : pendientes) {
+                resultado.addAll(pendiente.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof HibernateException) {
+                throw (HibernateException) e.getCause();
+            }
+            throw e;
+        }
+        return resultado;
+    }
+
+    /**
+     * Cierra todas las SessionFactory regionales y el ejecutor de consultas.
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+        factorias.values().forEach(SessionFactory::close);
+    }
+
+    private static String normalizar(String ciudad) {
+        return ciudad.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.hibernate.reactive.provider.ReactiveServiceRegistryBuilder;
+import org.hibernate.reactive.provider.Settings;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Construye la SessionFactory reactiva (Hibernate Reactive sobre el cliente SQL de Vert.x)
+ * con la misma configuración y las mismas entidades que {@link HibernateUtil}.
+ * Las conexiones se obtienen de un pool de Vert.x configurado por {@link ConfiguracionPoolReactivo}.
+ */
+public class HibernateReactivoUtil {
+
+    private static volatile Mutiny.SessionFactory sessionFactory;
+
+    private HibernateReactivoUtil() {}
+
+    /**
+     * Obtiene la SessionFactory reactiva compartida, creándola en el primer uso.
+     *
+     * @return La SessionFactory reactiva configurada en hibernate.cfg.xml.
+     * @throws HibernateException Si no se puede construir la SessionFactory.
+     */
+    public static Mutiny.SessionFactory getSessionFactory() {
+        if (sessionFactory == null) {
+            synchronized (HibernateReactivoUtil.class) {
+                if (sessionFactory == null) {
+                    sessionFactory = crearSessionFactory(Collections.emptyMap());
+                }
+            }
+        }
+        return sessionFactory;
+    }
+
+    /**
+     * Construye una nueva SessionFactory reactiva.
+     *
+     * @param propiedades Propiedades de Hibernate que sobrescriben la configuración, p. ej. la URL de conexión.
+     * @return Una nueva SessionFactory reactiva.
+     * @throws HibernateException Si no se puede construir la SessionFactory.
+     */
+    public static Mutiny.SessionFactory crearSessionFactory(Map<String, String> propiedades) {
+        Configuration configuracion = HibernateUtil.crearConfiguracion(propiedades);
+        if (configuracion.getProperty(Settings.SQL_CLIENT_POOL_CONFIG) == null) {
+            configuracion.setProperty(Settings.SQL_CLIENT_POOL_CONFIG, ConfiguracionPoolReactivo.class.getName());
+        }
+        StandardServiceRegistry registro = new ReactiveServiceRegistryBuilder()
+                .applySettings(configuracion.getProperties())
+                .build();
+        return configuracion.buildSessionFactory(registro).unwrap(Mutiny.SessionFactory.class);
+    }
+
+    /**
+     * Cierra la SessionFactory reactiva compartida si se había creado.
+     */
+    public static void shutdown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+}
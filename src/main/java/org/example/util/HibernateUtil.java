@@ -1,10 +1,15 @@
 package org.example.util;
 
+import org.example.entities.DetallesComprimidos;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class HibernateUtil {
 
     private static final SessionFactory sessionFactory;
@@ -12,15 +17,62 @@ public class HibernateUtil {
     static {
         try {
             // Configuración de Hibernate a partir del archivo hibernate.cfg.xml
-            sessionFactory = new Configuration().configure().addAnnotatedClass(org.example.entities.Animales.class)
-                    .addAnnotatedClass(org.example.entities.Familia.class)
-                    .buildSessionFactory();
+            sessionFactory = crearSessionFactory(Collections.emptyMap());
 
         } catch (HibernateException e) {
             throw new ExceptionInInitializerError("Error al inicializar Hibernate: " + e.getMessage());
         }
     }
 
+    /**
+     * Construye una nueva SessionFactory a partir de la configuración del refugio.
+     *
+     * @param propiedades Propiedades de Hibernate que sobrescriben la configuración, p. ej. la URL de conexión.
+     * @return Una nueva SessionFactory con las entidades del refugio registradas.
+     * @throws HibernateException Si no se puede construir la SessionFactory.
+     * @see #crearConfiguracion(Map)
+     */
+    public static SessionFactory crearSessionFactory(Map<String, String> propiedades) {
+        return crearConfiguracion(propiedades).buildSessionFactory();
+    }
+
+    /**
+     * Prepara la configuración de Hibernate a partir de hibernate.cfg.xml. Las propiedades del sistema
+     * que empiezan por "hibernate." sustituyen a las del archivo (p. ej. para apuntar los tests a una
+     * base de datos embebida) y, por último, se aplican las propiedades recibidas. Si no se indica
+     * otro contenedor de beans, se registra uno que pasa a {@link DetallesComprimidos} su umbral
+     * ({@value DetallesComprimidos#UMBRAL}).
+     *
+     * @param propiedades Propiedades de Hibernate que sobrescriben la configuración.
+     * @return La configuración con las entidades del refugio registradas.
+     */
+    public static Configuration crearConfiguracion(Map<String, String> propiedades) {
+        Configuration configuracion = new Configuration().configure();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(nombre -> nombre.startsWith("hibernate."))
+                .forEach(nombre -> configuracion.setProperty(nombre, System.getProperty(nombre)));
+        propiedades.forEach(configuracion::setProperty);
+        // Los conversores de los detalles reciben el umbral de compresión de esta configuración
+        if (configuracion.getProperties().get(AvailableSettings.BEAN_CONTAINER) == null) {
+            configuracion.getProperties().put(AvailableSettings.BEAN_CONTAINER,
+                    new ContenedorConversores(DetallesComprimidos.umbral(configuracion.getProperties())));
+        }
+        return configuracion.addAnnotatedClass(org.example.entities.Animales.class)
+                .addAnnotatedClass(org.example.entities.Familia.class)
+                .addAnnotatedClass(org.example.entities.AnimalArchivado.class)
+                .addAnnotatedClass(org.example.entities.AdjuntoAnimal.class)
+                .addAnnotatedClass(org.example.entities.TransicionEstado.class)
+                .addAnnotatedClass(org.example.entities.MarcaTransicion.class);
+    }
+
+    /**
+     * Obtiene la SessionFactory compartida por la aplicación.
+     * @return La SessionFactory configurada en hibernate.cfg.xml.
+     */
+    public static SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
     /**
      * Obtiene una sesión de Hibernate.
      * @return Una nueva sesión de Hibernate.
@@ -48,4 +100,3 @@ public class HibernateUtil {
         }
     }
 }
-
@@ -0,0 +1,91 @@
+package org.example.util;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Métricas de reutilización de consultas: la proporción de aciertos de la caché de planes HQL
+ * de Hibernate y, sobre MySQL, la de sentencias preparadas que se ejecutan sin volver a prepararse.
+ * Activa las estadísticas de la SessionFactory al crearse, así que la caché de planes solo se mide
+ * desde entonces; la configuración no las activa para no pagar su coste cuando nadie las consulta.
+ */
+public class MetricasCacheConsultas {
+
+    private final SessionFactory sessionFactory;
+
+    /**
+     * Constructor que recibe la SessionFactory cuyas métricas se consultan.
+     *
+     * @param sessionFactory Factoría de sesiones a medir.
+     */
+    public MetricasCacheConsultas(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        sessionFactory.getStatistics().setStatisticsEnabled(true);
+    }
+
+    /**
+     * Proporción de consultas cuyo plan se obtuvo de la caché de planes de Hibernate.
+     *
+     * @return Valor entre 0 y 1, o {@link Double#NaN} si todavía no se ha ejecutado ninguna consulta.
+     */
+    public double ratioPlanes() {
+        Statistics estadisticas = sessionFactory.getStatistics();
+        return ratio(estadisticas.getQueryPlanCacheHitCount(), estadisticas.getQueryPlanCacheMissCount());
+    }
+
+    /**
+     * Proporción de ejecuciones de sentencias preparadas en el servidor MySQL que no necesitaron
+     * una nueva preparación ({@code 1 - Com_stmt_prepare / Com_stmt_execute}). Se leen los
+     * contadores de sesión de una conexión del pool, que solo cuentan lo que esta aplicación ha
+     * ejecutado en ella; los globales mezclarían las sentencias de cualquier otro cliente del
+     * servidor. Como el pool reparte el trabajo entre conexiones parecidas, una es representativa.
+     *
+     * @return Valor entre 0 y 1, o {@link Double#NaN} si la base de datos no es MySQL o no hay ejecuciones.
+     */
+    public double ratioSentencias() {
+        if (!(sessionFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof MySQLDialect)) {
+            return Double.NaN;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            return session.doReturningWork(conexion -> {
+                long preparadas = 0;
+                long ejecutadas = 0;
+                // Statement simple: una sentencia preparada sumaría una preparación a los contadores que se leen
+                try (Statement consulta = conexion.createStatement();
+                     ResultSet filas = consulta.executeQuery(
+                             "SHOW SESSION STATUS WHERE Variable_name IN ('Com_stmt_prepare', 'Com_stmt_execute')")) {
+                    while (filas.next()) {
+                        if ("Com_stmt_prepare".equalsIgnoreCase(filas.getString(1))) {
+                            preparadas = filas.getLong(2);
+                        } else {
+                            ejecutadas = filas.getLong(2);
+                        }
+                    }
+                }
+                return ejecutadas == 0 ? Double.NaN : 1.0 - Math.min(1.0, (double) preparadas / ejecutadas);
+            });
+        }
+    }
+
+    /**
+     * Devuelve un resumen legible de ambas métricas.
+     *
+     * @return Cadena con los ratios de acierto de planes y de sentencias.
+     */
+    @Override
+    public String toString() {
+        return String.format("Caché de planes HQL: %.2f%%, sentencias preparadas reutilizadas: %.2f%%",
+                ratioPlanes() * 100, ratioSentencias() * 100);
+    }
+
+    private static double ratio(long aciertos, long fallos) {
+        long total = aciertos + fallos;
+        return total == 0 ? Double.NaN : (double) aciertos / total;
+    }
+}
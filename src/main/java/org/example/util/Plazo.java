@@ -0,0 +1,164 @@
+package org.example.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plazo máximo de una operación sobre la base de datos, con cancelación desde otro hilo. Mientras
+ * un plazo está activo en un hilo, {@link ConexionesInstrumentadas} lo traslada a cada sentencia
+ * JDBC que ese hilo ejecuta: comprueba antes si se ha agotado o cancelado, fija el
+ * {@link Statement#setQueryTimeout timeout de la sentencia} y el tiempo máximo de espera por
+ * bloqueos de la conexión con el tiempo restante, y registra la sentencia en curso para que
+ * {@link #cancelar()} pueda interrumpirla.
+ * <p>
+ * Un plazo activado dentro de otro nunca termina después que el exterior.
+ *
+ * <pre>
+ * Plazo plazo = Plazo.de(Duration.ofSeconds(2));
+ * List&lt;Animales&gt; animales = plazo.ejecutar(() -&gt; dao.buscarPorDescripcion("%tranquilo%"));
+ * </pre>
+ */
+public final class Plazo {
+
+    private static final Logger LOG = Logger.getLogger(Plazo.class.getName());
+
+    private static final ThreadLocal<Plazo> ACTUAL = new ThreadLocal<>();
+
+    private final long finNanos;
+    private volatile boolean cancelado;
+    private final Set<Statement> enCurso = ConcurrentHashMap.newKeySet();
+
+    private Plazo(long finNanos) {
+        this.finNanos = finNanos;
+    }
+
+    /**
+     * Crea un plazo que vence dentro del tiempo indicado, o antes si vence antes el plazo activo
+     * en este hilo.
+     *
+     * @param duracion Tiempo máximo de la operación.
+     * @return El plazo, todavía sin activar.
+     */
+    public static Plazo de(Duration duracion) {
+        long fin = System.nanoTime() + duracion.toNanos();
+        Plazo exterior = ACTUAL.get();
+        return new Plazo(exterior != null && exterior.finNanos - fin < 0 ? exterior.finNanos : fin);
+    }
+
+    /**
+     * Obtiene el plazo activo en el hilo actual.
+     *
+     * @return El plazo activo, o {@code null} si no hay ninguno.
+     */
+    public static Plazo actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Activa el plazo en el hilo actual hasta que se cierre el ámbito devuelto.
+     *
+     * @return El ámbito que, al cerrarse, restaura el plazo anterior.
+     */
+    public Ambito activar() {
+        Plazo anterior = ACTUAL.get();
+        ACTUAL.set(this);
+        return () -> {
+            if (anterior != null) {
+                ACTUAL.set(anterior);
+            } else {
+                ACTUAL.remove();
+            }
+        };
+    }
+
+    /**
+     * Ejecuta una operación con este plazo activo.
+     *
+     * @param operacion Operación a ejecutar, normalmente una o varias llamadas a los DAOs.
+     * @param <T> Tipo del resultado.
+     * @return El resultado de la operación.
+     * @throws PlazoAgotadoException Si el plazo se agota o se cancela antes de alguna sentencia.
+     */
+    public <T> T ejecutar(Supplier<T> operacion) {
+        try (Ambito ambito = activar()) {
+            return operacion.get();
+        }
+    }
+
+    /**
+     * Cancela el plazo: las sentencias en curso se interrumpen y las siguientes ya no se ejecutan.
+     * Puede llamarse desde cualquier hilo.
+     */
+    public void cancelar() {
+        cancelado = true;
+        for (Statement sentencia : enCurso) {
+            try {
+                sentencia.cancel();
+            } catch (SQLException e) {
+                LOG.log(Level.FINE, "No se pudo cancelar la sentencia", e);
+            }
+        }
+    }
+
+    /**
+     * Indica si el plazo se ha cancelado.
+     *
+     * @return {@code true} si se ha llamado a {@link #cancelar()}.
+     */
+    public boolean cancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Tiempo que queda hasta el vencimiento.
+     *
+     * @return El tiempo restante, o {@link Duration#ZERO} si ya ha vencido.
+     */
+    public Duration restante() {
+        return Duration.ofNanos(Math.max(0, finNanos - System.nanoTime()));
+    }
+
+    /**
+     * Comprueba que el plazo sigue vigente.
+     *
+     * @throws PlazoAgotadoException Si el plazo ha vencido o se ha cancelado.
+     */
+    public void comprobar() {
+        if (cancelado) {
+            throw new PlazoAgotadoException("Operación cancelada");
+        }
+        if (finNanos - System.nanoTime() <= 0) {
+            throw new PlazoAgotadoException("Plazo agotado");
+        }
+    }
+
+    void registrar(Statement sentencia) {
+        enCurso.add(sentencia);
+        if (cancelado) {
+            cancelar();
+        }
+    }
+
+    void retirar(Statement sentencia) {
+        enCurso.remove(sentencia);
+    }
+
+    /**
+     * Ámbito en el que un plazo está activo.
+     */
+    @FunctionalInterface
+    public interface Ambito extends AutoCloseable {
+
+        /**
+         * Restaura el plazo que estaba activo antes.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.util;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Se lanza cuando una operación con {@link Plazo} intenta ejecutar una sentencia después de que el
+ * plazo haya vencido o se haya cancelado.
+ */
+public class PlazoAgotadoException extends HibernateException {
+
+    /**
+     * Crea la excepción con el motivo indicado.
+     *
+     * @param mensaje Motivo: plazo vencido o cancelado.
+     */
+    public PlazoAgotadoException(String mensaje) {
+        super(mensaje);
+    }
+}
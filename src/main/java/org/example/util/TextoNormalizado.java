@@ -0,0 +1,32 @@
+package org.example.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma de comparación de los textos libres: sin tildes, en minúsculas y con los espacios
+ * simplificados. La comparten los índices de nombres, las firmas de duplicados y la búsqueda en los
+ * detalles comprimidos, de modo que todos consideran iguales los mismos textos.
+ */
+public final class TextoNormalizado {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private TextoNormalizado() {}
+
+    /**
+     * Normaliza un texto.
+     *
+     * @param texto Texto a normalizar; {@code null} se trata como vacío.
+     * @return El texto normalizado.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+}
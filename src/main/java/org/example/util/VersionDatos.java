@@ -0,0 +1,68 @@
+package org.example.util;
+
+import org.hibernate.SessionFactory;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versión en memoria de los datos del refugio, para los {@code ETag} de los listados. La avanzan los
+ * efectos posteriores a la confirmación de los DAOs, las transiciones de estado y el archivado, la
+ * carga de {@link GeneradorDatos} y las invalidaciones que llegan de otros nodos a la caché cercana.
+ * <p>
+ * Cada instancia empieza con una época aleatoria, de modo que una versión de antes de un reinicio
+ * o de otro nodo nunca coincide con la actual: en el peor caso se responde el listado completo en
+ * lugar de {@code 304}. Las escrituras de otros nodos sin caché cercana, las del DAO reactivo y las
+ * hechas directamente en la base de datos no la avanzan.
+ */
+public final class VersionDatos {
+
+    /** Versiones activas por SessionFactory; los DAOs solo las avanzan si existen. */
+    private static final Map<SessionFactory, VersionDatos> ACTIVAS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String epoca = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong generacion = new AtomicLong();
+
+    private VersionDatos() {}
+
+    /**
+     * Activa la versión de los datos de una SessionFactory. Si ya estaba activa, devuelve la existente.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return La versión de la factoría.
+     */
+    public static VersionDatos iniciar(SessionFactory sessionFactory) {
+        synchronized (ACTIVAS) {
+            return ACTIVAS.computeIfAbsent(sessionFactory, clave -> new VersionDatos());
+        }
+    }
+
+    /**
+     * Obtiene la versión activa de una SessionFactory.
+     *
+     * @param sessionFactory Factoría de sesiones del refugio.
+     * @return La versión, o {@code null} si no se ha activado.
+     */
+    public static VersionDatos de(SessionFactory sessionFactory) {
+        return ACTIVAS.get(sessionFactory);
+    }
+
+    /**
+     * Anota que los datos han cambiado.
+     */
+    public void avanzar() {
+        generacion.incrementAndGet();
+    }
+
+    /**
+     * Versión actual como {@code ETag} fuerte, con comillas.
+     *
+     * @return El {@code ETag}.
+     */
+    public String etag() {
+        return "\"" + epoca + "-" + generacion.get() + "\"";
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.DAO;
+
+import org.example.entities.AdjuntoAnimal;
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlmacenAdjuntosTest {
+
+    @TempDir
+    Path raiz;
+
+    @Test
+    void testDeduplicaYEnviaElContenido() throws Exception {
+        byte[] informe = "Vacunas al día; desparasitado en marzo".getBytes(StandardCharsets.UTF_8);
+        try (AlmacenAdjuntos almacen = new AlmacenAdjuntos(HibernateUtil.getSessionFactory(), raiz, 1, 4)) {
+            AdjuntoAnimal primero = almacen.guardar(1001L, "informe.txt", "text/plain",
+                    Channels.newChannel(new ByteArrayInputStream(informe)));
+            AdjuntoAnimal copia = almacen.guardar(1002L, "copia.txt", "text/plain",
+                    Channels.newChannel(new ByteArrayInputStream(informe)));
+
+            assertEquals(primero.getResumen(), copia.getResumen());
+            assertEquals(informe.length, primero.getTamaño());
+            try (var ficheros = Files.walk(raiz.resolve("contenido"))) {
+                assertEquals(1, ficheros.filter(Files::isRegularFile).count());
+            }
+            assertEquals(1, almacen.adjuntosDe(1002L).size());
+
+            ByteArrayOutputStream descarga = new ByteArrayOutputStream();
+            assertEquals(informe.length, almacen.enviar(copia, Channels.newChannel(descarga)));
+            assertArrayEquals(informe, descarga.toByteArray());
+
+            assertTrue(almacen.eliminar(primero.getId()));
+            assertTrue(Files.exists(almacen.ruta(copia.getResumen())));
+            assertTrue(almacen.eliminar(copia.getId()));
+            assertFalse(Files.exists(almacen.ruta(copia.getResumen())));
+        }
+    }
+
+    @Test
+    void testEliminarElAnimalEliminaSusAdjuntos() throws Exception {
+        byte[] ficha = "Ficha de entrada del refugio".getBytes(StandardCharsets.UTF_8);
+        try (AlmacenAdjuntos almacen = new AlmacenAdjuntos(HibernateUtil.getSessionFactory(), raiz, 1, 4);
+             Session session = HibernateUtil.getSessionFactory().openSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Animales animal = dao.guardar(new Animales("Copito", "Chinchilla", 2, "Pelaje gris"));
+            AdjuntoAnimal adjunto = almacen.guardar(animal.getId(), "ficha.txt", "text/plain",
+                    Channels.newChannel(new ByteArrayInputStream(ficha)));
+
+            assertTrue(dao.eliminarPorId(animal.getId()));
+            assertTrue(almacen.adjuntosDe(animal.getId()).isEmpty());
+            assertFalse(Files.exists(almacen.ruta(adjunto.getResumen())));
+        }
+    }
+
+    @Test
+    void testArchivarElAnimalConservaSusAdjuntos() throws Exception {
+        byte[] contrato = "Contrato de adopción firmado".getBytes(StandardCharsets.UTF_8);
+        Animales animal = new Animales("Ónix", "Petauro", 3, "Adoptada hace años");
+        try (AlmacenAdjuntos almacen = new AlmacenAdjuntos(HibernateUtil.getSessionFactory(), raiz, 1, 4)) {
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                Familia familia = new Familia("Arias", 41, "Cuenca");
+                animal.setEstado("ADOPTADO");
+                animal.setFamilia(familia);
+                animal.setFechaAdopcion(LocalDateTime.of(2015, 5, 1, 0, 0));
+                session.beginTransaction();
+                session.persist(familia);
+                session.persist(animal);
+                session.getTransaction().commit();
+            }
+            AdjuntoAnimal adjunto = almacen.guardar(animal.getId(), "contrato.txt", "text/plain",
+                    Channels.newChannel(new ByteArrayInputStream(contrato)));
+
+            try (ArchivadorAnimales archivador = new ArchivadorAnimales(HibernateUtil.getSessionFactory())) {
+                assertEquals(1, archivador.archivar(LocalDateTime.of(2016, 1, 1, 0, 0)));
+            }
+            assertEquals(List.of(adjunto.getId()),
+                    almacen.adjuntosDe(animal.getId()).stream().map(AdjuntoAnimal::getId).collect(Collectors.toList()));
+            assertTrue(Files.exists(almacen.ruta(adjunto.getResumen())));
+        }
+    }
+
+    @Test
+    void testSiNoSeGuardaElAdjuntoNoQuedaElFichero() throws Exception {
+        byte[] contenido = "Documento sin registrar".getBytes(StandardCharsets.UTF_8);
+        try (AlmacenAdjuntos almacen = new AlmacenAdjuntos(HibernateUtil.getSessionFactory(), raiz, 1, 4)) {
+            // El nombre no cabe en la columna, así que falla al persistirlo
+            assertThrows(HibernateException.class, () -> almacen.guardar(1004L, "x".repeat(300), "text/plain",
+                    Channels.newChannel(new ByteArrayInputStream(contenido))));
+            try (var ficheros = Files.walk(raiz)) {
+                assertEquals(0, ficheros.filter(Files::isRegularFile).count());
+            }
+        }
+    }
+
+    @Test
+    void testGeneraLaMiniaturaEnSegundoPlano() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(640, 320, BufferedImage.TYPE_INT_RGB), "png", png);
+        try (AlmacenAdjuntos almacen = new AlmacenAdjuntos(HibernateUtil.getSessionFactory(), raiz, 1, 4)) {
+            AdjuntoAnimal foto = almacen.guardar(1003L, "foto.png", "image/png",
+                    Channels.newChannel(new ByteArrayInputStream(png.toByteArray())));
+
+            Path miniatura = almacen.miniatura(foto).get(10, TimeUnit.SECONDS);
+            BufferedImage leida = ImageIO.read(miniatura.toFile());
+            assertEquals(AlmacenAdjuntos.LADO_MINIATURA, leida.getWidth());
+            assertEquals(AlmacenAdjuntos.LADO_MINIATURA / 2, leida.getHeight());
+        }
+    }
+}
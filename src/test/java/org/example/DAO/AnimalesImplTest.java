@@ -1,13 +1,19 @@
 package org.example.DAO;
 
 import org.example.entities.Animales;
+import org.example.entities.Familia;
 import org.example.util.HibernateUtil;
+import org.example.util.MaximoConsultas;
+import org.example.util.MaximoEntidades;
+import org.example.util.PresupuestoDAO;
 import org.hibernate.Session;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,6 +66,7 @@ class AnimalesImplTest {
 
 
     @Test
+    @MaximoConsultas(1)
     void testObtenerTodos() {
         session.beginTransaction();
         List<Animales> animales = animalesDao.obtenerTodos();
@@ -68,4 +75,84 @@ class AnimalesImplTest {
         assertNotNull(animales);
     }
 
-}
\ No newline at end of file
+    @Test
+    @MaximoConsultas(2)
+    @MaximoEntidades(6)
+    void testBuscarPorEspecieConFamilia(PresupuestoDAO.Medicion medicion) {
+        Familia perez = new Familia("Pérez", 40, "Cádiz");
+        Familia soto = new Familia("Soto", 33, "Huelva");
+        session.beginTransaction();
+        session.save(perez);
+        session.save(soto);
+        for (int i = 0; i < 4; i++) {
+            Animales animal = new Animales("Hurón " + i, "Hurón", 2, "Inquieto");
+            animal.setFamilia(i % 2 == 0 ? perez : soto);
+            session.save(animal);
+        }
+        session.getTransaction().commit();
+
+        try (Session otra = HibernateUtil.getSession()) {
+            medicion.reiniciar();
+
+            AnimalesImpl dao = new AnimalesImpl(otra);
+            List<Animales> animales = dao.buscarPorEspecie("Hurón", true);
+            animales.forEach(a -> assertNotNull(a.getFamilia().obtenerNombre()));
+
+            assertEquals(4, animales.size());
+            assertEquals(2, medicion.sentencias());
+
+            // Tras vaciar la sesión las familias se vuelven a cargar en bloque, no una a una
+            otra.clear();
+            medicion.reiniciar();
+            animales = dao.buscarPorEspecie("Hurón", true);
+            animales.forEach(a -> assertNotNull(a.getFamilia().obtenerNombre()));
+            assertEquals(2, medicion.sentencias());
+        }
+    }
+
+    @Test
+    void testEliminarPorIdsYPurgarAnteriores() {
+        List<Long> ids = new ArrayList<>();
+        session.beginTransaction();
+        for (int i = 0; i < 5; i++) {
+            Animales animal = new Animales("Tortuga " + i, "Tortuga", 60, "Muy tranquila");
+            animal.setFechaIngreso(LocalDateTime.of(1990, 1, 1, 0, 0).plusDays(i));
+            session.save(animal);
+            ids.add(animal.getId());
+        }
+        session.getTransaction().commit();
+        session.clear();
+
+        assertEquals(2, animalesDao.eliminarPorIds(List.of(ids.get(0), ids.get(1), ids.get(1))));
+        assertEquals(2, animalesDao.purgarAnterioresA(LocalDateTime.of(1990, 1, 5, 0, 0)));
+        assertEquals(1, animalesDao.buscarPorEspecie("Tortuga").size());
+    }
+
+    @Test
+    void testEliminarPorIdsSeUneALaTransaccionEnCurso() {
+        List<Long> ids = new ArrayList<>();
+        session.beginTransaction();
+        for (int i = 0; i < 3; i++) {
+            Animales animal = new Animales("Ajolote " + i, "Ajolote", 20, "Vive en el agua");
+            session.save(animal);
+            ids.add(animal.getId());
+        }
+        session.getTransaction().commit();
+        session.clear();
+
+        session.beginTransaction();
+        assertEquals(3, animalesDao.eliminarPorIds(ids));
+        assertTrue(session.getTransaction().isActive());
+        session.getTransaction().rollback();
+        session.clear();
+
+        assertEquals(3, animalesDao.buscarPorEspecie("Ajolote").size());
+    }
+
+    @Test
+    void testEliminarPorIdInexistenteNoDejaTransaccionAbierta() {
+        assertFalse(animalesDao.eliminarPorId(-1L));
+        assertFalse(session.getTransaction().isActive());
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.example.DAO;
+
+import org.example.entities.AnimalArchivado;
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchivadorAnimalesTest {
+
+    @Test
+    void testArchivarAdoptadosYBuscarIncluyendoArchivo() {
+        Animales adoptado = new Animales("Canela", "Chinchilla", 4, "Adoptada en 2019");
+        Animales enRefugio = new Animales("Pimienta", "Chinchilla", 2, "Espera familia");
+        Animales recienAdoptado = new Animales("Nuez", "Chinchilla", 6, "Ingresó en 2019, adoptada ahora");
+        try (Session session = HibernateUtil.getSession()) {
+            Familia familia = new Familia("Vidal", 36, "Soria");
+            adoptado.setFamilia(familia);
+            adoptado.setEstado("ADOPTADO");
+            assertNotNull(adoptado.getFechaAdopcion());
+            adoptado.setFechaIngreso(LocalDateTime.of(2019, 3, 1, 10, 0));
+            adoptado.setFechaAdopcion(LocalDateTime.of(2019, 6, 1, 10, 0));
+            enRefugio.setEstado("EN_REFUGIO");
+            enRefugio.setFechaIngreso(LocalDateTime.of(2019, 3, 1, 10, 0));
+            // Ingresó antes del límite pero se adopta ahora: todavía no está frío
+            recienAdoptado.setEstado("ADOPTADO");
+            recienAdoptado.setFamilia(familia);
+            recienAdoptado.setFechaIngreso(LocalDateTime.of(2019, 3, 1, 10, 0));
+            session.beginTransaction();
+            session.save(familia);
+            session.save(adoptado);
+            session.save(enRefugio);
+            session.save(recienAdoptado);
+            session.getTransaction().commit();
+        }
+
+        try (ArchivadorAnimales archivador = new ArchivadorAnimales(HibernateUtil.getSessionFactory())) {
+            assertEquals(1, archivador.archivar(LocalDateTime.of(2020, 1, 1, 0, 0)));
+        }
+
+        try (Session session = HibernateUtil.getSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            assertEquals(List.of(enRefugio, recienAdoptado), dao.buscarPorEspecie("Chinchilla"));
+
+            List<Animales> todos = dao.buscarPorEspecieIncluyendoArchivo("Chinchilla");
+            assertEquals(3, todos.size());
+            assertTrue(todos.contains(adoptado));
+            AnimalArchivado archivado = session.get(AnimalArchivado.class, adoptado.getId());
+            assertEquals(adoptado.getFamilia().obtenerId(), archivado.getFamiliaId());
+            assertNotNull(archivado.getFechaArchivo());
+            assertEquals(LocalDateTime.of(2019, 6, 1, 10, 0), archivado.getFechaAdopcion());
+        }
+    }
+}
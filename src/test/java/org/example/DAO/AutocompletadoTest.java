@@ -0,0 +1,63 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutocompletadoTest {
+
+    @Test
+    void testSugiereSinTildesYSeMantieneConLasEscrituras() {
+        try (Autocompletado autocompletado = Autocompletado.iniciar(HibernateUtil.getSessionFactory());
+             Session session = HibernateUtil.getSession()) {
+            AnimalesImpl animales = new AnimalesImpl(session);
+            FamiliaImpl familias = new FamiliaImpl(session);
+            Animales ramon = animales.guardar(new Animales("Ñúñez Ramón", "Perro", 3, "Tranquilo"));
+            Animales ramona = animales.guardar(new Animales("ñuñez ramona", "Gato", 2, "Dormilona"));
+            animales.guardar(new Animales("Ñuño", "Gato", 5, "Curioso"));
+            Familia familia = familias.registrar(new Familia("Ñúñez Álvarez", 50, "Soria"));
+
+            assertEquals(List.of("Ñúñez Ramón", "ñuñez ramona"), nombres(autocompletado.sugerirAnimales("NUNEZ r", 10)));
+            assertEquals(1, autocompletado.sugerirAnimales("ñuñez", 1).size());
+            assertEquals(List.of(familia.obtenerId()),
+                    autocompletado.sugerirFamilias("nunez alv", 5).stream().map(IndiceNombres.Sugerencia::getId).collect(Collectors.toList()));
+
+            ramona.setNombre("Ñúñez Otilia");
+            animales.actualizar(ramona);
+            animales.eliminarPorId(ramon.getId());
+            assertTrue(autocompletado.sugerirAnimales("nunez r", 10).isEmpty());
+            assertEquals(List.of("Ñúñez Otilia"), nombres(autocompletado.sugerirAnimales("nunez o", 10)));
+
+            familias.eliminarPorId(familia.obtenerId());
+            assertTrue(autocompletado.sugerirFamilias("nunez", 5).isEmpty());
+        }
+    }
+
+    @Test
+    void testNoSugiereSinPrefijoNiAntesDeConfirmar() {
+        try (Autocompletado autocompletado = Autocompletado.iniciar(HibernateUtil.getSessionFactory());
+             Session session = HibernateUtil.getSession()) {
+            FamiliaImpl familias = new FamiliaImpl(session);
+            familias.registrar(new Familia("Zubiría", 30, "Vitoria"));
+            assertTrue(autocompletado.sugerirFamilias(null, 5).isEmpty());
+            assertTrue(autocompletado.sugerirFamilias("  ", 5).isEmpty());
+
+            session.beginTransaction();
+            familias.registrar(new Familia("Zubizarreta", 40, "Bilbao"));
+            assertEquals(1, autocompletado.sugerirFamilias("zubi", 5).size());
+            session.getTransaction().rollback();
+            assertEquals(List.of("Zubiría"), nombres(autocompletado.sugerirFamilias("zubi", 5)));
+        }
+    }
+
+    private static List<String> nombres(List<IndiceNombres.Sugerencia> sugerencias) {
+        return sugerencias.stream().map(IndiceNombres.Sugerencia::getNombre).collect(Collectors.toList());
+    }
+}
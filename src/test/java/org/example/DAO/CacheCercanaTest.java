@@ -0,0 +1,131 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.BusInvalidaciones;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCercanaTest {
+
+    private static final String URL = "jdbc:h2:mem:cercana;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void testLaEscrituraEnUnNodoInvalidaLaCacheDelOtro() throws Exception {
+        InetSocketAddress local = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (SessionFactory nodoA = HibernateUtil.crearSessionFactory(Map.of(AvailableSettings.URL, URL, AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+             SessionFactory nodoB = HibernateUtil.crearSessionFactory(Map.of(AvailableSettings.URL, URL, AvailableSettings.HBM2DDL_AUTO, "none"));
+             BusInvalidaciones busA = new BusInvalidaciones(local, Duration.ofMillis(5));
+             BusInvalidaciones busB = new BusInvalidaciones(local, Duration.ofMillis(5))) {
+            busA.agregarNodo(busB.direccion());
+            busB.agregarNodo(busA.direccion());
+            CacheCercana cacheA = CacheCercana.iniciar(nodoA, busA, 1_000, Duration.ofMinutes(5));
+            CacheCercana cacheB = CacheCercana.iniciar(nodoB, busB, 1_000, Duration.ofMinutes(5));
+
+            Long id;
+            try (Session session = nodoA.openSession()) {
+                id = new AnimalesImpl(session).guardar(new Animales("Nube", "Chinchilla", 2, "Pelo muy denso")).getId();
+            }
+            assertEquals("Nube", cacheA.animal(id).getNombre());
+            assertEquals("Nube", cacheA.animal(id).getNombre());
+            assertEquals(1, cacheA.aciertos());
+            assertEquals("Nube", cacheB.animal(id).getNombre());
+
+            try (Session session = nodoB.openSession()) {
+                AnimalesImpl dao = new AnimalesImpl(session);
+                Animales animal = session.get(Animales.class, id);
+                for (int i = 1; i <= 50; i++) {
+                    animal.setNombre("Nube " + i);
+                    animal = dao.actualizar(animal);
+                }
+            }
+            assertEquals("Nube 50", cacheB.animal(id).getNombre());
+
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (busA.recibidas() == 0 && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            assertEquals("Nube 50", cacheA.animal(id).getNombre());
+            // Las 50 invalidaciones del mismo animal se funden en unas pocas
+            assertTrue(busB.datagramasEnviados() < 50, "datagramas: " + busB.datagramasEnviados());
+            cacheA.close();
+            cacheB.close();
+        }
+    }
+
+    @Test
+    void testLasEscriturasLocalesInvalidanLaCache() throws Exception {
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        try (BusInvalidaciones bus = new BusInvalidaciones(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Duration.ofMillis(5));
+             CacheCercana cache = CacheCercana.iniciar(sessionFactory, bus, 1_000, Duration.ofMinutes(5));
+             Session session = sessionFactory.openSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Animales animal = dao.guardar(new Animales("Canela", "Cobaya", 12, "Come mucho"));
+            assertEquals("Canela", cache.animal(animal.getId()).getNombre());
+
+            animal.setNombre("Canela II");
+            dao.actualizar(animal);
+            assertEquals("Canela II", cache.animal(animal.getId()).getNombre());
+
+            // Un hueco en la secuencia de un emisor lo invalida todo
+            cache.invalidarTodo();
+            long fallos = cache.fallos();
+            cache.animal(animal.getId());
+            assertEquals(fallos + 1, cache.fallos());
+        }
+    }
+
+    @Test
+    void testEscribirUnaFamiliaSoloInvalidaSusAnimalesAlConfirmar() throws Exception {
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        try (BusInvalidaciones bus = new BusInvalidaciones(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Duration.ofMillis(5));
+             CacheCercana cache = CacheCercana.iniciar(sessionFactory, bus, 1_000, Duration.ofMinutes(5));
+             Session session = sessionFactory.openSession()) {
+            Familia familia = new FamiliaImpl(session).registrar(new Familia("Familia Olmo", 40, "Soria"));
+            Animales acogido = new Animales("Trufa", "Degú", 13, "Duerme mucho");
+            acogido.setFamilia(familia);
+            Long acogidoId = new AnimalesImpl(session).guardar(acogido).getId();
+            Long otroId = new AnimalesImpl(session).guardar(new Animales("Pimienta", "Degú", 13, "Muerde los cordones")).getId();
+            cache.animal(acogidoId);
+            cache.animal(otroId);
+
+            // Registrar otra familia no vacía la caché de animales
+            long aciertos = cache.aciertos();
+            new FamiliaImpl(session).registrar(new Familia("Familia Roble", 35, "Soria"));
+            cache.animal(acogidoId);
+            cache.animal(otroId);
+            assertEquals(aciertos + 2, cache.aciertos());
+
+            // Dentro de una transacción ajena la invalidación espera a que se confirme
+            session.beginTransaction();
+            familia.asignarCiudad("Burgos");
+            new FamiliaImpl(session).modificar(familia);
+            assertEquals("Soria", cache.animal(acogidoId).getFamilia().obtenerCiudad());
+            session.getTransaction().commit();
+            long fallos = cache.fallos();
+            assertEquals("Burgos", cache.animal(acogidoId).getFamilia().obtenerCiudad());
+            assertEquals(fallos + 1, cache.fallos());
+            aciertos = cache.aciertos();
+            cache.animal(otroId);
+            assertEquals(aciertos + 1, cache.aciertos());
+
+            // Si se revierte, la caché no se toca
+            session.beginTransaction();
+            new FamiliaImpl(session).modificar(session.get(Familia.class, familia.obtenerId()));
+            session.getTransaction().rollback();
+            aciertos = cache.aciertos();
+            cache.animal(acogidoId);
+            assertEquals(aciertos + 1, cache.aciertos());
+        }
+    }
+}
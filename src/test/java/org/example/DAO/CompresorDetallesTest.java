@@ -0,0 +1,95 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.DetallesComprimidos;
+import org.example.util.CompresionTexto;
+import org.example.util.FirmaTrigramas;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompresorDetallesTest {
+
+    private static final String NOTA = "Encontrado en la carretera con bajo peso. Microchip colocado, desparasitación interna y externa. "
+            + "Analítica completa: leishmania negativo, filaria negativo, ehrlichia negativo. Displasia de cadera leve, "
+            + "tratamiento con antiinflamatorio durante diez días y revisión en la clínica veterinaria. Sociable con otros "
+            + "perros y con gatos, cariñoso y tranquilo en casa; sabe ir con correa y hace sus necesidades fuera. "
+            + "Vacunado de la rabia y polivalente. Castrado. Apto para piso con paseos largos.";
+
+    @Test
+    void testComprimeLosDetallesLargosYLosSigueEncontrando() {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:compresion;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        try (sessionFactory; Session session = sessionFactory.openSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Long largo = dao.guardar(new Animales("Nilo", "Perro", 6, NOTA)).getId();
+            Long corto = dao.guardar(new Animales("Kira", "Perro", 2, "Displasia de cadera leve")).getId();
+            session.beginTransaction();
+            session.createNativeMutationQuery("INSERT INTO animales (nombre, tipo, años, detalles) VALUES ('Lur', 'Perro', 8, :detalles)")
+                    .setParameter("detalles", NOTA.replace("Castrado", "Castrado en 2023"))
+                    .executeUpdate();
+            session.getTransaction().commit();
+
+            String guardado = detallesGuardados(session, largo);
+            assertTrue(CompresionTexto.comprimido(guardado));
+            assertTrue(guardado.length() < NOTA.length() / 2, "sin reducción suficiente: " + guardado.length());
+            assertEquals("Displasia de cadera leve", detallesGuardados(session, corto));
+            assertArrayEquals(FirmaTrigramas.de(NOTA), firmaGuardada(session, largo));
+            assertNull(firmaGuardada(session, corto));
+
+            try (CompresorDetalles compresor = new CompresorDetalles(sessionFactory)) {
+                assertEquals(1, compresor.comprimir());
+                assertEquals(0, compresor.comprimir());
+            }
+
+            session.clear();
+            assertEquals(NOTA, session.get(Animales.class, largo).getDetalles());
+            // La búsqueda encuentra los detalles comprimidos, por su firma, y los que no lo están
+            List<String> nombres = dao.buscarPorDescripcion("Displasia de cadera").stream()
+                    .map(Animales::getNombre).sorted().collect(Collectors.toList());
+            assertEquals(List.of("Kira", "Lur", "Nilo"), nombres);
+            assertEquals(1, dao.buscarPorDescripcion("Castrado en 2023").size());
+            assertEquals(List.of("Nilo"), dao.buscarPorDescripcion("castrado. apto").stream()
+                    .map(Animales::getNombre).collect(Collectors.toList()));
+            assertTrue(dao.buscarPorDescripcion("Displasia de codo").isEmpty());
+            assertTrue(dao.buscarPorDescripcion(guardado.substring(8, 16)).isEmpty());
+        }
+    }
+
+    @Test
+    void testElUmbralSeLeeDeLaConfiguracion() {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:compresion_umbral;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop",
+                DetallesComprimidos.UMBRAL, String.valueOf(NOTA.length() + 1)));
+        try (sessionFactory; Session session = sessionFactory.openSession()) {
+            Long id = new AnimalesImpl(session).guardar(new Animales("Nilo", "Perro", 6, NOTA)).getId();
+            assertEquals(NOTA, detallesGuardados(session, id));
+            assertNull(firmaGuardada(session, id));
+            try (CompresorDetalles compresor = new CompresorDetalles(sessionFactory)) {
+                assertEquals(0, compresor.comprimir());
+            }
+        }
+    }
+
+    private static byte[] firmaGuardada(Session session, Long id) {
+        return session.createNativeQuery("SELECT detalles_firma FROM animales WHERE id = :id", byte[].class)
+                .setParameter("id", id)
+                .uniqueResult();
+    }
+
+    private static String detallesGuardados(Session session, Long id) {
+        return session.createNativeQuery("SELECT detalles FROM animales WHERE id = :id", String.class)
+                .setParameter("id", id)
+                .uniqueResult();
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.DAO;
+
+import org.example.DAO.ControlAdmision.ClaseCarga;
+import org.example.entities.Animales;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlAdmisionTest {
+
+    @Test
+    void testInformesSaturadosNoBloqueanEscrituras() throws Exception {
+        ControlAdmision control = new ControlAdmision()
+                .limitar(ClaseCarga.INFORME, 1, Duration.ofSeconds(10), 0, Duration.ofSeconds(1));
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        CompletableFuture<Object> informe = CompletableFuture.supplyAsync(() -> control.ejecutar(ClaseCarga.INFORME, () -> {
+            dentro.countDown();
+            try {
+                return soltar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        try (Session session = HibernateUtil.getSession()) {
+            AnimalesInt dao = new AnimalesAdmision(new AnimalesImpl(session), control);
+            SobrecargaException rechazo = assertThrows(SobrecargaException.class, dao::obtenerTodos);
+            assertEquals(ClaseCarga.INFORME, rechazo.getClase());
+            assertNotNull(dao.guardar(new Animales("Admitido", "Coatí", 9, "Curioso")).getId());
+        } finally {
+            soltar.countDown();
+            informe.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, control.metricas(ClaseCarga.INFORME).getRechazadas());
+        assertEquals(1, control.metricas(ClaseCarga.ESCRITURA).getAdmitidas());
+    }
+
+    @Test
+    void testLaColaEsperaHastaAgotarElTiempo() throws Exception {
+        ControlAdmision control = new ControlAdmision()
+                .limitar(ClaseCarga.LECTURA, 1, Duration.ofSeconds(10), 4, Duration.ofMillis(100));
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        CompletableFuture<Object> ocupada = CompletableFuture.supplyAsync(() -> control.ejecutar(ClaseCarga.LECTURA, () -> {
+            dentro.countDown();
+            try {
+                return soltar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        long inicio = System.nanoTime();
+        assertThrows(SobrecargaException.class, () -> control.ejecutar(ClaseCarga.LECTURA, () -> "nunca"));
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(90));
+
+        soltar.countDown();
+        ocupada.get(5, TimeUnit.SECONDS);
+        assertEquals("ahora sí", control.ejecutar(ClaseCarga.LECTURA, () -> "ahora sí"));
+    }
+
+    @Test
+    void testLaLatenciaAltaReduceElLimite() {
+        ControlAdmision control = new ControlAdmision()
+                .limitar(ClaseCarga.LECTURA, 8, Duration.ofMillis(1), 8, Duration.ofSeconds(1));
+        int inicial = control.metricas(ClaseCarga.LECTURA).getLimite();
+        for (int i = 0; i < 3; i++) {
+            control.ejecutar(ClaseCarga.LECTURA, () -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+        }
+        ControlAdmision.Metricas metricas = control.metricas(ClaseCarga.LECTURA);
+        assertTrue(metricas.getLimite() < inicial, metricas.toString());
+        assertTrue(metricas.getLatenciaMedia().toMillis() >= 10, metricas.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectorDuplicadosTest {
+
+    @Test
+    void testMarcaDuplicadoAlGuardar() {
+        try (DetectorDuplicados detector = DetectorDuplicados.iniciar(HibernateUtil.getSessionFactory(), 0.6);
+             Session session = HibernateUtil.getSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Animales original = dao.guardar(new Animales("Bartolomé", "Galápago", 7,
+                    "Caparazón con una muesca en el lado izquierdo, come lechuga"));
+            Animales repetido = dao.guardar(new Animales("bartolome", "Galapago", 7,
+                    "Caparazón con una muesca en el lado izquierdo; come lechuga"));
+            Animales distinto = dao.guardar(new Animales("Sultán", "Galápago", 2,
+                    "Muy activo, duerme al sol toda la mañana"));
+
+            assertEquals(List.of(original.getId()), detector.marcados().get(repetido.getId()));
+            assertFalse(detector.marcados().containsKey(distinto.getId()));
+
+            dao.eliminarPorId(repetido.getId());
+            assertTrue(detector.buscarDuplicados(distinto).isEmpty());
+        }
+    }
+
+    @Test
+    void testAgruparSinCompararTodosLosPares() {
+        DetectorDuplicados detector = new DetectorDuplicados(0.6);
+        Random aleatorio = new Random(7);
+        List<Animales> animales = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            Animales animal = new Animales(palabra(aleatorio, 6), id % 2 == 0 ? "Perro" : "Gato", (int) (id % 15),
+                    palabra(aleatorio, 8) + " " + palabra(aleatorio, 10) + " " + palabra(aleatorio, 7));
+            animal.setId(id);
+            animales.add(animal);
+            detector.registrar(animal);
+        }
+        Animales original = animales.get(41);
+        Animales copia = new Animales(original.getNombre().toUpperCase(), original.getTipo(), original.getAños(),
+                original.getDetalles() + ".");
+        copia.setId(2001L);
+        detector.registrar(copia);
+
+        // Todos los pares serían unos dos millones; con LSH ni las altas ni la agrupación llegan a uno por animal
+        int n = animales.size() + 1;
+        long antes = detector.comparaciones();
+        assertTrue(antes < n, "Comparaciones al registrar: " + antes);
+        assertEquals(List.of(Set.of(42L, 2001L)), detector.agrupar());
+        long comparaciones = detector.comparaciones() - antes;
+        assertTrue(comparaciones < n, "Comparaciones al agrupar: " + comparaciones);
+    }
+
+    private static String palabra(Random aleatorio, int longitud) {
+        StringBuilder palabra = new StringBuilder();
+        for (int i = 0; i < longitud; i++) {
+            palabra.append((char) ('a' + aleatorio.nextInt(26)));
+        }
+        return palabra.toString();
+    }
+}
@@ -3,8 +3,10 @@ package org.example.DAO;
 import static org.junit.jupiter.api.Assertions.*;
 
 import org.example.DAO.FamiliaImpl;
+import org.example.entities.Animales;
 import org.example.entities.Familia;
 import org.example.util.HibernateUtil;
+import org.example.util.MaximoConsultas;
 import org.hibernate.Session;
 import org.junit.jupiter.api.*;
 
@@ -71,6 +73,7 @@ class FamiliaImplTest {
     }
 
     @Test
+    @MaximoConsultas(1)
     void testObtenerTodas() {
         session.beginTransaction();
         List<Familia> familias = familiaDao.obtenerTodas();
@@ -79,4 +82,23 @@ class FamiliaImplTest {
         assertNotNull(familias);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testEliminarPorIdsDejaAnimalesSinFamilia() {
+        Familia familia = new Familia("Ortega", 52, "Lugo");
+        Animales animal = new Animales("Nube", "Cobaya", 1, "Tímida");
+        animal.setFamilia(familia);
+        session.beginTransaction();
+        session.save(familia);
+        session.save(animal);
+        session.getTransaction().commit();
+        session.clear();
+
+        assertEquals(1, familiaDao.eliminarPorIds(List.of(familia.obtenerId()), false));
+
+        assertNull(session.get(Familia.class, familia.obtenerId()));
+        Animales resultado = session.get(Animales.class, animal.getId());
+        assertNotNull(resultado);
+        assertNull(resultado.getFamilia());
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroAnimalesTest {
+
+    @Test
+    void testFiltroCombinadoEnUnaConsulta() {
+        try (Session session = HibernateUtil.getSession()) {
+            Familia ourense = new Familia("Casal", 44, "Ourense");
+            Familia vigo = new Familia("Lema", 39, "Vigo");
+            session.beginTransaction();
+            session.save(ourense);
+            session.save(vigo);
+            for (int edad = 1; edad <= 6; edad++) {
+                Animales animal = new Animales("Loro " + edad, "Loro", edad, "Habla mucho");
+                animal.setEstado(edad % 2 == 0 ? "EN_REFUGIO" : "RECIEN_ABANDONADO");
+                animal.setFamilia(edad <= 4 ? ourense : vigo);
+                session.save(animal);
+            }
+            session.getTransaction().commit();
+        }
+
+        try (Session session = HibernateUtil.getSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Statistics estadisticas = session.getSessionFactory().getStatistics();
+            estadisticas.setStatisticsEnabled(true);
+            long sentencias = estadisticas.getPrepareStatementCount();
+
+            List<Animales> resultado = dao.buscar(new FiltroAnimales()
+                    .especie("Loro")
+                    .edadEntre(2, 6)
+                    .estado(Estado.EN_REFUGIO)
+                    .ciudad("Ourense")
+                    .ordenarPor(FiltroAnimales.Orden.EDAD, false));
+
+            assertEquals(List.of("Loro 4", "Loro 2"),
+                    resultado.stream().map(Animales::getNombre).collect(Collectors.toList()));
+            assertEquals(1, estadisticas.getPrepareStatementCount() - sentencias);
+
+            // Misma forma con otros valores, incluido el estado: el plan se reutiliza
+            long aciertos = estadisticas.getQueryPlanCacheHitCount();
+            assertEquals(1, dao.buscar(new FiltroAnimales()
+                    .especie("Loro")
+                    .edadEntre(5, 6)
+                    .estado(Estado.RECIEN_ABANDONADO)
+                    .ciudad("Vigo")
+                    .ordenarPor(FiltroAnimales.Orden.EDAD, false)).size());
+            assertTrue(estadisticas.getQueryPlanCacheHitCount() > aciertos);
+        }
+    }
+}
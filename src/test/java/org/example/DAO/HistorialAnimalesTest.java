@@ -0,0 +1,85 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorialAnimalesTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testRegistraLosCambiosDeEstadoYFamilia() throws Exception {
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        Instant inicio = Instant.now().minusSeconds(1);
+        Long id;
+        try (HistorialAnimales historial = HistorialAnimales.iniciar(sessionFactory, directorio);
+             Session session = sessionFactory.openSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            Animales animal = new Animales("Lenta", "Tortuga mora", 30, "Hiberna en invierno");
+            animal.setEstado("RECIEN_ABANDONADO");
+            id = dao.guardar(animal).getId();
+
+            Familia familia = new Familia("Navarro", 52, "Murcia");
+            session.beginTransaction();
+            session.persist(familia);
+            session.getTransaction().commit();
+            animal.setFamilia(familia);
+            animal.setEstado("ADOPTADO");
+            dao.actualizar(animal);
+            animal.setNombre("Lentita");
+            dao.actualizar(animal);
+
+            assertTrue(historial.sincronizar(Duration.ofSeconds(5)));
+            List<HistorialAnimales.Evento> eventos = new ArrayList<>();
+            historial.recorrer(inicio, Instant.now().plusSeconds(1), evento -> {
+                if (evento.getAnimalId() == id) {
+                    eventos.add(evento);
+                }
+            });
+            assertEquals(List.of(HistorialAnimales.TipoEvento.ALTA, HistorialAnimales.TipoEvento.ESTADO, HistorialAnimales.TipoEvento.FAMILIA),
+                    eventos.stream().map(HistorialAnimales.Evento::getTipo).collect(Collectors.toList()));
+            assertEquals(Estado.ADOPTADO, eventos.get(1).getEstado());
+            assertEquals(familia.obtenerId(), eventos.get(2).getFamiliaId());
+            assertEquals("Tortuga mora", eventos.get(2).getEspecie());
+
+            Map<String, Duration> medias = historial.tiempoMedio(Estado.RECIEN_ABANDONADO, Estado.ADOPTADO, inicio, Instant.now().plusSeconds(1));
+            assertTrue(medias.containsKey("Tortuga mora"), medias.toString());
+        }
+
+        // Al reabrir se recupera el diccionario de especies y se sigue añadiendo al mismo fichero
+        try (HistorialAnimales historial = HistorialAnimales.iniciar(sessionFactory, directorio)) {
+            historial.cambioEstado(id, "Tortuga mora", Estado.EN_REFUGIO);
+            assertTrue(historial.sincronizar(Duration.ofSeconds(5)));
+            List<HistorialAnimales.Evento> eventos = new ArrayList<>();
+            historial.recorrer(inicio, Instant.now().plusSeconds(1), eventos::add);
+            assertEquals(Estado.EN_REFUGIO, eventos.get(eventos.size() - 1).getEstado());
+            assertTrue(eventos.stream().allMatch(e -> !e.getEspecie().isEmpty()));
+
+            long bytes;
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                bytes = ficheros.mapToLong(f -> f.toFile().length()).sum();
+            }
+            // Diccionario aparte, cada evento ocupa unos pocos bytes
+            assertTrue(bytes < eventos.size() * 10L + 64, bytes + " bytes para " + eventos.size() + " eventos");
+        }
+    }
+}
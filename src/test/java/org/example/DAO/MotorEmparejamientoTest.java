@@ -0,0 +1,82 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MotorEmparejamientoTest {
+
+    @Test
+    void testMejoresAnimalesIncrementales() {
+        MotorEmparejamiento motor = new MotorEmparejamiento(2, "Burgos");
+        motor.agregarAnimal(animal(1L, "Perro", 1));
+        motor.agregarAnimal(animal(2L, "Gato", 12));
+
+        Familia joven = familia(10L, 35, "Burgos");
+        Familia mayor = familia(11L, 58, "Soria");
+        joven.agregarAnimal(animal(99L, "Perro", 4));
+        motor.agregarFamilia(joven);
+        motor.agregarFamilia(mayor);
+
+        // La familia que ya acoge perros y tiene la edad ideal para un cachorro lo prefiere
+        assertEquals(List.of(1L, 2L), motor.mejoresAnimales(10L));
+        assertEquals(2L, motor.mejorAnimal(11L));
+
+        // Un animal nuevo entra en las listas sin recalcular todo
+        motor.agregarAnimal(animal(3L, "Perro", 2));
+        assertEquals(List.of(1L, 3L), motor.mejoresAnimales(10L));
+
+        // Al retirar un animal, la familia que lo tenía recupera el siguiente
+        motor.retirarAnimal(1L);
+        assertEquals(List.of(3L, 2L), motor.mejoresAnimales(10L));
+        assertTrue(motor.mejoresAnimales(12L).isEmpty());
+    }
+
+    @Test
+    void testMuchasFamiliasEnParalelo() {
+        MotorEmparejamiento motor = new MotorEmparejamiento(3, "Teruel");
+        for (long id = 1; id <= 500; id++) {
+            motor.agregarAnimal(animal(id, id % 2 == 0 ? "Perro" : "Gato", (int) (id % 15)));
+        }
+        for (long id = 1; id <= 1000; id++) {
+            motor.agregarFamilia(familia(10_000 + id, 25 + (int) (id % 40), id % 3 == 0 ? "Teruel" : "Cuenca"));
+        }
+        motor.agregarAnimal(animal(501L, "Perro", 1));
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(3, motor.mejoresAnimales(10_000 + id).size());
+        }
+    }
+
+    @Test
+    void testCargarDesdeLaBaseDeDatos() {
+        try (Session session = HibernateUtil.getSession()) {
+            Familia familia = new Familia("Aguirre", 37, "Logroño");
+            Animales animal = new Animales("Trufa", "Conejo", 1, "Orejas largas");
+            session.beginTransaction();
+            session.save(familia);
+            session.save(animal);
+            session.getTransaction().commit();
+
+            MotorEmparejamiento motor = MotorEmparejamiento.cargar(session, 5, "Logroño");
+            assertTrue(motor.mejoresAnimales(familia.obtenerId()).contains(animal.getId()));
+        }
+    }
+
+    private static Animales animal(Long id, String tipo, int años) {
+        Animales animal = new Animales("Animal " + id, tipo, años, "");
+        animal.setId(id);
+        return animal;
+    }
+
+    private static Familia familia(Long id, int edad, String ciudad) {
+        Familia familia = new Familia("Familia " + id, edad, ciudad);
+        familia.asignarId(id);
+        return familia;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.util.ContadoresOcupacion;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcesadorLotesTest {
+
+    @Test
+    void testEjecutaElGuionPorTransaccionesYBuscaEnOrden() throws Exception {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:lotes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        StringBuilder guion = new StringBuilder("# Guion de prueba\n");
+        for (int i = 0; i < 25; i++) {
+            guion.append("animal;Gato ").append(i).append(";Gato;").append(i % 5).append(";En refugio\n");
+        }
+        guion.append("animal;Bruno;Perro;4;Recién abandonado;bruno\n")
+                .append("buscar;especie;Gato\n")
+                .append("familia;Prieto;38;Lugo;prieto\n")
+                .append("adoptar;bruno;prieto\n")
+                .append("\n")
+                .append("adoptar;bruno;noexiste\n")
+                .append("animal;Sin edad;Perro;mucha;Mal formada\n")
+                .append("buscar;edad;4\n")
+                .append("buscar;especie;Perro\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (sessionFactory;
+             PrintStream salida = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+             ProcesadorLotes procesador = new ProcesadorLotes(sessionFactory, 10, 3, salida)) {
+            ContadoresOcupacion contadores = ContadoresOcupacion.iniciar(sessionFactory);
+            ProcesadorLotes.Resumen resumen = procesador.ejecutar(new StringReader(guion.toString()));
+
+            assertEquals(33, resumen.getOrdenes());
+            assertEquals(28, resumen.getEscrituras());
+            assertEquals(3, resumen.getTransacciones());
+            assertEquals(3, resumen.getBusquedas());
+            assertEquals(2, resumen.getErrores());
+
+            String[] lineas = bytes.toString(StandardCharsets.UTF_8).split("\\R");
+            List<String> cabeceras = Arrays.stream(lineas).filter(l -> l.startsWith("línea")).collect(Collectors.toList());
+            assertEquals(5, cabeceras.size(), String.join("\n", lineas));
+            // Los errores de formato se informan al leer la línea; las búsquedas, tras confirmar las escrituras anteriores
+            assertTrue(cabeceras.get(0).startsWith("línea 32: error"));
+            assertTrue(cabeceras.get(1).startsWith("línea 33: error"));
+            assertEquals("línea 28: buscar especie Gato -> 25 animales", cabeceras.get(2));
+            assertEquals("línea 34: buscar edad 4 -> 6 animales", cabeceras.get(3));
+            assertEquals("línea 35: buscar especie Perro -> 1 animales", cabeceras.get(4));
+
+            try (Session session = sessionFactory.openSession()) {
+                Animales bruno = session.createQuery("FROM Animales WHERE nombre = 'Bruno'", Animales.class).uniqueResult();
+                assertEquals("Prieto", bruno.getFamilia().obtenerNombre());
+            }
+            // Bruno se registró y se adoptó en la misma transacción: cuenta una sola vez, en su ciudad de acogida
+            assertEquals(1, contadores.ocupacion("Perro", null, "Lugo"));
+            assertEquals(0, contadores.ocupacion("Perro", null, null));
+            assertEquals(25, contadores.ocupacion("Gato", null, null));
+        }
+    }
+
+    @Test
+    void testAdoptarUnAnimalDeOtraTransaccionConDetectorDuplicados() throws Exception {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:lotesduplicados;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        // Cada escritura en su transacción: al adoptar, el animal se lee de nuevo con los detalles sin cargar
+        String guion = "animal;Bruno;Perro;4;Recién abandonado;bruno\n"
+                + "familia;Prieto;38;Lugo;p\n"
+                + "adoptar;bruno;p\n"
+                + "buscar;especie;Perro\n";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (sessionFactory;
+             PrintStream salida = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+             ProcesadorLotes procesador = new ProcesadorLotes(sessionFactory, 1, 1, salida);
+             DetectorDuplicados detector = DetectorDuplicados.iniciar(sessionFactory, 0.6)) {
+            ProcesadorLotes.Resumen resumen = procesador.ejecutar(new StringReader(guion));
+
+            assertEquals(3, resumen.getEscrituras());
+            assertEquals(3, resumen.getTransacciones());
+            assertEquals(0, resumen.getErrores(), bytes.toString(StandardCharsets.UTF_8));
+            assertEquals(1, resumen.getBusquedas());
+            Animales otro = new Animales("bruno", "Perro", 4, "Recién abandonado");
+            assertEquals(1, detector.buscarDuplicados(otro).size());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Familia;
+import org.example.util.GestorShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefugioRegionalTest {
+
+    private GestorShards shards;
+    private RefugioRegional refugio;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> regiones = new LinkedHashMap<>();
+        regiones.put("norte", "jdbc:h2:mem:norte;DB_CLOSE_DELAY=-1");
+        regiones.put("sur", "jdbc:h2:mem:sur;DB_CLOSE_DELAY=-1");
+        shards = new GestorShards(regiones, Map.of("Bilbao", "norte", "Sevilla", "sur"), "norte");
+        refugio = new RefugioRegional(shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.close();
+    }
+
+    @Test
+    void testRegistrarFamiliaEnRutaPorCiudad() {
+        refugio.registrarFamilia(new Familia("Etxeberria", 40, "Bilbao"));
+        refugio.registrarFamilia(new Familia("Romero", 35, "sevilla"));
+
+        assertTrue(refugio.buscarFamiliasPorCiudad("Bilbao").stream()
+                .anyMatch(f -> f.obtenerNombre().equals("Etxeberria")));
+        assertTrue(refugio.enRegion("sur", s -> new FamiliaImpl(s).buscarPorCiudad("Bilbao")).isEmpty());
+        assertTrue(refugio.enRegion("sur", s -> new FamiliaImpl(s).buscarPorCiudad("sevilla")).stream()
+                .anyMatch(f -> f.obtenerNombre().equals("Romero")));
+    }
+
+    @Test
+    void testBuscarPorEspecieEnTodasLasRegiones() {
+        refugio.guardarAnimal("norte", new Animales("Rex", "Perro", 4, "Pastor"));
+        refugio.guardarAnimal("sur", new Animales("Luna", "Perro", 2, "Mestiza"));
+        refugio.guardarAnimal("sur", new Animales("Misi", "Gato", 1, "Atigrado"));
+
+        List<Animales> perros = refugio.buscarPorEspecie("Perro");
+
+        assertTrue(perros.stream().anyMatch(a -> a.getNombre().equals("Rex")));
+        assertTrue(perros.stream().anyMatch(a -> a.getNombre().equals("Luna")));
+        assertTrue(perros.stream().noneMatch(a -> a.getNombre().equals("Misi")));
+    }
+}
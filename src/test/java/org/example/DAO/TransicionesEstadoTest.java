@@ -0,0 +1,74 @@
+package org.example.DAO;
+
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.example.entities.MarcaTransicion;
+import org.example.entities.TransicionEstado;
+import org.example.util.GeneradorDatos;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransicionesEstadoTest {
+
+    @Test
+    void testAplicaLasReglasPorLotesYRegistraElHistorial() {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:transiciones;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        try (sessionFactory; Session session = sessionFactory.openSession()) {
+            new GeneradorDatos(7).familias(50).animales(8_000).cargar(sessionFactory);
+            long recienAbandonados = contar(session, Estado.RECIEN_ABANDONADO, "a.fechaIngreso < local datetime - 7 day");
+            long enRefugioConFamilia = contar(session, Estado.EN_REFUGIO, "a.familia IS NOT NULL");
+            assertTrue(recienAbandonados > AnimalesImpl.TAMANO_LOTE, "sin datos suficientes: " + recienAbandonados);
+
+            Animales reciente = new Animales("Reciente", "Erizo", 1, "Llegó ayer");
+            reciente.setEstado("RECIEN_ABANDONADO");
+            Animales acogido = new Animales("Acogido", "Erizo", 3, "Ya tiene familia");
+            acogido.setEstado("EN_REFUGIO");
+            Familia familia = new Familia("Ibáñez", 45, "Jaén");
+            acogido.setFamilia(familia);
+            session.beginTransaction();
+            session.persist(familia);
+            session.persist(reciente);
+            session.persist(acogido);
+            session.getTransaction().commit();
+
+            try (TransicionesEstado transiciones = new TransicionesEstado(sessionFactory, TransicionesEstado.reglasPorDefecto())) {
+                assertEquals(recienAbandonados + enRefugioConFamilia + 1, transiciones.aplicar());
+                // Una segunda ejecución no encuentra nada que cambiar
+                assertEquals(0, transiciones.aplicar());
+            }
+
+            session.clear();
+            assertEquals(Estado.RECIEN_ABANDONADO, session.get(Animales.class, reciente.getId()).getEstado());
+            assertEquals(Estado.PROXIMAMENTE_EN_ACOGIDA, session.get(Animales.class, acogido.getId()).getEstado());
+            List<TransicionEstado> historial = session.createNamedQuery(TransicionEstado.BUSCAR_POR_ANIMAL, TransicionEstado.class)
+                    .setParameter("animalId", acogido.getId())
+                    .list();
+            assertEquals(1, historial.size());
+            assertEquals(Estado.EN_REFUGIO, historial.get(0).getDesde());
+            assertEquals(Estado.PROXIMAMENTE_EN_ACOGIDA, historial.get(0).getHasta());
+            assertEquals("familia-asignada", historial.get(0).getRegla());
+
+            MarcaTransicion marca = session.get(MarcaTransicion.class, "ingreso-en-refugio");
+            assertEquals(0, marca.getUltimoId());
+            assertNotNull(marca.getUltimaEjecucion());
+        }
+    }
+
+    private static long contar(Session session, Estado estado, String condicion) {
+        return session.createQuery("SELECT COUNT(a) FROM Animales a WHERE a.estado = :estado AND " + condicion, Long.class)
+                .setParameter("estado", estado)
+                .getSingleResult();
+    }
+}
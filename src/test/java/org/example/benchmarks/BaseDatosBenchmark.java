@@ -0,0 +1,35 @@
+package org.example.benchmarks;
+
+import org.example.util.HibernateUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SessionFactory sobre una base de datos H2 en memoria para los benchmarks que no necesitan MySQL.
+ */
+final class BaseDatosBenchmark {
+
+    private BaseDatosBenchmark() {}
+
+    /**
+     * Crea una SessionFactory con el esquema recién creado en una base de datos propia.
+     *
+     * @param nombre Nombre de la base de datos en memoria.
+     * @param propiedades Propiedades de Hibernate adicionales.
+     * @return La SessionFactory.
+     */
+    static SessionFactory crear(String nombre, Map<String, String> propiedades) {
+        // Como en las pruebas: HibernateUtil crea al cargarse la SessionFactory compartida con estas propiedades
+        System.setProperty(AvailableSettings.DRIVER, "org.h2.Driver");
+        System.setProperty(AvailableSettings.URL, "jdbc:h2:mem:refugio;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        System.setProperty(AvailableSettings.SHOW_SQL, "false");
+        Map<String, String> configuracion = new HashMap<>(propiedades);
+        configuracion.put(AvailableSettings.URL, "jdbc:h2:mem:" + nombre + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        configuracion.put(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        return HibernateUtil.crearSessionFactory(configuracion);
+    }
+}
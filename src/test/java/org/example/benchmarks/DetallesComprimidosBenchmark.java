@@ -0,0 +1,135 @@
+package org.example.benchmarks;
+
+import org.example.DAO.AnimalesImpl;
+import org.example.entities.Animales;
+import org.example.entities.DetallesComprimidos;
+import org.example.util.CompresionTexto;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide lo que cuesta leer los detalles comprimidos con {@link DetallesComprimidos} frente a
+ * guardarlos sin comprimir ({@code umbral} máximo). Al preparar cada configuración se escriben los
+ * bytes medios por fila de {@code detalles}, de la firma de trigramas de {@code detalles_firma} y de
+ * las dos juntas, que es lo que ahorra de verdad la compresión; los benchmarks miden la búsqueda por
+ * especie leyendo los detalles de cada animal, la búsqueda por descripción, que solo descomprime
+ * los detalles que pasan el filtro de la firma, y la descompresión de una nota aislada.
+ *
+ * <p>Usa una base de datos H2 en memoria, así que no incluye la latencia de red que ahorran las
+ * filas más pequeñas.</p>
+ *
+ * <p>El proyecto no incluye el plugin exec: se compila con {@code mvn test-compile} y se ejecuta su
+ * {@code main}, que lanza JMH, con el classpath de pruebas:</p>
+ *
+ * <pre>mvn -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.benchmarks.DetallesComprimidosBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetallesComprimidosBenchmark {
+
+    private static final String[] FRASES = {
+            "Encontrado en la calle con bajo peso.", "Microchip colocado.", "Desparasitación interna y externa.",
+            "Analítica completa: leishmania negativo, filaria negativo.", "Displasia de cadera leve.",
+            "Tratamiento con antibiótico durante diez días y revisión en la clínica veterinaria.",
+            "Sociable con otros perros y con gatos.", "Cariñoso y tranquilo en casa.", "Sabe ir con correa.",
+            "Vacunado de la rabia y polivalente.", "Castrado.", "Apto para piso con paseos largos.",
+            "Miedoso con desconocidos al principio.", "Otitis tratada, pendiente de revisión.",
+            "Entregado por su familia anterior por cambio de domicilio."
+    };
+
+    @Param({"256", "2147483647"})
+    private int umbral;
+
+    @Param({"2000"})
+    private int animales;
+
+    private SessionFactory sessionFactory;
+    private String notaComprimida;
+
+    @Setup
+    public void preparar() {
+        sessionFactory = BaseDatosBenchmark.crear("detalles" + umbral, Map.of(DetallesComprimidos.UMBRAL, String.valueOf(umbral)));
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < animales; i++) {
+                session.persist(new Animales("Animal " + i, i % 2 == 0 ? "Perro" : "Gato", i % 15, nota(aleatorio)));
+                if (i % 100 == 99) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            session.getTransaction().commit();
+            Object[] bytesPorFila = session.createNativeQuery("SELECT AVG(CAST(OCTET_LENGTH(detalles) AS DOUBLE)),"
+                            + " AVG(CAST(COALESCE(OCTET_LENGTH(detalles_firma), 0) AS DOUBLE)) FROM animales", Object[].class)
+                    .uniqueResult();
+            double detalles = ((Number) bytesPorFila[0]).doubleValue();
+            double firma = ((Number) bytesPorFila[1]).doubleValue();
+            System.out.printf("%nUmbral %d: %.0f bytes por fila en detalles + %.0f en detalles_firma = %.0f%n",
+                    umbral, detalles, firma, detalles + firma);
+        }
+        notaComprimida = CompresionTexto.comprimir(nota(aleatorio));
+    }
+
+    @TearDown
+    public void cerrar() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public int buscarPorEspecieConDetalles() {
+        try (Session session = sessionFactory.openSession()) {
+            int caracteres = 0;
+            for (Animales animal : new AnimalesImpl(session).buscarPorEspecie("Perro")) {
+                caracteres += animal.getDetalles().length();
+            }
+            return caracteres;
+        }
+    }
+
+    @Benchmark
+    public List<Animales> buscarPorDescripcion() {
+        try (Session session = sessionFactory.openSession()) {
+            return new AnimalesImpl(session).buscarPorDescripcion("Otitis tratada");
+        }
+    }
+
+    @Benchmark
+    public String descomprimirNota() {
+        return CompresionTexto.descomprimir(notaComprimida);
+    }
+
+    /**
+     * Nota de entre 4 y 19 frases, de unos 150 a 1000 caracteres.
+     */
+    private static String nota(SplittableRandom aleatorio) {
+        StringBuilder nota = new StringBuilder();
+        int frases = 4 + aleatorio.nextInt(16);
+        for (int i = 0; i < frases; i++) {
+            nota.append(FRASES[aleatorio.nextInt(FRASES.length)]).append(' ');
+        }
+        return nota.toString().trim();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(DetallesComprimidosBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.benchmarks;
+
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la disposición de las entidades antes y después de cambiarla. {@link #main} mide
+ * primero la memoria que retiene cada fila cargada: carga {@value #FILAS} animales de una base de
+ * datos H2 en memoria y resta el heap ocupado, tras forzar la recolección, antes y después de la
+ * consulta, con el contexto de persistencia abierto y solo con las entidades. Después lanza el
+ * microbenchmark JMH de los accesores más utilizados con el perfilador de GC, que da los bytes
+ * asignados por operación ({@code gc.alloc.rate.norm}).
+ *
+ * <p>El proyecto no incluye el plugin exec: se compila con {@code mvn test-compile} y se ejecuta
+ * {@code main} con el classpath de pruebas:</p>
+ *
+ * <pre>mvn -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.example.benchmarks.EntidadesBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntidadesBenchmark {
+
+    /** Filas cargadas para medir la memoria retenida; suficientes para que el ruido del heap sea despreciable. */
+    private static final int FILAS = 20_000;
+
+    @Param({"1", "20"})
+    private int animalesPorFamilia;
+
+    private Familia familia;
+    private Animales animal;
+
+    @Setup
+    public void preparar() {
+        familia = new Familia("Gómez", 45, "Madrid");
+        for (int i = 0; i < animalesPorFamilia; i++) {
+            Animales a = new Animales("Animal " + i, "Perro", i % 15, "Detalles del animal " + i);
+            a.setId((long) i);
+            familia.agregarAnimal(a);
+        }
+        animal = new Animales("Toby", "Perro", 3, "Juguetón");
+        animal.setId((long) animalesPorFamilia);
+    }
+
+    @Benchmark
+    public List<Animales> obtenerAnimalesAcogidos() {
+        return familia.obtenerAnimalesAcogidos();
+    }
+
+    @Benchmark
+    public Estado estadoPorDescripcion() {
+        return Estado.obtenerEstadoPorDescripcion("Próximamente en acogida");
+    }
+
+    @Benchmark
+    public void agregarYRemoverAnimal() {
+        familia.agregarAnimal(animal);
+        familia.removerAnimal(animal);
+    }
+
+    /**
+     * Imprime los bytes de heap que retiene cada animal cargado con y sin contexto de persistencia.
+     */
+    static void medirHuella() {
+        try (SessionFactory sessionFactory = BaseDatosBenchmark.crear("huella", Map.of())) {
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                Familia acogida = null;
+                for (int i = 0; i < FILAS; i++) {
+                    if (i % 20 == 0) {
+                        acogida = new Familia("Familia " + i, 30 + i % 40, "Ciudad " + i % 50);
+                        session.persist(acogida);
+                    }
+                    Animales a = new Animales("Animal " + i, i % 2 == 0 ? "Perro" : "Gato", i % 15, "Detalles del animal " + i);
+                    a.setFamilia(acogida);
+                    session.persist(a);
+                    if (i % 100 == 99) {
+                        session.flush();
+                        session.clear();
+                    }
+                }
+                session.getTransaction().commit();
+            }
+            // Una primera carga descartada deja compilada la consulta y calentadas las cachés
+            try (Session session = sessionFactory.openSession()) {
+                session.createQuery("FROM Animales", Animales.class).list();
+            }
+            try (Session session = sessionFactory.openSession()) {
+                long base = heapUsado();
+                List<Animales> cargados = session.createQuery("FROM Animales", Animales.class).list();
+                long conContexto = heapUsado() - base;
+                session.clear();
+                long soloEntidades = heapUsado() - base;
+                Reference.reachabilityFence(cargados);
+                System.out.printf("%nMemoria retenida por fila (%d filas): %d bytes con el contexto de persistencia, %d bytes solo las entidades%n",
+                        cargados.size(), conContexto / cargados.size(), soloEntidades / cargados.size());
+            }
+        }
+    }
+
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        medirHuella();
+        Options opciones = new OptionsBuilder()
+                .include(EntidadesBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opciones).run();
+    }
+}
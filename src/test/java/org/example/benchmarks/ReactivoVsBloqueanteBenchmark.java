@@ -0,0 +1,98 @@
+package org.example.benchmarks;
+
+import io.smallrye.mutiny.Uni;
+import org.example.DAO.AnimalesImpl;
+import org.example.DAO.ReactiveAnimalesDAO;
+import org.example.entities.Animales;
+import org.example.util.HibernateReactivoUtil;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.reactive.mutiny.Mutiny;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el rendimiento de {@link AnimalesImpl} y {@link ReactiveAnimalesDAO} con la misma concurrencia:
+ * cada operación del benchmark lanza {@code concurrencia} búsquedas por especie y espera a que terminen todas.
+ * La versión bloqueante necesita un hilo por búsqueda en curso; la reactiva las lanza desde un único hilo.
+ *
+ * <p>Requiere la base de datos MySQL de hibernate.cfg.xml con datos cargados.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReactivoVsBloqueanteBenchmark {
+
+    @Param({"16", "256"})
+    private int concurrencia;
+
+    private SessionFactory bloqueante;
+    private ExecutorService hilos;
+    private Mutiny.SessionFactory reactiva;
+    private ReactiveAnimalesDAO reactivo;
+
+    @Setup
+    public void preparar() {
+        bloqueante = HibernateUtil.crearSessionFactory(Collections.emptyMap());
+        hilos = Executors.newFixedThreadPool(concurrencia);
+        reactiva = HibernateReactivoUtil.crearSessionFactory(Collections.emptyMap());
+        reactivo = new ReactiveAnimalesDAO(reactiva);
+    }
+
+    @TearDown
+    public void cerrar() {
+        hilos.shutdownNow();
+        bloqueante.close();
+        reactiva.close();
+    }
+
+    @Benchmark
+    public int bloqueante() throws Exception {
+        List<Future<List<Animales>>> pendientes = new ArrayList<>(concurrencia);
+        for (int i = 0; i < concurrencia; i++) {
+            pendientes.add(hilos.submit(() -> {
+                try (Session session = bloqueante.openSession()) {
+                    return new AnimalesImpl(session).buscarPorEspecie("Perro");
+                }
+            }));
+        }
+        int total = 0;
+        for (Future<List<Animales>> pendiente : pendientes) {
+            total += pendiente.get().size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int reactivo() {
+        List<Uni<List<Animales>>> pendientes = new ArrayList<>(concurrencia);
+        for (int i = 0; i < concurrencia; i++) {
+            pendientes.add(reactivo.buscarPorEspecie("Perro"));
+        }
+        return Uni.combine().all().unis(pendientes)
+                .with(resultados -> resultados.stream().mapToInt(r -> ((List<?>) r).size()).sum())
+                .await().indefinitely();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(ReactivoVsBloqueanteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.http;
+
+import org.example.DAO.AnimalesImpl;
+import org.example.entities.Animales;
+import org.example.util.HibernateUtil;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServidorRefugioTest {
+
+    private ServidorRefugio servidor;
+    private HttpClient cliente;
+    private String base;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        servidor = new ServidorRefugio(HibernateUtil.getSessionFactory(), 0, 20);
+        servidor.iniciar();
+        cliente = HttpClient.newHttpClient();
+        base = "http://localhost:" + servidor.getPuerto();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.detener();
+    }
+
+    @Test
+    void testAltaConsultaYEtag() throws Exception {
+        HttpResponse<String> alta = enviar(HttpRequest.newBuilder(URI.create(base + "/animales"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"nombre\":\"Kira\",\"tipo\":\"Perro\",\"años\":2,\"detalles\":\"Muy cariñosa\",\"estado\":\"EN_REFUGIO\"}")));
+        assertEquals(201, alta.statusCode());
+        assertTrue(alta.body().contains("\"nombre\":\"Kira\""));
+
+        HttpResponse<String> lista = enviar(HttpRequest.newBuilder(URI.create(base + "/animales?especie=Perro")).GET());
+        assertEquals(200, lista.statusCode());
+        assertTrue(lista.body().contains("Kira"));
+        String etag = lista.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> condicional = enviar(HttpRequest.newBuilder(URI.create(base + "/animales?especie=Perro"))
+                .header("If-None-Match", etag).GET());
+        assertEquals(304, condicional.statusCode());
+
+        // Una escritura que no pasa por el servidor también cambia el ETag
+        Matcher id = Pattern.compile("\"id\":(\\d+)").matcher(alta.body());
+        assertTrue(id.find());
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Animales kira = session.get(Animales.class, Long.valueOf(id.group(1)));
+            kira.setDetalles("Muy cariñosa y juguetona");
+            new AnimalesImpl(session).actualizar(kira);
+        }
+        HttpResponse<String> cambiada = enviar(HttpRequest.newBuilder(URI.create(base + "/animales?especie=Perro"))
+                .header("If-None-Match", etag).GET());
+        assertEquals(200, cambiada.statusCode());
+        assertNotEquals(etag, cambiada.headers().firstValue("ETag").orElseThrow());
+
+        assertEquals(404, enviar(HttpRequest.newBuilder(URI.create(base + "/familias/999999")).GET()).statusCode());
+        assertEquals(400, enviar(HttpRequest.newBuilder(URI.create(base + "/familias"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"nombre\":\"\"}"))).statusCode());
+    }
+
+    @Test
+    void testMilesDePeticionesConcurrentes() {
+        enviar(HttpRequest.newBuilder(URI.create(base + "/familias"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"nombre\":\"Ruiz\",\"edad\":40,\"ciudad\":\"Toledo\"}")));
+
+        List<CompletableFuture<HttpResponse<String>>> respuestas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String ruta = i % 2 == 0 ? "/familias?ciudad=Toledo" : "/animales";
+            respuestas.add(cliente.sendAsync(HttpRequest.newBuilder(URI.create(base + ruta)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        CompletableFuture.allOf(respuestas.toArray(new CompletableFuture[0])).join();
+
+        for (CompletableFuture<HttpResponse<String>> respuesta : respuestas) {
+            assertEquals(200, respuesta.join().statusCode());
+        }
+    }
+
+    private HttpResponse<String> enviar(HttpRequest.Builder peticion) {
+        return cliente.sendAsync(peticion.build(), HttpResponse.BodyHandlers.ofString()).join();
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.util;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.DAO.AnimalesImpl;
+import org.example.entities.Animales;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalisisJfrTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void testGrabaSesionesTransaccionesYSentencias() throws Exception {
+        Path fichero = directorio.resolve("persistencia.jfr");
+        try (Recording grabacion = new Recording()) {
+            for (String evento : List.of("Sesion", "ObtencionConexion", "Transaccion", "Flush", "Sentencia", "AccesoCache")) {
+                grabacion.enable(EventosPersistencia.PREFIJO + evento).withThreshold(Duration.ZERO);
+            }
+            grabacion.start();
+            try (Session session = HibernateUtil.getSession()) {
+                AnimalesImpl dao = new AnimalesImpl(session);
+                dao.guardar(new Animales("Grabado", "Axolote", 1, "Vive en el agua"));
+                dao.guardar(new Animales("Grabada", "Axolote", 2, "También vive en el agua"));
+                assertEquals(2, dao.buscarPorEspecie("Axolote").size());
+            }
+            grabacion.stop();
+            grabacion.dump(fichero);
+        }
+
+        List<RecordedEvent> eventos = RecordingFile.readAllEvents(fichero);
+        List<String> tipos = AnalisisJfr.porTipo(eventos).stream().map(AnalisisJfr.Total::getClave).collect(Collectors.toList());
+        assertTrue(tipos.containsAll(List.of("Sesion", "Transaccion", "Flush", "Sentencia")), tipos.toString());
+
+        AnalisisJfr.Total consulta = AnalisisJfr.sentenciasMasCostosas(eventos, 20).stream()
+                .filter(t -> t.getClave().toLowerCase().startsWith("select") && t.getClave().contains("tipo"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, consulta.getFilas());
+        assertTrue(eventos.stream().anyMatch(e -> e.getEventType().getName().endsWith("Transaccion") && e.getBoolean("confirmada")));
+    }
+
+    @Test
+    void testFormaUnificaListasYLiterales() {
+        assertEquals("delete from animales where id in (?, ...) and estado = ?",
+                AnalisisJfr.forma("delete from animales\n where id in (?, ?,?) and estado = 'ADOPTADO'"));
+        assertEquals(AnalisisJfr.forma("select a1_0.id from animales a1_0 where a1_0.años > 3"),
+                AnalisisJfr.forma("select a1_0.id from animales a1_0 where a1_0.años > 12"));
+    }
+}
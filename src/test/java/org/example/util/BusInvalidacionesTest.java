@@ -0,0 +1,75 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusInvalidacionesTest {
+
+    @Test
+    void testDetectaLaPerdidaDelUltimoYDelPrimerDatagrama() throws Exception {
+        InetSocketAddress local = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        AtomicInteger invalidadas = new AtomicInteger();
+        AtomicInteger totales = new AtomicInteger();
+        try (BusInvalidaciones bus = new BusInvalidaciones(local, Duration.ofSeconds(1));
+             DatagramChannel emisor = DatagramChannel.open()) {
+            bus.suscribir(new BusInvalidaciones.Oyente() {
+                @Override
+                public void invalidar(byte region, long id) {
+                    invalidadas.incrementAndGet();
+                }
+
+                @Override
+                public void invalidarTodo() {
+                    totales.incrementAndGet();
+                }
+            });
+
+            // El primer datagrama de un emisor nuevo y su latido no son huecos
+            emisor.send(datagrama(1, 1, 42), bus.direccion());
+            emisor.send(datagrama(1, 1), bus.direccion());
+            esperar(invalidadas::get, 1);
+            assertEquals(0, bus.huecos());
+
+            // Se pierde el datagrama 2: el latido siguiente ya lo anuncia
+            emisor.send(datagrama(1, 2), bus.direccion());
+            esperar(totales::get, 1);
+            assertEquals(1, bus.huecos());
+
+            // De otro emisor llega primero el datagrama 3: se perdieron los anteriores
+            emisor.send(datagrama(2, 3, 7), bus.direccion());
+            esperar(totales::get, 2);
+            assertEquals(2, bus.huecos());
+            esperar(invalidadas::get, 2);
+        }
+    }
+
+    /**
+     * Datagrama del emisor indicado con una entrada de la región 0 por identificador; sin
+     * identificadores es un latido.
+     */
+    private static ByteBuffer datagrama(long nodo, long secuencia, long... ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(22 + 9 * ids.length);
+        buffer.putInt(0x52465549).putLong(nodo).putLong(secuencia).putShort((short) ids.length);
+        for (long id : ids) {
+            buffer.put((byte) 0).putLong(id);
+        }
+        return buffer.flip();
+    }
+
+    private static void esperar(LongSupplier valor, long esperado) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (valor.getAsLong() < esperado && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(esperado, valor.getAsLong());
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.util;
+
+import org.example.DAO.AnimalesImpl;
+import org.example.entities.Animales;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConexionesReplicadasTest {
+
+    private static final String PRINCIPAL = "jdbc:h2:mem:principal;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private SessionFactory replica;
+    private SessionFactory enrutada;
+
+    @BeforeEach
+    void setUp() {
+        replica = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, REPLICA,
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        try (Session session = replica.openSession()) {
+            new AnimalesImpl(session).guardar(new Animales("Copia", "Gato", 2, "Solo en la réplica"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (enrutada != null) enrutada.close();
+        replica.close();
+    }
+
+    @Test
+    void testLecturasEnReplicaYEscriturasEnPrincipal() {
+        enrutada = crearEnrutada(REPLICA);
+        try (Session session = enrutada.openSession()) {
+            new AnimalesImpl(session).guardar(new Animales("Original", "Perro", 3, "Solo en la principal"));
+        }
+
+        try (Session session = enrutada.openSession()) {
+            assertEquals(List.of("Copia"), nombres(new AnimalesImpl(session).obtenerTodos()));
+        }
+
+        try (Session session = enrutada.openSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            // Tras escribir, la misma sesión lee de la principal y ve su propio cambio
+            dao.guardar(new Animales("Nuevo", "Perro", 1, "Recién llegado"));
+            List<String> trasEscribir = nombres(dao.obtenerTodos());
+            assertTrue(trasEscribir.contains("Original"));
+            assertTrue(trasEscribir.contains("Nuevo"));
+            assertFalse(trasEscribir.contains("Copia"));
+        }
+    }
+
+    @Test
+    void testReplicaCaidaSeExpulsa() {
+        String caida = "jdbc:h2:tcp://localhost:1/caida";
+        enrutada = crearEnrutada(caida);
+        try (Session session = enrutada.openSession()) {
+            new AnimalesImpl(session).guardar(new Animales("Original", "Perro", 3, "Solo en la principal"));
+        }
+
+        try (Session session = enrutada.openSession()) {
+            assertTrue(nombres(new AnimalesImpl(session).obtenerTodos()).contains("Original"));
+        }
+        ConexionesReplicadas proveedor = enrutada.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class)
+                .unwrap(ConexionesReplicadas.class);
+        assertTrue(proveedor.estaExpulsada(caida));
+    }
+
+    @Test
+    void testLecturasEnReplicaConProveedorInstrumentado() {
+        enrutada = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.CONNECTION_PROVIDER, ConexionesInstrumentadas.class.getName(),
+                ConexionesInstrumentadas.PROVEEDOR, ConexionesReplicadas.class.getName(),
+                ConexionesInstrumentadas.TIMEOUT_SENTENCIAS, "30000",
+                AvailableSettings.URL, PRINCIPAL,
+                ConexionesReplicadas.REPLICAS, REPLICA,
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        try (Session session = enrutada.openSession()) {
+            new AnimalesImpl(session).guardar(new Animales("Original", "Perro", 3, "Solo en la principal"));
+        }
+
+        try (Session session = enrutada.openSession()) {
+            assertEquals(List.of("Copia"), nombres(new AnimalesImpl(session).obtenerTodos()));
+        }
+        ConnectionProvider proveedor = enrutada.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        assertInstanceOf(ConexionesInstrumentadas.class, proveedor);
+        assertNotNull(proveedor.unwrap(ConexionesReplicadas.class));
+    }
+
+    private static SessionFactory crearEnrutada(String urlReplica) {
+        return HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.CONNECTION_PROVIDER, ConexionesReplicadas.class.getName(),
+                AvailableSettings.URL, PRINCIPAL,
+                ConexionesReplicadas.REPLICAS, urlReplica,
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+    }
+
+    private static List<String> nombres(List<Animales> animales) {
+        return animales.stream().map(Animales::getNombre).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.util;
+
+import io.vertx.mysqlclient.MySQLConnectOptions;
+import io.vertx.sqlclient.SqlConnectOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfiguracionPoolReactivoTest {
+
+    @Test
+    void testActivaElPipeliningSoloEnMySQL() {
+        ConfiguracionPoolReactivo configuracion = new ConfiguracionPoolReactivo();
+        configuracion.configure(Map.of(
+                AvailableSettings.USER, "refugio",
+                AvailableSettings.POOL_SIZE, "7",
+                ConfiguracionPoolReactivo.PIPELINING, "32"));
+
+        SqlConnectOptions mysql = configuracion.connectOptions(URI.create("mysql://localhost:3307/refugio"));
+        assertInstanceOf(MySQLConnectOptions.class, mysql);
+        assertEquals(32, ((MySQLConnectOptions) mysql).getPipeliningLimit());
+        assertEquals("refugio", mysql.getUser());
+        assertEquals("refugio", mysql.getDatabase());
+        assertEquals(7, configuracion.poolOptions().getMaxSize());
+
+        SqlConnectOptions postgres = configuracion.connectOptions(URI.create("postgresql://localhost:5432/refugio"));
+        assertFalse(postgres instanceof MySQLConnectOptions);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.util;
+
+import org.example.DAO.AnimalesImpl;
+import org.example.DAO.FamiliaImpl;
+import org.example.entities.Animales;
+import org.example.entities.Estado;
+import org.example.entities.Familia;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadoresOcupacionTest {
+
+    @Test
+    void testContadoresSeMantienenConLasEscrituras() {
+        try (ContadoresOcupacion contadores = ContadoresOcupacion.iniciar(HibernateUtil.getSessionFactory());
+             Session session = HibernateUtil.getSession()) {
+            AnimalesImpl animalesDao = new AnimalesImpl(session);
+            FamiliaImpl familiaDao = new FamiliaImpl(session);
+
+            Animales erizo = new Animales("Pincho", "Erizo", 1, "Nocturno");
+            erizo.setEstado("EN_REFUGIO");
+            animalesDao.guardar(erizo);
+            assertEquals(1, contadores.ocupacion("erizo", Estado.EN_REFUGIO, null));
+
+            Familia familia = familiaDao.registrar(new Familia("Prieto", 41, "Zamora"));
+            erizo.setFamilia(familia);
+            erizo.setEstado("PROXIMAMENTE_EN_ACOGIDA");
+            animalesDao.actualizar(erizo);
+            assertEquals(0, contadores.ocupacion("Erizo", Estado.EN_REFUGIO, null));
+            assertEquals(1, contadores.ocupacion("Erizo", Estado.PROXIMAMENTE_EN_ACOGIDA, "Zamora"));
+
+            familia.asignarCiudad("León");
+            familiaDao.modificar(familia);
+            assertEquals(0, contadores.ocupacion("Erizo", Estado.PROXIMAMENTE_EN_ACOGIDA, "Zamora"));
+            assertEquals(1, contadores.ocupacion("Erizo", Estado.PROXIMAMENTE_EN_ACOGIDA, "León"));
+
+            contadores.reconciliar();
+            assertEquals(1, contadores.ocupacion("Erizo", Estado.PROXIMAMENTE_EN_ACOGIDA, "León"));
+
+            animalesDao.eliminarPorId(erizo.getId());
+            assertEquals(0, contadores.ocupacion("Erizo", Estado.PROXIMAMENTE_EN_ACOGIDA, "León"));
+        }
+        assertNull(ContadoresOcupacion.de(HibernateUtil.getSessionFactory()));
+    }
+}
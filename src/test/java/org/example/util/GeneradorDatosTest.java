@@ -0,0 +1,50 @@
+package org.example.util;
+
+import org.example.entities.Estado;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorDatosTest {
+
+    @Test
+    void testMismaSemillaMismoContenidoConCualquierNumeroDeHilos() {
+        List<String> secuencial = generar("generador_uno", 1);
+        List<String> paralelo = generar("generador_cuatro", 4);
+
+        assertEquals(20_000, secuencial.size());
+        assertEquals(secuencial, paralelo);
+    }
+
+    private static List<String> generar(String baseDatos, int hilos) {
+        SessionFactory sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:" + baseDatos + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop"));
+        try (sessionFactory; Session session = sessionFactory.openSession()) {
+            new GeneradorDatos(2024).familias(300).animales(20_000).tamanoLote(1_000).hilos(hilos).cargar(sessionFactory);
+
+            List<Object[]> porEspecieYEstado = session.createQuery(
+                    "SELECT a.tipo, a.estado, COUNT(a) FROM Animales a GROUP BY a.tipo, a.estado", Object[].class).list();
+            assertEquals(7 * Estado.values().length, porEspecieYEstado.size());
+            assertEquals(0, session.createQuery(
+                    "SELECT COUNT(a) FROM Animales a WHERE a.estado = :estado AND a.familia IS NULL", Long.class)
+                    .setParameter("estado", Estado.ADOPTADO)
+                    .getSingleResult());
+
+            return session.createQuery("SELECT a.nombre, a.tipo, a.años, a.estado, a.fechaIngreso, f.nombre, f.ciudad"
+                            + " FROM Animales a LEFT JOIN a.familia f", Object[].class)
+                    .stream()
+                    .map(Arrays::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.util;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Número máximo de flushes de sesión durante el test. En una clase se aplica a todos sus tests.
+ *
+ * @see PresupuestoDAO
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PresupuestoDAO.class)
+public @interface MaximoFlushes {
+
+    /**
+     * Límite de flushes permitido.
+     *
+     * @return El máximo permitido.
+     */
+    long value();
+}
@@ -0,0 +1,25 @@
+package org.example.util;
+
+import org.example.DAO.AnimalesImpl;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricasCacheConsultasTest {
+
+    @Test
+    void testRatioPlanesTrasRepetirConsulta() {
+        MetricasCacheConsultas metricas = new MetricasCacheConsultas(HibernateUtil.getSessionFactory());
+        try (Session session = HibernateUtil.getSession()) {
+            AnimalesImpl dao = new AnimalesImpl(session);
+            dao.buscarPorEspecie("Perro");
+            dao.buscarPorEspecie("Gato");
+            dao.buscarPorEspecie("Perro");
+        }
+
+        assertTrue(metricas.ratioPlanes() > 0);
+        // H2 no es MySQL: no hay contadores de sentencias del servidor
+        assertTrue(Double.isNaN(metricas.ratioSentencias()));
+    }
+}
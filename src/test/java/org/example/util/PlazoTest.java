@@ -0,0 +1,88 @@
+package org.example.util;
+
+import jakarta.persistence.PersistenceException;
+import org.example.DAO.AnimalesImpl;
+import org.example.entities.Animales;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlazoTest {
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = HibernateUtil.crearSessionFactory(Map.of(
+                AvailableSettings.URL, "jdbc:h2:mem:plazos;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                AvailableSettings.HBM2DDL_AUTO, "create-drop",
+                ConexionesInstrumentadas.MAXIMO_TRANSACCION, "300"));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void testPlazoAgotadoNoEjecutaSentencias() {
+        try (Session session = sessionFactory.openSession()) {
+            Plazo plazo = Plazo.de(Duration.ZERO);
+            assertThrows(HibernateException.class, () -> plazo.ejecutar(() -> new AnimalesImpl(session).obtenerTodos()));
+
+            Plazo cancelado = Plazo.de(Duration.ofMinutes(1));
+            cancelado.cancelar();
+            assertThrows(HibernateException.class, () -> cancelado.ejecutar(() -> new AnimalesImpl(session).obtenerTodos()));
+            assertNull(Plazo.actual());
+        }
+    }
+
+    @Test
+    void testPlazoLimitaEsperaPorBloqueos() {
+        Long id;
+        try (Session session = sessionFactory.openSession()) {
+            id = new AnimalesImpl(session).guardar(new Animales("Bloqueado", "Iguana", 3, "Toma el sol")).getId();
+        }
+        try (Session duena = sessionFactory.openSession(); Session esperando = sessionFactory.openSession()) {
+            Transaction bloqueo = duena.beginTransaction();
+            duena.createNativeQuery("UPDATE animales SET nombre = 'Bloqueada' WHERE id = :id")
+                    .setParameter("id", id).executeUpdate();
+
+            long inicio = System.nanoTime();
+            Animales animal = esperando.get(Animales.class, id);
+            animal.setNombre("Esperando");
+            assertThrows(PersistenceException.class,
+                    () -> Plazo.de(Duration.ofMillis(200)).ejecutar(() -> new AnimalesImpl(esperando).actualizar(animal)));
+            assertTrue(Duration.ofNanos(System.nanoTime() - inicio).compareTo(Duration.ofSeconds(3)) < 0);
+            bloqueo.rollback();
+        }
+    }
+
+    @Test
+    void testVigilanteRevierteTransaccionesOlvidadas() throws InterruptedException {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction olvidada = session.beginTransaction();
+            session.save(new Animales("Olvidado", "Loro", 40, "Habla mucho"));
+            session.flush();
+            Thread.sleep(1_000);
+
+            assertThrows(HibernateException.class, olvidada::commit);
+            if (olvidada.isActive()) {
+                olvidada.rollback();
+            }
+        }
+        try (Session session = sessionFactory.openSession()) {
+            assertTrue(new AnimalesImpl(session).buscarPorEspecie("Loro").isEmpty());
+        }
+    }
+}
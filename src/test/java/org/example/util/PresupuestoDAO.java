@@ -0,0 +1,178 @@
+package org.example.util;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+/**
+ * Extensión de JUnit 5 que mide lo que hacen los DAOs durante un test y lo compara con un
+ * presupuesto: sentencias JDBC preparadas, entidades cargadas y flushes (de las {@link Statistics}
+ * de Hibernate) y bytes asignados por el hilo del test (del {@code ThreadMXBean} de la JVM). Se
+ * activa con {@link MaximoConsultas}, {@link MaximoEntidades}, {@link MaximoFlushes} o
+ * {@link MaximoBytesAsignados} y los valores medidos se publican en el informe de cada test.
+ * <p>
+ * La medición abarca el cuerpo del test. Si el test prepara datos antes de llamar al DAO, puede
+ * recibir una {@link Medicion} como parámetro y llamar a {@link Medicion#reiniciar()} justo antes
+ * de la parte que se quiere medir. Las estadísticas de Hibernate son de toda la SessionFactory, por
+ * lo que los tests con presupuesto no deben ejecutarse en paralelo con otros.
+ */
+public class PresupuestoDAO implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace ESPACIO = ExtensionContext.Namespace.create(PresupuestoDAO.class);
+
+    /**
+     * Medición en curso de un test.
+     */
+    public static final class Medicion {
+
+        private final Statistics estadisticas = HibernateUtil.getSessionFactory().getStatistics();
+        private final long hilo = Thread.currentThread().getId();
+        private long sentencias;
+        private long entidades;
+        private long flushes;
+        private long bytes;
+
+        Medicion() {
+            reiniciar();
+        }
+
+        /**
+         * Vuelve a empezar la medición desde este punto.
+         */
+        public void reiniciar() {
+            sentencias = estadisticas.getPrepareStatementCount();
+            entidades = estadisticas.getEntityLoadCount();
+            flushes = estadisticas.getFlushCount();
+            bytes = bytesAsignados(hilo);
+        }
+
+        /**
+         * Sentencias JDBC preparadas desde el inicio de la medición.
+         *
+         * @return El número de sentencias.
+         */
+        public long sentencias() {
+            return estadisticas.getPrepareStatementCount() - sentencias;
+        }
+
+        /**
+         * Entidades cargadas desde el inicio de la medición.
+         *
+         * @return El número de entidades.
+         */
+        public long entidades() {
+            return estadisticas.getEntityLoadCount() - entidades;
+        }
+
+        /**
+         * Flushes de sesión desde el inicio de la medición.
+         *
+         * @return El número de flushes.
+         */
+        public long flushes() {
+            return estadisticas.getFlushCount() - flushes;
+        }
+
+        /**
+         * Bytes asignados por el hilo del test desde el inicio de la medición.
+         *
+         * @return Los bytes asignados, o -1 si la JVM no permite medirlos.
+         */
+        public long bytes() {
+            long actuales = bytesAsignados(hilo);
+            return actuales < 0 ? -1 : actuales - bytes;
+        }
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext contexto) {
+        HibernateUtil.getSessionFactory().getStatistics().setStatisticsEnabled(true);
+        medicion(contexto).reiniciar();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext contexto) {
+        Medicion medicion = medicion(contexto);
+        long sentencias = medicion.sentencias();
+        long entidades = medicion.entidades();
+        long flushes = medicion.flushes();
+        long bytes = medicion.bytes();
+        contexto.publishReportEntry("sentencias", String.valueOf(sentencias));
+        contexto.publishReportEntry("entidades", String.valueOf(entidades));
+        contexto.publishReportEntry("flushes", String.valueOf(flushes));
+        contexto.publishReportEntry("bytes", String.valueOf(bytes));
+
+        List<String> excedidos = new ArrayList<>();
+        comprobar(contexto, MaximoConsultas.class, MaximoConsultas::value, sentencias, "sentencias", excedidos);
+        comprobar(contexto, MaximoEntidades.class, MaximoEntidades::value, entidades, "entidades cargadas", excedidos);
+        comprobar(contexto, MaximoFlushes.class, MaximoFlushes::value, flushes, "flushes", excedidos);
+        if (bytes >= 0) {
+            comprobar(contexto, MaximoBytesAsignados.class, MaximoBytesAsignados::value, bytes, "bytes asignados", excedidos);
+        }
+        if (!excedidos.isEmpty() && contexto.getExecutionException().isEmpty()) {
+            throw new AssertionFailedError("Presupuesto superado en " + contexto.getDisplayName() + ": " + String.join(", ", excedidos));
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parametro, ExtensionContext contexto) {
+        return parametro.getParameter().getType() == Medicion.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parametro, ExtensionContext contexto) {
+        return medicion(contexto);
+    }
+
+    private static Medicion medicion(ExtensionContext contexto) {
+        return contexto.getStore(ESPACIO).getOrComputeIfAbsent(Medicion.class, clase -> new Medicion(), Medicion.class);
+    }
+
+    private static <A extends Annotation> void comprobar(ExtensionContext contexto, Class<A> tipo, ToLongFunction<A> limite,
+                                                         long medido, String nombre, List<String> excedidos) {
+        buscar(contexto, tipo).ifPresent(anotacion -> {
+            long maximo = limite.applyAsLong(anotacion);
+            if (medido > maximo) {
+                excedidos.add(nombre + " " + medido + " > " + maximo);
+            }
+        });
+    }
+
+    /**
+     * Busca la anotación en el método y, si no la tiene, en la clase del test o sus clases externas.
+     */
+    private static <A extends Annotation> Optional<A> buscar(ExtensionContext contexto, Class<A> tipo) {
+        for (Optional<ExtensionContext> actual = Optional.of(contexto); actual.isPresent(); actual = actual.get().getParent()) {
+            Optional<AnnotatedElement> elemento = actual.get().getElement();
+            Optional<A> anotacion = elemento.flatMap(e -> AnnotationSupport.findAnnotation(e, tipo));
+            if (anotacion.isPresent()) {
+                return anotacion;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static long bytesAsignados(long hilo) {
+        java.lang.management.ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (hilos instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extendido = (com.sun.management.ThreadMXBean) hilos;
+            if (extendido.isThreadAllocatedMemorySupported() && extendido.isThreadAllocatedMemoryEnabled()) {
+                return extendido.getThreadAllocatedBytes(hilo);
+            }
+        }
+        return -1;
+    }
+}